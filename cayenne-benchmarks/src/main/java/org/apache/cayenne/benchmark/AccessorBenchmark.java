@@ -0,0 +1,123 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cayenne.reflect.Accessor;
+import org.apache.cayenne.reflect.BeanAccessor;
+import org.apache.cayenne.reflect.FieldAccessor;
+import org.apache.cayenne.reflect.LambdaBeanAccessor;
+import org.apache.cayenne.reflect.MethodHandleFieldAccessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares reflection-based property accessors with the {@link MethodHandleFieldAccessor} and
+ * {@link LambdaBeanAccessor} used by the runtime to read and write persistent properties.
+ *
+ * @since 4.1
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AccessorBenchmark {
+
+    Bean bean;
+    Accessor reflectionField;
+    Accessor methodHandleField;
+    Accessor reflectionBean;
+    Accessor lambdaBean;
+    int counter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        bean = new Bean();
+        reflectionField = new FieldAccessor(Bean.class, "name", String.class);
+        methodHandleField = new MethodHandleFieldAccessor(Bean.class, "name", String.class);
+        reflectionBean = new BeanAccessor(Bean.class, "name", String.class);
+        lambdaBean = new LambdaBeanAccessor(Bean.class, "name", String.class);
+        bean.setName("a");
+    }
+
+    @Benchmark
+    public Object fieldGet_Reflection() {
+        return reflectionField.getValue(bean);
+    }
+
+    @Benchmark
+    public Object fieldGet_MethodHandle() {
+        return methodHandleField.getValue(bean);
+    }
+
+    @Benchmark
+    public void fieldSet_Reflection() {
+        reflectionField.setValue(bean, (counter++ & 1) == 0 ? "a" : "b");
+    }
+
+    @Benchmark
+    public void fieldSet_MethodHandle() {
+        methodHandleField.setValue(bean, (counter++ & 1) == 0 ? "a" : "b");
+    }
+
+    @Benchmark
+    public Object beanGet_Reflection() {
+        return reflectionBean.getValue(bean);
+    }
+
+    @Benchmark
+    public Object beanGet_Lambda() {
+        return lambdaBean.getValue(bean);
+    }
+
+    @Benchmark
+    public void beanSet_Reflection() {
+        reflectionBean.setValue(bean, (counter++ & 1) == 0 ? "a" : "b");
+    }
+
+    @Benchmark
+    public void beanSet_Lambda() {
+        lambdaBean.setValue(bean, (counter++ & 1) == 0 ? "a" : "b");
+    }
+
+    public static class Bean {
+
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
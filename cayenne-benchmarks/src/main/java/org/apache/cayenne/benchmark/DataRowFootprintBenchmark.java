@@ -0,0 +1,90 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cayenne.CompactDataRow;
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.DataRowKeys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares creation of a regular hash-based {@link DataRow} with a {@link CompactDataRow}
+ * sharing {@link DataRowKeys}. Run with "-prof gc" to see allocated bytes per row
+ * ("gc.alloc.rate.norm"), which approximates the footprint of a cached snapshot.
+ *
+ * @since 4.1
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DataRowFootprintBenchmark {
+
+    @Param({"hash", "compact"})
+    public String format;
+
+    @Param({"10"})
+    public int columns;
+
+    String[] labels;
+    Object[] values;
+    DataRowKeys keys;
+    boolean compact;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        labels = new String[columns];
+        values = new Object[columns];
+        for (int i = 0; i < columns; i++) {
+            labels[i] = "COLUMN_" + i;
+            values[i] = i;
+        }
+
+        keys = new DataRowKeys(labels);
+        compact = "compact".equals(format);
+    }
+
+    @Benchmark
+    public DataRow createRow() {
+        DataRow row = compact
+                ? new CompactDataRow(keys)
+                : new DataRow((int) Math.ceil(columns / 0.75));
+
+        for (int i = 0; i < columns; i++) {
+            row.put(labels[i], values[i]);
+        }
+
+        return row;
+    }
+}
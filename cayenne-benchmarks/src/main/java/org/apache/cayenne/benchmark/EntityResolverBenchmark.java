@@ -0,0 +1,97 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cayenne.benchmark.persistent.Artist;
+import org.apache.cayenne.map.EntityResolver;
+import org.apache.cayenne.map.ObjEntity;
+import org.apache.cayenne.reflect.ClassDescriptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link EntityResolver} lookups done on every query and every new object, with
+ * a single thread and with 64 threads sharing the resolver. Includes lookups of unknown
+ * entities, which must not invalidate the mapping index used by the other threads.
+ *
+ * @since 4.1
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EntityResolverBenchmark {
+
+    EntityResolver resolver;
+
+    @Setup(Level.Trial)
+    public void setUp(RuntimeState state) {
+        resolver = state.getRuntime().getChannel().getEntityResolver();
+    }
+
+    ObjEntity lookupByClass() {
+        return resolver.getObjEntity(Artist.class);
+    }
+
+    ClassDescriptor lookupDescriptor() {
+        return resolver.getClassDescriptor("Painting");
+    }
+
+    @Benchmark
+    public Object lookupByClass_1Thread() {
+        return lookupByClass();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public Object lookupByClass_64Threads() {
+        return lookupByClass();
+    }
+
+    @Benchmark
+    public Object lookupDescriptor_1Thread() {
+        return lookupDescriptor();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public Object lookupDescriptor_64Threads() {
+        return lookupDescriptor();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public Object lookupWithMisses_64Threads() {
+        return resolver.getObjEntity("NoSuchEntity") != null ? resolver : lookupByClass();
+    }
+}
@@ -0,0 +1,163 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.benchmark;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cayenne.benchmark.persistent.Artist;
+import org.apache.cayenne.benchmark.persistent.Painting;
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.exp.ExpressionFactory;
+import org.apache.cayenne.exp.parser.CompiledExpression;
+import org.apache.cayenne.query.Ordering;
+import org.apache.cayenne.query.SortOrder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures parsing of expression strings and in-memory evaluation of expressions and orderings over
+ * detached persistent objects, both interpreted and {@link Expression#compile() compiled}. Doesn't
+ * need a database.
+ *
+ * @since 4.1
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExpressionBenchmark {
+
+    static final String EXPRESSION = "artistName like 'artist1%' and dateOfBirth > $date";
+    static final String RELATIONSHIP_EXPRESSION = "toArtist.artistName = 'artist1' or paintingTitle in ('p1', 'p2', 'p3')";
+
+    @Param({"10000"})
+    public int objects;
+
+    // 0 measures parsing without the parse cache
+    @Param({"1000"})
+    public int parseCacheSize;
+
+    List<Artist> artists;
+    List<Painting> paintings;
+    Expression qualifier;
+    Expression relationshipQualifier;
+    CompiledExpression compiledQualifier;
+    CompiledExpression compiledRelationshipQualifier;
+    List<Ordering> orderings;
+
+    @Setup
+    public void setUp() {
+        ExpressionFactory.getParseCache().setMaxSize(parseCacheSize);
+
+        artists = new ArrayList<>(objects);
+        paintings = new ArrayList<>(objects);
+
+        Calendar calendar = new GregorianCalendar(1900, Calendar.JANUARY, 1);
+        for (int i = 0; i < objects; i++) {
+            Artist artist = new Artist();
+            artist.setArtistName("artist" + i);
+            artist.setDateOfBirth(calendar.getTime());
+            calendar.add(Calendar.DAY_OF_YEAR, 7);
+            artists.add(artist);
+
+            Painting painting = new Painting();
+            painting.setPaintingTitle("p" + i);
+            // detached objects can't maintain reverse relationships
+            painting.writePropertyDirectly(Painting.TO_ARTIST.getName(), artist);
+            paintings.add(painting);
+        }
+
+        Date date = new GregorianCalendar(1950, Calendar.JANUARY, 1).getTime();
+        qualifier = ExpressionFactory.exp(EXPRESSION).paramsArray(date);
+        relationshipQualifier = ExpressionFactory.exp(RELATIONSHIP_EXPRESSION);
+        compiledQualifier = qualifier.compile();
+        compiledRelationshipQualifier = relationshipQualifier.compile();
+        orderings = new ArrayList<>(2);
+        orderings.add(new Ordering(Artist.DATE_OF_BIRTH.getName(), SortOrder.DESCENDING));
+        orderings.add(new Ordering(Artist.ARTIST_NAME.getName(), SortOrder.ASCENDING_INSENSITIVE));
+
+        // shuffle once, so that sorting has real work to do
+        Collections.shuffle(artists, new Random(42));
+    }
+
+    @Benchmark
+    public Expression parse() {
+        return ExpressionFactory.exp(EXPRESSION);
+    }
+
+    @Benchmark
+    public Expression parseRelationship() {
+        return ExpressionFactory.exp(RELATIONSHIP_EXPRESSION);
+    }
+
+    @Benchmark
+    public boolean match() {
+        return qualifier.match(artists.get(0));
+    }
+
+    @Benchmark
+    public List<Artist> filterObjects() {
+        return qualifier.filterObjects(artists);
+    }
+
+    @Benchmark
+    public List<Painting> filterObjectsByRelationship() {
+        return relationshipQualifier.filterObjects(paintings);
+    }
+
+    @Benchmark
+    public boolean matchCompiled() {
+        return compiledQualifier.match(artists.get(0));
+    }
+
+    @Benchmark
+    public List<Artist> filterObjectsCompiled() {
+        return compiledQualifier.filterObjects(artists);
+    }
+
+    @Benchmark
+    public List<Painting> filterObjectsByRelationshipCompiled() {
+        return compiledRelationshipQualifier.filterObjects(paintings);
+    }
+
+    @Benchmark
+    public List<Artist> orderList() {
+        List<Artist> copy = new ArrayList<>(artists);
+        Ordering.orderList(copy, orderings);
+        return copy;
+    }
+}
@@ -0,0 +1,125 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.Persistent;
+import org.apache.cayenne.access.ObjectMapRetainStrategy;
+import org.apache.cayenne.access.ObjectStore;
+import org.apache.cayenne.access.StripedObjectStore;
+import org.apache.cayenne.benchmark.persistent.Artist;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares a regular synchronized {@link ObjectStore} with a {@link StripedObjectStore}
+ * shared by 8, 16 and 32 threads on a read-mostly workload (95% node lookups, 5% node
+ * registrations). "stripes" of zero selects the regular ObjectStore.
+ *
+ * @since 4.1
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ObjectStoreConcurrencyBenchmark {
+
+    static final int WRITE_PERCENT = 5;
+
+    @Param({"0", "32"})
+    public int stripes;
+
+    @Param({"10000"})
+    public int objects;
+
+    ObjectStore objectStore;
+    ObjectId[] ids;
+    Persistent[] nodes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ObjectMapRetainStrategy retainStrategy = new ObjectMapRetainStrategy() {
+            @Override
+            public Map<Object, Persistent> createObjectMap() {
+                return new HashMap<>();
+            }
+        };
+
+        objectStore = stripes > 0
+                ? new StripedObjectStore(null, retainStrategy, stripes)
+                : new ObjectStore(null, retainStrategy.createObjectMap());
+
+        ids = new ObjectId[objects];
+        nodes = new Persistent[objects];
+        for (int i = 0; i < objects; i++) {
+            ids[i] = new ObjectId("Artist", "ID", i);
+            nodes[i] = new Artist();
+            nodes[i].setObjectId(ids[i]);
+            objectStore.registerNode(ids[i], nodes[i]);
+        }
+    }
+
+    Object readMostly() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int i = random.nextInt(objects);
+
+        if (random.nextInt(100) < WRITE_PERCENT) {
+            objectStore.registerNode(ids[i], nodes[i]);
+            return nodes[i];
+        }
+
+        return objectStore.getNode(ids[i]);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object readMostly_8Threads() {
+        return readMostly();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Object readMostly_16Threads() {
+        return readMostly();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public Object readMostly_32Threads() {
+        return readMostly();
+    }
+}
@@ -0,0 +1,73 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.benchmark.persistent.Artist;
+import org.apache.cayenne.benchmark.persistent.Painting;
+import org.apache.cayenne.query.ObjectSelect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures conversion of fetched rows to DataRows and to persistent objects (EntityRowReader and
+ * ObjectResolver). Each invocation uses a fresh ObjectContext, so objects are always resolved against
+ * the shared snapshot cache instead of the context's ObjectStore.
+ *
+ * @since 4.1
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMaterializationBenchmark {
+
+    @Benchmark
+    public List<DataRow> dataRows(RuntimeState state) {
+        return ObjectSelect.dataRowQuery(Artist.class).select(state.getRuntime().newContext());
+    }
+
+    @Benchmark
+    public List<Artist> objects(RuntimeState state) {
+        return ObjectSelect.query(Artist.class).select(state.getRuntime().newContext());
+    }
+
+    @Benchmark
+    public List<Painting> objectsWithJointPrefetch(RuntimeState state) {
+        return ObjectSelect.query(Painting.class)
+                .prefetch(Painting.TO_ARTIST.joint())
+                .select(state.getRuntime().newContext());
+    }
+
+    @Benchmark
+    public List<Artist> objectsWithDisjointByIdPrefetch(RuntimeState state) {
+        return ObjectSelect.query(Artist.class)
+                .prefetch(Artist.PAINTING_ARRAY.disjointById())
+                .select(state.getRuntime().newContext());
+    }
+}
@@ -0,0 +1,98 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.benchmark;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.access.DataNode;
+import org.apache.cayenne.benchmark.persistent.Artist;
+import org.apache.cayenne.benchmark.persistent.Painting;
+import org.apache.cayenne.configuration.server.ServerRuntime;
+import org.apache.cayenne.query.SQLExec;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Shared benchmark state that starts a {@link ServerRuntime} over an embedded in-memory Derby database
+ * and fills it with a fixed data set, so that every benchmark iteration sees the same amount of data.
+ *
+ * @since 4.1
+ */
+@State(Scope.Benchmark)
+public class RuntimeState {
+
+    static final String PROJECT_LOCATION = "cayenne-benchmarks.xml";
+    static final String NODE_NAME = "datanode";
+
+    static final int PAINTINGS_PER_ARTIST = 5;
+
+    /**
+     * Number of Artist rows in the database. Each artist has {@link #PAINTINGS_PER_ARTIST} paintings.
+     */
+    @Param({"1000"})
+    public int artists;
+
+    ServerRuntime runtime;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        runtime = ServerRuntime.builder().addConfig(PROJECT_LOCATION).build();
+
+        ObjectContext context = runtime.newContext();
+
+        // in-memory database may survive between trials within the same fork
+        SQLExec.query("DELETE FROM PAINTING").update(context);
+        SQLExec.query("DELETE FROM ARTIST").update(context);
+
+        Calendar calendar = new GregorianCalendar(1900, Calendar.JANUARY, 1);
+        for (int i = 0; i < artists; i++) {
+            Artist artist = context.newObject(Artist.class);
+            artist.setArtistName("artist" + i);
+            artist.setDateOfBirth(calendar.getTime());
+            calendar.add(Calendar.DAY_OF_YEAR, 7);
+
+            for (int j = 0; j < PAINTINGS_PER_ARTIST; j++) {
+                Painting painting = context.newObject(Painting.class);
+                painting.setPaintingTitle("painting" + i + "_" + j);
+                painting.setToArtist(artist);
+            }
+        }
+
+        context.commitChanges();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        runtime.shutdown();
+    }
+
+    public ServerRuntime getRuntime() {
+        return runtime;
+    }
+
+    public DataNode getDataNode() {
+        return runtime.getDataDomain().getDataNode(NODE_NAME);
+    }
+}
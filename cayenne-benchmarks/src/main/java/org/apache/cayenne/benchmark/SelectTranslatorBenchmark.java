@@ -0,0 +1,91 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cayenne.access.DataNode;
+import org.apache.cayenne.access.translator.select.SelectTranslator;
+import org.apache.cayenne.benchmark.persistent.Artist;
+import org.apache.cayenne.benchmark.persistent.Painting;
+import org.apache.cayenne.query.PrefetchTreeNode;
+import org.apache.cayenne.query.SelectQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures SQL generation for select queries. Queries are built the same way ObjectSelect builds its
+ * replacement SelectQuery, and a new translator is created per invocation just like SelectAction does.
+ *
+ * @since 4.1
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SelectTranslatorBenchmark {
+
+    SelectQuery<Artist> simpleQuery;
+    SelectQuery<Painting> joinQuery;
+    SelectQuery<Artist> prefetchQuery;
+
+    @Setup
+    public void setUp(RuntimeState state) {
+        simpleQuery = new SelectQuery<>(Artist.class, Artist.ARTIST_NAME.like("artist1%"));
+        simpleQuery.addOrdering(Artist.DATE_OF_BIRTH.desc());
+
+        joinQuery = new SelectQuery<>(Painting.class, Painting.TO_ARTIST.dot(Artist.ARTIST_NAME).eq("artist1")
+                .andExp(Painting.PAINTING_TITLE.likeIgnoreCase("painting%")));
+        joinQuery.addOrdering(Painting.TO_ARTIST.dot(Artist.ARTIST_NAME).asc());
+        joinQuery.setFetchLimit(100);
+
+        prefetchQuery = new SelectQuery<>(Artist.class, Artist.PAINTING_ARRAY.dot(Painting.PAINTING_TITLE).like("p%"));
+        prefetchQuery.addPrefetch(Artist.PAINTING_ARRAY.getName()).setSemantics(PrefetchTreeNode.JOINT_PREFETCH_SEMANTICS);
+    }
+
+    @Benchmark
+    public String simpleQualifier(RuntimeState state) throws Exception {
+        return translate(state.getDataNode(), simpleQuery);
+    }
+
+    @Benchmark
+    public String relationshipQualifier(RuntimeState state) throws Exception {
+        return translate(state.getDataNode(), joinQuery);
+    }
+
+    @Benchmark
+    public String jointPrefetch(RuntimeState state) throws Exception {
+        return translate(state.getDataNode(), prefetchQuery);
+    }
+
+    private String translate(DataNode node, SelectQuery<?> query) throws Exception {
+        SelectTranslator translator = node.selectTranslator(query);
+        return translator.getSql();
+    }
+}
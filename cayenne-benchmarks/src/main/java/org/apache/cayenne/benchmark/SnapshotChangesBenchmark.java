@@ -0,0 +1,110 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.access.DataRowStore;
+import org.apache.cayenne.benchmark.persistent.Artist;
+import org.apache.cayenne.query.ObjectSelect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link DataRowStore#processSnapshotChanges(Object, Map, Collection, Collection, Collection)}
+ * on the shared snapshot cache of the runtime, including diff calculation and event posting.
+ *
+ * @since 4.1
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SnapshotChangesBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int changedSnapshots;
+
+    DataRowStore snapshotCache;
+    List<ObjectId> ids;
+    Map<ObjectId, DataRow> updatedSnapshots;
+    int iteration;
+
+    @Setup(Level.Trial)
+    public void setUp(RuntimeState state) {
+        snapshotCache = state.getRuntime().getDataDomain().getSharedSnapshotCache();
+
+        // fetching objects populates the snapshot cache
+        List<Artist> artists = ObjectSelect.query(Artist.class)
+                .limit(changedSnapshots)
+                .select(state.getRuntime().newContext());
+
+        ids = new ArrayList<>(artists.size());
+        for (Artist artist : artists) {
+            ids.add(artist.getObjectId());
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareChanges() {
+        updatedSnapshots = new HashMap<>((int) (ids.size() / 0.75f) + 1);
+
+        String suffix = (iteration++ % 2 == 0) ? "_a" : "_b";
+        for (ObjectId id : ids) {
+            DataRow cached = snapshotCache.getCachedSnapshot(id);
+            DataRow snapshot = cached != null ? new DataRow(cached) : new DataRow(4);
+            snapshot.put("ARTIST_NAME", "artist" + id.getIdSnapshot().get("ID") + suffix);
+            if (cached != null) {
+                snapshot.setReplacesVersion(cached.getVersion());
+            }
+            updatedSnapshots.put(id, snapshot);
+        }
+    }
+
+    @Benchmark
+    public DataRowStore processSnapshotChanges() {
+        snapshotCache.processSnapshotChanges(
+                this,
+                updatedSnapshots,
+                Collections.<ObjectId>emptyList(),
+                Collections.<ObjectId>emptyList(),
+                Collections.<ObjectId>emptyList());
+        return snapshotCache;
+    }
+}
@@ -0,0 +1,198 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.benchmark;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cayenne.configuration.DataChannelDescriptorLoader;
+import org.apache.cayenne.configuration.server.ServerModule;
+import org.apache.cayenne.configuration.server.ServerRuntime;
+import org.apache.cayenne.configuration.snapshot.ProjectSnapshot;
+import org.apache.cayenne.di.ClassLoaderManager;
+import org.apache.cayenne.map.EntityResolver;
+import org.apache.cayenne.resource.Resource;
+import org.apache.cayenne.resource.URLResource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures startup of a {@link ServerRuntime} over a synthetic project with many DataMaps and
+ * entities, from loading the project to the first entity lookup. Compares eager and lazy
+ * mapping initialization, and loading the project from XML and from a binary snapshot.
+ *
+ * @since 4.1
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    static final String PROJECT_LOCATION = "cayenne-startup.xml";
+
+    @Param({"20"})
+    public int maps;
+
+    @Param({"100"})
+    public int entitiesPerMap;
+
+    @Param({"false", "true"})
+    public boolean lazy;
+
+    @Param({"false", "true"})
+    public boolean snapshot;
+
+    File projectDir;
+    ClassLoader projectLoader;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        projectDir = Files.createTempDirectory("cayenne-startup").toFile();
+
+        try (PrintWriter out = writer(PROJECT_LOCATION)) {
+            out.println("<?xml version=\"1.0\" encoding=\"utf-8\"?>");
+            out.println("<domain xmlns=\"http://cayenne.apache.org/schema/10/domain\" project-version=\"10\">");
+            for (int i = 0; i < maps; i++) {
+                out.println("\t<map name=\"map" + i + "\"/>");
+            }
+            out.println("</domain>");
+        }
+
+        for (int i = 0; i < maps; i++) {
+            writeDataMap(i);
+        }
+
+        projectLoader = new URLClassLoader(new URL[]{projectDir.toURI().toURL()}, getClass().getClassLoader());
+
+        if (snapshot) {
+            writeSnapshot();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        File[] files = projectDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+
+        projectDir.delete();
+    }
+
+    @Benchmark
+    public Object startup() {
+        ServerRuntime runtime = createRuntime();
+
+        try {
+            EntityResolver resolver = runtime.getDataDomain().getEntityResolver();
+            return resolver.getObjEntity("Entity0_0");
+        } finally {
+            runtime.shutdown();
+        }
+    }
+
+    private ServerRuntime createRuntime() {
+        return ServerRuntime.builder()
+                .addConfig(PROJECT_LOCATION)
+                .addModule(binder -> {
+                    binder.bind(ClassLoaderManager.class).toInstance(resourceName -> projectLoader);
+                    ServerModule.setLazyMappingInit(binder, lazy);
+                })
+                .build();
+    }
+
+    private void writeSnapshot() throws IOException {
+        ServerRuntime runtime = createRuntime();
+
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(
+                new File(projectDir, ProjectSnapshot.snapshotLocation(PROJECT_LOCATION))))) {
+
+            // descriptor is loaded from XML, as there's no snapshot yet
+            Resource project = new URLResource(new File(projectDir, PROJECT_LOCATION).toURI().toURL());
+            ProjectSnapshot.write(runtime.getInjector().getInstance(DataChannelDescriptorLoader.class)
+                    .load(project).getRootNode(), out);
+        } finally {
+            runtime.shutdown();
+        }
+    }
+
+    private void writeDataMap(int map) throws IOException {
+        try (PrintWriter out = writer("map" + map + ".map.xml")) {
+            out.println("<?xml version=\"1.0\" encoding=\"utf-8\"?>");
+            out.println("<data-map xmlns=\"http://cayenne.apache.org/schema/10/modelMap\" project-version=\"10\">");
+
+            for (int i = 0; i < entitiesPerMap; i++) {
+                out.println("\t<db-entity name=\"" + table(map, i) + "\">");
+                out.println("\t\t<db-attribute name=\"ID\" type=\"BIGINT\" isPrimaryKey=\"true\" isMandatory=\"true\"/>");
+                out.println("\t\t<db-attribute name=\"NAME\" type=\"VARCHAR\" length=\"255\"/>");
+                out.println("\t\t<db-attribute name=\"PARENT_ID\" type=\"BIGINT\"/>");
+                out.println("\t</db-entity>");
+            }
+
+            for (int i = 0; i < entitiesPerMap; i++) {
+                out.println("\t<obj-entity name=\"Entity" + map + "_" + i + "\" dbEntityName=\"" + table(map, i) + "\">");
+                out.println("\t\t<obj-attribute name=\"name\" type=\"java.lang.String\" db-attribute-path=\"NAME\"/>");
+                out.println("\t</obj-entity>");
+            }
+
+            // one-way relationships to the previous entity, reverse ones are created by the runtime
+            for (int i = 1; i < entitiesPerMap; i++) {
+                out.println("\t<db-relationship name=\"parent\" source=\"" + table(map, i)
+                        + "\" target=\"" + table(map, i - 1) + "\" toMany=\"false\">");
+                out.println("\t\t<db-attribute-pair source=\"PARENT_ID\" target=\"ID\"/>");
+                out.println("\t</db-relationship>");
+            }
+
+            out.println("</data-map>");
+        }
+    }
+
+    private PrintWriter writer(String name) throws IOException {
+        return new PrintWriter(Files.newBufferedWriter(new File(projectDir, name).toPath(), StandardCharsets.UTF_8));
+    }
+
+    private static String table(int map, int entity) {
+        return "TABLE" + map + "_" + entity;
+    }
+}
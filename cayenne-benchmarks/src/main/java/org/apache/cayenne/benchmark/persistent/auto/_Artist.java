@@ -0,0 +1,51 @@
+package org.apache.cayenne.benchmark.persistent.auto;
+
+import java.util.Date;
+import java.util.List;
+
+import org.apache.cayenne.CayenneDataObject;
+import org.apache.cayenne.benchmark.persistent.Painting;
+import org.apache.cayenne.exp.Property;
+
+/**
+ * Class _Artist was generated by Cayenne.
+ * It is probably a good idea to avoid changing this class manually,
+ * since it may be overwritten next time code is regenerated.
+ * If you need to make any customizations, please use subclass.
+ */
+public abstract class _Artist extends CayenneDataObject {
+
+    private static final long serialVersionUID = 1L; 
+
+    public static final String ID_PK_COLUMN = "ID";
+
+    public static final Property<String> ARTIST_NAME = Property.create("artistName", String.class);
+    public static final Property<Date> DATE_OF_BIRTH = Property.create("dateOfBirth", Date.class);
+    public static final Property<List<Painting>> PAINTING_ARRAY = Property.create("paintingArray", List.class);
+
+    public void setArtistName(String artistName) {
+        writeProperty("artistName", artistName);
+    }
+    public String getArtistName() {
+        return (String)readProperty("artistName");
+    }
+
+    public void setDateOfBirth(Date dateOfBirth) {
+        writeProperty("dateOfBirth", dateOfBirth);
+    }
+    public Date getDateOfBirth() {
+        return (Date)readProperty("dateOfBirth");
+    }
+
+    public void addToPaintingArray(Painting obj) {
+        addToManyTarget("paintingArray", obj, true);
+    }
+    public void removeFromPaintingArray(Painting obj) {
+        removeToManyTarget("paintingArray", obj, true);
+    }
+    @SuppressWarnings("unchecked")
+    public List<Painting> getPaintingArray() {
+        return (List<Painting>)readProperty("paintingArray");
+    }
+
+}
@@ -60,6 +60,8 @@ public class JettyHttpClientConnectionProvider implements Provider<ClientConnect
         ProxyRemoteService remoteService = new ProxyRemoteService(serializationService, ropConnector);
 
         HttpClientConnection clientConnection = new HttpClientConnection(remoteService, sharedSession);
+        clientConnection.setBatchWindow(
+                runtimeProperties.getLong(ClientConstants.ROP_SERVICE_BATCH_WINDOW_PROPERTY, 0L));
         ropConnector.setClientConnection(clientConnection);
 
         return clientConnection;
@@ -88,6 +90,10 @@ public class JettyHttpClientConnectionProvider implements Provider<ClientConnect
             result.setReadTimeout(readTimeout);
         }
 
+        if (runtimeProperties.getBoolean(ClientConstants.ROP_SERVICE_HESSIAN2_PROPERTY, false)) {
+            result.setSerialization(ROPConstants.HESSIAN2_SERIALIZATION);
+        }
+
         return result;
     }
 
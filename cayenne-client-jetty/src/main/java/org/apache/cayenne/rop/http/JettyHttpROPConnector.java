@@ -27,16 +27,20 @@ import org.eclipse.jetty.client.HttpClient;
 import org.eclipse.jetty.client.api.ContentResponse;
 import org.eclipse.jetty.client.api.Request;
 import org.eclipse.jetty.client.api.Response;
+import org.eclipse.jetty.client.api.Result;
 import org.eclipse.jetty.client.util.BytesContentProvider;
 import org.eclipse.jetty.client.util.InputStreamResponseListener;
 import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.http.HttpMethod;
+import org.eclipse.jetty.util.thread.Scheduler;
 import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * This implementation of ROPConnector uses Jetty HTTP Client.
@@ -59,6 +63,11 @@ public class JettyHttpROPConnector implements ROPConnector {
 
     protected Long readTimeout = 5l;
 
+    /**
+     * @since 4.1
+     */
+    protected String serialization;
+
     public JettyHttpROPConnector(HttpClient httpClient, String url, String username) {
         if (httpClient == null) {
             throw new IllegalArgumentException("org.eclipse.jetty.client.HttpClient should be provided " +
@@ -78,6 +87,16 @@ public class JettyHttpROPConnector implements ROPConnector {
         this.readTimeout = readTimeout;
     }
 
+    /**
+     * Sets a name of the serialization format of the messages, sent to the server in
+     * {@link ROPConstants#SERIALIZATION_HEADER}. Null means the default server format.
+     *
+     * @since 4.1
+     */
+    public void setSerialization(String serialization) {
+        this.serialization = serialization;
+    }
+
     @Override
     public InputStream establishSession() throws IOException {
         if (logger.isInfoEnabled()) {
@@ -85,11 +104,13 @@ public class JettyHttpROPConnector implements ROPConnector {
         }
 
         try {
-            ContentResponse response = httpClient.newRequest(url)
+            Request request = httpClient.newRequest(url)
                     .method(HttpMethod.POST)
                     .param(ROPConstants.OPERATION_PARAMETER, ROPConstants.ESTABLISH_SESSION_OPERATION)
-                    .timeout(readTimeout, TimeUnit.SECONDS)
-                    .send();
+                    .timeout(readTimeout, TimeUnit.SECONDS);
+
+            addSerializationHeader(request);
+            ContentResponse response = request.send();
 
             return new ByteArrayInputStream(response.getContent());
         } catch (Exception e) {
@@ -108,12 +129,14 @@ public class JettyHttpROPConnector implements ROPConnector {
         }
 
         try {
-            ContentResponse response = httpClient.newRequest(url)
+            Request request = httpClient.newRequest(url)
                     .method(HttpMethod.POST)
                     .param(ROPConstants.OPERATION_PARAMETER, ROPConstants.ESTABLISH_SHARED_SESSION_OPERATION)
                     .param(ROPConstants.SESSION_NAME_PARAMETER, sharedSessionName)
-                    .timeout(readTimeout, TimeUnit.SECONDS)
-                    .send();
+                    .timeout(readTimeout, TimeUnit.SECONDS);
+
+            addSerializationHeader(request);
+            ContentResponse response = request.send();
 
             return new ByteArrayInputStream(response.getContent());
         } catch (Exception e) {
@@ -135,6 +158,7 @@ public class JettyHttpROPConnector implements ROPConnector {
                     .content(new BytesContentProvider(message));
 
             addSessionCookie(request);
+            addSerializationHeader(request);
 
             InputStreamResponseListener listener = new InputStreamResponseListener();
             request.send(listener);
@@ -161,6 +185,63 @@ public class JettyHttpROPConnector implements ROPConnector {
         }
     }
 
+    /**
+     * Sends a message without blocking the caller. The returned future is completed as soon as HTTP headers of the
+     * response are received, with a stream of the response content. Same as in {@link #sendMessage(byte[])}, the
+     * request is aborted if the headers are not received within the read timeout. A failure completes the future
+     * with an {@link IOException}.
+     *
+     * @since 4.1
+     */
+    @Override
+    public CompletableFuture<InputStream> sendMessageAsync(byte[] message) {
+        CompletableFuture<InputStream> future = new CompletableFuture<>();
+
+        Request request = httpClient.newRequest(url)
+                .method(HttpMethod.POST)
+                .header(HttpHeader.CONTENT_TYPE, "application/octet-stream")
+                .header(HttpHeader.ACCEPT_ENCODING, "gzip")
+                .content(new BytesContentProvider(message));
+
+        addSessionCookie(request);
+        addSerializationHeader(request);
+
+        request.send(new InputStreamResponseListener() {
+
+            @Override
+            public void onHeaders(Response response) {
+                super.onHeaders(response);
+
+                if (response.getStatus() >= 300) {
+                    future.completeExceptionally(new IOException(
+                            "Did not receive successful HTTP response: status code = " + response.getStatus() +
+                                    ", status message = [" + response.getReason() + "]"));
+                } else {
+                    future.complete(getInputStream());
+                }
+            }
+
+            @Override
+            public void onComplete(Result result) {
+                super.onComplete(result);
+
+                // no-op if the future was already completed on headers
+                if (result.isFailed()) {
+                    future.completeExceptionally(new IOException("Exception while sending message", result.getFailure()));
+                }
+            }
+        });
+
+        Scheduler.Task timeout = httpClient.getScheduler().schedule(() -> {
+            if (!future.isDone()) {
+                request.abort(new TimeoutException("No response received in " + readTimeout + " seconds"));
+            }
+        }, readTimeout, TimeUnit.SECONDS);
+        future.whenComplete((in, e) -> timeout.cancel());
+
+        return future;
+    }
+
     @Override
     public void close() throws IOException {
         if (httpClient != null) {
@@ -187,4 +268,13 @@ public class JettyHttpROPConnector implements ROPConnector {
             }
         }
     }
+
+    /**
+     * @since 4.1
+     */
+    protected void addSerializationHeader(Request request) {
+        if (serialization != null) {
+            request.header(ROPConstants.SERIALIZATION_HEADER, serialization);
+        }
+    }
 }
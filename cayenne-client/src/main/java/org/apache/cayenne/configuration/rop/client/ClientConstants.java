@@ -42,6 +42,31 @@ public class ClientConstants {
 
     public static final String ROP_SERVICE_TIMEOUT_PROPERTY = "cayenne.rop.service_timeout";
 
+    /**
+     * A boolean property that defines whether ROP requests and responses should be compressed. Possible values are
+     * "true" or "false". Requires a server running Cayenne 4.1 or newer.
+     *
+     * @since 4.1
+     */
+    public static final String ROP_SERVICE_COMPRESSION_PROPERTY = "cayenne.rop.service_compression";
+
+    /**
+     * A boolean property that defines whether ROP messages should be serialized with Hessian 2 protocol, that writes
+     * each class definition once per message instead of repeating property names for every object. Possible values
+     * are "true" or "false". Requires a server running Cayenne 4.1 or newer.
+     *
+     * @since 4.1
+     */
+    public static final String ROP_SERVICE_HESSIAN2_PROPERTY = "cayenne.rop.service_hessian2";
+
+    /**
+     * A time in milliseconds during which queries issued by different threads are collected and sent to the server
+     * in a single request. Zero (default) disables batching. Requires a server running Cayenne 4.1 or newer.
+     *
+     * @since 4.1
+     */
+    public static final String ROP_SERVICE_BATCH_WINDOW_PROPERTY = "cayenne.rop.service_batch_window";
+
     public static final String ROP_CHANNEL_EVENTS_PROPERTY = "cayenne.rop.channel_events";
 
     public static final String ROP_CONTEXT_CHANGE_EVENTS_PROPERTY = "cayenne.rop.context_change_events";
@@ -40,6 +40,7 @@ import org.apache.cayenne.query.QueryMetadata;
 import org.apache.cayenne.util.DeepMergeOperation;
 import org.apache.cayenne.util.ToStringBuilder;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.ListIterator;
 
@@ -100,10 +101,50 @@ public class ClientChannel implements DataChannel {
         return eventManager;
     }
 
-    @SuppressWarnings("unchecked")
     public QueryResponse onQuery(ObjectContext context, Query query) {
-
         QueryResponse response = send( new QueryMessage(query), QueryResponse.class);
+        return mergeResponse(context, query, response);
+    }
+
+    /**
+     * Runs a number of queries in a single round trip to the server, returning their
+     * responses in the order of queries. Useful to avoid a sequence of round trips when
+     * the queries are known upfront, e.g. to resolve several relationships of a screen.
+     * 
+     * @throws CayenneRuntimeException if any of the queries failed on the server.
+     * @since 4.1
+     */
+    public List<QueryResponse> onQueries(ObjectContext context, List<Query> queries) {
+
+        List<ClientMessage> messages = new ArrayList<>(queries.size());
+        for (Query query : queries) {
+            messages.add(new QueryMessage(query));
+        }
+
+        List<?> results = send(new BatchMessage(messages), List.class);
+
+        List<QueryResponse> responses = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            Object result = results.get(i);
+
+            if (result instanceof CayenneRuntimeException) {
+                throw (CayenneRuntimeException) result;
+            } else if (result instanceof Throwable) {
+                throw new CayenneRuntimeException("Query failed on the server", (Throwable) result);
+            } else if (!(result instanceof QueryResponse)) {
+                throw new CayenneRuntimeException("Expected result type: %s, actual: %s"
+                        , QueryResponse.class.getName()
+                        , new ToStringBuilder(result).toString());
+            }
+
+            responses.add(mergeResponse(context, queries.get(i), (QueryResponse) result));
+        }
+
+        return responses;
+    }
+
+    @SuppressWarnings("unchecked")
+    private QueryResponse mergeResponse(ObjectContext context, Query query, QueryResponse response) {
 
         // if needed, register objects in provided context, rewriting the response
         // (assuming all lists are mutable)
@@ -23,11 +23,17 @@ import org.apache.cayenne.di.BeforeScopeEnd;
 import org.apache.cayenne.event.EventBridge;
 import org.apache.cayenne.event.EventBridgeFactory;
 import org.apache.cayenne.remote.BaseConnection;
+import org.apache.cayenne.remote.BatchMessage;
 import org.apache.cayenne.remote.ClientMessage;
+import org.apache.cayenne.remote.QueryMessage;
 import org.apache.cayenne.remote.RemoteService;
 import org.apache.cayenne.remote.RemoteSession;
 
 import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class HttpClientConnection extends BaseConnection {
 
@@ -35,7 +41,12 @@ public class HttpClientConnection extends BaseConnection {
 	private RemoteSession session;
 
 	private String sharedSessionName;
-    
+
+	private long batchWindow;
+	private final Object batchLock = new Object();
+	private List<ClientMessage> pendingMessages;
+	private List<CompletableFuture<Object>> pendingResults;
+
     public HttpClientConnection(RemoteService remoteService, String sharedSession) {
         this.remoteService = remoteService;
         this.sharedSessionName = sharedSession;
@@ -45,6 +56,24 @@ public class HttpClientConnection extends BaseConnection {
         return session;
     }
 
+    /**
+     * @since 4.1
+     */
+    public long getBatchWindow() {
+        return batchWindow;
+    }
+
+    /**
+     * Sets a time in milliseconds during which queries issued by different threads are
+     * collected and sent to the server together as a single {@link BatchMessage}. Each
+     * query waits for up to this time before it is sent. Zero (default) disables batching.
+     *
+     * @since 4.1
+     */
+    public void setBatchWindow(long batchWindow) {
+        this.batchWindow = batchWindow;
+    }
+
 	@Override
 	protected void beforeSendMessage(ClientMessage message) throws CayenneRuntimeException {
 		if (session == null) {
@@ -54,6 +83,10 @@ public class HttpClientConnection extends BaseConnection {
 
 	@Override
 	protected Object doSendMessage(ClientMessage message) throws CayenneRuntimeException {
+        if (batchWindow > 0 && message instanceof QueryMessage) {
+            return doSendBatchedMessage(message);
+        }
+
         try {
             return remoteService.processMessage(message);
         }
@@ -65,6 +98,88 @@ public class HttpClientConnection extends BaseConnection {
         }
 	}
 
+    /**
+     * Adds a message to the pending batch and waits for its result. The thread that opened
+     * the batch waits for the batch window to expire and then sends all collected messages.
+     *
+     * @since 4.1
+     */
+    protected Object doSendBatchedMessage(ClientMessage message) throws CayenneRuntimeException {
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        boolean opened;
+
+        synchronized (batchLock) {
+            opened = pendingMessages == null;
+            if (opened) {
+                pendingMessages = new ArrayList<>();
+                pendingResults = new ArrayList<>();
+            }
+
+            pendingMessages.add(message);
+            pendingResults.add(result);
+        }
+
+        if (opened) {
+            try {
+                Thread.sleep(batchWindow);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            List<ClientMessage> messages;
+            List<CompletableFuture<Object>> results;
+
+            synchronized (batchLock) {
+                messages = pendingMessages;
+                results = pendingResults;
+                pendingMessages = null;
+                pendingResults = null;
+            }
+
+            sendBatch(messages, results);
+        }
+
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof CayenneRuntimeException) {
+                throw (CayenneRuntimeException) e.getCause();
+            }
+
+            throw new CayenneRuntimeException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private void sendBatch(List<ClientMessage> messages, List<CompletableFuture<Object>> results) {
+        int size = messages.size();
+
+        try {
+            if (size == 1) {
+                results.get(0).complete(remoteService.processMessage(messages.get(0)));
+                return;
+            }
+
+            if (logger.isInfoEnabled()) {
+                logger.info("--- Sending batch of " + size + " messages");
+            }
+
+            List<?> batchResults = (List<?>) remoteService.processMessage(new BatchMessage(messages));
+            for (int i = 0; i < size; i++) {
+                Object batchResult = batchResults.get(i);
+
+                if (batchResult instanceof Throwable) {
+                    results.get(i).completeExceptionally((Throwable) batchResult);
+                } else {
+                    results.get(i).complete(batchResult);
+                }
+            }
+        } catch (Throwable th) {
+            for (CompletableFuture<Object> result : results) {
+                result.completeExceptionally(th);
+            }
+        }
+    }
+
 	@Override
 	public EventBridge getServerEventBridge() throws CayenneRuntimeException {
         if (session == null) {
@@ -44,6 +44,8 @@ public class HttpClientConnectionProvider implements Provider<ClientConnection>
         ProxyRemoteService remoteService = new ProxyRemoteService(serializationService, ropConnector);
 
         HttpClientConnection clientConnection = new HttpClientConnection(remoteService, sharedSession);
+        clientConnection.setBatchWindow(
+                runtimeProperties.getLong(ClientConstants.ROP_SERVICE_BATCH_WINDOW_PROPERTY, 0L));
         ropConnector.setClientConnection(clientConnection);
 
         return clientConnection;
@@ -68,6 +70,12 @@ public class HttpClientConnectionProvider implements Provider<ClientConnection>
             result.setReadTimeout(readTimeout);
         }
 
+        result.setCompression(runtimeProperties.getBoolean(ClientConstants.ROP_SERVICE_COMPRESSION_PROPERTY, false));
+
+        if (runtimeProperties.getBoolean(ClientConstants.ROP_SERVICE_HESSIAN2_PROPERTY, false)) {
+            result.setSerialization(ROPConstants.HESSIAN2_SERIALIZATION);
+        }
+
         return result;
     }
 }
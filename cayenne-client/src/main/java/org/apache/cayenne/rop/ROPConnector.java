@@ -20,9 +20,17 @@ package org.apache.cayenne.rop;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * ROP network connectivity interface.
+ * <p>
+ * Asynchronous methods report a failure by completing the returned future exceptionally
+ * with an {@link IOException}. So {@link CompletableFuture#join()} throws a
+ * {@link CompletionException} and {@link CompletableFuture#get()} throws an
+ * ExecutionException, both caused by that IOException.
+ * </p>
  * 
  * @since 4.0
  */
@@ -44,6 +52,55 @@ public interface ROPConnector {
 	 */
     InputStream sendMessage(byte[] message) throws IOException;
 
+	/**
+	 * Asynchronously establishes a dedicated session with Cayenne DataChannel. Default
+	 * implementation calls {@link #establishSession()} in the common fork-join pool.
+	 *
+	 * @since 4.1
+	 */
+	default CompletableFuture<InputStream> establishSessionAsync() {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return establishSession();
+			} catch (IOException e) {
+				throw new CompletionException(e);
+			}
+		});
+	}
+
+	/**
+	 * Asynchronously creates a new session with the specified name or joins an existing
+	 * one. Default implementation calls {@link #establishSharedSession(String)} in the
+	 * common fork-join pool.
+	 *
+	 * @since 4.1
+	 */
+	default CompletableFuture<InputStream> establishSharedSessionAsync(String sharedSessionName) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return establishSharedSession(sharedSessionName);
+			} catch (IOException e) {
+				throw new CompletionException(e);
+			}
+		});
+	}
+
+	/**
+	 * Asynchronously processes message on a remote server. Default implementation calls
+	 * {@link #sendMessage(byte[])} in the common fork-join pool.
+	 *
+	 * @since 4.1
+	 */
+	default CompletableFuture<InputStream> sendMessageAsync(byte[] message) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return sendMessage(message);
+			} catch (IOException e) {
+				throw new CompletionException(e);
+			}
+		});
+	}
+
 	/**
 	 * Close all resources related to ROP Connector.
 	 */
@@ -18,7 +18,10 @@
  ****************************************************************/
 package org.apache.cayenne.rop.http;
 
+import org.apache.cayenne.configuration.RuntimeProperties;
+import org.apache.cayenne.configuration.rop.client.ClientConstants;
 import org.apache.cayenne.di.DIRuntimeException;
+import org.apache.cayenne.di.Inject;
 import org.apache.cayenne.di.Provider;
 import org.apache.cayenne.remote.hessian.ClientSerializerFactory;
 import org.apache.cayenne.remote.hessian.HessianConfig;
@@ -31,9 +34,15 @@ public class ClientHessianSerializationServiceProvider implements Provider<ROPSe
             ClientSerializerFactory.class.getName()
     };
 
+    @Inject
+    protected RuntimeProperties runtimeProperties;
+
     @Override
     public ROPSerializationService get() throws DIRuntimeException {
+        boolean hessian2 = runtimeProperties != null
+                && runtimeProperties.getBoolean(ClientConstants.ROP_SERVICE_HESSIAN2_PROPERTY, false);
+
         return new HessianROPSerializationService(
-                HessianConfig.createFactory(CLIENT_SERIALIZER_FACTORIES, null));
+                HessianConfig.createFactory(CLIENT_SERIALIZER_FACTORIES, null), hessian2);
     }
 }
@@ -20,6 +20,7 @@ package org.apache.cayenne.rop.http;
 
 import org.apache.cayenne.remote.RemoteSession;
 import org.apache.cayenne.rop.HttpClientConnection;
+import org.apache.cayenne.rop.ROPCompression;
 import org.apache.cayenne.rop.ROPConnector;
 import org.apache.cayenne.rop.ROPConstants;
 import org.apache.cayenne.rop.ROPUtil;
@@ -49,7 +50,10 @@ public class HttpROPConnector implements ROPConnector {
     private String password;
 
     private Long readTimeout;
-    
+
+    private boolean compression;
+    private String serialization;
+
     public HttpROPConnector(String url, String username, String password) {
         this.url = url;
         this.username = username;
@@ -64,6 +68,25 @@ public class HttpROPConnector implements ROPConnector {
         this.readTimeout = readTimeout;
     }
 
+    /**
+     * Enables compression of the messages sent to the server and of the responses.
+     *
+     * @since 4.1
+     */
+    public void setCompression(boolean compression) {
+        this.compression = compression;
+    }
+
+    /**
+     * Sets a name of the serialization format of the messages, sent to the server in
+     * {@link ROPConstants#SERIALIZATION_HEADER}. Null means the default server format.
+     *
+     * @since 4.1
+     */
+    public void setSerialization(String serialization) {
+        this.serialization = serialization;
+    }
+
     @Override
     public InputStream establishSession() throws IOException {
         if (logger.isInfoEnabled()) {
@@ -109,6 +132,7 @@ public class HttpROPConnector implements ROPConnector {
         }
 
         addAuthHeader(connection);
+        addSerializationHeaders(connection);
 
         connection.setDoOutput(true);
 
@@ -120,7 +144,7 @@ public class HttpROPConnector implements ROPConnector {
             output.flush();
         }
 
-        return connection.getInputStream();
+        return getInputStream(connection);
     }
 
     protected InputStream doRequest(byte[] data) throws IOException {
@@ -132,18 +156,48 @@ public class HttpROPConnector implements ROPConnector {
 
         addAuthHeader(connection);
         addSessionCookie(connection);
+        addSerializationHeaders(connection);
         connection.setDoOutput(true);
 
         connection.setRequestProperty("Content-Type", "application/octet-stream");
 
         if (data != null) {
-            try (OutputStream output = connection.getOutputStream()) {
+            String encoding = compression ? ROPConstants.GZIP_ENCODING : null;
+            if (encoding != null) {
+                connection.setRequestProperty("Content-Encoding", encoding);
+            }
+
+            try (OutputStream output = ROPCompression.compress(connection.getOutputStream(), encoding)) {
                 output.write(data);
                 output.flush();
             }
         }
 
-        return connection.getInputStream();
+        return getInputStream(connection);
+    }
+
+    /**
+     * Returns a response stream of the connection, decompressing it if the server sent it compressed.
+     *
+     * @since 4.1
+     */
+    protected InputStream getInputStream(URLConnection connection) throws IOException {
+        InputStream in = connection.getInputStream();
+        return ROPCompression.decompress(in, connection.getContentEncoding());
+    }
+
+    /**
+     * @since 4.1
+     */
+    protected void addSerializationHeaders(URLConnection connection) {
+        if (compression) {
+            connection.setRequestProperty("Accept-Encoding",
+                    ROPConstants.GZIP_ENCODING + ", " + ROPConstants.DEFLATE_ENCODING);
+        }
+
+        if (serialization != null) {
+            connection.setRequestProperty(ROPConstants.SERIALIZATION_HEADER, serialization);
+        }
     }
 
     protected void addAuthHeader(URLConnection connection) {
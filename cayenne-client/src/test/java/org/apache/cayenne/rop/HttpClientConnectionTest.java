@@ -0,0 +1,135 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.rop;
+
+import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.remote.BatchMessage;
+import org.apache.cayenne.remote.ClientMessage;
+import org.apache.cayenne.remote.QueryMessage;
+import org.apache.cayenne.remote.RemoteService;
+import org.apache.cayenne.remote.RemoteSession;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class HttpClientConnectionTest {
+
+    @Test
+    public void testSendMessage_NoBatching() {
+        BatchingRemoteService remoteService = new BatchingRemoteService();
+        HttpClientConnection connection = new HttpClientConnection(remoteService, null);
+
+        QueryMessage message = new QueryMessage(null);
+        assertSame(message, connection.sendMessage(message));
+
+        assertEquals(1, remoteService.messages.size());
+        assertSame(message, remoteService.messages.get(0));
+    }
+
+    @Test
+    public void testSendMessage_Batched() {
+        BatchingRemoteService remoteService = new BatchingRemoteService();
+        HttpClientConnection connection = new HttpClientConnection(remoteService, null);
+        connection.setBatchWindow(500);
+
+        QueryMessage m1 = new QueryMessage(null);
+        QueryMessage m2 = new QueryMessage(null);
+
+        CompletableFuture<Object> r1 = CompletableFuture.supplyAsync(() -> connection.sendMessage(m1));
+        CompletableFuture<Object> r2 = CompletableFuture.supplyAsync(() -> connection.sendMessage(m2));
+
+        // each caller gets a result of its own message
+        assertSame(m1, r1.join());
+        assertSame(m2, r2.join());
+
+        assertEquals(1, remoteService.messages.size());
+        assertTrue(remoteService.messages.get(0) instanceof BatchMessage);
+        assertEquals(2, ((BatchMessage) remoteService.messages.get(0)).getMessages().size());
+    }
+
+    @Test
+    public void testSendMessage_BatchedFailure() {
+        BatchingRemoteService remoteService = new BatchingRemoteService();
+        HttpClientConnection connection = new HttpClientConnection(remoteService, null);
+        connection.setBatchWindow(500);
+
+        QueryMessage m1 = new QueryMessage(null);
+        QueryMessage m2 = new QueryMessage(null);
+        remoteService.failed = m2;
+
+        CompletableFuture<Object> r1 = CompletableFuture.supplyAsync(() -> connection.sendMessage(m1));
+        CompletableFuture<Object> r2 = CompletableFuture.supplyAsync(() -> connection.sendMessage(m2));
+
+        assertSame(m1, r1.join());
+
+        try {
+            r2.join();
+            fail("A failure of a batched message must have been rethrown");
+        } catch (Exception e) {
+            assertTrue(e.getCause() instanceof CayenneRuntimeException);
+        }
+    }
+
+    /**
+     * Replies to each message with the message itself, so that callers can check that they got their own results.
+     */
+    static class BatchingRemoteService implements RemoteService {
+
+        List<ClientMessage> messages = Collections.synchronizedList(new ArrayList<>());
+        ClientMessage failed;
+
+        @Override
+        public RemoteSession establishSession() {
+            return new RemoteSession("s1");
+        }
+
+        @Override
+        public RemoteSession establishSharedSession(String name) {
+            return new RemoteSession("s1");
+        }
+
+        @Override
+        public Object processMessage(ClientMessage message) {
+            messages.add(message);
+
+            if (message instanceof BatchMessage) {
+                List<Object> results = new ArrayList<>();
+                for (ClientMessage batched : ((BatchMessage) message).getMessages()) {
+                    results.add(batched == failed ? new CayenneRuntimeException("Failed") : batched);
+                }
+
+                return results;
+            }
+
+            return message;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
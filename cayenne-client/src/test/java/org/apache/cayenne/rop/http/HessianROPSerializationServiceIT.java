@@ -20,8 +20,13 @@
 package org.apache.cayenne.rop.http;
 
 import org.apache.cayenne.CayenneContext;
+import org.apache.cayenne.configuration.DefaultRuntimeProperties;
+import org.apache.cayenne.configuration.rop.client.ClientConstants;
 import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.rop.ROPCompression;
+import org.apache.cayenne.rop.ROPConstants;
 import org.apache.cayenne.rop.ROPSerializationService;
+import org.apache.cayenne.rop.ServerHessian2SerializationServiceProvider;
 import org.apache.cayenne.rop.ServerHessianSerializationServiceProvider;
 import org.apache.cayenne.testdo.mt.ClientMtTable1;
 import org.apache.cayenne.testdo.mt.ClientMtTable2;
@@ -32,6 +37,9 @@ import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
 
 import static org.junit.Assert.*;
 
@@ -102,6 +110,49 @@ public class HessianROPSerializationServiceIT extends ClientCase {
 		assertEquals("Test table1", clientTable2.getTable1().getGlobalAttribute1());
 	}
 
+	@Test
+	public void testHessian2CompressedStreamSerialization() throws Exception {
+		ClientMtTable1 table1 = context.newObject(ClientMtTable1.class);
+		table1.setGlobalAttribute1("Test table1");
+
+		ClientMtTable2 table2 = context.newObject(ClientMtTable2.class);
+		table2.setGlobalAttribute("Test table2");
+		table2.setTable1(table1);
+
+		ClientHessianSerializationServiceProvider clientProvider = new ClientHessianSerializationServiceProvider();
+		clientProvider.runtimeProperties = new DefaultRuntimeProperties(
+				Collections.singletonMap(ClientConstants.ROP_SERVICE_HESSIAN2_PROPERTY, "true"));
+
+		ROPSerializationService clientService = clientProvider.get();
+		ROPSerializationService serverService = new ServerHessian2SerializationServiceProvider().get();
+
+		// test client to server serialization
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (OutputStream out = ROPCompression.compress(bytes, ROPConstants.GZIP_ENCODING)) {
+			clientService.serialize(table2, out);
+		}
+
+		InputStream in = ROPCompression.decompress(
+				new ByteArrayInputStream(bytes.toByteArray()), ROPConstants.GZIP_ENCODING);
+		ClientMtTable2 serverTable2 = serverService.deserialize(in, ClientMtTable2.class);
+
+		assertEquals("Test table2", serverTable2.getGlobalAttribute());
+		assertEquals("Test table1", serverTable2.getTable1().getGlobalAttribute1());
+
+		// test server to client serialization
+		bytes = new ByteArrayOutputStream();
+		try (OutputStream out = ROPCompression.compress(bytes, ROPConstants.DEFLATE_ENCODING)) {
+			serverService.serialize(table2, out);
+		}
+
+		in = ROPCompression.decompress(
+				new ByteArrayInputStream(bytes.toByteArray()), ROPConstants.DEFLATE_ENCODING);
+		ClientMtTable2 clientTable2 = clientService.deserialize(in, ClientMtTable2.class);
+
+		assertEquals("Test table2", clientTable2.getGlobalAttribute());
+		assertEquals("Test table1", clientTable2.getTable1().getGlobalAttribute1());
+	}
+
 	private ROPSerializationService createClientSerializationService() {
 		return new ClientHessianSerializationServiceProvider().get();
 	}
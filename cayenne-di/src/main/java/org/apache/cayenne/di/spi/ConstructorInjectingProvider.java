@@ -54,6 +54,20 @@ class ConstructorInjectingProvider<T> implements Provider<T> {
     @SuppressWarnings("unchecked")
 	private void initConstructor(Class<? extends T> implementation) {
 
+        // the cast is lame, but Class.getDeclaredConstructors() is not using
+        // generics in Java 5 and using <?> in Java 6, creating compilation problems.
+        this.constructor = (Constructor<? extends T>) injectableConstructor(implementation);
+        this.bindingNames = bindingNames(constructor);
+    }
+
+    /**
+     * Returns a constructor of the implementation class that should be used for
+     * constructor injection.
+     *
+     * @since 4.1
+     */
+    static Constructor<?> injectableConstructor(Class<?> implementation) {
+
         Constructor<?>[] constructors = implementation.getDeclaredConstructors();
         Constructor<?> lastMatch = null;
         int lastSize = -1;
@@ -103,12 +117,18 @@ class ConstructorInjectingProvider<T> implements Provider<T> {
                     implementation.getName());
         }
 
-        // the cast is lame, but Class.getDeclaredConstructors() is not using
-        // generics in Java 5 and using <?> in Java 6, creating compilation problems.
-        this.constructor = (Constructor<? extends T>) lastMatch;
+        return lastMatch;
+    }
 
-        Annotation[][] annotations = lastMatch.getParameterAnnotations();
-        this.bindingNames = new String[annotations.length];
+    /**
+     * Returns binding names of the injectable constructor parameters.
+     *
+     * @since 4.1
+     */
+    static String[] bindingNames(Constructor<?> constructor) {
+
+        Annotation[][] annotations = constructor.getParameterAnnotations();
+        String[] bindingNames = new String[annotations.length];
         for (int i = 0; i < annotations.length; i++) {
 
             Annotation[] parameterAnnotations = annotations[i];
@@ -121,6 +141,8 @@ class ConstructorInjectingProvider<T> implements Provider<T> {
                 }
             }
         }
+
+        return bindingNames;
     }
 
     @Override
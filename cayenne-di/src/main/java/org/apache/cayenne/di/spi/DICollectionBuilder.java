@@ -67,9 +67,8 @@ public abstract class DICollectionBuilder<K, E> {
 
         if (binding == null) {
 
-            Provider<SubT> provider0 = new ConstructorInjectingProvider<>(interfaceType, injector);
-            Provider<SubT> provider1 = new FieldInjectingProvider<>(provider0, injector);
-            injector.putBinding(key, provider1);
+            Provider<SubT> provider0 = InjectionFactories.injectingProvider(interfaceType, injector);
+            injector.putBinding(key, provider0);
 
             binding = injector.getBinding(key);
         }
@@ -65,9 +65,8 @@ public class DefaultAdhocObjectFactory implements AdhocObjectFactory {
 
         T instance;
         try {
-            Provider<T> provider0 = new ConstructorInjectingProvider<T>(type, (DefaultInjector) injector);
-            Provider<T> provider1 = new FieldInjectingProvider<T>(provider0, (DefaultInjector) injector);
-            instance = provider1.get();
+            Provider<T> provider0 = InjectionFactories.injectingProvider(type, (DefaultInjector) injector);
+            instance = provider0.get();
         } catch (Exception e) {
             throw new DIRuntimeException("Error creating instance of class %s of type %s", e, className,
                     superType.getName());
@@ -41,12 +41,9 @@ class DefaultBindingBuilder<T> implements BindingBuilder<T> {
     public BindingBuilder<T> to(Class<? extends T> implementation)
             throws DIRuntimeException {
 
-        Provider<T> provider0 = new ConstructorInjectingProvider<T>(
-                implementation,
-                injector);
-        Provider<T> provider1 = new FieldInjectingProvider<T>(provider0, injector);
+        Provider<T> provider0 = InjectionFactories.injectingProvider(implementation, injector);
 
-        injector.putBinding(bindingKey, provider1);
+        injector.putBinding(bindingKey, provider0);
         return this;
     }
 
@@ -62,12 +59,9 @@ class DefaultBindingBuilder<T> implements BindingBuilder<T> {
     public BindingBuilder<T> toProvider(
             Class<? extends Provider<? extends T>> providerType) {
 
-        Provider<Provider<? extends T>> provider0 = new ConstructorInjectingProvider<Provider<? extends T>>(
+        Provider<Provider<? extends T>> provider1 = InjectionFactories.injectingProvider(
                 providerType,
                 injector);
-        Provider<Provider<? extends T>> provider1 = new FieldInjectingProvider<Provider<? extends T>>(
-                provider0,
-                injector);
 
         Provider<T> provider2 = new CustomProvidersProvider<T>(provider1);
         Provider<T> provider3 = new FieldInjectingProvider<T>(provider2, injector);
@@ -165,6 +165,14 @@ public class DefaultInjector implements Injector {
 
     @Override
     public void injectMembers(Object object) {
+
+        @SuppressWarnings("unchecked")
+        InjectionFactory<Object> factory = (InjectionFactory<Object>) InjectionFactories.factory(object.getClass());
+        if (factory != null) {
+            factory.injectMembers(object, this);
+            return;
+        }
+
         Provider<Object> provider0 = new InstanceProvider<Object>(object);
         Provider<Object> provider1 = new FieldInjectingProvider<Object>(provider0, this);
         provider1.get();
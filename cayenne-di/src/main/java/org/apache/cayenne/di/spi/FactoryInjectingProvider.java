@@ -0,0 +1,43 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.di.spi;
+
+import org.apache.cayenne.di.DIRuntimeException;
+import org.apache.cayenne.di.Provider;
+
+/**
+ * A provider that creates objects using a build-time generated {@link InjectionFactory}.
+ *
+ * @since 4.1
+ */
+class FactoryInjectingProvider<T> implements Provider<T> {
+
+    private InjectionFactory<? extends T> factory;
+    private DefaultInjector injector;
+
+    FactoryInjectingProvider(InjectionFactory<? extends T> factory, DefaultInjector injector) {
+        this.factory = factory;
+        this.injector = injector;
+    }
+
+    @Override
+    public T get() throws DIRuntimeException {
+        return factory.create(injector);
+    }
+}
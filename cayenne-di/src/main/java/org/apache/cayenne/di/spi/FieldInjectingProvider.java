@@ -19,6 +19,8 @@
 package org.apache.cayenne.di.spi;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.cayenne.di.DIRuntimeException;
 import org.apache.cayenne.di.Inject;
@@ -30,6 +32,23 @@ import org.apache.cayenne.di.Provider;
  */
 class FieldInjectingProvider<T> implements Provider<T> {
 
+    // injectable fields are looked up once per class, as scanning class hierarchy on
+    // every object creation is expensive
+    private static final ClassValue<Field[]> INJECTABLE_FIELDS = new ClassValue<Field[]>() {
+
+        @Override
+        protected Field[] computeValue(Class<?> type) {
+            List<Field> fields = new ArrayList<>();
+            appendInjectableFields(type, fields);
+
+            for (Field field : fields) {
+                field.setAccessible(true);
+            }
+
+            return fields.toArray(new Field[fields.size()]);
+        }
+    };
+
     private DefaultInjector injector;
     private Provider<T> delegate;
 
@@ -38,14 +57,17 @@ class FieldInjectingProvider<T> implements Provider<T> {
         this.injector = injector;
     }
 
-    @Override
-    public T get() throws DIRuntimeException {
-        T object = delegate.get();
-        injectMembers(object, object.getClass());
-        return object;
+    /**
+     * Returns fields annotated with {@link Inject} declared in the class and its
+     * superclasses.
+     *
+     * @since 4.1
+     */
+    static Field[] injectableFields(Class<?> type) {
+        return INJECTABLE_FIELDS.get(type).clone();
     }
 
-    private void injectMembers(T object, Class<?> type) {
+    private static void appendInjectableFields(Class<?> type, List<Field> fields) {
 
         // bail on recursion stop condition
         if (type == null) {
@@ -53,21 +75,29 @@ class FieldInjectingProvider<T> implements Provider<T> {
         }
 
         for (Field field : type.getDeclaredFields()) {
-
-            Inject inject = field.getAnnotation(Inject.class);
-            if (inject != null) {
-                injectMember(object, field, inject.value());
+            if (field.isAnnotationPresent(Inject.class)) {
+                fields.add(field);
             }
         }
 
-        injectMembers(object, type.getSuperclass());
+        appendInjectableFields(type.getSuperclass(), fields);
+    }
+
+    @Override
+    public T get() throws DIRuntimeException {
+        T object = delegate.get();
+
+        for (Field field : INJECTABLE_FIELDS.get(object.getClass())) {
+            injectMember(object, field, field.getAnnotation(Inject.class).value());
+        }
+
+        return object;
     }
 
     private void injectMember(Object object, Field field, String bindingName) {
 
         Object value = value(field, bindingName);
 
-        field.setAccessible(true);
         try {
             field.set(object, value);
         } catch (Exception e) {
@@ -0,0 +1,204 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.di.spi;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+import org.apache.cayenne.di.DIRuntimeException;
+import org.apache.cayenne.di.Provider;
+
+/**
+ * Locates build-time generated {@link InjectionFactory} classes and creates injecting
+ * providers, falling back to reflection when no factory is available. The factories
+ * index maps implementation class names to "factoryClass,stamp" values, where the stamp
+ * is a checksum of the class files the factory was generated from. A factory whose stamp
+ * doesn't match the class found at runtime (e.g. when a dependency was upgraded after the
+ * factory was generated) is ignored.
+ *
+ * @since 4.1
+ */
+final class InjectionFactories {
+
+    static final String INDEX_LOCATION = "META-INF/cayenne/injection-factories.properties";
+
+    private static final char STAMP_SEPARATOR = ',';
+
+    private static final Map<ClassLoader, Map<String, String>> INDEXES = Collections
+            .synchronizedMap(new WeakHashMap<ClassLoader, Map<String, String>>());
+
+    private static final ClassValue<InjectionFactory<?>> FACTORIES = new ClassValue<InjectionFactory<?>>() {
+
+        @Override
+        protected InjectionFactory<?> computeValue(Class<?> type) {
+            return loadFactory(type);
+        }
+    };
+
+    private InjectionFactories() {
+    }
+
+    /**
+     * Returns a provider that creates and injects objects of a given implementation
+     * class.
+     */
+    static <T> Provider<T> injectingProvider(Class<? extends T> implementation, DefaultInjector injector)
+            throws DIRuntimeException {
+
+        InjectionFactory<? extends T> factory = factory(implementation);
+        if (factory != null) {
+            return new FactoryInjectingProvider<T>(factory, injector);
+        }
+
+        Provider<T> provider0 = new ConstructorInjectingProvider<T>(implementation, injector);
+        return new FieldInjectingProvider<T>(provider0, injector);
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> InjectionFactory<T> factory(Class<T> type) {
+        return (InjectionFactory<T>) FACTORIES.get(type);
+    }
+
+    private static InjectionFactory<?> loadFactory(Class<?> type) {
+
+        ClassLoader loader = type.getClassLoader();
+        if (loader == null) {
+            return null;
+        }
+
+        String entry = index(loader).get(type.getName());
+        if (entry == null) {
+            return null;
+        }
+
+        int separator = entry.indexOf(STAMP_SEPARATOR);
+        if (separator < 0) {
+            return null;
+        }
+
+        String factoryName = entry.substring(0, separator).trim();
+        String stamp = entry.substring(separator + 1).trim();
+
+        try {
+            // the class was changed since the factory was generated
+            if (!stamp.equals(stamp(type))) {
+                return null;
+            }
+
+            Class<?> factoryClass = Class.forName(factoryName, true, loader);
+
+            // generated factories access package-private members, so they are usable
+            // only if loaded together with the class they create
+            if (factoryClass.getClassLoader() != loader || !InjectionFactory.class.isAssignableFrom(factoryClass)) {
+                return null;
+            }
+
+            return (InjectionFactory<?>) factoryClass.getDeclaredConstructor().newInstance();
+        } catch (Exception | LinkageError e) {
+            // missing or incompatible factory, use reflection instead
+            return null;
+        }
+    }
+
+    /**
+     * Returns the index entry for the class and its generated factory.
+     */
+    static String indexEntry(Class<?> type, String factoryName) throws IOException {
+        return factoryName + STAMP_SEPARATOR + stamp(type);
+    }
+
+    /**
+     * Returns a checksum of the class files of the class and its superclasses, which
+     * declare all its injection points. Calculating it doesn't involve reflection, so
+     * checking factories for staleness doesn't cost as much as reflective injection.
+     * Returns null if any of the class files can't be read.
+     */
+    static String stamp(Class<?> type) throws IOException {
+
+        CRC32 checksum = new CRC32();
+        byte[] buffer = new byte[4096];
+
+        for (Class<?> c = type; c != null && c.getClassLoader() != null; c = c.getSuperclass()) {
+
+            try (InputStream in = c.getClassLoader().getResourceAsStream(c.getName().replace('.', '/') + ".class")) {
+                if (in == null) {
+                    return null;
+                }
+
+                int read;
+                while ((read = in.read(buffer)) > 0) {
+                    checksum.update(buffer, 0, read);
+                }
+            }
+        }
+
+        return Long.toHexString(checksum.getValue());
+    }
+
+    /**
+     * Adds an index entry for the class, as if it was read from the index of the class
+     * ClassLoader. Must be called before the factory for the class is first looked up.
+     */
+    static void addIndexEntry(Class<?> type, String entry) {
+        index(type.getClassLoader()).put(type.getName(), entry);
+    }
+
+    private static Map<String, String> index(ClassLoader loader) {
+
+        Map<String, String> index = INDEXES.get(loader);
+        if (index == null) {
+            index = loadIndex(loader);
+            INDEXES.put(loader, index);
+        }
+
+        return index;
+    }
+
+    private static Map<String, String> loadIndex(ClassLoader loader) {
+
+        Map<String, String> index = new ConcurrentHashMap<>();
+
+        try {
+            Enumeration<URL> resources = loader.getResources(INDEX_LOCATION);
+            while (resources.hasMoreElements()) {
+
+                Properties properties = new Properties();
+                try (InputStream in = resources.nextElement().openStream()) {
+                    properties.load(in);
+                }
+
+                for (String name : properties.stringPropertyNames()) {
+                    index.put(name, properties.getProperty(name));
+                }
+            }
+        } catch (IOException e) {
+            throw new DIRuntimeException("Error reading injection factories index", e);
+        }
+
+        return index;
+    }
+}
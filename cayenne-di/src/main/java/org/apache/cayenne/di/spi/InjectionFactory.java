@@ -0,0 +1,64 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.di.spi;
+
+import org.apache.cayenne.di.DIRuntimeException;
+import org.apache.cayenne.di.Key;
+import org.apache.cayenne.di.Provider;
+
+/**
+ * A superclass of factories that create and inject objects of a single implementation
+ * class without reflection. Subclasses are normally generated at build time by
+ * {@link InjectionFactoryGenerator} and are registered in
+ * "META-INF/cayenne/injection-factories.properties" index. When a factory is found for
+ * a bound class, the injector uses it instead of reflection-based constructor and field
+ * injection.
+ *
+ * @since 4.1
+ */
+public abstract class InjectionFactory<T> {
+
+    /**
+     * Creates a new object, injecting its constructor arguments and fields.
+     */
+    public abstract T create(DefaultInjector injector) throws DIRuntimeException;
+
+    /**
+     * Injects annotated fields of an existing object.
+     */
+    public abstract void injectMembers(T object, DefaultInjector injector) throws DIRuntimeException;
+
+    protected static <V> V getInstance(DefaultInjector injector, Key<V> key) {
+        InjectionStack stack = injector.getInjectionStack();
+        stack.push(key);
+        try {
+            return injector.getInstance(key);
+        } finally {
+            stack.pop();
+        }
+    }
+
+    protected static <V> Provider<V> getProvider(DefaultInjector injector, Key<V> key) {
+        return injector.getProvider(key);
+    }
+
+    protected static DIRuntimeException instantiationError(Class<?> type, Throwable cause) {
+        return new DIRuntimeException("Error instantiating class '%s'", cause, type.getName());
+    }
+}
@@ -0,0 +1,438 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.di.spi;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.cayenne.di.DIRuntimeException;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.di.Module;
+import org.apache.cayenne.di.Provider;
+
+/**
+ * Generates {@link InjectionFactory} source code for classes instantiated by the
+ * injector, so that runtime startup doesn't have to go through reflection. Types are
+ * either collected from DI modules or added explicitly. A generated factory is placed
+ * in the package of the class it creates and is registered in
+ * "META-INF/cayenne/injection-factories.properties" index together with a stamp of the
+ * class files, so that the factory is ignored if the class changes later. Classes that
+ * can't be created without reflection (e.g. those with private constructors or
+ * injectable fields) are skipped and will be injected reflectively at runtime.
+ *
+ * @since 4.1
+ */
+public class InjectionFactoryGenerator {
+
+    static final String FACTORY_SUFFIX = "$$InjectionFactory";
+
+    private Set<Class<?>> types;
+    private Map<Class<?>, String> skipped;
+
+    public InjectionFactoryGenerator() {
+        this.types = new LinkedHashSet<>();
+        this.skipped = new LinkedHashMap<>();
+    }
+
+    /**
+     * Collects implementation classes bound in the module. The module is configured
+     * with a binder that doesn't create any bindings.
+     */
+    public InjectionFactoryGenerator addModule(Module module) {
+        module.configure(new RecordingBinder(types));
+        return this;
+    }
+
+    public InjectionFactoryGenerator addType(Class<?> type) {
+        types.add(type);
+        return this;
+    }
+
+    public Collection<Class<?>> getTypes() {
+        return types;
+    }
+
+    /**
+     * Returns classes skipped during the last generation, with the reasons they were
+     * skipped.
+     */
+    public Map<Class<?>, String> getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * Writes factory sources to the source directory and the factories index to the
+     * resources directory.
+     *
+     * @return a map of implementation class names to the index entries of generated
+     *         factories.
+     */
+    public Map<String, String> generate(File sourceDir, File resourceDir) throws IOException {
+
+        skipped.clear();
+        Map<String, String> index = new TreeMap<>();
+
+        for (Class<?> type : types) {
+
+            String source = factorySource(type);
+            if (source == null) {
+                continue;
+            }
+
+            String factoryName = factoryName(type);
+            File file = new File(sourceDir, factoryName.replace('.', File.separatorChar) + ".java");
+            write(file, source);
+            index.put(type.getName(), InjectionFactories.indexEntry(type, factoryName));
+        }
+
+        StringBuilder properties = new StringBuilder();
+        for (Map.Entry<String, String> e : index.entrySet()) {
+            properties.append(e.getKey()).append('=').append(e.getValue()).append('\n');
+        }
+
+        write(new File(resourceDir, InjectionFactories.INDEX_LOCATION.replace('/', File.separatorChar)),
+                properties.toString());
+
+        return index;
+    }
+
+    static String factoryName(Class<?> type) {
+        return type.getName() + FACTORY_SUFFIX;
+    }
+
+    /**
+     * Returns the source of the factory for the class, or null if the class can't be
+     * created without reflection.
+     */
+    String factorySource(Class<?> type) {
+
+        String reason = unsupportedReason(type);
+        if (reason != null) {
+            skipped.put(type, reason);
+            return null;
+        }
+
+        String packageName = packageName(type);
+        String typeName = type.getCanonicalName();
+        String factoryName = factoryName(type).substring(packageName.length() + 1);
+
+        Constructor<?> constructor = ConstructorInjectingProvider.injectableConstructor(type);
+        Class<?>[] parameters = constructor.getParameterTypes();
+        Type[] genericTypes = constructor.getGenericParameterTypes();
+        String[] bindingNames = ConstructorInjectingProvider.bindingNames(constructor);
+
+        StringBuilder out = new StringBuilder();
+        out.append("package ").append(packageName).append(";\n\n");
+        out.append("/**\n * Injection factory for {@link ").append(typeName)
+                .append("}. Generated by Cayenne, do not edit.\n */\n");
+        out.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        out.append("public class ").append(factoryName).append(" extends ")
+                .append(InjectionFactory.class.getName()).append("<").append(typeName).append("> {\n\n");
+
+        out.append("    @Override\n");
+        out.append("    public ").append(typeName).append(" create(")
+                .append(DefaultInjector.class.getName()).append(" injector) {\n");
+
+        StringBuilder args = new StringBuilder();
+        for (int i = 0; i < parameters.length; i++) {
+            out.append("        ").append(parameters[i].getCanonicalName()).append(" p").append(i).append(" = ")
+                    .append(valueExpression(parameters[i], genericTypes[i], bindingNames[i])).append(";\n");
+
+            if (i > 0) {
+                args.append(", ");
+            }
+            args.append('p').append(i);
+        }
+
+        out.append("        ").append(typeName).append(" object;\n");
+        out.append("        try {\n");
+        out.append("            object = new ").append(typeName).append("(").append(args).append(");\n");
+        out.append("        } catch (Exception e) {\n");
+        out.append("            throw instantiationError(").append(typeName).append(".class, e);\n");
+        out.append("        }\n\n");
+        out.append("        injectMembers(object, injector);\n");
+        out.append("        return object;\n");
+        out.append("    }\n\n");
+
+        out.append("    @Override\n");
+        out.append("    public void injectMembers(").append(typeName).append(" object, ")
+                .append(DefaultInjector.class.getName()).append(" injector) {\n");
+
+        for (Field field : FieldInjectingProvider.injectableFields(type)) {
+            out.append("        object.").append(field.getName()).append(" = ")
+                    .append(valueExpression(field.getType(), field.getGenericType(),
+                            field.getAnnotation(Inject.class).value()))
+                    .append(";\n");
+        }
+
+        out.append("    }\n");
+        out.append("}\n");
+
+        return out.toString();
+    }
+
+    private String valueExpression(Class<?> type, Type genericType, String bindingName) {
+
+        String cast = "(" + type.getCanonicalName() + ") ";
+
+        if (Provider.class.equals(type)) {
+            return cast + "getProvider(injector, org.apache.cayenne.di.Key.get("
+                    + DIUtil.parameterClass(genericType).getCanonicalName() + ".class, "
+                    + literal(bindingName) + "))";
+        }
+
+        if (List.class.isAssignableFrom(type)) {
+            Class<?> objectClass = DIUtil.parameterClass(genericType);
+            if (objectClass == null) {
+                objectClass = Object.class;
+            }
+
+            return cast + "getInstance(injector, org.apache.cayenne.di.Key.getListOf("
+                    + objectClass.getCanonicalName() + ".class, " + literal(bindingName) + "))";
+        }
+
+        if (Map.class.isAssignableFrom(type)) {
+            Class<?>[] classes = DIUtil.allParametersClass(genericType);
+            if (classes == null) {
+                classes = new Class[]{Object.class, Object.class};
+            }
+
+            return cast + "getInstance(injector, org.apache.cayenne.di.Key.getMapOf("
+                    + classes[0].getCanonicalName() + ".class, " + classes[1].getCanonicalName() + ".class, "
+                    + literal(bindingName) + "))";
+        }
+
+        return cast + "getInstance(injector, org.apache.cayenne.di.Key.get(" + type.getCanonicalName() + ".class, "
+                + literal(bindingName) + "))";
+    }
+
+    String unsupportedReason(Class<?> type) {
+
+        if (type.isInterface() || type.isArray() || type.isPrimitive() || Modifier.isAbstract(type.getModifiers())) {
+            return "not a concrete class";
+        }
+
+        if (type.isAnonymousClass() || type.isLocalClass()) {
+            return "local or anonymous class";
+        }
+
+        if (type.isMemberClass() && !Modifier.isStatic(type.getModifiers())) {
+            return "inner class";
+        }
+
+        String packageName = packageName(type);
+        if (packageName.isEmpty()) {
+            return "class in the default package";
+        }
+
+        if (!accessible(type, packageName)) {
+            return "private class";
+        }
+
+        Constructor<?> constructor;
+        try {
+            constructor = ConstructorInjectingProvider.injectableConstructor(type);
+        } catch (DIRuntimeException e) {
+            return e.getMessage();
+        }
+
+        if (Modifier.isPrivate(constructor.getModifiers())) {
+            return "private constructor";
+        }
+
+        Type[] genericTypes = constructor.getGenericParameterTypes();
+        Class<?>[] parameters = constructor.getParameterTypes();
+
+        // generic parameters of member classes may not match declared parameters
+        if (genericTypes.length != parameters.length) {
+            return "synthetic constructor parameters";
+        }
+
+        for (int i = 0; i < parameters.length; i++) {
+            String parameterReason = unsupportedInjectionPoint(parameters[i], genericTypes[i], packageName);
+            if (parameterReason != null) {
+                return "constructor parameter " + i + ": " + parameterReason;
+            }
+        }
+
+        Set<String> fieldNames = new HashSet<>();
+        for (Field field : FieldInjectingProvider.injectableFields(type)) {
+
+            String fieldReason = unsupportedField(field, packageName);
+            if (fieldReason == null && !fieldNames.add(field.getName())) {
+                fieldReason = "shadowed field";
+            }
+
+            if (fieldReason == null) {
+                fieldReason = unsupportedInjectionPoint(field.getType(), field.getGenericType(), packageName);
+            }
+
+            if (fieldReason != null) {
+                return "field " + field.getDeclaringClass().getName() + "." + field.getName() + ": " + fieldReason;
+            }
+        }
+
+        return null;
+    }
+
+    private String unsupportedField(Field field, String packageName) {
+
+        int modifiers = field.getModifiers();
+
+        if (Modifier.isPrivate(modifiers)) {
+            return "private field";
+        }
+
+        if (Modifier.isFinal(modifiers) || Modifier.isStatic(modifiers)) {
+            return "final or static field";
+        }
+
+        if (!Modifier.isPublic(modifiers) && !packageName.equals(packageName(field.getDeclaringClass()))) {
+            return "field not visible from " + packageName;
+        }
+
+        return null;
+    }
+
+    private String unsupportedInjectionPoint(Class<?> type, Type genericType, String packageName) {
+
+        if (type.isPrimitive()) {
+            return "primitive type";
+        }
+
+        if (!accessible(type, packageName)) {
+            return "type not visible from " + packageName;
+        }
+
+        if (Provider.class.equals(type)) {
+            Class<?> objectClass = DIUtil.parameterClass(genericType);
+            if (objectClass == null) {
+                return "non-parameterized provider";
+            }
+
+            return accessible(objectClass, packageName) ? null : "type not visible from " + packageName;
+        }
+
+        if (List.class.isAssignableFrom(type)) {
+            Class<?> objectClass = DIUtil.parameterClass(genericType);
+            return objectClass == null || accessible(objectClass, packageName)
+                    ? null
+                    : "type not visible from " + packageName;
+        }
+
+        if (Map.class.isAssignableFrom(type)) {
+            Class<?>[] classes = DIUtil.allParametersClass(genericType);
+            if (classes == null) {
+                return null;
+            }
+
+            if (classes.length != 2) {
+                return "unsupported map type";
+            }
+
+            return accessible(classes[0], packageName) && accessible(classes[1], packageName)
+                    ? null
+                    : "type not visible from " + packageName;
+        }
+
+        return null;
+    }
+
+    private static boolean accessible(Class<?> type, String packageName) {
+
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+
+        if (type.isPrimitive()) {
+            return true;
+        }
+
+        if (type.isAnonymousClass() || type.isLocalClass()) {
+            return false;
+        }
+
+        boolean samePackage = packageName.equals(packageName(type));
+
+        for (Class<?> c = type; c != null; c = c.getDeclaringClass()) {
+            int modifiers = c.getModifiers();
+
+            if (Modifier.isPrivate(modifiers)) {
+                return false;
+            }
+
+            if (!Modifier.isPublic(modifiers) && !samePackage) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static String packageName(Class<?> type) {
+        String name = type.getName();
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(0, dot);
+    }
+
+    private static String literal(String string) {
+
+        if (string == null) {
+            return "null";
+        }
+
+        StringBuilder literal = new StringBuilder("\"");
+        for (char c : string.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                literal.append('\\');
+            }
+            literal.append(c);
+        }
+
+        return literal.append('"').toString();
+    }
+
+    private static void write(File file, String content) throws IOException {
+
+        File parent = file.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Can't create directory " + parent);
+        }
+
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            out.write(content);
+        }
+    }
+}
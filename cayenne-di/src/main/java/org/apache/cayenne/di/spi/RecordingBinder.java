@@ -0,0 +1,204 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.di.spi;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.apache.cayenne.di.Binder;
+import org.apache.cayenne.di.BindingBuilder;
+import org.apache.cayenne.di.DIRuntimeException;
+import org.apache.cayenne.di.DecoratorBuilder;
+import org.apache.cayenne.di.Key;
+import org.apache.cayenne.di.ListBuilder;
+import org.apache.cayenne.di.MapBuilder;
+import org.apache.cayenne.di.Provider;
+import org.apache.cayenne.di.Scope;
+
+/**
+ * A {@link Binder} that does not create any bindings, only collecting implementation
+ * classes that the injector would instantiate with constructor and field injection.
+ *
+ * @since 4.1
+ */
+class RecordingBinder implements Binder {
+
+    private Collection<Class<?>> types;
+
+    RecordingBinder(Collection<Class<?>> types) {
+        this.types = types;
+    }
+
+    @Override
+    public <T> BindingBuilder<T> bind(Class<T> interfaceType) {
+        return new RecordingBuilder<>();
+    }
+
+    @Override
+    public <T> BindingBuilder<T> bind(Key<T> key) {
+        return new RecordingBuilder<>();
+    }
+
+    @Override
+    public <T> MapBuilder<T> bindMap(Class<T> valueType) {
+        return new RecordingBuilder<>();
+    }
+
+    @Override
+    public <T> MapBuilder<T> bindMap(Class<T> valueType, String bindingName) {
+        return new RecordingBuilder<>();
+    }
+
+    @Override
+    public <T> ListBuilder<T> bindList(Class<T> valueType, String bindingName) {
+        return new RecordingBuilder<>();
+    }
+
+    @Override
+    public <T> ListBuilder<T> bindList(Class<T> valueType) {
+        return new RecordingBuilder<>();
+    }
+
+    @Override
+    public <T> DecoratorBuilder<T> decorate(Class<T> interfaceType) {
+        return new RecordingBuilder<>();
+    }
+
+    @Override
+    public <T> DecoratorBuilder<T> decorate(Key<T> key) {
+        return new RecordingBuilder<>();
+    }
+
+    // decorators are created by their own providers, so decorator types are not recorded
+    class RecordingBuilder<T> implements BindingBuilder<T>, ListBuilder<T>, MapBuilder<T>, DecoratorBuilder<T> {
+
+        @Override
+        public BindingBuilder<T> to(Class<? extends T> implementation) throws DIRuntimeException {
+            types.add(implementation);
+            return this;
+        }
+
+        @Override
+        public BindingBuilder<T> toInstance(T instance) throws DIRuntimeException {
+            return this;
+        }
+
+        @Override
+        public BindingBuilder<T> toProvider(Class<? extends Provider<? extends T>> providerType)
+                throws DIRuntimeException {
+            types.add(providerType);
+            return this;
+        }
+
+        @Override
+        public BindingBuilder<T> toProviderInstance(Provider<? extends T> provider) throws DIRuntimeException {
+            return this;
+        }
+
+        @Override
+        public ListBuilder<T> add(Class<? extends T> interfaceType) throws DIRuntimeException {
+            types.add(interfaceType);
+            return this;
+        }
+
+        @Override
+        public ListBuilder<T> add(T value) throws DIRuntimeException {
+            return this;
+        }
+
+        @Override
+        public ListBuilder<T> addAll(Collection<T> values) throws DIRuntimeException {
+            return this;
+        }
+
+        @Override
+        public ListBuilder<T> addAfter(Class<? extends T> interfaceType, Class<? extends T> afterType)
+                throws DIRuntimeException {
+            types.add(interfaceType);
+            return this;
+        }
+
+        @Override
+        public ListBuilder<T> addAfter(T value, Class<? extends T> afterType) throws DIRuntimeException {
+            return this;
+        }
+
+        @Override
+        public ListBuilder<T> addAllAfter(Collection<T> values, Class<? extends T> afterType)
+                throws DIRuntimeException {
+            return this;
+        }
+
+        @Override
+        public ListBuilder<T> insertBefore(Class<? extends T> interfaceType, Class<? extends T> beforeType)
+                throws DIRuntimeException {
+            types.add(interfaceType);
+            return this;
+        }
+
+        @Override
+        public ListBuilder<T> insertBefore(T value, Class<? extends T> beforeType) throws DIRuntimeException {
+            return this;
+        }
+
+        @Override
+        public ListBuilder<T> insertAllBefore(Collection<T> values, Class<? extends T> afterType)
+                throws DIRuntimeException {
+            return this;
+        }
+
+        @Override
+        public MapBuilder<T> put(String key, Class<? extends T> interfaceType) throws DIRuntimeException {
+            types.add(interfaceType);
+            return this;
+        }
+
+        @Override
+        public MapBuilder<T> put(String key, T value) throws DIRuntimeException {
+            return this;
+        }
+
+        @Override
+        public MapBuilder<T> putAll(Map<String, T> map) throws DIRuntimeException {
+            return this;
+        }
+
+        @Override
+        public DecoratorBuilder<T> after(Class<? extends T> decoratorImplementationType) throws DIRuntimeException {
+            return this;
+        }
+
+        @Override
+        public DecoratorBuilder<T> before(Class<? extends T> decoratorImplementationType) throws DIRuntimeException {
+            return this;
+        }
+
+        @Override
+        public void in(Scope scope) {
+        }
+
+        @Override
+        public void inSingletonScope() {
+        }
+
+        @Override
+        public void withoutScope() {
+        }
+    }
+}
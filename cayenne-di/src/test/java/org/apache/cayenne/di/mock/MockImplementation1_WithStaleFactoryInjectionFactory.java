@@ -0,0 +1,44 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.di.mock;
+
+import org.apache.cayenne.di.Key;
+import org.apache.cayenne.di.spi.DefaultInjector;
+import org.apache.cayenne.di.spi.InjectionFactory;
+
+/**
+ * A factory registered in "META-INF/cayenne/injection-factories.properties" of the test
+ * resources with a stamp that doesn't match its class, so it must never be used.
+ */
+public class MockImplementation1_WithStaleFactoryInjectionFactory
+        extends InjectionFactory<MockImplementation1_WithStaleFactory> {
+
+    @Override
+    public MockImplementation1_WithStaleFactory create(DefaultInjector injector) {
+        MockImplementation1_WithStaleFactory object = new MockImplementation1_WithStaleFactory();
+        object.creator = "factory";
+        injectMembers(object, injector);
+        return object;
+    }
+
+    @Override
+    public void injectMembers(MockImplementation1_WithStaleFactory object, DefaultInjector injector) {
+        object.name = getInstance(injector, Key.get(String.class, ""));
+    }
+}
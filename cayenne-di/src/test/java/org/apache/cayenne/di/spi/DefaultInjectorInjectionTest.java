@@ -28,6 +28,9 @@ import org.apache.cayenne.di.mock.MockImplementation1_ListConfiguration;
 import org.apache.cayenne.di.mock.MockImplementation1_ListConfigurationMock5;
 import org.apache.cayenne.di.mock.MockImplementation1_MapConfiguration;
 import org.apache.cayenne.di.mock.MockImplementation1_MapWithWildcards;
+import org.apache.cayenne.di.mock.MockImplementation1_WithFactory;
+import org.apache.cayenne.di.mock.MockImplementation1_WithFactoryInjectionFactory;
+import org.apache.cayenne.di.mock.MockImplementation1_WithStaleFactory;
 import org.apache.cayenne.di.mock.MockImplementation1_WithInjector;
 import org.apache.cayenne.di.mock.MockImplementation2;
 import org.apache.cayenne.di.mock.MockImplementation2Sub1;
@@ -46,6 +49,7 @@ import org.apache.cayenne.di.mock.MockInterface4;
 import org.apache.cayenne.di.mock.MockInterface5;
 import org.junit.Test;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Map;
@@ -55,6 +59,16 @@ import static org.junit.Assert.*;
 
 public class DefaultInjectorInjectionTest {
 
+    static {
+        // class file stamps depend on the compiler, so the factory with a matching stamp is registered here
+        try {
+            InjectionFactories.addIndexEntry(MockImplementation1_WithFactory.class, InjectionFactories.indexEntry(
+                    MockImplementation1_WithFactory.class, MockImplementation1_WithFactoryInjectionFactory.class.getName()));
+        } catch (IOException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     @Test
     public void testFieldInjection() {
 
@@ -538,4 +552,45 @@ public class DefaultInjectorInjectionTest {
         assertEquals("injector_not_null", service.getName());
     }
 
+    @Test
+    public void testInjectionFactory() {
+
+        Module module = binder -> {
+            binder.bind(String.class).toInstance("xyz");
+            binder.bind(MockInterface1.class).to(MockImplementation1_WithFactory.class);
+        };
+
+        DefaultInjector injector = new DefaultInjector(module);
+
+        MockInterface1 service = injector.getInstance(MockInterface1.class);
+        assertThat(service, instanceOf(MockImplementation1_WithFactory.class));
+        assertEquals("factory:xyz", service.getName());
+    }
+
+    @Test
+    public void testInjectionFactory_InjectMembers() {
+
+        Module module = binder -> binder.bind(String.class).toInstance("xyz");
+
+        DefaultInjector injector = new DefaultInjector(module);
+
+        MockImplementation1_WithFactory object = new MockImplementation1_WithFactory();
+        injector.injectMembers(object);
+        assertEquals("reflection:xyz", object.getName());
+    }
+
+    @Test
+    public void testInjectionFactory_StampMismatch() {
+
+        Module module = binder -> {
+            binder.bind(String.class).toInstance("xyz");
+            binder.bind(MockInterface1.class).to(MockImplementation1_WithStaleFactory.class);
+        };
+
+        DefaultInjector injector = new DefaultInjector(module);
+
+        MockInterface1 service = injector.getInstance(MockInterface1.class);
+        assertThat(service, instanceOf(MockImplementation1_WithStaleFactory.class));
+        assertEquals("reflection:xyz", service.getName());
+    }
 }
@@ -0,0 +1,146 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.di.spi;
+
+import org.apache.cayenne.di.Key;
+import org.apache.cayenne.di.Module;
+import org.apache.cayenne.di.mock.MockImplementation1;
+import org.apache.cayenne.di.mock.MockImplementation1Alt;
+import org.apache.cayenne.di.mock.MockImplementation1Alt2;
+import org.apache.cayenne.di.mock.MockImplementation1_ListConfiguration;
+import org.apache.cayenne.di.mock.MockImplementation1_Provider;
+import org.apache.cayenne.di.mock.MockImplementation1_WithFactory;
+import org.apache.cayenne.di.mock.MockImplementation2;
+import org.apache.cayenne.di.mock.MockInterface1;
+import org.apache.cayenne.di.mock.MockInterface1_Decorator1;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+public class InjectionFactoryGeneratorTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testAddModule() {
+
+        Module module = binder -> {
+            binder.bind(MockInterface1.class).to(MockImplementation1.class);
+            binder.bind(Key.get(MockInterface1.class, "p")).toProvider(MockImplementation1_Provider.class);
+            binder.bind(Key.get(MockInterface1.class, "i")).toInstance(new MockImplementation1Alt2());
+            binder.bindList(MockInterface1.class).add(MockImplementation1Alt.class);
+            binder.bindMap(Object.class).put("x", MockImplementation1_ListConfiguration.class);
+            binder.decorate(MockInterface1.class).before(MockInterface1_Decorator1.class);
+        };
+
+        InjectionFactoryGenerator generator = new InjectionFactoryGenerator().addModule(module);
+
+        assertEquals(new HashSet<>(Arrays.asList(
+                MockImplementation1.class,
+                MockImplementation1_Provider.class,
+                MockImplementation1Alt.class,
+                MockImplementation1_ListConfiguration.class)), new HashSet<>(generator.getTypes()));
+    }
+
+    @Test
+    public void testFactorySource() {
+
+        InjectionFactoryGenerator generator = new InjectionFactoryGenerator();
+        String source = generator.factorySource(MockImplementation1_WithFactory.class);
+
+        assertNotNull(source);
+        assertTrue(source.startsWith("package org.apache.cayenne.di.mock;"));
+        assertTrue(source.contains("public class MockImplementation1_WithFactory$$InjectionFactory extends "
+                + "org.apache.cayenne.di.spi.InjectionFactory<org.apache.cayenne.di.mock.MockImplementation1_WithFactory>"));
+        assertTrue(source.contains("object = new org.apache.cayenne.di.mock.MockImplementation1_WithFactory();"));
+        assertTrue(source.contains("object.name = (java.lang.String) getInstance(injector, "
+                + "org.apache.cayenne.di.Key.get(java.lang.String.class, \"\"));"));
+    }
+
+    @Test
+    public void testGenerate() throws Exception {
+
+        File sourceDir = temp.newFolder("java");
+        File resourceDir = temp.newFolder("resources");
+
+        InjectionFactoryGenerator generator = new InjectionFactoryGenerator()
+                .addType(MockImplementation1_WithFactory.class);
+        Map<String, String> index = generator.generate(sourceDir, resourceDir);
+
+        String entry = MockImplementation1_WithFactory.class.getName() + "$$InjectionFactory,"
+                + InjectionFactories.stamp(MockImplementation1_WithFactory.class);
+        assertEquals(Collections.singletonMap(MockImplementation1_WithFactory.class.getName(), entry), index);
+
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(new File(resourceDir, InjectionFactories.INDEX_LOCATION))) {
+            properties.load(in);
+        }
+        assertEquals(entry, properties.getProperty(MockImplementation1_WithFactory.class.getName()));
+    }
+
+    @Test
+    public void testStamp() throws Exception {
+
+        String stamp = InjectionFactories.stamp(MockImplementation1_WithFactory.class);
+        assertNotNull(stamp);
+        assertEquals(stamp, InjectionFactories.stamp(MockImplementation1_WithFactory.class));
+        assertNotEquals(stamp, InjectionFactories.stamp(MockImplementation1_ListConfiguration.class));
+    }
+
+    @Test
+    public void testFactorySource_ConstructorInjection() {
+
+        InjectionFactoryGenerator generator = new InjectionFactoryGenerator();
+        String source = generator.factorySource(MockImplementation1_ListConfiguration.class);
+
+        assertNotNull(source);
+        assertTrue(source.contains("java.util.List p0 = (java.util.List) getInstance(injector, "
+                + "org.apache.cayenne.di.Key.getListOf(java.lang.Object.class, \"xyz\"));"));
+        assertTrue(source.contains("object = new org.apache.cayenne.di.mock.MockImplementation1_ListConfiguration(p0);"));
+    }
+
+    @Test
+    public void testFactorySource_PrivateField() {
+
+        InjectionFactoryGenerator generator = new InjectionFactoryGenerator();
+        assertNull(generator.factorySource(MockImplementation2.class));
+        assertEquals("field org.apache.cayenne.di.mock.MockImplementation2.service: private field",
+                generator.getSkipped().get(MockImplementation2.class));
+    }
+
+    @Test
+    public void testFactorySource_Interface() {
+
+        InjectionFactoryGenerator generator = new InjectionFactoryGenerator();
+        assertNull(generator.factorySource(MockInterface1.class));
+        assertEquals("not a concrete class", generator.getSkipped().get(MockInterface1.class));
+    }
+}
@@ -77,6 +77,19 @@ public class GradleCayenneExtension {
      */
     private final Class<DbGenerateTask> cdbgen = DbGenerateTask.class;
 
+    /**
+     * Shortcut for the csnapshot task.
+     * Can be used in defining additional tasks like:
+     * <pre>{@code
+     * task customCsnapshot(type: cayenne.csnapshot) {
+     *     //...
+     * }
+     * }</pre>
+     *
+     * @since 4.1
+     */
+    private final Class<SnapshotTask> csnapshot = SnapshotTask.class;
+
     /**
      * Default data map that will be used in all tasks.
      * Can be overridden per task.
@@ -125,6 +138,13 @@ public class GradleCayenneExtension {
         return cdbgen;
     }
 
+    /**
+     * @since 4.1
+     */
+    public Class<SnapshotTask> getCsnapshot() {
+        return csnapshot;
+    }
+
     public String getVersion() {
         return version;
     }
@@ -42,5 +42,9 @@ public class GradlePlugin implements Plugin<Project> {
         Map<String, Object> map2 = new HashMap<>(1);
         map2.put("type", DbGenerateTask.class);
         project.task(map2, "cdbgen");
+
+        Map<String, Object> map3 = new HashMap<>(1);
+        map3.put("type", SnapshotTask.class);
+        project.task(map3, "csnapshot");
     }
 }
\ No newline at end of file
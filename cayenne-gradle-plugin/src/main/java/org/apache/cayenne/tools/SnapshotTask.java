@@ -0,0 +1,113 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.tools;
+
+import org.apache.cayenne.configuration.DataChannelDescriptor;
+import org.apache.cayenne.configuration.DataChannelDescriptorLoader;
+import org.apache.cayenne.configuration.snapshot.ProjectSnapshot;
+import org.apache.cayenne.dbsync.DbSyncModule;
+import org.apache.cayenne.dbsync.reverse.configuration.ToolsModule;
+import org.apache.cayenne.di.DIBootstrap;
+import org.apache.cayenne.di.Injector;
+import org.apache.cayenne.resource.URLResource;
+import org.apache.cayenne.util.Util;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.TaskAction;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+
+/**
+ * Writes a binary snapshot of a Cayenne project next to the project XML, so that ServerRuntime can load the project
+ * without parsing XML. By default snapshots "cayenne-project.xml" from the processed resources of the main source
+ * set, so it should run after "processResources".
+ *
+ * @since 4.1
+ */
+public class SnapshotTask extends DefaultTask {
+
+    private File projectFile;
+
+    @InputFile
+    public File getProjectFile() {
+        if (projectFile == null) {
+            projectFile = new File(getProject().getBuildDir(), "resources/main/cayenne-project.xml");
+        }
+
+        return projectFile;
+    }
+
+    @OutputFile
+    public File getSnapshotFile() {
+        File projectFile = getProjectFile();
+        return new File(projectFile.getParentFile(), ProjectSnapshot.snapshotLocation(projectFile.getName()));
+    }
+
+    @TaskAction
+    public void writeSnapshot() throws GradleException {
+
+        File snapshotFile = getSnapshotFile();
+        getLogger().info("Writing project snapshot {}", snapshotFile);
+
+        Injector injector = DIBootstrap.createInjector(new DbSyncModule(), new ToolsModule(getLogger()));
+
+        try {
+            DataChannelDescriptor descriptor = injector.getInstance(DataChannelDescriptorLoader.class)
+                    .load(new URLResource(getProjectFile().toURI().toURL())).getRootNode();
+
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(snapshotFile))) {
+                ProjectSnapshot.write(descriptor, out);
+            }
+        } catch (Exception ex) {
+            snapshotFile.delete();
+
+            Throwable th = Util.unwindException(ex);
+            String message = "Error writing project snapshot";
+            if (th.getLocalizedMessage() != null) {
+                message += ": " + th.getLocalizedMessage();
+            }
+
+            getLogger().error(message);
+            throw new GradleException(message, th);
+        }
+    }
+
+    // setters and getters that will be used by .gradle scripts
+
+    public void setProjectFile(File projectFile) {
+        this.projectFile = projectFile;
+    }
+
+    public void setProjectFile(String projectFileName) {
+        this.projectFile = getProject().file(projectFileName);
+    }
+
+    public void projectFile(String projectFileName) {
+        setProjectFile(projectFileName);
+    }
+
+    public void projectFile(File projectFile) {
+        setProjectFile(projectFile);
+    }
+}
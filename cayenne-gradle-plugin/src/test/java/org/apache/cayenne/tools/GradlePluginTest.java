@@ -38,6 +38,7 @@ public class GradlePluginTest {
         assertTrue(project.getTasks().getByName("cgen") instanceof CgenTask);
         assertTrue(project.getTasks().getByName("cdbimport") instanceof DbImportTask);
         assertTrue(project.getTasks().getByName("cdbgen") instanceof DbGenerateTask);
+        assertTrue(project.getTasks().getByName("csnapshot") instanceof SnapshotTask);
 
         assertTrue(project.getExtensions().getByName("cayenne") instanceof GradleCayenneExtension);
     }
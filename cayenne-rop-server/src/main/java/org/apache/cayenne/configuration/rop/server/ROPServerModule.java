@@ -20,10 +20,13 @@ package org.apache.cayenne.configuration.rop.server;
 
 import org.apache.cayenne.configuration.Constants;
 import org.apache.cayenne.di.Binder;
+import org.apache.cayenne.di.Key;
 import org.apache.cayenne.di.MapBuilder;
 import org.apache.cayenne.di.Module;
 import org.apache.cayenne.remote.RemoteService;
+import org.apache.cayenne.rop.ROPConstants;
 import org.apache.cayenne.rop.ROPSerializationService;
+import org.apache.cayenne.rop.ServerHessian2SerializationServiceProvider;
 import org.apache.cayenne.rop.ServerHessianSerializationServiceProvider;
 import org.apache.cayenne.rop.ServerHttpRemoteService;
 
@@ -57,6 +60,8 @@ public class ROPServerModule implements Module {
 
         binder.bind(RemoteService.class).to(ServerHttpRemoteService.class);
 		binder.bind(ROPSerializationService.class).toProvider(ServerHessianSerializationServiceProvider.class);
+        binder.bind(Key.get(ROPSerializationService.class, ROPConstants.HESSIAN2_SERIALIZATION))
+                .toProvider(ServerHessian2SerializationServiceProvider.class);
     }
 
 }
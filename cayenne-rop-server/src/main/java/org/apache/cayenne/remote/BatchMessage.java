@@ -0,0 +1,56 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.remote;
+
+import java.util.List;
+
+/**
+ * A message that carries a number of other messages, processed by the server in a single request. The server
+ * replies with a List of results in the order of messages. A message that failed is represented in the List by
+ * a {@link org.apache.cayenne.CayenneRuntimeException} instead of a result, so that the rest of the batch is
+ * still delivered.
+ *
+ * @since 4.1
+ */
+public class BatchMessage implements ClientMessage {
+
+    protected List<ClientMessage> messages;
+
+    // for hessian serialization
+    @SuppressWarnings("unused")
+    private BatchMessage() {
+
+    }
+
+    public BatchMessage(List<ClientMessage> messages) {
+        this.messages = messages;
+    }
+
+    public List<ClientMessage> getMessages() {
+        return messages;
+    }
+
+    /**
+     * Returns a description of the type of message. In this case "Batch" with a number of messages.
+     */
+    @Override
+    public String toString() {
+        return "Batch (" + messages.size() + " messages)";
+    }
+}
@@ -25,6 +25,7 @@ import org.apache.cayenne.access.ClientServerChannel;
 import org.apache.cayenne.access.DataContext;
 import org.apache.cayenne.configuration.Constants;
 import org.apache.cayenne.configuration.ObjectContextFactory;
+import org.apache.cayenne.remote.BatchMessage;
 import org.apache.cayenne.remote.ClientMessage;
 import org.apache.cayenne.remote.RemoteService;
 import org.apache.cayenne.remote.RemoteSession;
@@ -135,21 +136,34 @@ public abstract class BaseRemoteService implements RemoteService {
 
 		logger.debug("processMessage, sessionId: " + handler.getSession().getSessionId());
 
+		// a failure of a batched message is returned in place of its result,
+		// not to lose results of the other messages
+		if (message instanceof BatchMessage) {
+			return DispatchHelper.dispatchBatch(handler.getChannel(), (BatchMessage) message, this::wrapException);
+		}
+
 		// intercept and log exceptions
 		try {
 			return DispatchHelper.dispatch(handler.getChannel(), message);
 		} catch (Throwable th) {
+			throw wrapException(message, th);
+		}
+	}
 
-			String wrapperMessageString = "Exception processing message "
-					+ message.getClass().getName() + " of type " + message;
-			logger.info(wrapperMessageString, th);
+	/**
+	 * Logs an exception thrown while processing a message and recasts it to a
+	 * serializable form, as it will probably be propagated to the client.
+	 * 
+	 * @since 4.1
+	 */
+	protected CayenneRuntimeException wrapException(ClientMessage message, Throwable th) {
 
-			// This exception will probably be propagated to the client.
-			// Recast the exception to a serializable form.
-			Exception cause = new Exception(Util.unwindException(th).getLocalizedMessage());
+		String wrapperMessageString = "Exception processing message "
+				+ message.getClass().getName() + " of type " + message;
+		logger.info(wrapperMessageString, th);
 
-			throw new CayenneRuntimeException(wrapperMessageString, cause);
-		}
+		Exception cause = new Exception(Util.unwindException(th).getLocalizedMessage());
+		return new CayenneRuntimeException(wrapperMessageString, cause);
 	}
 
 	@Override
@@ -21,11 +21,16 @@ package org.apache.cayenne.remote.service;
 
 import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.DataChannel;
+import org.apache.cayenne.remote.BatchMessage;
 import org.apache.cayenne.remote.BootstrapMessage;
 import org.apache.cayenne.remote.ClientMessage;
 import org.apache.cayenne.remote.QueryMessage;
 import org.apache.cayenne.remote.SyncMessage;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
 /**
  * A helper class to match message types with DataChannel methods.
  * 
@@ -42,8 +47,33 @@ class DispatchHelper {
             return channel.onSync(null, sync.getSenderChanges(), sync.getType());
         } else if (message instanceof BootstrapMessage) {
             return channel.getEntityResolver().getClientEntityResolver();
+        } else if (message instanceof BatchMessage) {
+            return dispatchBatch(channel, (BatchMessage) message, (failed, th) -> th);
         } else {
             throw new CayenneRuntimeException("Message dispatch error. Unsupported message: %s", message);
         }
     }
+
+    /**
+     * Dispatches messages of a batch in order, returning a List of their results. A failure of a message is
+     * converted by the error handler and placed in the List instead of a result.
+     *
+     * @since 4.1
+     */
+    static List<Object> dispatchBatch(
+            DataChannel channel,
+            BatchMessage batch,
+            BiFunction<ClientMessage, Throwable, ? extends Throwable> errorHandler) {
+
+        List<Object> results = new ArrayList<>(batch.getMessages().size());
+        for (ClientMessage message : batch.getMessages()) {
+            try {
+                results.add(dispatch(channel, message));
+            } catch (Throwable th) {
+                results.add(errorHandler.apply(message, th));
+            }
+        }
+
+        return results;
+    }
 }
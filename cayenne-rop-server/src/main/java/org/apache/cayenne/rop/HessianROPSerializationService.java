@@ -18,6 +18,10 @@
  ****************************************************************/
 package org.apache.cayenne.rop;
 
+import com.caucho.hessian.io.AbstractHessianInput;
+import com.caucho.hessian.io.AbstractHessianOutput;
+import com.caucho.hessian.io.Hessian2Input;
+import com.caucho.hessian.io.Hessian2Output;
 import com.caucho.hessian.io.HessianInput;
 import com.caucho.hessian.io.HessianOutput;
 import com.caucho.hessian.io.SerializerFactory;
@@ -28,24 +32,37 @@ public class HessianROPSerializationService implements ROPSerializationService {
 
     protected SerializerFactory serializerFactory;
 
+    /**
+     * @since 4.1
+     */
+    protected boolean hessian2;
+
     public HessianROPSerializationService(SerializerFactory serializerFactory) {
+        this(serializerFactory, false);
+    }
+
+    /**
+     * Creates a service that uses Hessian 2 protocol if "hessian2" is true. Hessian 2 writes a class definition
+     * once per stream, with objects referring to it, so property names are not repeated for every object of a
+     * large result.
+     *
+     * @since 4.1
+     */
+    public HessianROPSerializationService(SerializerFactory serializerFactory, boolean hessian2) {
         this.serializerFactory = serializerFactory;
+        this.hessian2 = hessian2;
     }
 
     @Override
     public byte[] serialize(Object object) throws IOException {
         ByteArrayOutputStream bytes = new ByteArrayOutputStream();
-        HessianOutput out = new HessianOutput(bytes);
-        out.setSerializerFactory(serializerFactory);
-        out.writeObject(object);
-        out.flush();
-
+        serialize(object, bytes);
         return bytes.toByteArray();
     }
 
     @Override
     public void serialize(Object object, OutputStream outputStream) throws IOException {
-        HessianOutput out = new HessianOutput(outputStream);
+        AbstractHessianOutput out = createOutput(outputStream);
         out.setSerializerFactory(serializerFactory);
         out.writeObject(object);
         out.flush();
@@ -53,17 +70,28 @@ public class HessianROPSerializationService implements ROPSerializationService {
 
     @Override
     public <T> T deserialize(byte[] serializedObject, Class<T> objectClass) throws IOException {
-        HessianInput in = new HessianInput(new ByteArrayInputStream(serializedObject));
-        in.setSerializerFactory(serializerFactory);
-
-        return objectClass.cast(in.readObject());
+        return deserialize(new ByteArrayInputStream(serializedObject), objectClass);
     }
 
     @Override
     public <T> T deserialize(InputStream input, Class<T> objectClass) throws IOException {
-        HessianInput in = new HessianInput(input);
+        AbstractHessianInput in = createInput(input);
         in.setSerializerFactory(serializerFactory);
 
         return objectClass.cast(in.readObject());
     }
+
+    /**
+     * @since 4.1
+     */
+    protected AbstractHessianOutput createOutput(OutputStream outputStream) {
+        return hessian2 ? new Hessian2Output(outputStream) : new HessianOutput(outputStream);
+    }
+
+    /**
+     * @since 4.1
+     */
+    protected AbstractHessianInput createInput(InputStream inputStream) {
+        return hessian2 ? new Hessian2Input(inputStream) : new HessianInput(inputStream);
+    }
 }
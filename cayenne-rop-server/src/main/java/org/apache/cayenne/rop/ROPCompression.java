@@ -0,0 +1,135 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.rop;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compression of ROP messages, shared by the client and the server. Supports "gzip" and "deflate" HTTP content
+ * encodings. Streams are compressed and decompressed in small chunks, so a large message is never buffered as a
+ * whole.
+ *
+ * @since 4.1
+ */
+public class ROPCompression {
+
+    static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Returns whether an HTTP content encoding is supported, treating null as no compression.
+     */
+    public static boolean isSupported(String encoding) {
+        return encoding == null
+                || ROPConstants.GZIP_ENCODING.equalsIgnoreCase(encoding)
+                || ROPConstants.DEFLATE_ENCODING.equalsIgnoreCase(encoding);
+    }
+
+    /**
+     * Picks a supported encoding from the "Accept-Encoding" HTTP header, preferring "gzip". Encodings with zero
+     * quality value ("q=0") are not acceptable, and neither are the encodings not listed explicitly, unless
+     * matched by a "*" with a non-zero quality value. Returns null if none of the supported encodings is acceptable.
+     */
+    public static String selectEncoding(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+
+        // only acceptability matters here, so the quality values are not compared beyond zero vs. non-zero
+        Map<String, Boolean> acceptable = new HashMap<>();
+        for (String token : acceptEncoding.split(",")) {
+
+            String[] parts = token.split(";");
+            String encoding = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (!encoding.isEmpty()) {
+                acceptable.put(encoding, qualityValue(parts) > 0);
+            }
+        }
+
+        Boolean any = acceptable.get("*");
+        for (String encoding : new String[]{ROPConstants.GZIP_ENCODING, ROPConstants.DEFLATE_ENCODING}) {
+            Boolean accepted = acceptable.get(encoding);
+            if (accepted != null ? accepted : Boolean.TRUE.equals(any)) {
+                return encoding;
+            }
+        }
+
+        return null;
+    }
+
+    private static double qualityValue(String[] encodingParts) {
+        for (int i = 1; i < encodingParts.length; i++) {
+            String[] parameter = encodingParts[i].split("=", 2);
+            if (parameter.length == 2 && "q".equalsIgnoreCase(parameter[0].trim())) {
+                try {
+                    return Double.parseDouble(parameter[1].trim());
+                } catch (NumberFormatException e) {
+                    // treat a malformed quality value as unacceptable
+                    return 0;
+                }
+            }
+        }
+
+        return 1;
+    }
+
+    /**
+     * Wraps a stream to compress data written to it with a given encoding. Closing the returned stream writes the
+     * end of compressed data and closes the underlying stream.
+     */
+    public static OutputStream compress(OutputStream out, String encoding) throws IOException {
+        if (encoding == null) {
+            return new BufferedOutputStream(out, BUFFER_SIZE);
+        } else if (ROPConstants.GZIP_ENCODING.equalsIgnoreCase(encoding)) {
+            return new BufferedOutputStream(new GZIPOutputStream(out, BUFFER_SIZE), BUFFER_SIZE);
+        } else if (ROPConstants.DEFLATE_ENCODING.equalsIgnoreCase(encoding)) {
+            return new BufferedOutputStream(new DeflaterOutputStream(out), BUFFER_SIZE);
+        }
+
+        throw new IOException("Unsupported content encoding: " + encoding);
+    }
+
+    /**
+     * Wraps a stream to decompress data read from it, that was compressed with a given encoding.
+     */
+    public static InputStream decompress(InputStream in, String encoding) throws IOException {
+        if (encoding == null) {
+            return in;
+        } else if (ROPConstants.GZIP_ENCODING.equalsIgnoreCase(encoding)) {
+            return new BufferedInputStream(new GZIPInputStream(in, BUFFER_SIZE), BUFFER_SIZE);
+        } else if (ROPConstants.DEFLATE_ENCODING.equalsIgnoreCase(encoding)) {
+            return new BufferedInputStream(new InflaterInputStream(in), BUFFER_SIZE);
+        }
+
+        throw new IOException("Unsupported content encoding: " + encoding);
+    }
+
+    private ROPCompression() {
+    }
+}
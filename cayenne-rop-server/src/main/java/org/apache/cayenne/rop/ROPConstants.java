@@ -25,4 +25,28 @@ public class ROPConstants {
 
     public static final String ESTABLISH_SESSION_OPERATION = "establish_session";
     public static final String ESTABLISH_SHARED_SESSION_OPERATION = "establish_shared_session";
+
+    /**
+     * HTTP header of a request sent in a serialization format other than the default one configured on the server.
+     *
+     * @since 4.1
+     */
+    public static final String SERIALIZATION_HEADER = "X-Cayenne-ROP-Serialization";
+
+    /**
+     * {@link #SERIALIZATION_HEADER} value of the requests serialized with Hessian 2 protocol.
+     *
+     * @since 4.1
+     */
+    public static final String HESSIAN2_SERIALIZATION = "hessian2";
+
+    /**
+     * @since 4.1
+     */
+    public static final String GZIP_ENCODING = "gzip";
+
+    /**
+     * @since 4.1
+     */
+    public static final String DEFLATE_ENCODING = "deflate";
 }
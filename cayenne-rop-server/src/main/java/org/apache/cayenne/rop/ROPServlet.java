@@ -23,6 +23,7 @@ import org.apache.cayenne.configuration.rop.server.ROPServerModule;
 import org.apache.cayenne.configuration.server.ServerRuntime;
 import org.apache.cayenne.configuration.web.WebConfiguration;
 import org.apache.cayenne.configuration.web.WebUtil;
+import org.apache.cayenne.di.Key;
 import org.apache.cayenne.di.Module;
 import org.apache.cayenne.remote.ClientMessage;
 import org.apache.cayenne.remote.RemoteService;
@@ -35,6 +36,8 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Collection;
 import java.util.Map;
 
@@ -44,6 +47,11 @@ public class ROPServlet extends HttpServlet {
 	protected RemoteService remoteService;
     protected ROPSerializationService serializationService;
 
+    /**
+     * @since 4.1
+     */
+    protected ROPSerializationService hessian2SerializationService;
+
     @Override
     public void init(ServletConfig configuration) throws ServletException {
 
@@ -66,6 +74,8 @@ public class ROPServlet extends HttpServlet {
 
         this.remoteService = runtime.getInjector().getInstance(RemoteService.class);
         this.serializationService = runtime.getInjector().getInstance(ROPSerializationService.class);
+        this.hessian2SerializationService = runtime.getInjector().getInstance(
+                Key.get(ROPSerializationService.class, ROPConstants.HESSIAN2_SERIALIZATION));
 
         WebUtil.setCayenneRuntime(servletContext, runtime);
         super.init(configuration);
@@ -103,26 +113,34 @@ public class ROPServlet extends HttpServlet {
 
             String operation = req.getParameter(ROPConstants.OPERATION_PARAMETER);
 
+            ROPSerializationService requestSerializationService = getSerializationService(req);
+
             if (operation != null) {
                 switch (operation) {
                     case ROPConstants.ESTABLISH_SESSION_OPERATION:
                         RemoteSession session = remoteService.establishSession();
-                        serializationService.serialize(session, resp.getOutputStream());
+                        writeResponse(requestSerializationService, session, req, resp);
                         break;
                     case ROPConstants.ESTABLISH_SHARED_SESSION_OPERATION:
                         String sessionName = req.getParameter(ROPConstants.SESSION_NAME_PARAMETER);
                         RemoteSession sharedSession = remoteService.establishSharedSession(sessionName);
 
-                        serializationService.serialize(sharedSession, resp.getOutputStream());
+                        writeResponse(requestSerializationService, sharedSession, req, resp);
                         break;
                     default:
                         throw new ServletException("Unknown operation: " + operation);
                 }
             } else {
+                String requestEncoding = req.getHeader("Content-Encoding");
+                if (!ROPCompression.isSupported(requestEncoding)) {
+                    throw new ServletException("Unsupported content encoding: " + requestEncoding);
+                }
+
+                InputStream in = ROPCompression.decompress(req.getInputStream(), requestEncoding);
                 Object response = remoteService.processMessage(
-                        serializationService.deserialize(req.getInputStream(), ClientMessage.class));
+                        requestSerializationService.deserialize(in, ClientMessage.class));
 
-                serializationService.serialize(response, resp.getOutputStream());
+                writeResponse(requestSerializationService, response, req, resp);
             }
         } catch (RuntimeException | ServletException e) {
             throw e;
@@ -132,4 +150,38 @@ public class ROPServlet extends HttpServlet {
             ROPRequestContext.end();
         }
     }
+
+    /**
+     * Returns a serialization service for the format requested by the client with
+     * {@link ROPConstants#SERIALIZATION_HEADER}, falling back to the default one.
+     *
+     * @since 4.1
+     */
+    protected ROPSerializationService getSerializationService(HttpServletRequest req) {
+        return ROPConstants.HESSIAN2_SERIALIZATION.equals(req.getHeader(ROPConstants.SERIALIZATION_HEADER))
+                ? hessian2SerializationService
+                : serializationService;
+    }
+
+    /**
+     * Serializes a response directly into the servlet output stream, so that large results are not buffered in
+     * memory. The response is compressed on the fly if the client accepts one of the supported encodings.
+     *
+     * @since 4.1
+     */
+    protected void writeResponse(
+            ROPSerializationService serializationService,
+            Object response,
+            HttpServletRequest req,
+            HttpServletResponse resp) throws IOException {
+
+        String encoding = ROPCompression.selectEncoding(req.getHeader("Accept-Encoding"));
+        if (encoding != null) {
+            resp.setHeader("Content-Encoding", encoding);
+        }
+
+        try (OutputStream out = ROPCompression.compress(resp.getOutputStream(), encoding)) {
+            serializationService.serialize(response, out);
+        }
+    }
 }
@@ -22,11 +22,17 @@ package org.apache.cayenne.remote.service;
 import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.MockDataChannel;
 import org.apache.cayenne.map.EntityResolver;
+import org.apache.cayenne.remote.BatchMessage;
 import org.apache.cayenne.remote.BootstrapMessage;
 import org.apache.cayenne.remote.ClientMessage;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 
@@ -51,4 +57,23 @@ public class DispatchHelperTest {
             // expected
         }
     }
+
+    @Test
+    public void testBatchMessage() {
+        EntityResolver resolver = new EntityResolver();
+        MockDataChannel channel = new MockDataChannel(resolver);
+
+        BatchMessage batch = new BatchMessage(Arrays.asList(
+                new BootstrapMessage(),
+                mock(ClientMessage.class),
+                new BootstrapMessage()));
+
+        List<?> results = (List<?>) DispatchHelper.dispatch(channel, batch);
+        assertEquals(3, results.size());
+
+        // a failed message doesn't prevent processing of the following ones
+        assertSame(resolver.getClientEntityResolver(), results.get(0));
+        assertTrue(results.get(1) instanceof CayenneRuntimeException);
+        assertSame(resolver.getClientEntityResolver(), results.get(2));
+    }
 }
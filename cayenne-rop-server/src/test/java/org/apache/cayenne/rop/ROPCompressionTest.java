@@ -0,0 +1,111 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.rop;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ROPCompressionTest {
+
+    @Test
+    public void testSelectEncoding() {
+        assertNull(ROPCompression.selectEncoding(null));
+        assertNull(ROPCompression.selectEncoding("br, identity"));
+        assertEquals("gzip", ROPCompression.selectEncoding("gzip"));
+        assertEquals("gzip", ROPCompression.selectEncoding("deflate, GZIP;q=0.5"));
+        assertEquals("deflate", ROPCompression.selectEncoding("br;q=1.0, deflate"));
+    }
+
+    @Test
+    public void testSelectEncoding_ZeroQuality() {
+        assertNull(ROPCompression.selectEncoding("gzip;q=0"));
+        assertNull(ROPCompression.selectEncoding("gzip;q=0.0, deflate; q=0"));
+        assertEquals("deflate", ROPCompression.selectEncoding("gzip;q=0, deflate"));
+        assertEquals("deflate", ROPCompression.selectEncoding("GZIP; Q=0.000, deflate;q=0.1"));
+        assertNull(ROPCompression.selectEncoding("gzip;q=zero"));
+    }
+
+    @Test
+    public void testSelectEncoding_Wildcard() {
+        assertEquals("gzip", ROPCompression.selectEncoding("*"));
+        assertEquals("deflate", ROPCompression.selectEncoding("gzip;q=0, *;q=0.5"));
+        assertNull(ROPCompression.selectEncoding("br, *;q=0"));
+        assertEquals("gzip", ROPCompression.selectEncoding("gzip, *;q=0"));
+    }
+
+    @Test
+    public void testIsSupported() {
+        assertTrue(ROPCompression.isSupported(null));
+        assertTrue(ROPCompression.isSupported("gzip"));
+        assertTrue(ROPCompression.isSupported("deflate"));
+        assertFalse(ROPCompression.isSupported("br"));
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        assertRoundTrip(null);
+        assertRoundTrip(ROPConstants.GZIP_ENCODING);
+        assertRoundTrip(ROPConstants.DEFLATE_ENCODING);
+    }
+
+    @Test(expected = IOException.class)
+    public void testCompress_Unsupported() throws IOException {
+        ROPCompression.compress(new ByteArrayOutputStream(), "br");
+    }
+
+    private void assertRoundTrip(String encoding) throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            text.append("property").append(i % 10).append(';');
+        }
+        byte[] data = text.toString().getBytes(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = ROPCompression.compress(bytes, encoding)) {
+            out.write(data);
+        }
+
+        if (encoding != null) {
+            assertTrue(bytes.size() < data.length / 10);
+        }
+
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (InputStream in = ROPCompression.decompress(new ByteArrayInputStream(bytes.toByteArray()), encoding)) {
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                result.write(buffer, 0, read);
+            }
+        }
+
+        assertArrayEquals(data, result.toByteArray());
+    }
+}
@@ -0,0 +1,646 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A DataRow that stores values in a flat array, with positions of the keys defined by
+ * {@link DataRowKeys} shared between many rows. Compared to a regular DataRow it has
+ * no per-row hash table and entry objects, so it takes noticeably less memory and
+ * produces less garbage when reading large results. Keys that are not a part of the
+ * shared DataRowKeys are still accepted and are stored in the inherited hash map.
+ * 
+ * @since 4.1
+ */
+public class CompactDataRow extends DataRow {
+
+    private static final long serialVersionUID = -2624349618011574398L;
+
+    // marks slots that have no mapping, as null is a valid value
+    private static final Object ABSENT = new Object();
+
+    protected transient DataRowKeys keys;
+    protected transient Object[] values;
+    protected transient int compactSize;
+
+    private transient Set<Map.Entry<String, Object>> entrySet;
+    private transient Set<String> keySet;
+    private transient Collection<Object> valuesView;
+
+    public CompactDataRow(DataRowKeys keys) {
+        super(0);
+        this.keys = keys;
+        this.values = new Object[keys.size()];
+        Arrays.fill(values, ABSENT);
+    }
+
+    public CompactDataRow(DataRowKeys keys, Map<String, ?> map) {
+        this(keys);
+        putAll(map);
+    }
+
+    /**
+     * Creates a copy of the DataRow that uses provided keys. Unlike copy constructors, it
+     * preserves version, replaced version and entity name of the original row.
+     */
+    public static CompactDataRow copyOf(DataRow row, DataRowKeys keys) {
+        CompactDataRow copy = new CompactDataRow(keys, row);
+        copy.version = row.getVersion();
+        copy.replacesVersion = row.getReplacesVersion();
+        copy.entityName = row.getEntityName();
+        return copy;
+    }
+
+    /**
+     * Returns DataRowKeys shared by this row.
+     */
+    public DataRowKeys getKeys() {
+        return keys;
+    }
+
+    @Override
+    public DataRow applyDiff(DataRow diff) {
+        CompactDataRow merged = new CompactDataRow(keys);
+        System.arraycopy(values, 0, merged.values, 0, values.length);
+        merged.compactSize = compactSize;
+
+        if (super.size() > 0) {
+            for (Map.Entry<String, Object> e : overflowEntrySet()) {
+                merged.put(e.getKey(), e.getValue());
+            }
+        }
+
+        for (Map.Entry<String, Object> entry : diff.entrySet()) {
+            merged.put(entry.getKey(), entry.getValue());
+        }
+
+        return merged;
+    }
+
+    private Set<Map.Entry<String, Object>> overflowEntrySet() {
+        return super.entrySet();
+    }
+
+    private static Object unmask(Object value) {
+        return value == ABSENT ? null : value;
+    }
+
+    @Override
+    public int size() {
+        return compactSize + super.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int i = keys.indexOf(key);
+        return i >= 0 ? unmask(values[i]) : super.get(key);
+    }
+
+    @Override
+    public Object getOrDefault(Object key, Object defaultValue) {
+        int i = keys.indexOf(key);
+        if (i >= 0) {
+            Object value = values[i];
+            return value != ABSENT ? value : defaultValue;
+        }
+
+        return super.getOrDefault(key, defaultValue);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        int i = keys.indexOf(key);
+        return i >= 0 ? values[i] != ABSENT : super.containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        for (Object v : values) {
+            if (v != ABSENT && Objects.equals(v, value)) {
+                return true;
+            }
+        }
+
+        return super.containsValue(value);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        int i = keys.indexOf(key);
+        if (i >= 0) {
+            return setSlot(i, value);
+        }
+
+        return super.put(key, value);
+    }
+
+    private Object setSlot(int i, Object value) {
+        Object old = values[i];
+        values[i] = value;
+
+        if (old == ABSENT) {
+            compactSize++;
+            return null;
+        }
+
+        return old;
+    }
+
+    private Object clearSlot(int i) {
+        Object old = values[i];
+        if (old == ABSENT) {
+            return null;
+        }
+
+        values[i] = ABSENT;
+        compactSize--;
+        return old;
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ?> m) {
+        for (Map.Entry<? extends String, ?> e : m.entrySet()) {
+            put(e.getKey(), e.getValue());
+        }
+    }
+
+    @Override
+    public Object remove(Object key) {
+        int i = keys.indexOf(key);
+        return i >= 0 ? clearSlot(i) : super.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(values, ABSENT);
+        compactSize = 0;
+        super.clear();
+    }
+
+    @Override
+    public Object putIfAbsent(String key, Object value) {
+        int i = keys.indexOf(key);
+        if (i >= 0) {
+            Object old = unmask(values[i]);
+            return old == null ? setSlot(i, value) : old;
+        }
+
+        return super.putIfAbsent(key, value);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        int i = keys.indexOf(key);
+        if (i >= 0) {
+            Object old = values[i];
+            if (old != ABSENT && Objects.equals(old, value)) {
+                clearSlot(i);
+                return true;
+            }
+
+            return false;
+        }
+
+        return super.remove(key, value);
+    }
+
+    @Override
+    public boolean replace(String key, Object oldValue, Object newValue) {
+        int i = keys.indexOf(key);
+        if (i >= 0) {
+            Object old = values[i];
+            if (old != ABSENT && Objects.equals(old, oldValue)) {
+                values[i] = newValue;
+                return true;
+            }
+
+            return false;
+        }
+
+        return super.replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public Object replace(String key, Object value) {
+        int i = keys.indexOf(key);
+        if (i >= 0) {
+            return values[i] != ABSENT ? setSlot(i, value) : null;
+        }
+
+        return super.replace(key, value);
+    }
+
+    @Override
+    public Object computeIfAbsent(String key, Function<? super String, ?> mappingFunction) {
+        int i = keys.indexOf(key);
+        if (i >= 0) {
+            Object old = unmask(values[i]);
+            if (old == null) {
+                Object value = mappingFunction.apply(key);
+                if (value != null) {
+                    setSlot(i, value);
+                }
+
+                return value;
+            }
+
+            return old;
+        }
+
+        return super.computeIfAbsent(key, mappingFunction);
+    }
+
+    @Override
+    public Object computeIfPresent(String key, BiFunction<? super String, ? super Object, ?> remappingFunction) {
+        int i = keys.indexOf(key);
+        if (i >= 0) {
+            Object old = unmask(values[i]);
+            if (old != null) {
+                Object value = remappingFunction.apply(key, old);
+                if (value != null) {
+                    values[i] = value;
+                } else {
+                    clearSlot(i);
+                }
+
+                return value;
+            }
+
+            return null;
+        }
+
+        return super.computeIfPresent(key, remappingFunction);
+    }
+
+    @Override
+    public Object compute(String key, BiFunction<? super String, ? super Object, ?> remappingFunction) {
+        int i = keys.indexOf(key);
+        if (i >= 0) {
+            Object value = remappingFunction.apply(key, unmask(values[i]));
+            if (value != null) {
+                setSlot(i, value);
+            } else {
+                clearSlot(i);
+            }
+
+            return value;
+        }
+
+        return super.compute(key, remappingFunction);
+    }
+
+    @Override
+    public Object merge(String key, Object value, BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+        int i = keys.indexOf(key);
+        if (i >= 0) {
+            Object old = unmask(values[i]);
+            Object newValue = old == null ? value : remappingFunction.apply(old, value);
+            if (newValue != null) {
+                setSlot(i, newValue);
+            } else {
+                clearSlot(i);
+            }
+
+            return newValue;
+        }
+
+        return super.merge(key, value, remappingFunction);
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super Object> action) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != ABSENT) {
+                action.accept(keys.getKey(i), values[i]);
+            }
+        }
+
+        super.forEach(action);
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super String, ? super Object, ?> function) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != ABSENT) {
+                values[i] = function.apply(keys.getKey(i), values[i]);
+            }
+        }
+
+        super.replaceAll(function);
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        Set<Map.Entry<String, Object>> es = entrySet;
+        return es != null ? es : (entrySet = new EntrySet());
+    }
+
+    @Override
+    public Set<String> keySet() {
+        Set<String> ks = keySet;
+        if (ks == null) {
+            ks = new AbstractSet<String>() {
+
+                @Override
+                public Iterator<String> iterator() {
+                    final Iterator<Map.Entry<String, Object>> it = entrySet().iterator();
+                    return new Iterator<String>() {
+
+                        @Override
+                        public boolean hasNext() {
+                            return it.hasNext();
+                        }
+
+                        @Override
+                        public String next() {
+                            return it.next().getKey();
+                        }
+
+                        @Override
+                        public void remove() {
+                            it.remove();
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return CompactDataRow.this.size();
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return containsKey(o);
+                }
+
+                @Override
+                public boolean remove(Object o) {
+                    if (containsKey(o)) {
+                        CompactDataRow.this.remove(o);
+                        return true;
+                    }
+
+                    return false;
+                }
+
+                @Override
+                public void clear() {
+                    CompactDataRow.this.clear();
+                }
+            };
+
+            keySet = ks;
+        }
+
+        return ks;
+    }
+
+    @Override
+    public Collection<Object> values() {
+        Collection<Object> vs = valuesView;
+        if (vs == null) {
+            vs = new AbstractCollection<Object>() {
+
+                @Override
+                public Iterator<Object> iterator() {
+                    final Iterator<Map.Entry<String, Object>> it = entrySet().iterator();
+                    return new Iterator<Object>() {
+
+                        @Override
+                        public boolean hasNext() {
+                            return it.hasNext();
+                        }
+
+                        @Override
+                        public Object next() {
+                            return it.next().getValue();
+                        }
+
+                        @Override
+                        public void remove() {
+                            it.remove();
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return CompactDataRow.this.size();
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return containsValue(o);
+                }
+
+                @Override
+                public void clear() {
+                    CompactDataRow.this.clear();
+                }
+            };
+
+            valuesView = vs;
+        }
+
+        return vs;
+    }
+
+    /**
+     * Returns a copy of this row with the same version.
+     */
+    @Override
+    public Object clone() {
+        return copyOf(this, keys);
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeObject(keys);
+
+        for (Object value : values) {
+            boolean present = value != ABSENT;
+            out.writeBoolean(present);
+            if (present) {
+                out.writeObject(value);
+            }
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        this.keys = (DataRowKeys) in.readObject();
+        this.values = new Object[keys.size()];
+
+        for (int i = 0; i < values.length; i++) {
+            if (in.readBoolean()) {
+                values[i] = in.readObject();
+                compactSize++;
+            } else {
+                values[i] = ABSENT;
+            }
+        }
+    }
+
+    final class EntrySet extends AbstractSet<Map.Entry<String, Object>> {
+
+        @Override
+        public Iterator<Map.Entry<String, Object>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return CompactDataRow.this.size();
+        }
+
+        @Override
+        public void clear() {
+            CompactDataRow.this.clear();
+        }
+    }
+
+    final class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+
+        private int next;
+        private int last;
+        private Iterator<Map.Entry<String, Object>> overflow;
+        private boolean lastFromOverflow;
+
+        EntryIterator() {
+            this.last = -1;
+            this.next = advance(0);
+        }
+
+        private int advance(int from) {
+            int i = from;
+            while (i < values.length && values[i] == ABSENT) {
+                i++;
+            }
+
+            return i;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next < values.length) {
+                return true;
+            }
+
+            if (overflow == null) {
+                overflow = overflowEntrySet().iterator();
+            }
+
+            return overflow.hasNext();
+        }
+
+        @Override
+        public Map.Entry<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            if (next < values.length) {
+                last = next;
+                next = advance(next + 1);
+                return new SlotEntry(last);
+            }
+
+            last = -1;
+            lastFromOverflow = true;
+            return overflow.next();
+        }
+
+        @Override
+        public void remove() {
+            if (lastFromOverflow) {
+                overflow.remove();
+                lastFromOverflow = false;
+            } else if (last >= 0) {
+                clearSlot(last);
+                last = -1;
+            } else {
+                throw new IllegalStateException();
+            }
+        }
+    }
+
+    final class SlotEntry implements Map.Entry<String, Object> {
+
+        private final int slot;
+
+        SlotEntry(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        public String getKey() {
+            return keys.getKey(slot);
+        }
+
+        @Override
+        public Object getValue() {
+            return unmask(values[slot]);
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            return setSlot(slot, value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            return Objects.equals(getKey(), e.getKey()) && Objects.equals(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+}
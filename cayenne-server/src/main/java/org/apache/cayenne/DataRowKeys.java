@@ -0,0 +1,121 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable ordered set of DataRow keys, mapping each key to a position in a flat
+ * array of values. A single instance is shared by all {@link CompactDataRow}s with the
+ * same structure, e.g. all rows read with the same RowDescriptor.
+ * 
+ * @since 4.1
+ */
+public final class DataRowKeys implements Serializable {
+
+    private static final long serialVersionUID = 2815369215489546373L;
+
+    private final String[] keys;
+    private final Map<String, Integer> index;
+
+    /**
+     * Creates DataRowKeys for the provided keys. Duplicate keys are ignored.
+     */
+    public DataRowKeys(String... keys) {
+        this(Arrays.asList(keys));
+    }
+
+    /**
+     * Creates DataRowKeys for the provided keys. Duplicate keys are ignored.
+     */
+    public DataRowKeys(Collection<String> keys) {
+        List<String> unique = new ArrayList<>(keys.size());
+        this.index = new HashMap<>((int) Math.ceil(keys.size() / 0.75));
+
+        for (String key : keys) {
+            if (!index.containsKey(key)) {
+                index.put(key, unique.size());
+                unique.add(key);
+            }
+        }
+
+        this.keys = unique.toArray(new String[unique.size()]);
+    }
+
+    /**
+     * Returns the number of keys.
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Returns a key at a given position.
+     */
+    public String getKey(int i) {
+        return keys[i];
+    }
+
+    /**
+     * Returns a position of a key or -1 if the key is not a part of this set.
+     */
+    public int indexOf(Object key) {
+        Integer i = index.get(key);
+        return i != null ? i : -1;
+    }
+
+    /**
+     * Returns whether all provided keys are a part of this set.
+     */
+    public boolean containsAll(Collection<?> keys) {
+        for (Object key : keys) {
+            if (!index.containsKey(key)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns DataRowKeys that contain keys of this object followed by the provided keys
+     * that are not a part of it.
+     */
+    public DataRowKeys union(Collection<String> keys) {
+        if (containsAll(keys)) {
+            return this;
+        }
+
+        List<String> all = new ArrayList<>(this.keys.length + keys.size());
+        all.addAll(Arrays.asList(this.keys));
+        all.addAll(keys);
+        return new DataRowKeys(all);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(keys);
+    }
+}
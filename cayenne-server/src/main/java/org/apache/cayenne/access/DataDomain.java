@@ -27,6 +27,7 @@ import org.apache.cayenne.ObjectContext;
 import org.apache.cayenne.QueryResponse;
 import org.apache.cayenne.cache.QueryCache;
 import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.dba.DbAdapter;
 import org.apache.cayenne.di.BeforeScopeEnd;
 import org.apache.cayenne.di.Inject;
 import org.apache.cayenne.event.EventManager;
@@ -52,6 +53,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * DataDomain performs query routing functions in Cayenne. DataDomain creates
@@ -89,6 +94,12 @@ public class DataDomain implements QueryEngine, DataChannel {
 	 */
 	protected int maxIdQualifierSize;
 
+	/**
+	 * @since 4.1
+	 */
+	protected int prefetchThreads;
+	private volatile ExecutorService prefetchExecutor;
+
 	/**
 	 * @since 3.1
 	 */
@@ -319,6 +330,7 @@ public class DataDomain implements QueryEngine, DataChannel {
 	synchronized DataRowStore nonNullSharedSnapshotCache() {
 		if (sharedSnapshotCache == null) {
 			this.sharedSnapshotCache = dataRowStoreFactory.createDataRowStore(name);
+			this.sharedSnapshotCache.setEntityResolver(getEntityResolver());
 		}
 
 		return sharedSnapshotCache;
@@ -513,6 +525,8 @@ public class DataDomain implements QueryEngine, DataChannel {
 			if (sharedSnapshotCache != null) {
 				sharedSnapshotCache.shutdown();
 			}
+
+			setPrefetchThreads(0);
 		}
 	}
 
@@ -800,6 +814,71 @@ public class DataDomain implements QueryEngine, DataChannel {
 		this.maxIdQualifierSize = maxIdQualifierSize;
 	}
 
+	/**
+	 * Returns a maximum number of values to match in a single ID qualifier of a
+	 * query against a given DataMap. This is the smaller of
+	 * {@link #getMaxIdQualifierSize()} and the limit of the DataNode adapter.
+	 *
+	 * @since 4.1
+	 */
+	int getMaxIdQualifierSize(DataMap dataMap) {
+		int max = maxIdQualifierSize;
+
+		DbAdapter adapter = lookupDataNode(dataMap).getAdapter();
+		int adapterMax = adapter != null ? adapter.getMaxIdQualifierSize() : -1;
+		if (adapterMax > 0 && (max <= 0 || adapterMax < max)) {
+			max = adapterMax;
+		}
+
+		return max;
+	}
+
+	/**
+	 * Returns a number of threads used to run DISJOINT_BY_ID prefetch queries
+	 * concurrently. Zero means that prefetch queries are run one by one in the
+	 * calling thread.
+	 *
+	 * @since 4.1
+	 */
+	public int getPrefetchThreads() {
+		return prefetchThreads;
+	}
+
+	/**
+	 * Sets a number of threads used to run DISJOINT_BY_ID prefetch queries
+	 * concurrently. Each concurrent query runs in its own transaction on a
+	 * separate connection, so this is only done for queries that are not
+	 * part of a caller transaction.
+	 *
+	 * @since 4.1
+	 */
+	public synchronized void setPrefetchThreads(int prefetchThreads) {
+		this.prefetchThreads = Math.max(0, prefetchThreads);
+
+		ExecutorService oldExecutor = this.prefetchExecutor;
+		if (this.prefetchThreads > 0) {
+			String threadName = "cayenne-prefetch-" + getName();
+			ThreadPoolExecutor executor = new ThreadPoolExecutor(this.prefetchThreads, this.prefetchThreads, 30,
+					TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+						Thread thread = new Thread(r, threadName);
+						thread.setDaemon(true);
+						return thread;
+					});
+			executor.allowCoreThreadTimeOut(true);
+			this.prefetchExecutor = executor;
+		} else {
+			this.prefetchExecutor = null;
+		}
+
+		if (oldExecutor != null) {
+			oldExecutor.shutdown();
+		}
+	}
+
+	ExecutorService getPrefetchExecutor() {
+		return prefetchExecutor;
+	}
+
 	TransactionManager getTransactionManager() {
 		return transactionManager;
 	}
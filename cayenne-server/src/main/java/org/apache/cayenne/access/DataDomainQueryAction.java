@@ -633,7 +633,8 @@ class DataDomainQueryAction implements QueryRouter, OperationObserver {
 
             // take a shortcut when no prefetches exist...
             if (prefetchTree == null) {
-                return new ObjectResolver(context, descriptor, metadata.isRefreshingObjects())
+                return new ObjectResolver(context, descriptor, metadata.isRefreshingObjects(),
+                        metadata.getParallelMaterializationThreshold())
                         .synchronizedRootResultNodeFromDataRows(normalizedRows);
             } else {
                 HierarchicalObjectResolver resolver = new HierarchicalObjectResolver(context, metadata);
@@ -731,7 +732,8 @@ class DataDomainQueryAction implements QueryRouter, OperationObserver {
             }
 
             if (prefetchTree == null) {
-                return new ObjectResolver(context, descriptor, metadata.isRefreshingObjects())
+                return new ObjectResolver(context, descriptor, metadata.isRefreshingObjects(),
+                        metadata.getParallelMaterializationThreshold())
                         .synchronizedRootResultNodeFromDataRows(rowsColumn);
             } else {
                 HierarchicalObjectResolver resolver = new HierarchicalObjectResolver(context, metadata, descriptor,
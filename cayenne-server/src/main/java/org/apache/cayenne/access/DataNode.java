@@ -77,6 +77,7 @@ public class DataNode implements QueryEngine {
 	private BatchTranslatorFactory batchTranslatorFactory;
 	private SelectTranslatorFactory selectTranslatorFactory;
 	private SQLTemplateProcessor sqlTemplateProcessor;
+	private int maxBatchSize;
 
 	TransactionDataSource readThroughDataSource;
 
@@ -394,6 +395,24 @@ public class DataNode implements QueryEngine {
 		this.sqlTemplateProcessor = sqlTemplateProcessor;
 	}
 
+	/**
+	 * Returns the maximum number of rows sent to the database in a single JDBC
+	 * batch. Zero means that batch queries are sent as a single batch
+	 * regardless of their size.
+	 *
+	 * @since 4.1
+	 */
+	public int getMaxBatchSize() {
+		return maxBatchSize;
+	}
+
+	/**
+	 * @since 4.1
+	 */
+	public void setMaxBatchSize(int maxBatchSize) {
+		this.maxBatchSize = maxBatchSize;
+	}
+
 	/**
 	 * @since 4.0
 	 */
@@ -20,8 +20,10 @@
 package org.apache.cayenne.access;
 
 import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.CompactDataRow;
 import org.apache.cayenne.DataObject;
 import org.apache.cayenne.DataRow;
+import org.apache.cayenne.DataRowKeys;
 import org.apache.cayenne.ObjectId;
 import org.apache.cayenne.PersistenceState;
 import org.apache.cayenne.Persistent;
@@ -31,6 +33,7 @@ import org.apache.cayenne.configuration.RuntimeProperties;
 import org.apache.cayenne.event.EventBridge;
 import org.apache.cayenne.event.EventManager;
 import org.apache.cayenne.event.EventSubject;
+import org.apache.cayenne.map.EntityResolver;
 import org.apache.cayenne.util.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,6 +46,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 /**
@@ -59,13 +63,29 @@ public class DataRowStore implements Serializable {
     public static final long SNAPSHOT_EXPIRATION_DEFAULT = 2 * 60 * 60; // default expiration time is 2 hours
     public static final int SNAPSHOT_CACHE_SIZE_DEFAULT = 10000;
 
+    /**
+     * @since 4.1
+     */
+    public static final int SNAPSHOT_EVENTS_COALESCE_MAX_BATCH_DEFAULT = 100;
+
     protected String name;
     private int maxSize;
     protected ConcurrentMap<ObjectId, DataRow> snapshots;
 
+    // snapshot weights and per-entity statistics
+    SnapshotCacheAccounting accounting;
+
+    // DataRow keys shared by compact snapshots of each entity
+    private transient ConcurrentMap<String, DataRowKeys> snapshotKeys = new ConcurrentHashMap<>();
+
     protected transient EventManager eventManager;
     protected transient EventBridge remoteNotificationsHandler;
 
+    // snapshot event coalescing settings and the coalescer, if enabled
+    private long eventsCoalesceWindow;
+    private int eventsCoalesceMaxBatch;
+    private transient SnapshotEventCoalescer eventCoalescer;
+
     // IMPORTANT: EventSubject must be an ivar to avoid its deallocation
     // too early, and thus disabling events.
     protected transient EventSubject eventSubject;
@@ -106,9 +126,42 @@ public class DataRowStore implements Serializable {
             logger.debug("DataRowStore property " + Constants.SNAPSHOT_CACHE_SIZE_PROPERTY + " = " + maxSize);
         }
 
-        this.snapshots = new ConcurrentLinkedHashMap.Builder<ObjectId, DataRow>()
-                .maximumWeightedCapacity(maxSize)
-                .build();
+        long maxBytes = properties.getLong(Constants.SNAPSHOT_CACHE_MAX_BYTES_PROPERTY, 0);
+        this.accounting = new SnapshotCacheAccounting(properties, maxBytes);
+
+        ConcurrentLinkedHashMap.Builder<ObjectId, DataRow> builder = new ConcurrentLinkedHashMap.Builder<ObjectId, DataRow>()
+                .listener(accounting);
+
+        if (accounting.isWeighted()) {
+
+            if (logger.isDebugEnabled()) {
+                logger.debug("DataRowStore property " + Constants.SNAPSHOT_CACHE_MAX_BYTES_PROPERTY + " = " + maxBytes);
+            }
+
+            builder.maximumWeightedCapacity(accounting.getCapacityUnits()).weigher(accounting);
+        } else {
+            builder.maximumWeightedCapacity(maxSize);
+        }
+
+        this.snapshots = builder.build();
+
+        this.eventsCoalesceWindow = properties.getLong(Constants.SNAPSHOT_EVENTS_COALESCE_WINDOW_PROPERTY, 0);
+        this.eventsCoalesceMaxBatch = properties.getInt(Constants.SNAPSHOT_EVENTS_COALESCE_MAX_BATCH_PROPERTY,
+                SNAPSHOT_EVENTS_COALESCE_MAX_BATCH_DEFAULT);
+        this.eventCoalescer = createEventCoalescer();
+    }
+
+    private SnapshotEventCoalescer createEventCoalescer() {
+        if (eventsCoalesceWindow <= 0) {
+            return null;
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("DataRowStore property " + Constants.SNAPSHOT_EVENTS_COALESCE_WINDOW_PROPERTY + " = "
+                    + eventsCoalesceWindow);
+        }
+
+        return new SnapshotEventCoalescer(this, eventsCoalesceWindow, eventsCoalesceMaxBatch);
     }
 
     protected void setEventBridge(EventBridge eventBridge) {
@@ -208,14 +261,60 @@ public class DataRowStore implements Serializable {
         return maxSize;
     }
 
+    /**
+     * Returns the memory budget of the cache in bytes, or zero if the cache is bounded by
+     * the number of snapshots.
+     *
+     * @since 4.1
+     */
+    public long maximumBytes() {
+        return accounting.getMaxBytes();
+    }
+
+    /**
+     * Returns snapshot cache statistics keyed by DbEntity name. Entities that were never
+     * accessed are not included.
+     *
+     * @since 4.1
+     */
+    public Map<String, DataRowStoreEntityStats> getEntityStats() {
+        return accounting.getStats();
+    }
+
+    /**
+     * Sets EntityResolver used to map snapshots to their DbEntities for statistics and
+     * per-entity settings. If not set, ObjEntity names are used instead.
+     *
+     * @since 4.1
+     */
+    public void setEntityResolver(EntityResolver entityResolver) {
+        accounting.setEntityResolver(entityResolver);
+    }
+
     /**
      * Shuts down any remote notification connections, and clears internal cache.
      */
     public void shutdown() {
+        if (eventCoalescer != null) {
+            eventCoalescer.shutdown();
+        }
+
         stopListeners();
         clear();
     }
 
+    /**
+     * Posts snapshot events that are waiting to be coalesced. Does nothing if event
+     * coalescing is disabled.
+     *
+     * @since 4.1
+     */
+    public void flushSnapshotEvents() {
+        if (eventCoalescer != null) {
+            eventCoalescer.flush();
+        }
+    }
+
     /**
      * Returns the name of this DataRowStore. Name allows to create EventSubjects for
      * event notifications addressed to or sent from this DataRowStore.
@@ -259,7 +358,16 @@ public class DataRowStore implements Serializable {
      * ObjectId.
      */
     public DataRow getCachedSnapshot(ObjectId oid) {
-        return snapshots.get(oid);
+        DataRow snapshot = snapshots.get(oid);
+
+        DataRowStoreEntityStats stats = accounting.statsFor(oid);
+        if (snapshot != null) {
+            stats.recordHit();
+        } else {
+            stats.recordMiss();
+        }
+
+        return snapshot;
     }
 
     /**
@@ -274,13 +382,56 @@ public class DataRowStore implements Serializable {
      */
     public void clear() {
         snapshots.clear();
+        accounting.reset();
     }
 
     /**
      * Evicts a snapshot from cache without generating any SnapshotEvents.
      */
     public void forgetSnapshot(ObjectId id) {
-        snapshots.remove(id);
+        removeSnapshot(id);
+    }
+
+    private DataRow putSnapshot(ObjectId id, DataRow snapshot) {
+        DataRow oldSnapshot = snapshots.put(id, snapshot);
+
+        DataRowStoreEntityStats stats = accounting.statsFor(id);
+        long weightedSize = accounting.weightedSize(snapshot, stats);
+        if (oldSnapshot == null) {
+            stats.recordAdd(id, weightedSize);
+        } else {
+            stats.recordReplace(accounting.weightedSize(oldSnapshot, stats), weightedSize);
+        }
+
+        if (stats.isOverCapacity()) {
+            evictOverCapacity(stats);
+        } else if (stats.needsPurge()) {
+            stats.purge(snapshots);
+        }
+
+        return oldSnapshot;
+    }
+
+    private DataRow removeSnapshot(ObjectId id) {
+        DataRow oldSnapshot = snapshots.remove(id);
+
+        if (oldSnapshot != null) {
+            DataRowStoreEntityStats stats = accounting.statsFor(id);
+            stats.recordRemove(accounting.weightedSize(oldSnapshot, stats));
+        }
+
+        return oldSnapshot;
+    }
+
+    // evicts oldest snapshots of the entity until it fits its own capacity
+    private void evictOverCapacity(DataRowStoreEntityStats stats) {
+        ObjectId id;
+        while (stats.isOverCapacity() && (id = stats.pollOldest()) != null) {
+            DataRow evicted = snapshots.remove(id);
+            if (evicted != null) {
+                stats.recordEviction(accounting.weightedSize(evicted, stats));
+            }
+        }
     }
 
     /**
@@ -356,7 +507,7 @@ public class DataRowStore implements Serializable {
         // DELETED: evict deleted snapshots
         if (!deletedSnapshotIDs.isEmpty()) {
             for (ObjectId deletedSnapshotID : deletedSnapshotIDs) {
-                snapshots.remove(deletedSnapshotID);
+                removeSnapshot(deletedSnapshotID);
             }
         }
     }
@@ -365,7 +516,7 @@ public class DataRowStore implements Serializable {
         // INVALIDATED: forget snapshot, treat as expired from cache
         if (!invalidatedSnapshotIds.isEmpty()) {
             for (ObjectId invalidatedSnapshotId : invalidatedSnapshotIds) {
-                snapshots.remove(invalidatedSnapshotId);
+                removeSnapshot(invalidatedSnapshotId);
             }
         }
     }
@@ -377,8 +528,8 @@ public class DataRowStore implements Serializable {
         if (!updatedSnapshots.isEmpty()) {
             for (Map.Entry<ObjectId, DataRow> entry : updatedSnapshots.entrySet()) {
                 ObjectId key = entry.getKey();
-                DataRow newSnapshot = entry.getValue();
-                DataRow oldSnapshot = snapshots.put(key, newSnapshot);
+                DataRow newSnapshot = compactSnapshot(entry.getValue());
+                DataRow oldSnapshot = putSnapshot(key, newSnapshot);
 
                 // generate diff for the updated event, if this not a new
                 // snapshot
@@ -433,19 +584,41 @@ public class DataRowStore implements Serializable {
         return diffs;
     }
 
+    /**
+     * Converts a snapshot to a {@link CompactDataRow} that shares keys with other cached
+     * snapshots of the same entity. Snapshots with no entity name are stored as is.
+     */
+    private DataRow compactSnapshot(DataRow snapshot) {
+        String entityName = snapshot.getEntityName();
+        if (snapshot instanceof CompactDataRow || entityName == null) {
+            return snapshot;
+        }
+
+        DataRowKeys keys = snapshotKeys.get(entityName);
+        if (keys == null || !keys.containsAll(snapshot.keySet())) {
+            keys = keys != null ? keys.union(snapshot.keySet()) : new DataRowKeys(snapshot.keySet());
+            snapshotKeys.put(entityName, keys);
+        }
+
+        return CompactDataRow.copyOf(snapshot, keys);
+    }
+
     private void processUpdateDiffs(Map<ObjectId, DataRow> diffs) {
         // apply snapshot diffs
         if (!diffs.isEmpty()) {
             for (Map.Entry<ObjectId, DataRow> entry : diffs.entrySet()) {
                 ObjectId key = entry.getKey();
-                DataRow oldSnapshot = snapshots.remove(key);
+                DataRow oldSnapshot = removeSnapshot(key);
 
                 if (oldSnapshot == null) {
                     continue;
                 }
 
                 DataRow newSnapshot = oldSnapshot.applyDiff(entry.getValue());
-                snapshots.put(key, newSnapshot);
+                if (newSnapshot.getEntityName() == null) {
+                    newSnapshot.setEntityName(oldSnapshot.getEntityName());
+                }
+                putSnapshot(key, newSnapshot);
             }
         }
     }
@@ -475,9 +648,13 @@ public class DataRowStore implements Serializable {
                 logger.debug("postSnapshotsChangeEvent: " + event);
             }
 
-            // synchronously notify listeners; leaving it up to the listeners to
-            // register as "non-blocking" if needed.
-            eventManager.postEvent(event, getSnapshotEventSubject());
+            if (eventCoalescer != null) {
+                eventCoalescer.add(event);
+            } else {
+                // synchronously notify listeners; leaving it up to the listeners to
+                // register as "non-blocking" if needed.
+                eventManager.postEvent(event, getSnapshotEventSubject());
+            }
         }
     }
 
@@ -489,6 +666,8 @@ public class DataRowStore implements Serializable {
 
         // restore subjects
         this.eventSubject = createSubject();
+        this.snapshotKeys = new ConcurrentHashMap<>();
+        this.eventCoalescer = createEventCoalescer();
     }
 
     void stopListeners() {
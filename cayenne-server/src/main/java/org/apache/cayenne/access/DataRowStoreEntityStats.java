@@ -0,0 +1,209 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.cayenne.ObjectId;
+
+/**
+ * Snapshot cache statistics and settings of a single DbEntity in a
+ * {@link DataRowStore}. Weighted size is measured in estimated bytes if the store is
+ * bounded by memory (see {@link org.apache.cayenne.configuration.Constants#SNAPSHOT_CACHE_MAX_BYTES_PROPERTY}),
+ * or in the number of snapshots otherwise.
+ * 
+ * @since 4.1
+ */
+public class DataRowStoreEntityStats implements Serializable {
+
+    private static final long serialVersionUID = 4047624622950453236L;
+
+    private final String name;
+    private final double weight;
+    private final long capacity;
+
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+    private final AtomicLong size;
+    private final AtomicLong weightedSize;
+
+    // insertion order of snapshots, only tracked for entities with capacity
+    private final Queue<ObjectId> insertionOrder;
+    private final AtomicInteger insertionOrderSize;
+
+    DataRowStoreEntityStats(String name, double weight, long capacity) {
+        this.name = name;
+        this.weight = weight;
+        this.capacity = capacity;
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+        this.size = new AtomicLong();
+        this.weightedSize = new AtomicLong();
+        this.insertionOrder = capacity > 0 ? new ConcurrentLinkedQueue<ObjectId>() : null;
+        this.insertionOrderSize = new AtomicInteger();
+    }
+
+    /**
+     * Returns DbEntity name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns a multiplier applied to estimated size of snapshots of this entity.
+     */
+    public double getWeight() {
+        return weight;
+    }
+
+    /**
+     * Returns maximum weighted size of snapshots of this entity, or zero if the entity
+     * is only bounded by the capacity of the whole cache.
+     */
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of snapshots evicted due to the cache or entity capacity.
+     * Explicit removals and invalidations are not counted.
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the number of cached snapshots of this entity.
+     */
+    public long getSize() {
+        return size.get();
+    }
+
+    /**
+     * Returns weighted size of cached snapshots of this entity.
+     */
+    public long getWeightedSize() {
+        return weightedSize.get();
+    }
+
+    void recordHit() {
+        hits.increment();
+    }
+
+    void recordMiss() {
+        misses.increment();
+    }
+
+    void recordEviction(long weightedSize) {
+        evictions.increment();
+        recordRemove(weightedSize);
+    }
+
+    void recordAdd(ObjectId id, long weightedSize) {
+        size.incrementAndGet();
+        this.weightedSize.addAndGet(weightedSize);
+
+        if (insertionOrder != null) {
+            insertionOrder.add(id);
+            insertionOrderSize.incrementAndGet();
+        }
+    }
+
+    void recordReplace(long oldWeightedSize, long newWeightedSize) {
+        weightedSize.addAndGet(newWeightedSize - oldWeightedSize);
+    }
+
+    void recordRemove(long weightedSize) {
+        size.decrementAndGet();
+        this.weightedSize.addAndGet(-weightedSize);
+    }
+
+    void reset() {
+        size.set(0);
+        weightedSize.set(0);
+
+        if (insertionOrder != null) {
+            insertionOrder.clear();
+            insertionOrderSize.set(0);
+        }
+    }
+
+    boolean isOverCapacity() {
+        return capacity > 0 && weightedSize.get() > capacity;
+    }
+
+    /**
+     * Returns the id of the oldest snapshot that may still be cached, or null if there
+     * are no more snapshots tracked.
+     */
+    ObjectId pollOldest() {
+        if (insertionOrder == null) {
+            return null;
+        }
+
+        ObjectId id = insertionOrder.poll();
+        if (id != null) {
+            insertionOrderSize.decrementAndGet();
+        }
+
+        return id;
+    }
+
+    /**
+     * Returns whether insertion order tracking accumulated ids of snapshots that are
+     * no longer cached and needs to be purged.
+     */
+    boolean needsPurge() {
+        return insertionOrder != null && insertionOrderSize.get() > 2 * size.get() + 64;
+    }
+
+    void purge(Map<ObjectId, ?> snapshots) {
+        Iterator<ObjectId> it = insertionOrder.iterator();
+        while (it.hasNext()) {
+            if (!snapshots.containsKey(it.next())) {
+                it.remove();
+                insertionOrderSize.decrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name + "[size=" + getSize() + ", weightedSize=" + getWeightedSize() + ", hits=" + getHits()
+                + ", misses=" + getMisses() + ", evictions=" + getEvictions() + "]";
+    }
+}
@@ -32,13 +32,20 @@ import org.apache.cayenne.query.PrefetchSelectQuery;
 import org.apache.cayenne.query.PrefetchTreeNode;
 import org.apache.cayenne.query.QueryMetadata;
 import org.apache.cayenne.reflect.ClassDescriptor;
+import org.apache.cayenne.tx.BaseTransaction;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * Processes a number of DataRow sets corresponding to a given prefetch tree, resolving
@@ -103,6 +110,9 @@ class HierarchicalObjectResolver {
 
     final class DisjointProcessor implements PrefetchProcessor {
 
+        // DISJOINT_BY_ID siblings fetched concurrently ahead of the traversal
+        private final Map<PrefetchTreeNode, List<Future<List<DataRow>>>> pendingFetches = new IdentityHashMap<>();
+
         @Override
         public boolean startDisjointPrefetch(PrefetchTreeNode node) {
 
@@ -134,6 +144,91 @@ class HierarchicalObjectResolver {
                 return true;
             }
 
+            List<Future<List<DataRow>>> fetches = pendingFetches.remove(node);
+            if (fetches == null) {
+                fetches = fetchWithSiblings(processorNode);
+            }
+
+            if (fetches != null) {
+                processorNode.setDataRows(await(fetches));
+            } else {
+                List<DataRow> dataRows = new ArrayList<>();
+                for (PrefetchSelectQuery query : disjointByIdQueries(processorNode)) {
+                    dataRows.addAll((List<DataRow>) context.performQuery(query));
+                }
+                processorNode.setDataRows(dataRows);
+            }
+
+            return startDisjointPrefetch(node);
+        }
+
+        /**
+         * Starts concurrent fetches of a DISJOINT_BY_ID node and its DISJOINT_BY_ID
+         * siblings that depend on the same parent rows. Returns fetches of the node
+         * itself, or null if prefetch queries should be run sequentially.
+         */
+        private List<Future<List<DataRow>>> fetchWithSiblings(PrefetchProcessorNode node) {
+
+            // concurrent queries run on separate connections and won't see changes
+            // made in the caller transaction
+            ExecutorService executor = context.getParentDataDomain().getPrefetchExecutor();
+            if (executor == null || BaseTransaction.getThreadTransaction() != null) {
+                return null;
+            }
+
+            Map<PrefetchTreeNode, List<PrefetchSelectQuery>> queriesByNode = new LinkedHashMap<>();
+            int queriesCount = 0;
+            for (PrefetchTreeNode sibling : node.getParent().getChildren()) {
+                if (sibling == node || sibling.isDisjointByIdPrefetch()) {
+                    List<PrefetchSelectQuery> queries = disjointByIdQueries((PrefetchProcessorNode) sibling);
+                    queriesByNode.put(sibling, queries);
+                    queriesCount += queries.size();
+                }
+            }
+
+            if (queriesCount < 2) {
+                return null;
+            }
+
+            for (Map.Entry<PrefetchTreeNode, List<PrefetchSelectQuery>> entry : queriesByNode.entrySet()) {
+                List<Future<List<DataRow>>> fetches = new ArrayList<>(entry.getValue().size());
+                for (PrefetchSelectQuery query : entry.getValue()) {
+                    fetches.add(executor.submit(() -> (List<DataRow>) context.performQuery(query)));
+                }
+                pendingFetches.put(entry.getKey(), fetches);
+            }
+
+            return pendingFetches.remove(node);
+        }
+
+        private List<DataRow> await(List<Future<List<DataRow>>> fetches) {
+            List<DataRow> dataRows = new ArrayList<>();
+
+            for (Future<List<DataRow>> fetch : fetches) {
+                try {
+                    dataRows.addAll(fetch.get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CayenneRuntimeException("Interrupted while waiting for prefetch query", e);
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+
+                    throw new CayenneRuntimeException("Error running prefetch query", e.getCause());
+                }
+            }
+
+            return dataRows;
+        }
+
+        /**
+         * Builds queries for a DISJOINT_BY_ID node matching related rows by the
+         * parent rows join values, split into chunks to respect the max ID
+         * qualifier size of the DataDomain and the target database.
+         */
+        private List<PrefetchSelectQuery> disjointByIdQueries(PrefetchProcessorNode processorNode) {
+
             PrefetchProcessorNode parentProcessorNode = (PrefetchProcessorNode) processorNode
                     .getParent();
             ObjRelationship relationship = processorNode.getIncoming().getRelationship();
@@ -171,72 +266,70 @@ class HierarchicalObjectResolver {
 				parentDataRows = parentProcessorNode.getDataRows();
 			}
 
-            int maxIdQualifierSize = context
-                    .getParentDataDomain()
-                    .getMaxIdQualifierSize();
-
-            List<PrefetchSelectQuery> queries = new ArrayList<>();
-            int qualifiersCount = 0;
-            PrefetchSelectQuery currentQuery = null;
             List<DbJoin> joins = lastDbRelationship.getJoins();
-            Set<List<Object>> values = new HashSet<>();
-
-            for (Object dataRow : parentDataRows) {
-                // handling too big qualifiers
-                if (currentQuery == null
-                        || (maxIdQualifierSize > 0 && qualifiersCount + joins.size() > maxIdQualifierSize)) {
-
-                    createDisjointByIdPrefetchQualifier(pathPrefix, currentQuery, joins, values);
-
-                    currentQuery = new PrefetchSelectQuery(node.getPath(), relationship);
-                    queries.add(currentQuery);
-                    qualifiersCount = 0;
-                    values = new HashSet<>();
-                }
+            Set<List<Object>> values = new LinkedHashSet<>();
 
+            rows: for (Object dataRow : parentDataRows) {
                 List<Object> joinValues = new ArrayList<>(joins.size());
                 for (DbJoin join : joins) {
                     Object targetValue = ((DataRow) dataRow).get(join.getSourceName());
+
+                    // NULL join values can't match any related rows
+                    if (targetValue == null) {
+                        continue rows;
+                    }
+
                     joinValues.add(targetValue);
                 }
 
-                if(values.add(joinValues)) {
-                    qualifiersCount += joins.size();
-                }
+                values.add(joinValues);
             }
-            // add final part of values
-            createDisjointByIdPrefetchQualifier(pathPrefix, currentQuery, joins, values);
 
-            PrefetchTreeNode jointSubtree = node.cloneJointSubtree();
+            // handling too big qualifiers
+            int maxIdQualifierSize = context
+                    .getParentDataDomain()
+                    .getMaxIdQualifierSize(relationship.getTargetEntity().getDataMap());
+            int chunkSize = maxIdQualifierSize > 0
+                    ? Math.max(1, maxIdQualifierSize / joins.size())
+                    : Math.max(1, values.size());
 
-            List<DataRow> dataRows = new ArrayList<>();
-            for (PrefetchSelectQuery query : queries) {
-                // need to pass the remaining tree to make joint prefetches work
-                if (jointSubtree.hasChildren()) {
-                    query.setPrefetchTree(jointSubtree);
-                }
+            PrefetchTreeNode jointSubtree = processorNode.cloneJointSubtree();
+
+            List<PrefetchSelectQuery> queries = new ArrayList<>();
+            List<List<Object>> chunk = new ArrayList<>(Math.min(chunkSize, values.size()));
+            for (List<Object> joinValues : values) {
+                chunk.add(joinValues);
 
-                query.setFetchingDataRows(true);
-                if (relationship.isSourceIndependentFromTargetChange()) {
-                    // setup extra result columns to be able to relate result rows to the
-                    // parent result objects.
-                    query.addResultPath("db:"
-                            + relationship.getReverseDbRelationshipPath());
+                if (chunk.size() == chunkSize) {
+                    queries.add(disjointByIdQuery(processorNode, relationship, pathPrefix, joins, chunk, jointSubtree));
+                    chunk = new ArrayList<>(chunkSize);
                 }
-                dataRows.addAll((List<DataRow>)context.performQuery(query));
             }
-            processorNode.setDataRows(dataRows);
 
-            return startDisjointPrefetch(node);
+            if (!chunk.isEmpty()) {
+                queries.add(disjointByIdQuery(processorNode, relationship, pathPrefix, joins, chunk, jointSubtree));
+            }
+
+            return queries;
         }
 
-        private void createDisjointByIdPrefetchQualifier(String pathPrefix, PrefetchSelectQuery currentQuery,
-                                                         List<DbJoin> joins, Set<List<Object>> values) {
-            Expression allJoinsQualifier;
-            if(currentQuery != null) {
-                for(List<Object> joinValues : values) {
-                    allJoinsQualifier = null;
-                    for(int i=0; i<joins.size(); i++) {
+        private PrefetchSelectQuery disjointByIdQuery(PrefetchTreeNode node, ObjRelationship relationship,
+                                                      String pathPrefix, List<DbJoin> joins,
+                                                      List<List<Object>> values, PrefetchTreeNode jointSubtree) {
+
+            PrefetchSelectQuery query = new PrefetchSelectQuery(node.getPath(), relationship);
+
+            if (joins.size() == 1) {
+                List<Object> ids = new ArrayList<>(values.size());
+                for (List<Object> joinValues : values) {
+                    ids.add(joinValues.get(0));
+                }
+
+                query.setQualifier(ExpressionFactory.inDbExp(pathPrefix + joins.get(0).getTargetName(), ids));
+            } else {
+                for (List<Object> joinValues : values) {
+                    Expression allJoinsQualifier = null;
+                    for (int i = 0; i < joins.size(); i++) {
                         Expression joinQualifier = ExpressionFactory.matchDbExp(pathPrefix
                                 + joins.get(i).getTargetName(), joinValues.get(i));
                         if (allJoinsQualifier == null) {
@@ -245,9 +338,24 @@ class HierarchicalObjectResolver {
                             allJoinsQualifier = allJoinsQualifier.andExp(joinQualifier);
                         }
                     }
-                    currentQuery.orQualifier(allJoinsQualifier);
+                    query.orQualifier(allJoinsQualifier);
                 }
             }
+
+            // need to pass the remaining tree to make joint prefetches work
+            if (jointSubtree.hasChildren()) {
+                query.setPrefetchTree(jointSubtree);
+            }
+
+            query.setFetchingDataRows(true);
+            if (relationship.isSourceIndependentFromTargetChange()) {
+                // setup extra result columns to be able to relate result rows to the
+                // parent result objects.
+                query.addResultPath("db:"
+                        + relationship.getReverseDbRelationshipPath());
+            }
+
+            return query;
         }
 
         @Override
@@ -30,6 +30,7 @@ import org.apache.cayenne.map.DbAttribute;
 import org.apache.cayenne.map.DbEntity;
 import org.apache.cayenne.map.EntityResolver;
 import org.apache.cayenne.map.ObjEntity;
+import org.apache.cayenne.query.QueryMetadata;
 import org.apache.cayenne.reflect.ClassDescriptor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,6 +40,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.IntStream;
 
 /**
  * DataRows-to-objects converter for a specific ObjEntity.
@@ -54,10 +56,22 @@ class ObjectResolver {
 	Collection<DbAttribute> primaryKey;
 
 	boolean refreshObjects;
+	int parallelThreshold;
 	DataRowStore cache;
 	DescriptorResolutionStrategy descriptorResolutionStrategy;
 
 	ObjectResolver(DataContext context, ClassDescriptor descriptor, boolean refresh) {
+		this(context, descriptor, refresh, QueryMetadata.PARALLEL_MATERIALIZATION_THRESHOLD_DEFAULT);
+	}
+
+	/**
+	 * Creates a resolver that materializes lists of at least
+	 * 'parallelThreshold' rows in parallel. Zero or negative threshold
+	 * disables parallel materialization.
+	 * 
+	 * @since 4.1
+	 */
+	ObjectResolver(DataContext context, ClassDescriptor descriptor, boolean refresh, int parallelThreshold) {
 
 		// sanity check
 		if (descriptor == null || descriptor.getEntity() == null) {
@@ -79,6 +93,7 @@ class ObjectResolver {
 		this.context = context;
 		this.cache = context.getObjectStore().getDataRowCache();
 		this.refreshObjects = refresh;
+		this.parallelThreshold = parallelThreshold;
 		this.descriptor = descriptor;
 
 		this.descriptorResolutionStrategy = descriptor.hasSubclasses() ? new InheritanceStrategy()
@@ -112,11 +127,16 @@ class ObjectResolver {
 			return new ArrayList<>(1);
 		}
 
-		List<Persistent> results = new ArrayList<>(rows.size());
-		for (DataRow row : rows) {
-			// nulls are possible here since 3.0 for some varieties of EJBQL,
-			// simple example of this: "select p.toGallery+ from Painting p" where toGallery is null.
-			results.add(objectFromDataRow(row));
+		List<Persistent> results;
+		if (parallelThreshold > 0 && rows.size() >= parallelThreshold) {
+			results = parallelObjectsFromDataRows(rows);
+		} else {
+			results = new ArrayList<>(rows.size());
+			for (DataRow row : rows) {
+				// nulls are possible here since 3.0 for some varieties of EJBQL,
+				// simple example of this: "select p.toGallery+ from Painting p" where toGallery is null.
+				results.add(objectFromDataRow(row));
+			}
 		}
 
 		// now deal with snapshots
@@ -124,6 +144,77 @@ class ObjectResolver {
 		return results;
 	}
 
+	/**
+	 * Converts rows to objects, resolving ObjectIds and building new objects
+	 * from rows on the common fork-join pool. Registration of the objects in
+	 * the ObjectStore is done on the caller thread in the order of rows, so
+	 * the result is the same as in sequential mode: the same object order and
+	 * the same object instance for a given ObjectId. Objects built for rows
+	 * whose ObjectId turns out to be already registered are discarded.
+	 * 
+	 * @since 4.1
+	 */
+	List<Persistent> parallelObjectsFromDataRows(List<? extends DataRow> rows) {
+		int size = rows.size();
+		ClassDescriptor[] descriptors = new ClassDescriptor[size];
+		ObjectId[] ids = new ObjectId[size];
+		Persistent[] prebuilt = new Persistent[size];
+
+		// compile lazy descriptors of the whole hierarchy before going parallel
+		resolveSubclassDescriptors();
+
+		IntStream.range(0, size).parallel().forEach(i -> {
+			DataRow row = rows.get(i);
+			ClassDescriptor classDescriptor = descriptorResolutionStrategy.descriptorForRow(row);
+			ObjectId anId = createObjectId(row, classDescriptor.getEntity(), null);
+
+			descriptors[i] = classDescriptor;
+			ids[i] = anId;
+			if (anId != null) {
+				prebuilt[i] = prebuildObject(row, anId, classDescriptor);
+			}
+		});
+
+		List<Persistent> results = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			results.add(objectFromDataRow(rows.get(i), ids[i], descriptors[i], prebuilt[i]));
+		}
+
+		return results;
+	}
+
+	/**
+	 * Ensures that descriptors of all subentities that a row may resolve to
+	 * are compiled on the caller thread.
+	 */
+	void resolveSubclassDescriptors() {
+		if (descriptor.hasSubclasses()) {
+			EntityResolver resolver = context.getEntityResolver();
+			for (ObjEntity entity : descriptor.getEntityInheritanceTree().allSubEntities()) {
+				resolver.getClassDescriptor(entity.getName()).getEntity();
+			}
+		}
+	}
+
+	/**
+	 * Creates an unregistered object and fills it from the row the same way
+	 * a new HOLLOW object is filled in 'objectFromDataRow'. Doesn't access
+	 * ObjectStore, so can be called from any thread.
+	 */
+	Persistent prebuildObject(DataRow row, ObjectId anId, ClassDescriptor classDescriptor) {
+		Persistent object = (Persistent) classDescriptor.createObject();
+		object.setObjectContext(context);
+		object.setObjectId(anId);
+		object.setPersistenceState(PersistenceState.HOLLOW);
+
+		DataRowUtils.refreshObjectWithSnapshot(classDescriptor, object, row, true);
+		if (object instanceof DataObject) {
+			((DataObject) object).setSnapshotVersion(row.getVersion());
+		}
+
+		return object;
+	}
+
 	Persistent objectFromDataRow(DataRow row) {
 		// determine entity to use
 		ClassDescriptor classDescriptor = descriptorResolutionStrategy.descriptorForRow(row);
@@ -135,6 +226,17 @@ class ObjectResolver {
 	}
 
 	Persistent objectFromDataRow(DataRow row, ObjectId anId, ClassDescriptor classDescriptor) {
+		return objectFromDataRow(row, anId, classDescriptor, null);
+	}
+
+	/**
+	 * Resolves an object for the row, registering 'prebuilt' object built by
+	 * {@link #prebuildObject(DataRow, ObjectId, ClassDescriptor)} if no object
+	 * with this id is registered yet.
+	 * 
+	 * @since 4.1
+	 */
+	Persistent objectFromDataRow(DataRow row, ObjectId anId, ClassDescriptor classDescriptor, Persistent prebuilt) {
 
 		// this condition is valid - see comments on 'createObjectId' for
 		// details
@@ -142,6 +244,28 @@ class ObjectResolver {
 			return null;
 		}
 
+		if (prebuilt != null) {
+			synchronized (context.getGraphManager()) {
+				if (context.getGraphManager().getNode(anId) == null) {
+
+					// same as for the HOLLOW objects below, prefer a cached snapshot
+					if (!refreshObjects) {
+						DataRow cachedRow = cache.getCachedSnapshot(anId);
+						if (cachedRow != null) {
+							prebuilt.setPersistenceState(PersistenceState.HOLLOW);
+							DataRowUtils.refreshObjectWithSnapshot(classDescriptor, prebuilt, cachedRow, true);
+							if (prebuilt instanceof DataObject) {
+								((DataObject) prebuilt).setSnapshotVersion(cachedRow.getVersion());
+							}
+						}
+					}
+
+					context.getGraphManager().registerNode(anId, prebuilt);
+					return prebuilt;
+				}
+			}
+		}
+
 		// this will create a HOLLOW object if it is not registered yet
 		Persistent object = context.findOrCreateObject(anId);
 
@@ -27,6 +27,7 @@ import org.apache.cayenne.ObjectId;
 import org.apache.cayenne.PersistenceState;
 import org.apache.cayenne.Persistent;
 import org.apache.cayenne.access.ObjectDiff.ArcOperation;
+import org.apache.cayenne.access.event.CoalescedSnapshotEvent;
 import org.apache.cayenne.access.event.SnapshotEvent;
 import org.apache.cayenne.access.event.SnapshotEventListener;
 import org.apache.cayenne.graph.ChildDiffLoader;
@@ -105,7 +106,35 @@ public class ObjectStore implements Serializable, SnapshotEventListener, GraphMa
         else {
             throw new CayenneRuntimeException("Object map is null.");
         }
-        this.changes = new HashMap<>();
+        this.changes = createChangesMap();
+    }
+
+    /**
+     * Creates an empty map to track object changes. Called on creation of the
+     * ObjectStore and each time the changes are reset after commit or rollback.
+     * 
+     * @since 4.1
+     */
+    Map<Object, ObjectDiff> createChangesMap() {
+        return new HashMap<>();
+    }
+
+    /**
+     * Returns the next sequential id used to tag GraphDiffs.
+     * 
+     * @since 4.1
+     */
+    int nextDiffId() {
+        return ++currentDiffId;
+    }
+
+    /**
+     * Returns the id of the last GraphDiff registered with this ObjectStore.
+     * 
+     * @since 4.1
+     */
+    int currentDiffId() {
+        return currentDiffId;
     }
 
     /**
@@ -147,9 +176,14 @@ public class ObjectStore implements Serializable, SnapshotEventListener, GraphMa
      * @since 1.2
      */
     synchronized ObjectDiff registerDiff(Object nodeId, NodeDiff diff) {
+        return registerDiffNoSync(nodeId, diff);
+    }
+
+    // non-synchronized version of registerDiff for subclasses that provide their own locking
+    final ObjectDiff registerDiffNoSync(Object nodeId, NodeDiff diff) {
 
         if (diff != null) {
-            diff.setDiffId(++currentDiffId);
+            diff.setDiffId(nextDiffId());
         }
 
         ObjectDiff objectDiff = changes.get(nodeId);
@@ -162,37 +196,11 @@ public class ObjectStore implements Serializable, SnapshotEventListener, GraphMa
             }
 
             if (object.getPersistenceState() == PersistenceState.COMMITTED) {
-                object.setPersistenceState(PersistenceState.MODIFIED);
-
-                // TODO: andrus 3/23/2006 snapshot versions are obsolete, but there is no
-                // replacement yet, so we still need to handle them...
-                if (object instanceof DataObject) {
-
-                    DataObject dataObject = (DataObject) object;
-                    DataRow snapshot = getCachedSnapshot((ObjectId) nodeId);
-
-                    if (snapshot != null
-                            && snapshot.getVersion() != dataObject.getSnapshotVersion()) {
-                        DataContextDelegate delegate = context.nonNullDelegate();
-                        if (delegate.shouldMergeChanges(dataObject, snapshot)) {
-                            ClassDescriptor descriptor = context
-                                    .getEntityResolver()
-                                    .getClassDescriptor(
-                                            ((ObjectId) nodeId).getEntityName());
-                            DataRowUtils.forceMergeWithSnapshot(
-                                    context,
-                                    descriptor,
-                                    dataObject,
-                                    snapshot);
-                            dataObject.setSnapshotVersion(snapshot.getVersion());
-                            delegate.finishedMergeChanges(dataObject);
-                        }
-                    }
-                }
+                markModified(nodeId, object);
             }
 
             objectDiff = new ObjectDiff(object);
-            objectDiff.setDiffId(++currentDiffId);
+            objectDiff.setDiffId(nextDiffId());
             changes.put(nodeId, objectDiff);
         }
 
@@ -203,6 +211,40 @@ public class ObjectStore implements Serializable, SnapshotEventListener, GraphMa
         return objectDiff;
     }
 
+    /**
+     * Changes the state of a COMMITTED object to MODIFIED on its first change, merging
+     * the object with a newer cached snapshot if there is one.
+     */
+    void markModified(Object nodeId, Persistent object) {
+        object.setPersistenceState(PersistenceState.MODIFIED);
+
+        // TODO: andrus 3/23/2006 snapshot versions are obsolete, but there is no
+        // replacement yet, so we still need to handle them...
+        if (object instanceof DataObject) {
+
+            DataObject dataObject = (DataObject) object;
+            DataRow snapshot = getCachedSnapshot((ObjectId) nodeId);
+
+            if (snapshot != null
+                    && snapshot.getVersion() != dataObject.getSnapshotVersion()) {
+                DataContextDelegate delegate = context.nonNullDelegate();
+                if (delegate.shouldMergeChanges(dataObject, snapshot)) {
+                    ClassDescriptor descriptor = context
+                            .getEntityResolver()
+                            .getClassDescriptor(
+                                    ((ObjectId) nodeId).getEntityName());
+                    DataRowUtils.forceMergeWithSnapshot(
+                            context,
+                            descriptor,
+                            dataObject,
+                            snapshot);
+                    dataObject.setSnapshotVersion(snapshot.getVersion());
+                    delegate.finishedMergeChanges(dataObject);
+                }
+            }
+        }
+    }
+
     /**
      * Returns a number of objects currently registered with this ObjectStore.
      * 
@@ -348,9 +390,9 @@ public class ObjectStore implements Serializable, SnapshotEventListener, GraphMa
             }
         }
 
-        // reset changes ... using new HashMap to allow event listeners to analyze the
+        // reset changes ... using a new map to allow event listeners to analyze the
         // original changes map after the rollback
-        this.changes = new HashMap<>();
+        this.changes = createChangesMap();
     }
 
     /**
@@ -450,7 +492,7 @@ public class ObjectStore implements Serializable, SnapshotEventListener, GraphMa
 
         // create new instance of changes map so that event listeners who stored the
         // original diff don't get affected
-        this.changes = new HashMap<>();
+        this.changes = createChangesMap();
     }
 
     /**
@@ -540,6 +582,15 @@ public class ObjectStore implements Serializable, SnapshotEventListener, GraphMa
     public void snapshotsChanged(SnapshotEvent event) {
         // filter events that we should not process
         if (event.getPostedBy() != this && event.getSource() == this.getDataRowCache()) {
+
+            // skip our own changes merged into a coalesced event
+            if (event instanceof CoalescedSnapshotEvent) {
+                event = ((CoalescedSnapshotEvent) event).without(this);
+                if (event == null) {
+                    return;
+                }
+            }
+
             processSnapshotEvent(event);
         }
     }
@@ -152,7 +152,7 @@ class ObjectStoreGraphDiff implements GraphDiff {
 
 		// refresh the diff on first access or if the underlying ObjectStore has
 		// changed the the last time we cached the changes.
-		if (resolvedDiff == null || lastSeenDiffId < objectStore.currentDiffId) {
+		if (resolvedDiff == null || lastSeenDiffId < objectStore.currentDiffId()) {
 
 			CompoundDiff diff = new CompoundDiff();
 			Map<Object, ObjectDiff> changes = getChangesByObjectId();
@@ -169,7 +169,7 @@ class ObjectStoreGraphDiff implements GraphDiff {
 
 			}
 
-			this.lastSeenDiffId = objectStore.currentDiffId;
+			this.lastSeenDiffId = objectStore.currentDiffId();
 			this.resolvedDiff = diff;
 		}
 	}
@@ -34,19 +34,27 @@ class PrefetchObjectResolver extends ObjectResolver {
 
     PrefetchObjectResolver(DataContext context, ClassDescriptor descriptor, boolean refresh,
             Map<ObjectId, Persistent> seen) {
-        super(context, descriptor, refresh);
+        this(context, descriptor, refresh, 0, seen);
+    }
+
+    /**
+     * @since 4.1
+     */
+    PrefetchObjectResolver(DataContext context, ClassDescriptor descriptor, boolean refresh, int parallelThreshold,
+            Map<ObjectId, Persistent> seen) {
+        super(context, descriptor, refresh, parallelThreshold);
         this.seen = seen;
     }
 
     @Override
-    Persistent objectFromDataRow(DataRow row, ObjectId anId, ClassDescriptor classDescriptor) {
+    Persistent objectFromDataRow(DataRow row, ObjectId anId, ClassDescriptor classDescriptor, Persistent prebuilt) {
         // skip processing of objects that were already processed in this
         // transaction, either by this node or by some other node...
         // added per CAY-1695 ..
 
         Persistent object = seen.get(anId);
         if (object == null) {
-            object = super.objectFromDataRow(row, anId, classDescriptor);
+            object = super.objectFromDataRow(row, anId, classDescriptor, prebuilt);
             seen.put(anId, object);
         }
 
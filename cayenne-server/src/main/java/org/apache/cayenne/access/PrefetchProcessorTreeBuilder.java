@@ -181,7 +181,8 @@ final class PrefetchProcessorTreeBuilder implements PrefetchProcessor {
             node.setResolver(new HierarchicalObjectResolverNode(node, context, descriptor, queryMetadata
                     .isRefreshingObjects(), seen));
         } else {
-            node.setResolver(new PrefetchObjectResolver(context, descriptor, queryMetadata.isRefreshingObjects(), seen));
+            node.setResolver(new PrefetchObjectResolver(context, descriptor, queryMetadata.isRefreshingObjects(),
+                    queryMetadata.getParallelMaterializationThreshold(), seen));
         }
 
         if (node.getParent() == null || node.getParent().isPhantom()) {
@@ -0,0 +1,240 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.cayenne.CompactDataRow;
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.configuration.RuntimeProperties;
+import org.apache.cayenne.map.DbEntity;
+import org.apache.cayenne.map.EntityResolver;
+import org.apache.cayenne.map.ObjEntity;
+import org.apache.cayenne.util.concurrentlinkedhashmap.EvictionListener;
+import org.apache.cayenne.util.concurrentlinkedhashmap.Weigher;
+
+/**
+ * Calculates weights of snapshots cached in {@link DataRowStore} and maintains per
+ * DbEntity statistics.
+ * 
+ * @since 4.1
+ */
+class SnapshotCacheAccounting implements Weigher<DataRow>, EvictionListener<ObjectId, DataRow>, Serializable {
+
+    private static final long serialVersionUID = -1791226394513452651L;
+
+    // limits imposed by ConcurrentLinkedHashMap
+    static final int MAXIMUM_CAPACITY = 1 << 30;
+    static final int MAXIMUM_WEIGHT = 1 << 29;
+
+    private final long maxBytes;
+    private final long bytesPerUnit;
+
+    private transient RuntimeProperties properties;
+    private transient EntityResolver entityResolver;
+
+    // stats keyed by the ObjEntity name of ObjectIds and by DbEntity name
+    private final ConcurrentMap<String, DataRowStoreEntityStats> statsByObjEntity;
+    private final ConcurrentMap<String, DataRowStoreEntityStats> statsByDbEntity;
+
+    SnapshotCacheAccounting(RuntimeProperties properties, long maxBytes) {
+        this.properties = properties;
+        this.maxBytes = maxBytes;
+
+        // weights are stored as ints, so large budgets are measured in coarser units
+        this.bytesPerUnit = maxBytes > MAXIMUM_CAPACITY ? (maxBytes + MAXIMUM_CAPACITY - 1) / MAXIMUM_CAPACITY : 1;
+        this.statsByObjEntity = new ConcurrentHashMap<>();
+        this.statsByDbEntity = new ConcurrentHashMap<>();
+    }
+
+    boolean isWeighted() {
+        return maxBytes > 0;
+    }
+
+    long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Returns capacity of the snapshot map in weight units.
+     */
+    int getCapacityUnits() {
+        return (int) Math.min(MAXIMUM_CAPACITY, maxBytes / bytesPerUnit);
+    }
+
+    void setEntityResolver(EntityResolver entityResolver) {
+        this.entityResolver = entityResolver;
+    }
+
+    Map<String, DataRowStoreEntityStats> getStats() {
+        return Collections.unmodifiableMap(statsByDbEntity);
+    }
+
+    DataRowStoreEntityStats statsFor(ObjectId id) {
+        return statsFor(id.getEntityName());
+    }
+
+    DataRowStoreEntityStats statsFor(String objEntityName) {
+        if (objEntityName == null) {
+            objEntityName = "";
+        }
+
+        DataRowStoreEntityStats stats = statsByObjEntity.get(objEntityName);
+        if (stats == null) {
+            final String dbEntityName = dbEntityName(objEntityName);
+            stats = statsByDbEntity.computeIfAbsent(dbEntityName, name -> createStats(name));
+
+            DataRowStoreEntityStats existing = statsByObjEntity.putIfAbsent(objEntityName, stats);
+            if (existing != null) {
+                stats = existing;
+            }
+        }
+
+        return stats;
+    }
+
+    private String dbEntityName(String objEntityName) {
+        if (entityResolver != null) {
+            ObjEntity entity = entityResolver.getObjEntity(objEntityName);
+            if (entity != null) {
+                DbEntity dbEntity = entity.getDbEntity();
+                if (dbEntity != null) {
+                    return dbEntity.getName();
+                }
+            }
+        }
+
+        return objEntityName;
+    }
+
+    private DataRowStoreEntityStats createStats(String dbEntityName) {
+        double weight = 1.0;
+        long capacity = 0;
+
+        if (properties != null) {
+            String weightString = properties.get(Constants.SNAPSHOT_CACHE_ENTITY_WEIGHT_PROPERTY_PREFIX + dbEntityName);
+            if (weightString != null) {
+                weight = Double.parseDouble(weightString);
+            }
+
+            capacity = properties.getLong(Constants.SNAPSHOT_CACHE_ENTITY_CAPACITY_PROPERTY_PREFIX + dbEntityName, 0);
+        }
+
+        return new DataRowStoreEntityStats(dbEntityName, weight, capacity);
+    }
+
+    /**
+     * Returns weighted size of a snapshot used in statistics. It is an estimated
+     * number of bytes multiplied by the entity weight when the cache is bounded by
+     * memory, or 1 otherwise.
+     */
+    long weightedSize(DataRow snapshot, DataRowStoreEntityStats stats) {
+        return isWeighted() ? (long) Math.ceil(estimateBytes(snapshot) * stats.getWeight()) : 1;
+    }
+
+    @Override
+    public int weightOf(DataRow snapshot) {
+        long units = weightedSize(snapshot, statsFor(snapshot.getEntityName())) / bytesPerUnit;
+        return (int) Math.max(1, Math.min(MAXIMUM_WEIGHT, units));
+    }
+
+    @Override
+    public void onEviction(ObjectId id, DataRow snapshot) {
+        DataRowStoreEntityStats stats = statsFor(id);
+        stats.recordEviction(weightedSize(snapshot, stats));
+    }
+
+    void reset() {
+        for (DataRowStoreEntityStats stats : statsByDbEntity.values()) {
+            stats.reset();
+        }
+    }
+
+    /**
+     * Returns an approximate number of bytes retained by a DataRow, assuming a 64-bit
+     * JVM with compressed references.
+     */
+    static long estimateBytes(DataRow row) {
+
+        long size;
+        if (row instanceof CompactDataRow) {
+            // row object with an empty hash map + values array
+            size = 72 + align(16 + 4L * ((CompactDataRow) row).getKeys().size());
+        } else {
+            // row object + table + entries
+            int entries = row.size();
+            size = 72 + align(16 + 4L * Integer.highestOneBit(Math.max(1, entries * 4 / 3) * 2 - 1)) + 32L * entries;
+        }
+
+        for (Object value : row.values()) {
+            size += estimateBytes(value);
+        }
+
+        return size;
+    }
+
+    static long estimateBytes(Object value) {
+        if (value == null) {
+            return 0;
+        }
+
+        if (value instanceof String) {
+            return 24 + align(16 + 2L * ((String) value).length());
+        }
+
+        if (value instanceof byte[]) {
+            return align(16 + ((byte[]) value).length);
+        }
+
+        if (value instanceof char[]) {
+            return align(16 + 2L * ((char[]) value).length);
+        }
+
+        if (value instanceof Long || value instanceof Double || value instanceof java.util.Date) {
+            return 24;
+        }
+
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+            if (value instanceof BigDecimal) {
+                return 40 + estimateBytes(((BigDecimal) value).unscaledValue());
+            }
+
+            if (value instanceof BigInteger) {
+                return 40 + align(16 + 4L * (((BigInteger) value).bitLength() / 32 + 1));
+            }
+
+            return 16;
+        }
+
+        // unknown object, count at least a header and a couple of fields
+        return 32;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
@@ -0,0 +1,162 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import org.apache.cayenne.access.event.CoalescedSnapshotEvent;
+import org.apache.cayenne.access.event.SnapshotEvent;
+import org.apache.cayenne.event.EventManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffers snapshot events of a DataRowStore and posts them as a single
+ * {@link CoalescedSnapshotEvent} once the time window elapses or the batch fills up.
+ * Events received from the EventBridge are merged separately from the local ones, so
+ * that the bridge does not send them back to the remote peers.
+ *
+ * @since 4.1
+ */
+class SnapshotEventCoalescer {
+
+    private final DataRowStore store;
+    private final long windowMillis;
+    private final int maxBatchSize;
+
+    private final Object bufferLock;
+    private final Object postLock;
+    private List<SnapshotEvent> buffer;
+    private boolean flushScheduled;
+    private ScheduledExecutorService executor;
+
+    SnapshotEventCoalescer(DataRowStore store, long windowMillis, int maxBatchSize) {
+        this.store = store;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.bufferLock = new Object();
+        this.postLock = new Object();
+        this.buffer = new ArrayList<>();
+    }
+
+    void add(SnapshotEvent event) {
+        boolean flushNow = false;
+
+        synchronized (bufferLock) {
+            buffer.add(event);
+
+            if (buffer.size() >= maxBatchSize) {
+                flushNow = true;
+            } else if (!flushScheduled) {
+                flushScheduled = true;
+                executor().schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (flushNow) {
+            flush();
+        }
+    }
+
+    /**
+     * Posts all buffered events.
+     */
+    void flush() {
+
+        // hold post lock while draining the buffer, so that batches are posted in order
+        synchronized (postLock) {
+
+            List<SnapshotEvent> events;
+            synchronized (bufferLock) {
+                flushScheduled = false;
+                if (buffer.isEmpty()) {
+                    return;
+                }
+
+                events = buffer;
+                buffer = new ArrayList<>();
+            }
+
+            Object bridge = store.getEventBridge();
+            List<SnapshotEvent> local = new ArrayList<>(events.size());
+            List<SnapshotEvent> remote = new ArrayList<>();
+            for (SnapshotEvent event : events) {
+                if (bridge != null && event.getPostedBy() == bridge) {
+                    remote.add(event);
+                } else {
+                    local.add(event);
+                }
+            }
+
+            post(remote, bridge);
+            post(local, store);
+        }
+    }
+
+    private void post(List<SnapshotEvent> events, Object postedBy) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        EventManager eventManager = store.getEventManager();
+        if (eventManager == null) {
+            return;
+        }
+
+        SnapshotEvent event = events.size() == 1
+                ? events.get(0)
+                : new CoalescedSnapshotEvent(store, postedBy, events);
+
+        eventManager.postEvent(event, store.getSnapshotEventSubject());
+    }
+
+    /**
+     * Posts buffered events and stops the flush thread.
+     */
+    void shutdown() {
+        flush();
+
+        synchronized (bufferLock) {
+            if (executor != null) {
+                executor.shutdown();
+                executor = null;
+            }
+        }
+    }
+
+    private ScheduledExecutorService executor() {
+        if (executor == null) {
+            String name = "cayenne-snapshot-events-" + store.getName();
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+                Thread thread = new Thread(r, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+
+            // let the thread die between bursts of commits
+            executor.setKeepAliveTime(30, TimeUnit.SECONDS);
+            executor.allowCoreThreadTimeOut(true);
+            this.executor = executor;
+        }
+
+        return executor;
+    }
+}
@@ -0,0 +1,298 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * A map split into a fixed number of segments selected by key hash, each guarded by
+ * its own read-write lock. Segments are created by a supplied factory, so any map
+ * implementation can be used for storage, including the reference maps of the
+ * {@link ObjectMapRetainStrategy}. Segments that are plain {@link HashMap}s are read
+ * under a shared lock, others (whose reads may purge stale entries) are read under an
+ * exclusive lock.
+ * <p>
+ * Several maps can share the same locks (see {@link #newSibling(Supplier)}), so that a
+ * lock of a single stripe guards the same keys in all of them. Iteration is done over a
+ * snapshot and is never blocked by, nor does it block, concurrent modifications.
+ * </p>
+ * 
+ * @since 4.1
+ */
+class StripedObjectMap<V> extends AbstractMap<Object, V> implements Serializable {
+
+    private static final long serialVersionUID = -4541869545532335367L;
+
+    private final ReentrantReadWriteLock[] locks;
+    private final Map<Object, V>[] segments;
+    private final boolean sharedReads;
+    private final int mask;
+
+    private transient Set<Map.Entry<Object, V>> entrySet;
+
+    StripedObjectMap(int stripes, Supplier<Map<Object, V>> segmentFactory) {
+        this(createLocks(stripes), segmentFactory);
+    }
+
+    @SuppressWarnings("unchecked")
+    private StripedObjectMap(ReentrantReadWriteLock[] locks, Supplier<Map<Object, V>> segmentFactory) {
+        this.locks = locks;
+        this.mask = locks.length - 1;
+        this.segments = (Map<Object, V>[]) new Map<?, ?>[locks.length];
+
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = segmentFactory.get();
+        }
+
+        this.sharedReads = segments[0].getClass() == HashMap.class;
+    }
+
+    private static ReentrantReadWriteLock[] createLocks(int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Stripes count must be positive: " + stripes);
+        }
+
+        // round up to the power of two to select stripes with a bit mask
+        int size = Integer.highestOneBit(stripes);
+        if (size < stripes) {
+            size <<= 1;
+        }
+
+        ReentrantReadWriteLock[] locks = new ReentrantReadWriteLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantReadWriteLock();
+        }
+
+        return locks;
+    }
+
+    /**
+     * Creates a new empty map that shares stripe locks with this map.
+     */
+    <T> StripedObjectMap<T> newSibling(Supplier<Map<Object, T>> segmentFactory) {
+        return new StripedObjectMap<>(locks, segmentFactory);
+    }
+
+    int stripesCount() {
+        return locks.length;
+    }
+
+    int stripe(Object key) {
+        if (key == null) {
+            return 0;
+        }
+
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    Lock readLock(int stripe) {
+        return sharedReads ? locks[stripe].readLock() : locks[stripe].writeLock();
+    }
+
+    Lock writeLock(int stripe) {
+        return locks[stripe].writeLock();
+    }
+
+    /**
+     * Acquires exclusive locks on all stripes in ascending order.
+     */
+    void lockAll() {
+        for (ReentrantReadWriteLock lock : locks) {
+            lock.writeLock().lock();
+        }
+    }
+
+    void unlockAll() {
+        for (int i = locks.length - 1; i >= 0; i--) {
+            locks[i].writeLock().unlock();
+        }
+    }
+
+    @Override
+    public V get(Object key) {
+        int stripe = stripe(key);
+        Lock lock = readLock(stripe);
+        lock.lock();
+        try {
+            return segments[stripe].get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        int stripe = stripe(key);
+        Lock lock = readLock(stripe);
+        lock.lock();
+        try {
+            return segments[stripe].containsKey(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public V put(Object key, V value) {
+        int stripe = stripe(key);
+        Lock lock = writeLock(stripe);
+        lock.lock();
+        try {
+            return segments[stripe].put(key, value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public V remove(Object key) {
+        int stripe = stripe(key);
+        Lock lock = writeLock(stripe);
+        lock.lock();
+        try {
+            return segments[stripe].remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < segments.length; i++) {
+            Lock lock = readLock(i);
+            lock.lock();
+            try {
+                size += segments[i].size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (int i = 0; i < segments.length; i++) {
+            Lock lock = readLock(i);
+            lock.lock();
+            try {
+                if (!segments[i].isEmpty()) {
+                    return false;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < segments.length; i++) {
+            Lock lock = writeLock(i);
+            lock.lock();
+            try {
+                segments[i].clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<Object, V>> entrySet() {
+        Set<Map.Entry<Object, V>> es = entrySet;
+        return es != null ? es : (entrySet = new EntrySet());
+    }
+
+    List<Map.Entry<Object, V>> snapshot() {
+        List<Map.Entry<Object, V>> entries = new ArrayList<>();
+        for (int i = 0; i < segments.length; i++) {
+            Lock lock = readLock(i);
+            lock.lock();
+            try {
+                for (Map.Entry<Object, V> e : segments[i].entrySet()) {
+                    entries.add(new AbstractMap.SimpleImmutableEntry<>(e.getKey(), e.getValue()));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        return entries;
+    }
+
+    final class EntrySet extends AbstractSet<Map.Entry<Object, V>> {
+
+        @Override
+        public Iterator<Map.Entry<Object, V>> iterator() {
+            final Iterator<Map.Entry<Object, V>> it = snapshot().iterator();
+
+            return new Iterator<Map.Entry<Object, V>>() {
+
+                Map.Entry<Object, V> last;
+
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public Map.Entry<Object, V> next() {
+                    return last = it.next();
+                }
+
+                @Override
+                public void remove() {
+                    if (last == null) {
+                        throw new IllegalStateException();
+                    }
+
+                    StripedObjectMap.this.remove(last.getKey());
+                    last = null;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return StripedObjectMap.this.size();
+        }
+
+        @Override
+        public void clear() {
+            StripedObjectMap.this.clear();
+        }
+    }
+}
@@ -0,0 +1,299 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.PersistenceState;
+import org.apache.cayenne.Persistent;
+import org.apache.cayenne.access.ObjectDiff.ArcOperation;
+import org.apache.cayenne.access.event.SnapshotEvent;
+import org.apache.cayenne.graph.GraphDiff;
+import org.apache.cayenne.graph.NodeDiff;
+import org.apache.cayenne.query.ObjectIdQuery;
+
+/**
+ * An {@link ObjectStore} intended for DataContexts shared by many threads. Instead of
+ * synchronizing every operation on a single monitor, it splits registered objects and
+ * their changes into stripes selected by ObjectId hash, each guarded by its own
+ * read-write lock. Node lookups, registration and change tracking of unrelated objects
+ * proceed in parallel, while operations that span the whole store (commit
+ * post-processing, rollback, unregistering objects, snapshot events processing) still
+ * synchronize on the ObjectStore itself and additionally lock all the stripes, so they
+ * observe and produce a consistent state.
+ * <p>
+ * Code that synchronizes on the ObjectStore externally to perform multi-step
+ * operations (such as object resolution) continues to work, but no longer blocks
+ * concurrent lookups from other threads.
+ * </p>
+ * 
+ * @since 4.1
+ */
+public class StripedObjectStore extends ObjectStore {
+
+    private static final long serialVersionUID = 400719513473886883L;
+
+    public static final int DEFAULT_STRIPES = 32;
+
+    private final AtomicInteger diffIdSequence;
+
+    public StripedObjectStore(DataRowStore dataRowCache, ObjectMapRetainStrategy retainStrategy) {
+        this(dataRowCache, retainStrategy, DEFAULT_STRIPES);
+    }
+
+    /**
+     * Creates a StripedObjectStore with a given number of stripes. The number is
+     * rounded up to the nearest power of two. Each stripe of registered objects is
+     * stored in a separate map created by the provided {@link ObjectMapRetainStrategy}.
+     */
+    public StripedObjectStore(DataRowStore dataRowCache, ObjectMapRetainStrategy retainStrategy, int stripes) {
+        super(dataRowCache, new StripedObjectMap<>(stripes, retainStrategy::createObjectMap));
+        this.diffIdSequence = new AtomicInteger();
+    }
+
+    StripedObjectMap<Persistent> stripes() {
+        return (StripedObjectMap<Persistent>) objectMap;
+    }
+
+    /**
+     * Returns the number of stripes in this ObjectStore.
+     */
+    public int getStripesCount() {
+        return stripes().stripesCount();
+    }
+
+    @Override
+    Map<Object, ObjectDiff> createChangesMap() {
+        // share locks with the object map, so that a single stripe lock guards both
+        return stripes().newSibling(HashMap::new);
+    }
+
+    @Override
+    int nextDiffId() {
+        return diffIdSequence.incrementAndGet();
+    }
+
+    @Override
+    int currentDiffId() {
+        return diffIdSequence.get();
+    }
+
+    @Override
+    ObjectDiff registerDiff(Object nodeId, NodeDiff diff) {
+
+        StripedObjectMap<Persistent> stripes = stripes();
+        int stripe = stripes.stripe(nodeId);
+
+        // arc diffs may register a complimentary diff for the target node, so lock both
+        // stripes upfront in ascending order to avoid deadlocks
+        int targetStripe = diff instanceof ArcOperation
+                ? stripes.stripe(((ArcOperation) diff).getTargetNodeId())
+                : stripe;
+
+        Lock first = stripes.writeLock(Math.min(stripe, targetStripe));
+        Lock second = stripes.writeLock(Math.max(stripe, targetStripe));
+
+        while (true) {
+
+            markModifiedIfCommitted(nodeId);
+
+            first.lock();
+            try {
+                second.lock();
+                try {
+                    // the object was committed again before the locks were taken, start over
+                    if (isCommittedWithoutChanges(nodeId)) {
+                        continue;
+                    }
+
+                    return registerDiffNoSync(nodeId, diff);
+                } finally {
+                    second.unlock();
+                }
+            } finally {
+                first.unlock();
+            }
+        }
+    }
+
+    /**
+     * Marks a COMMITTED object as MODIFIED before its first diff is registered. This may
+     * merge a stale snapshot into the object, calling the DataContextDelegate,
+     * registering more diffs and resolving faults, so it is done under the ObjectStore
+     * monitor without holding any stripe locks, i.e. in the same lock order as the
+     * operations spanning the whole store.
+     */
+    private void markModifiedIfCommitted(Object nodeId) {
+        if (isCommittedWithoutChanges(nodeId)) {
+            synchronized (this) {
+                if (isCommittedWithoutChanges(nodeId)) {
+                    markModified(nodeId, objectMap.get(nodeId));
+                }
+            }
+        }
+    }
+
+    private boolean isCommittedWithoutChanges(Object nodeId) {
+        Persistent object = objectMap.get(nodeId);
+        return object != null
+                && object.getPersistenceState() == PersistenceState.COMMITTED
+                && !changes.containsKey(nodeId);
+    }
+
+    @Override
+    public DataRow getSnapshot(ObjectId oid) {
+
+        if (context != null && context.getChannel() != null) {
+            ObjectIdQuery query = new ObjectIdQuery(oid, true, ObjectIdQuery.CACHE);
+            List<?> results = context.getChannel().onQuery(context, query).firstList();
+            return results.isEmpty() ? null : (DataRow) results.get(0);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Returns an iterator over a snapshot of the registered objects. Removal via the
+     * iterator unregisters the object from the ObjectStore.
+     */
+    @Override
+    public Iterator<Persistent> getObjectIterator() {
+        return objectMap.values().iterator();
+    }
+
+    @Override
+    public boolean hasChanges() {
+        return !changes.isEmpty();
+    }
+
+    @Override
+    public List<Persistent> objectsInState(int state) {
+        List<Persistent> filteredObjects = new ArrayList<>();
+
+        for (Persistent object : objectMap.values()) {
+            if (object.getPersistenceState() == state) {
+                filteredObjects.add(object);
+            }
+        }
+
+        return filteredObjects;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public synchronized void objectsUnregistered(Collection objects) {
+        StripedObjectMap<Persistent> stripes = stripes();
+        stripes.lockAll();
+        try {
+            super.objectsUnregistered(objects);
+        } finally {
+            stripes.unlockAll();
+        }
+    }
+
+    @Override
+    public synchronized void objectsRolledBack() {
+        StripedObjectMap<Persistent> stripes = stripes();
+        stripes.lockAll();
+        try {
+            super.objectsRolledBack();
+        } finally {
+            stripes.unlockAll();
+        }
+    }
+
+    @Override
+    synchronized void postprocessAfterPhantomCommit() {
+        StripedObjectMap<Persistent> stripes = stripes();
+        stripes.lockAll();
+        try {
+            super.postprocessAfterPhantomCommit();
+        } finally {
+            stripes.unlockAll();
+        }
+    }
+
+    @Override
+    synchronized void postprocessAfterCommit(GraphDiff parentChanges) {
+        StripedObjectMap<Persistent> stripes = stripes();
+        stripes.lockAll();
+        try {
+            super.postprocessAfterCommit(parentChanges);
+        } finally {
+            stripes.unlockAll();
+        }
+    }
+
+    @Override
+    synchronized void processSnapshotEvent(SnapshotEvent event) {
+        StripedObjectMap<Persistent> stripes = stripes();
+        stripes.lockAll();
+        try {
+            super.processSnapshotEvent(event);
+        } finally {
+            stripes.unlockAll();
+        }
+    }
+
+    @Override
+    synchronized void processIdChange(Object nodeId, Object newId) {
+        StripedObjectMap<Persistent> stripes = stripes();
+        stripes.lockAll();
+        try {
+            super.processIdChange(nodeId, newId);
+        } finally {
+            stripes.unlockAll();
+        }
+    }
+
+    @Override
+    public Object getNode(Object nodeId) {
+        return objectMap.get(nodeId);
+    }
+
+    @Override
+    public Collection<Object> registeredNodes() {
+        return new ArrayList<Object>(objectMap.values());
+    }
+
+    @Override
+    public void registerNode(Object nodeId, Object nodeObject) {
+        objectMap.put(nodeId, (Persistent) nodeObject);
+    }
+
+    @Override
+    public Object unregisterNode(Object nodeId) {
+        Object object = getNode(nodeId);
+        if (object != null) {
+            objectsUnregistered(Collections.singleton(object));
+        }
+
+        return object;
+    }
+}
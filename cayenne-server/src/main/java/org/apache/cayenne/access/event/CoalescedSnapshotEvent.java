@@ -0,0 +1,152 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.event;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectId;
+
+/**
+ * A SnapshotEvent that merges a sequence of snapshot events posted within a short
+ * period of time. Modified diffs of the same object are combined, with later values
+ * taking precedence. Ids of deleted objects are removed from other change
+ * categories. The original events are kept locally (but not serialized), so that a
+ * listener can exclude changes it posted itself via {@link #without(Object)}.
+ * 
+ * @since 4.1
+ */
+public class CoalescedSnapshotEvent extends SnapshotEvent {
+
+    private static final long serialVersionUID = 3701101440264320074L;
+
+    private transient List<SnapshotEvent> events;
+
+    public CoalescedSnapshotEvent(Object source, Object postedBy, List<SnapshotEvent> events) {
+        super(source, postedBy, null, null, null, null);
+        this.events = events;
+        merge(events);
+    }
+
+    private void merge(List<SnapshotEvent> events) {
+        Map<ObjectId, DataRow> modified = new HashMap<>();
+        Set<ObjectId> deleted = new LinkedHashSet<>();
+        Set<ObjectId> invalidated = new LinkedHashSet<>();
+        Set<ObjectId> indirectlyModified = new LinkedHashSet<>();
+
+        for (SnapshotEvent event : events) {
+
+            for (Map.Entry<ObjectId, DataRow> entry : event.getModifiedDiffs().entrySet()) {
+                ObjectId id = entry.getKey();
+                if (deleted.contains(id)) {
+                    continue;
+                }
+
+                DataRow diff = entry.getValue();
+                DataRow previous = modified.get(id);
+                if (previous != null) {
+                    DataRow merged = new DataRow(previous.size() + diff.size());
+                    merged.putAll(previous);
+                    merged.putAll(diff);
+                    diff = merged;
+                }
+
+                modified.put(id, diff);
+            }
+
+            for (ObjectId id : event.getDeletedIds()) {
+                deleted.add(id);
+                modified.remove(id);
+                invalidated.remove(id);
+                indirectlyModified.remove(id);
+            }
+
+            for (ObjectId id : event.getInvalidatedIds()) {
+                if (!deleted.contains(id)) {
+                    invalidated.add(id);
+                }
+            }
+
+            for (ObjectId id : event.getIndirectlyModifiedIds()) {
+                if (!deleted.contains(id)) {
+                    indirectlyModified.add(id);
+                }
+            }
+        }
+
+        this.modifiedDiffs = modified.isEmpty() ? null : modified;
+        this.deletedIds = deleted.isEmpty() ? null : deleted;
+        this.invalidatedIds = invalidated.isEmpty() ? null : invalidated;
+        this.indirectlyModifiedIds = indirectlyModified.isEmpty() ? null : indirectlyModified;
+    }
+
+    /**
+     * Returns events merged into this event. An empty list is returned if the event
+     * was received from a remote peer.
+     */
+    public List<SnapshotEvent> getEvents() {
+        return events != null ? events : Collections.<SnapshotEvent> emptyList();
+    }
+
+    /**
+     * Returns an event with the changes of all merged events except those posted by
+     * the specified object. Returns this event if the object did not post any of the
+     * merged events, and null if all of them were posted by the object.
+     */
+    public SnapshotEvent without(Object postedBy) {
+        if (events == null) {
+            return this;
+        }
+
+        List<SnapshotEvent> others = null;
+        for (int i = 0; i < events.size(); i++) {
+            SnapshotEvent event = events.get(i);
+
+            if (event.getPostedBy() == postedBy) {
+                if (others == null) {
+                    others = new ArrayList<>(events.subList(0, i));
+                }
+            } else if (others != null) {
+                others.add(event);
+            }
+        }
+
+        if (others == null) {
+            return this;
+        }
+
+        if (others.isEmpty()) {
+            return null;
+        }
+
+        return new CoalescedSnapshotEvent(getSource(), getPostedBy(), others);
+    }
+
+    @Override
+    public String toString() {
+        return super.toString() + ", merged " + getEvents().size() + " event(s)";
+    }
+}
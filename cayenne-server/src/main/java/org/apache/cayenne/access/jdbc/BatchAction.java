@@ -20,6 +20,7 @@
 package org.apache.cayenne.access.jdbc;
 
 import org.apache.cayenne.CayenneException;
+import org.apache.cayenne.CollectionResultIterator;
 import org.apache.cayenne.ResultIterator;
 import org.apache.cayenne.access.DataNode;
 import org.apache.cayenne.access.OperationObserver;
@@ -39,6 +40,7 @@ import org.apache.cayenne.query.InsertBatchQuery;
 import java.sql.*;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 /**
  * @since 1.2
@@ -82,7 +84,9 @@ public class BatchAction extends BaseSQLAction {
 		boolean generatesKeys = hasGeneratedKeys();
 
 		if (runningAsBatch && !generatesKeys) {
-			runAsBatch(connection, translator, observer);
+			runAsBatch(connection, translator, observer, false);
+		} else if (runningAsBatch && dataNode.getAdapter().supportsGeneratedKeysForBatchInserts()) {
+			runAsBatch(connection, translator, observer, true);
 		} else {
 			runAsIndividualQueries(connection, translator, observer, generatesKeys);
 		}
@@ -92,8 +96,25 @@ public class BatchAction extends BaseSQLAction {
 		return dataNode.batchTranslator(query, null);
 	}
 
+	/**
+	 * @deprecated since 4.1 in favor of
+	 *             {@link #runAsBatch(Connection, BatchTranslator, OperationObserver, boolean)}
+	 */
+	@Deprecated
 	protected void runAsBatch(Connection con, BatchTranslator translator, OperationObserver delegate)
 			throws SQLException, Exception {
+		runAsBatch(con, translator, delegate, false);
+	}
+
+	/**
+	 * Executes batch rows over a single prepared statement. If the DataNode
+	 * defines max batch size, rows are sent to the database in chunks of that
+	 * size. Generated keys, if requested, are read after each chunk.
+	 *
+	 * @since 4.1
+	 */
+	protected void runAsBatch(Connection con, BatchTranslator translator, OperationObserver delegate,
+			boolean generatesKeys) throws SQLException, Exception {
 
 		String sql = translator.getSql();
 		JdbcEventLogger logger = dataNode.getJdbcEventLogger();
@@ -105,19 +126,36 @@ public class BatchAction extends BaseSQLAction {
 		// run batch
 
 		DbAdapter adapter = dataNode.getAdapter();
+		List<BatchQueryRow> rows = query.getRows();
+		int size = rows.size();
+		int maxBatchSize = dataNode.getMaxBatchSize() > 0 ? dataNode.getMaxBatchSize() : size;
+		int[] results = new int[size];
 
-		try (PreparedStatement statement = con.prepareStatement(sql)) {
-			for (BatchQueryRow row : query.getRows()) {
+		try (PreparedStatement statement = prepareStatement(con, sql, adapter, generatesKeys)) {
 
-				DbAttributeBinding[] bindings = translator.updateBindings(row);
-				logger.logQueryParameters("batch bind", bindings);
-				bind(adapter, statement, bindings);
+			int from = 0;
+			while (from < size) {
+				int to = Math.min(from + maxBatchSize, size);
+
+				for (int i = from; i < to; i++) {
+					DbAttributeBinding[] bindings = translator.updateBindings(rows.get(i));
+					logger.logQueryParameters("batch bind", bindings);
+					bind(adapter, statement, bindings);
 
-				statement.addBatch();
+					statement.addBatch();
+				}
+
+				// execute the next chunk
+				int[] chunkResults = statement.executeBatch();
+				System.arraycopy(chunkResults, 0, results, from, Math.min(chunkResults.length, to - from));
+
+				if (generatesKeys) {
+					processGeneratedKeys(statement, delegate, rows.subList(from, to));
+				}
+
+				from = to;
 			}
 
-			// execute the whole batch
-			int[] results = statement.executeBatch();
 			delegate.nextBatchCount(query, results);
 
 			if (isLoggable) {
@@ -222,6 +260,40 @@ public class BatchAction extends BaseSQLAction {
 			throws SQLException, CayenneException {
 
 		ResultSet keysRS = statement.getGeneratedKeys();
+		ResultIterator iterator = new JDBCResultIterator(null, keysRS, keysRowReader(keysRS));
+
+		observer.nextGeneratedRows(query, iterator, row.getObjectId());
+	}
+
+	/**
+	 * Reads generated keys of a batch insert. The driver is expected to return
+	 * one key row per batch row, in the order rows were added to the batch.
+	 * 
+	 * @since 4.1
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	protected void processGeneratedKeys(Statement statement, OperationObserver observer, List<BatchQueryRow> rows)
+			throws SQLException, CayenneException {
+
+		ResultSet keysRS = statement.getGeneratedKeys();
+
+		List keys;
+		try (ResultIterator iterator = new JDBCResultIterator(null, keysRS, keysRowReader(keysRS))) {
+			keys = iterator.allRows();
+		}
+
+		if (keys.size() != rows.size()) {
+			throw new CayenneException("Expected %d generated key rows for batch insert, instead got %d",
+					rows.size(), keys.size());
+		}
+
+		for (int i = 0; i < rows.size(); i++) {
+			ResultIterator iterator = new CollectionResultIterator(Collections.singletonList(keys.get(i)));
+			observer.nextGeneratedRows(query, iterator, rows.get(i).getObjectId());
+		}
+	}
+
+	private RowReader<?> keysRowReader(ResultSet keysRS) throws SQLException {
 
 		// TODO: andrus, 7/4/2007 - (1) get the type of meaningful PK's from
 		// their
@@ -256,10 +328,7 @@ public class BatchAction extends BaseSQLAction {
 			this.keyRowDescriptor = builder.getDescriptor(dataNode.getAdapter().getExtendedTypes());
 		}
 
-		RowReader<?> rowReader = dataNode.rowReader(keyRowDescriptor, query.getMetaData(dataNode.getEntityResolver()),
+		return dataNode.rowReader(keyRowDescriptor, query.getMetaData(dataNode.getEntityResolver()),
 				Collections.<ObjAttribute, ColumnDescriptor> emptyMap());
-		ResultIterator iterator = new JDBCResultIterator(null, keysRS, rowReader);
-
-		observer.nextGeneratedRows(query, iterator, row.getObjectId());
 	}
 }
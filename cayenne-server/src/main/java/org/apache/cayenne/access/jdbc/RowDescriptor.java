@@ -19,6 +19,7 @@
 
 package org.apache.cayenne.access.jdbc;
 
+import org.apache.cayenne.DataRowKeys;
 import org.apache.cayenne.access.types.ExtendedType;
 
 /**
@@ -31,6 +32,8 @@ public class RowDescriptor {
     protected ColumnDescriptor[] columns;
     protected ExtendedType[] converters;
 
+    private volatile DataRowKeys dataRowKeys;
+
     /**
      * Creates an empty RowDescriptor. Intended mainly for testing and use by subclasses.
      */
@@ -68,4 +71,25 @@ public class RowDescriptor {
     public ExtendedType[] getConverters() {
         return converters;
     }
+
+    /**
+     * Returns DataRow keys of the columns, shared by all DataRows read with this
+     * descriptor.
+     * 
+     * @since 4.1
+     */
+    public DataRowKeys getDataRowKeys() {
+        DataRowKeys keys = dataRowKeys;
+        if (keys == null) {
+            String[] labels = new String[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                labels[i] = columns[i].getDataRowKey();
+            }
+
+            keys = new DataRowKeys(labels);
+            dataRowKeys = keys;
+        }
+
+        return keys;
+    }
 }
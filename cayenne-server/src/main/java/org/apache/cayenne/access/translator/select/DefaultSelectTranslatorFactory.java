@@ -18,20 +18,58 @@
  ****************************************************************/
 package org.apache.cayenne.access.translator.select;
 
+import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.configuration.RuntimeProperties;
 import org.apache.cayenne.dba.DbAdapter;
+import org.apache.cayenne.di.Inject;
 import org.apache.cayenne.map.EntityResolver;
 import org.apache.cayenne.query.SelectQuery;
 
 /**
  * A {@link SelectTranslator} factory that delegates translator creation to
- * DbAdapter.
+ * DbAdapter. If {@link Constants#SELECT_TRANSLATION_CACHE_SIZE_PROPERTY} is
+ * set, translations are reused between queries of the same structure.
  * 
  * @since 4.0
  */
 public class DefaultSelectTranslatorFactory implements SelectTranslatorFactory {
 
+	protected SelectTranslationCache translationCache;
+
+	public DefaultSelectTranslatorFactory() {
+	}
+
+	/**
+	 * @since 4.1
+	 */
+	public DefaultSelectTranslatorFactory(@Inject RuntimeProperties properties) {
+		int cacheSize = properties.getInt(Constants.SELECT_TRANSLATION_CACHE_SIZE_PROPERTY, 0);
+		if (cacheSize > 0) {
+			this.translationCache = new SelectTranslationCache(cacheSize);
+		}
+	}
+
 	@Override
 	public SelectTranslator translator(SelectQuery<?> query, DbAdapter adapter, EntityResolver entityResolver) {
-		return adapter.getSelectTranslator(query, entityResolver);
+		return translationCache != null
+				? translationCache.translator(query, adapter, entityResolver)
+				: adapter.getSelectTranslator(query, entityResolver);
+	}
+
+	/**
+	 * Returns the cache of query translations with its hit/miss statistics or
+	 * null if the cache is disabled.
+	 * 
+	 * @since 4.1
+	 */
+	public SelectTranslationCache getTranslationCache() {
+		return translationCache;
+	}
+
+	/**
+	 * @since 4.1
+	 */
+	public void setTranslationCache(SelectTranslationCache translationCache) {
+		this.translationCache = translationCache;
 	}
 }
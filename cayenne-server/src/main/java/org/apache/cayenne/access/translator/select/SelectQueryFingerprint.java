@@ -0,0 +1,294 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.translator.select;
+
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.Persistent;
+import org.apache.cayenne.dba.DbAdapter;
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.exp.Property;
+import org.apache.cayenne.exp.parser.ASTExtract;
+import org.apache.cayenne.exp.parser.ASTList;
+import org.apache.cayenne.exp.parser.ASTNamedParameter;
+import org.apache.cayenne.exp.parser.ASTPath;
+import org.apache.cayenne.exp.parser.ASTScalar;
+import org.apache.cayenne.exp.parser.PatternMatchNode;
+import org.apache.cayenne.exp.parser.SimpleNode;
+import org.apache.cayenne.map.EntityResolver;
+import org.apache.cayenne.query.Ordering;
+import org.apache.cayenne.query.PrefetchSelectQuery;
+import org.apache.cayenne.query.PrefetchTreeNode;
+import org.apache.cayenne.query.QueryMetadata;
+import org.apache.cayenne.query.SelectQuery;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A structural key of a SelectQuery translation. Two queries with equal
+ * fingerprints produce the same SQL and differ only in values of their
+ * literals, that are collected in the fingerprint as positional parameters.
+ * Literal values are not a part of the key, but their classes are, as they
+ * define the ExtendedType used for binding.
+ *
+ * @since 4.1
+ */
+final class SelectQueryFingerprint {
+
+	private static final Object NULL_TOKEN = new Object() {
+		@Override
+		public String toString() {
+			return "null";
+		}
+	};
+
+	private static final Object END_TOKEN = new Object() {
+		@Override
+		public String toString() {
+			return ")";
+		}
+	};
+
+	/**
+	 * Builds a fingerprint of a query, returning null if the query can not be
+	 * described structurally, e.g. because its qualifier references persistent
+	 * objects or unresolved parameters.
+	 */
+	static SelectQueryFingerprint create(SelectQuery<?> query, QueryMetadata metadata, DbAdapter adapter,
+			EntityResolver entityResolver) {
+
+		Class<?> queryClass = query.getClass();
+		if (queryClass != SelectQuery.class && queryClass != PrefetchSelectQuery.class) {
+			return null;
+		}
+
+		SelectQueryFingerprint fingerprint = new SelectQueryFingerprint();
+		List<Object> structure = fingerprint.structure;
+
+		structure.add(queryClass);
+		structure.add(adapter);
+		structure.add(entityResolver);
+		structure.add(metadata.getObjEntity());
+		structure.add(metadata.getDbEntity());
+		structure.add(metadata.isFetchingDataRows());
+		structure.add(metadata.isSuppressingDistinct());
+		structure.add(metadata.getFetchLimit());
+		structure.add(metadata.getFetchOffset());
+		structure.add(query.isDistinct());
+		structure.add(query.canReturnScalarValue());
+
+		if (query instanceof PrefetchSelectQuery) {
+			PrefetchSelectQuery prefetchQuery = (PrefetchSelectQuery) query;
+			structure.add(prefetchQuery.getPrefetchPath());
+			structure.add(prefetchQuery.getLastPrefetchHint());
+			structure.add(prefetchQuery.getResultPaths() != null
+					? new ArrayList<>(prefetchQuery.getResultPaths())
+					: NULL_TOKEN);
+		}
+
+		// parts of the query are visited in the order of their translation, so
+		// that the parameters are collected in the order of bindings
+		Collection<Property<?>> columns = query.getColumns();
+		if (columns != null) {
+			structure.add(columns.size());
+			for (Property<?> column : columns) {
+				structure.add(column.getName());
+				structure.add(column.getType());
+				if (!fingerprint.appendExpression(column.getExpression())) {
+					return null;
+				}
+			}
+		}
+
+		if (!fingerprint.appendExpression(query.getQualifier())
+				|| !fingerprint.appendExpression(query.getHavingQualifier())) {
+			return null;
+		}
+
+		List<Ordering> orderings = query.getOrderings();
+		structure.add(orderings.size());
+		for (Ordering ordering : orderings) {
+			structure.add(ordering.getSortOrder());
+			structure.add(ordering.isNullSortedFirst());
+			structure.add(ordering.isPathExceptionSuppressed());
+			if (!fingerprint.appendExpression(ordering.getSortSpec())) {
+				return null;
+			}
+		}
+
+		fingerprint.appendPrefetch(metadata.getPrefetchTree());
+		fingerprint.hashCode = structure.hashCode();
+		return fingerprint;
+	}
+
+	private final List<Object> structure;
+	private final List<Object> parameters;
+	private int hashCode;
+
+	private SelectQueryFingerprint() {
+		this.structure = new ArrayList<>();
+		this.parameters = new ArrayList<>();
+	}
+
+	/**
+	 * Returns literal values of the query in the order they are bound by the
+	 * translator: result columns, qualifier, having qualifier and orderings.
+	 */
+	List<Object> getParameters() {
+		return parameters;
+	}
+
+	private boolean appendExpression(Expression expression) {
+
+		if (expression == null) {
+			structure.add(NULL_TOKEN);
+			return true;
+		}
+
+		if (!(expression instanceof SimpleNode)) {
+			return false;
+		}
+
+		structure.add(expression.getClass());
+
+		if (expression instanceof ASTPath) {
+			ASTPath path = (ASTPath) expression;
+			structure.add(path.getPath());
+			Map<String, String> aliases = path.getPathAliases();
+			structure.add(aliases != null && !aliases.isEmpty() ? aliases : NULL_TOKEN);
+			return true;
+		}
+
+		if (expression instanceof ASTList) {
+			return appendLiterals(((ASTList) expression).getOperand(0));
+		}
+
+		if (expression instanceof PatternMatchNode) {
+			structure.add(((PatternMatchNode) expression).getEscapeChar());
+		} else if (expression instanceof ASTExtract) {
+			structure.add(((ASTExtract) expression).getPart());
+		}
+
+		SimpleNode node = (SimpleNode) expression;
+		int len = node.jjtGetNumChildren();
+		structure.add(len);
+
+		for (int i = 0; i < len; i++) {
+			Object child = node.jjtGetChild(i);
+
+			if (child instanceof ASTNamedParameter) {
+				// unresolved parameter, translation would fail anyways
+				return false;
+			} else if (child instanceof ASTScalar) {
+				if (!appendLiteral(((ASTScalar) child).getValue())) {
+					return false;
+				}
+			} else if (child == null || child instanceof Expression) {
+				if (!appendExpression((Expression) child)) {
+					return false;
+				}
+			} else {
+				return false;
+			}
+		}
+
+		structure.add(END_TOKEN);
+		return true;
+	}
+
+	private boolean appendLiterals(Object values) {
+		if (!(values instanceof Object[])) {
+			return false;
+		}
+
+		Object[] array = (Object[]) values;
+		structure.add(array.length);
+		for (Object value : array) {
+			if (!appendLiteral(value)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private boolean appendLiteral(Object value) {
+
+		// null values change the SQL ("IS NULL"), so they are not parameters
+		if (value == null) {
+			structure.add(NULL_TOKEN);
+			return true;
+		}
+
+		// objects expanded into their ids, collections and other
+		// nontrivial values are not parameterized
+		if (value instanceof Persistent
+				|| value instanceof ObjectId
+				|| value instanceof Collection
+				|| value instanceof Map
+				|| value instanceof Object[]
+				|| value instanceof Expression) {
+			return false;
+		}
+
+		structure.add(value.getClass());
+		parameters.add(value);
+		return true;
+	}
+
+	private void appendPrefetch(PrefetchTreeNode node) {
+		if (node == null) {
+			structure.add(NULL_TOKEN);
+			return;
+		}
+
+		structure.add(node.getName());
+		structure.add(node.getSemantics());
+		structure.add(node.isPhantom());
+		structure.add(node.getEntityName());
+		structure.add(node.getEjbqlPathEntityId());
+
+		Collection<PrefetchTreeNode> children = node.getChildren();
+		structure.add(children.size());
+		for (PrefetchTreeNode child : children) {
+			appendPrefetch(child);
+		}
+	}
+
+	@Override
+	public boolean equals(Object object) {
+		if (this == object) {
+			return true;
+		}
+
+		if (!(object instanceof SelectQueryFingerprint)) {
+			return false;
+		}
+
+		SelectQueryFingerprint fingerprint = (SelectQueryFingerprint) object;
+		return hashCode == fingerprint.hashCode && structure.equals(fingerprint.structure);
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+}
@@ -0,0 +1,182 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.translator.select;
+
+import org.apache.cayenne.access.jdbc.ColumnDescriptor;
+import org.apache.cayenne.access.translator.DbAttributeBinding;
+import org.apache.cayenne.dba.DbAdapter;
+import org.apache.cayenne.map.EntityResolver;
+import org.apache.cayenne.map.ObjAttribute;
+import org.apache.cayenne.query.SelectQuery;
+import org.apache.cayenne.util.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of SelectQuery translations keyed by the query structure.
+ * Queries that only differ in values of their literals (e.g. the same
+ * ObjectSelect executed with different parameters) share the generated SQL,
+ * result columns and binding layout, so that repeated executions only need
+ * to bind the new values.
+ *
+ * @since 4.1
+ */
+public class SelectTranslationCache {
+
+	private final ConcurrentLinkedHashMap<SelectQueryFingerprint, SelectTranslationTemplate> templates;
+
+	private final LongAdder hits;
+	private final LongAdder misses;
+	private final LongAdder uncacheable;
+
+	public SelectTranslationCache(int maxSize) {
+		this.templates = new ConcurrentLinkedHashMap.Builder<SelectQueryFingerprint, SelectTranslationTemplate>()
+				.maximumWeightedCapacity(maxSize).build();
+		this.hits = new LongAdder();
+		this.misses = new LongAdder();
+		this.uncacheable = new LongAdder();
+	}
+
+	/**
+	 * Returns a translator for the query, either based on a cached translation
+	 * or created by the adapter. In the later case the translation is cached
+	 * once it is done.
+	 */
+	public SelectTranslator translator(SelectQuery<?> query, DbAdapter adapter, EntityResolver entityResolver) {
+
+		SelectQueryFingerprint fingerprint = SelectQueryFingerprint.create(query,
+				query.getMetaData(entityResolver), adapter, entityResolver);
+		if (fingerprint == null) {
+			uncacheable.increment();
+			return adapter.getSelectTranslator(query, entityResolver);
+		}
+
+		SelectTranslationTemplate template = templates.get(fingerprint);
+		if (template == null) {
+			misses.increment();
+			return new RecordingSelectTranslator(adapter.getSelectTranslator(query, entityResolver), fingerprint);
+		}
+
+		if (!template.isCacheable()) {
+			uncacheable.increment();
+			return adapter.getSelectTranslator(query, entityResolver);
+		}
+
+		hits.increment();
+		return template.translator(fingerprint.getParameters());
+	}
+
+	/**
+	 * Returns the number of translations served from the cache.
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * Returns the number of translations that were not found in the cache and
+	 * were done from scratch.
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Returns the number of queries that can't be translated via the cache,
+	 * because their SQL depends on values of the query literals.
+	 */
+	public long getUncacheable() {
+		return uncacheable.sum();
+	}
+
+	/**
+	 * Returns a share of cache hits among all translations done via this
+	 * cache.
+	 */
+	public double getHitRatio() {
+		long hits = getHits();
+		long total = hits + getMisses() + getUncacheable();
+		return total > 0 ? (double) hits / total : 0d;
+	}
+
+	/**
+	 * Returns the number of query structures stored in the cache.
+	 */
+	public int size() {
+		return templates.size();
+	}
+
+	public void clear() {
+		templates.clear();
+	}
+
+	/**
+	 * A translator that stores its result in the cache once translation is
+	 * done.
+	 */
+	private class RecordingSelectTranslator implements SelectTranslator {
+
+		private final SelectTranslator delegate;
+		private final SelectQueryFingerprint fingerprint;
+
+		RecordingSelectTranslator(SelectTranslator delegate, SelectQueryFingerprint fingerprint) {
+			this.delegate = delegate;
+			this.fingerprint = fingerprint;
+		}
+
+		@Override
+		public String getSql() throws Exception {
+			String sql = delegate.getSql();
+
+			SelectTranslationTemplate template = SelectTranslationTemplate.create(delegate, sql,
+					fingerprint.getParameters());
+			if (template != null) {
+				templates.putIfAbsent(fingerprint, template);
+			}
+
+			return sql;
+		}
+
+		@Override
+		public DbAttributeBinding[] getBindings() {
+			return delegate.getBindings();
+		}
+
+		@Override
+		public Map<ObjAttribute, ColumnDescriptor> getAttributeOverrides() {
+			return delegate.getAttributeOverrides();
+		}
+
+		@Override
+		public ColumnDescriptor[] getResultColumns() {
+			return delegate.getResultColumns();
+		}
+
+		@Override
+		public boolean isSuppressingDistinct() {
+			return delegate.isSuppressingDistinct();
+		}
+
+		@Override
+		public boolean hasJoins() {
+			return delegate.hasJoins();
+		}
+	}
+}
@@ -0,0 +1,208 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.translator.select;
+
+import org.apache.cayenne.access.jdbc.ColumnDescriptor;
+import org.apache.cayenne.access.translator.DbAttributeBinding;
+import org.apache.cayenne.access.types.ExtendedType;
+import org.apache.cayenne.map.DbAttribute;
+import org.apache.cayenne.map.ObjAttribute;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Result of a SelectQuery translation with bindings expressed in terms of
+ * query parameters collected by {@link SelectQueryFingerprint}. Allows to
+ * produce a translator for another query with the same fingerprint without
+ * running the translation again.
+ *
+ * @since 4.1
+ */
+final class SelectTranslationTemplate {
+
+	/**
+	 * A marker of queries whose translation can't be reused.
+	 */
+	static final SelectTranslationTemplate UNCACHEABLE = new SelectTranslationTemplate();
+
+	/**
+	 * Builds a template from a finished translation of a query with provided
+	 * parameters. Parameters are listed in the order the translator binds them,
+	 * so they are matched to the bindings in order, each bound exactly once.
+	 * Bindings that do not match any parameter (e.g. coming from entity
+	 * qualifiers) are stored as constants.
+	 *
+	 * @return a new template, {@link #UNCACHEABLE} if the translation
+	 *         transforms or inlines parameters, or null if the mapping between
+	 *         parameters and bindings is ambiguous for this specific query.
+	 */
+	static SelectTranslationTemplate create(SelectTranslator translator, String sql, List<Object> parameters) {
+
+		// parameters are matched by identity, as the translator binds the values it
+		// receives, and identity doesn't mix up equal values coming from elsewhere
+		Set<Object> parameterValues = Collections.newSetFromMap(new IdentityHashMap<>());
+		parameterValues.addAll(parameters);
+
+		DbAttributeBinding[] bindings = translator.getBindings();
+		int[] positions = new int[bindings.length];
+		int len = parameters.size();
+		int next = 0;
+
+		for (int i = 0; i < bindings.length; i++) {
+			Object value = bindings[i].getValue();
+			if (next < len && value == parameters.get(next)) {
+				positions[i] = next++;
+			} else if (!parameterValues.contains(value)) {
+				positions[i] = -1;
+			} else if (isBound(parameters, next, value)) {
+				// the same instance is also bound elsewhere, e.g. as a constant
+				return null;
+			} else {
+				// a parameter was skipped, i.e. it is not bound as is
+				return UNCACHEABLE;
+			}
+		}
+
+		return next == len ? new SelectTranslationTemplate(translator, sql, bindings, positions) : UNCACHEABLE;
+	}
+
+	private static boolean isBound(List<Object> parameters, int boundCount, Object value) {
+		for (int i = 0; i < boundCount; i++) {
+			if (parameters.get(i) == value) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private final String sql;
+	private final DbAttribute[] attributes;
+	private final ExtendedType<?>[] extendedTypes;
+	private final int[] statementPositions;
+	private final int[] parameterPositions;
+	private final Object[] constants;
+	private final ColumnDescriptor[] resultColumns;
+	private final Map<ObjAttribute, ColumnDescriptor> attributeOverrides;
+	private final boolean suppressingDistinct;
+	private final boolean joins;
+
+	private SelectTranslationTemplate() {
+		this.sql = null;
+		this.attributes = null;
+		this.extendedTypes = null;
+		this.statementPositions = null;
+		this.parameterPositions = null;
+		this.constants = null;
+		this.resultColumns = null;
+		this.attributeOverrides = null;
+		this.suppressingDistinct = false;
+		this.joins = false;
+	}
+
+	private SelectTranslationTemplate(SelectTranslator translator, String sql, DbAttributeBinding[] bindings,
+			int[] parameterPositions) {
+
+		int len = bindings.length;
+
+		this.sql = sql;
+		this.parameterPositions = parameterPositions;
+		this.attributes = new DbAttribute[len];
+		this.extendedTypes = new ExtendedType<?>[len];
+		this.statementPositions = new int[len];
+		this.constants = new Object[len];
+
+		for (int i = 0; i < len; i++) {
+			DbAttributeBinding binding = bindings[i];
+			attributes[i] = binding.getAttribute();
+			extendedTypes[i] = binding.getExtendedType();
+			statementPositions[i] = binding.getStatementPosition();
+			constants[i] = parameterPositions[i] < 0 ? binding.getValue() : null;
+		}
+
+		this.resultColumns = translator.getResultColumns();
+		this.attributeOverrides = translator.getAttributeOverrides();
+		this.suppressingDistinct = translator.isSuppressingDistinct();
+		this.joins = translator.hasJoins();
+	}
+
+	boolean isCacheable() {
+		return this != UNCACHEABLE;
+	}
+
+	/**
+	 * Creates a translator reusing this template with new parameter values.
+	 */
+	SelectTranslator translator(List<Object> parameters) {
+		int len = attributes.length;
+		DbAttributeBinding[] bindings = new DbAttributeBinding[len];
+
+		for (int i = 0; i < len; i++) {
+			DbAttributeBinding binding = new DbAttributeBinding(attributes[i]);
+			Object value = parameterPositions[i] < 0 ? constants[i] : parameters.get(parameterPositions[i]);
+			binding.include(statementPositions[i], value, extendedTypes[i]);
+			bindings[i] = binding;
+		}
+
+		return new CachedSelectTranslator(bindings);
+	}
+
+	private class CachedSelectTranslator implements SelectTranslator {
+
+		private final DbAttributeBinding[] bindings;
+
+		CachedSelectTranslator(DbAttributeBinding[] bindings) {
+			this.bindings = bindings;
+		}
+
+		@Override
+		public String getSql() {
+			return sql;
+		}
+
+		@Override
+		public DbAttributeBinding[] getBindings() {
+			return bindings;
+		}
+
+		@Override
+		public Map<ObjAttribute, ColumnDescriptor> getAttributeOverrides() {
+			return attributeOverrides;
+		}
+
+		@Override
+		public ColumnDescriptor[] getResultColumns() {
+			return resultColumns.clone();
+		}
+
+		@Override
+		public boolean isSuppressingDistinct() {
+			return suppressingDistinct;
+		}
+
+		@Override
+		public boolean hasJoins() {
+			return joins;
+		}
+	}
+}
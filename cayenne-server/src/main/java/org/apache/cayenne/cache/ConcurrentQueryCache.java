@@ -0,0 +1,393 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.cache;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.configuration.RuntimeProperties;
+import org.apache.cayenne.query.QueryMetadata;
+import org.apache.cayenne.util.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+
+/**
+ * A local {@link QueryCache} for highly concurrent applications. Compared to
+ * {@link MapQueryCache}, reads do not lock, each cache group has its own
+ * capacity and TTL, groups are bounded by the number of cached rows instead of
+ * the number of cached lists, and concurrent misses on the same key run the
+ * query only once.
+ * <p>
+ * Group settings are taken from {@link Constants#QUERY_CACHE_MAX_WEIGHT_PROPERTY}
+ * and {@link Constants#QUERY_CACHE_TTL_PROPERTY}, and can be overridden per group
+ * by appending the group name to the property names, e.g.
+ * "cayenne.querycache.ttl.artists=60000".
+ *
+ * @since 4.1
+ */
+public class ConcurrentQueryCache implements QueryCache {
+
+    public static final int DEFAULT_MAX_WEIGHT = 100000;
+
+    private final ConcurrentMap<String, CacheGroup> groups;
+    private final ConcurrentMap<LoadKey, CompletableFuture<List<?>>> loads;
+    private final RuntimeProperties properties;
+    private final int maxWeight;
+    private final long ttl;
+
+    // incremented on every single key removal, so that the loads started
+    // before the removal don't put stale results in the cache
+    private final AtomicLong removals;
+
+    public ConcurrentQueryCache() {
+        this(DEFAULT_MAX_WEIGHT, 0);
+    }
+
+    /**
+     * Creates a cache with the same capacity and TTL for all groups.
+     *
+     * @param maxWeight max number of rows cached per group.
+     * @param ttl time in milliseconds after which cached results expire, or zero
+     *            if they never expire.
+     */
+    public ConcurrentQueryCache(int maxWeight, long ttl) {
+        this(maxWeight, ttl, null);
+    }
+
+    /**
+     * Creates a cache with group settings taken from runtime properties.
+     */
+    public ConcurrentQueryCache(RuntimeProperties properties) {
+        this(properties.getInt(Constants.QUERY_CACHE_MAX_WEIGHT_PROPERTY, DEFAULT_MAX_WEIGHT),
+                properties.getLong(Constants.QUERY_CACHE_TTL_PROPERTY, 0),
+                properties);
+    }
+
+    private ConcurrentQueryCache(int maxWeight, long ttl, RuntimeProperties properties) {
+        this.groups = new ConcurrentHashMap<>();
+        this.loads = new ConcurrentHashMap<>();
+        this.properties = properties;
+        this.maxWeight = maxWeight;
+        this.ttl = ttl;
+        this.removals = new AtomicLong();
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public List get(QueryMetadata metadata) {
+        String key = metadata.getCacheKey();
+        if (key == null) {
+            return null;
+        }
+
+        return get(group(cacheName(metadata)), key);
+    }
+
+    private List<?> get(CacheGroup group, String key) {
+        Entry entry = group.entries.get(key);
+
+        if (entry == null) {
+            group.stats.miss();
+            return null;
+        }
+
+        if (entry.isExpired()) {
+            if (group.entries.remove(key, entry)) {
+                group.stats.expired();
+            }
+
+            group.stats.miss();
+            return null;
+        }
+
+        group.stats.hit();
+        return entry.results;
+    }
+
+    /**
+     * Returns a non-null cached value. If it is not present in the cache, it is
+     * obtained by calling {@link QueryCacheEntryFactory#createObject()}. Only
+     * one of the threads requesting the same missing entry calls the factory,
+     * the others wait for its result.
+     */
+    @SuppressWarnings("rawtypes")
+    @Override
+    public List get(QueryMetadata metadata, QueryCacheEntryFactory factory) {
+        String key = metadata.getCacheKey();
+        if (key == null) {
+            return createObject(factory, null);
+        }
+
+        String name = cacheName(metadata);
+        CacheGroup group = group(name);
+
+        List<?> result = get(group, key);
+        if (result != null) {
+            return result;
+        }
+
+        LoadKey loadKey = new LoadKey(name, key);
+        CompletableFuture<List<?>> load = new CompletableFuture<>();
+        CompletableFuture<List<?>> existingLoad = loads.putIfAbsent(loadKey, load);
+        if (existingLoad != null) {
+            group.stats.sharedLoad();
+            return await(existingLoad);
+        }
+
+        try {
+            long groupGeneration = group.generation.get();
+            long removalCount = removals.get();
+
+            // the entry may have been loaded while we were registering the load
+            Entry entry = group.entries.get(key);
+            if (entry != null && !entry.isExpired()) {
+                result = entry.results;
+            } else {
+                result = createObject(factory, key);
+
+                // results loaded before invalidation may be stale and are not cached
+                if (groupGeneration == group.generation.get() && removalCount == removals.get()) {
+                    group.entries.put(key, new Entry(result, group.ttl));
+                }
+            }
+
+            load.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(loadKey, load);
+        }
+    }
+
+    private List<?> createObject(QueryCacheEntryFactory factory, String key) {
+        List<?> result = factory.createObject();
+        if (result == null) {
+            throw new CayenneRuntimeException("Null on cache rebuilding: %s", key);
+        }
+
+        return result;
+    }
+
+    private List<?> await(CompletableFuture<List<?>> load) {
+        try {
+            return load.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CayenneRuntimeException("Interrupted while waiting for a query cache entry", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+
+            throw new CayenneRuntimeException("Error loading a query cache entry", cause);
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public void put(QueryMetadata metadata, List results) {
+        String key = metadata.getCacheKey();
+        if (key == null) {
+            return;
+        }
+
+        CacheGroup group = group(cacheName(metadata));
+        group.entries.put(key, new Entry(results, group.ttl));
+    }
+
+    @Override
+    public void remove(String key) {
+        if (key == null) {
+            return;
+        }
+
+        removals.incrementAndGet();
+        for (CacheGroup group : groups.values()) {
+            group.entries.remove(key);
+        }
+    }
+
+    /**
+     * Removes all entries of the group. Group statistics are preserved.
+     */
+    @Override
+    public void removeGroup(String groupKey) {
+        if (groupKey == null) {
+            return;
+        }
+
+        CacheGroup group = groups.get(groupKey);
+        if (group != null) {
+            group.clear();
+        }
+    }
+
+    @Override
+    public void removeGroup(String groupKey, Class<?> keyType, Class<?> valueType) {
+        removeGroup(groupKey);
+    }
+
+    @Override
+    public void clear() {
+        for (CacheGroup group : groups.values()) {
+            group.clear();
+        }
+    }
+
+    /**
+     * Returns the number of cached entries in all groups.
+     */
+    public int size() {
+        int size = 0;
+        for (CacheGroup group : groups.values()) {
+            size += group.entries.size();
+        }
+        return size;
+    }
+
+    /**
+     * Returns statistics of the cache groups keyed by group name.
+     */
+    public Map<String, QueryCacheGroupStats> getGroupStats() {
+        Map<String, QueryCacheGroupStats> stats = new HashMap<>();
+        for (Map.Entry<String, CacheGroup> e : groups.entrySet()) {
+            stats.put(e.getKey(), e.getValue().stats);
+        }
+        return stats;
+    }
+
+    protected String cacheName(QueryMetadata metadata) {
+        String cacheGroup = metadata.getCacheGroup();
+        return cacheGroup != null ? cacheGroup : MapQueryCache.DEFAULT_CACHE_NAME;
+    }
+
+    /**
+     * Returns max number of rows cached in the group.
+     */
+    protected int maxWeight(String groupName) {
+        return properties != null
+                ? properties.getInt(Constants.QUERY_CACHE_MAX_WEIGHT_PROPERTY + "." + groupName, maxWeight)
+                : maxWeight;
+    }
+
+    /**
+     * Returns time in milliseconds after which results cached in the group
+     * expire, zero meaning no expiration.
+     */
+    protected long ttl(String groupName) {
+        return properties != null
+                ? properties.getLong(Constants.QUERY_CACHE_TTL_PROPERTY + "." + groupName, ttl)
+                : ttl;
+    }
+
+    private CacheGroup group(String name) {
+        CacheGroup group = groups.get(name);
+        return group != null ? group : groups.computeIfAbsent(name, this::createGroup);
+    }
+
+    private CacheGroup createGroup(String name) {
+        return new CacheGroup(name, maxWeight(name), ttl(name));
+    }
+
+    private static final class CacheGroup {
+
+        final ConcurrentLinkedHashMap<String, Entry> entries;
+        final QueryCacheGroupStats stats;
+        final long ttl;
+
+        // incremented when the group is cleared
+        final AtomicLong generation;
+
+        CacheGroup(String name, int maxWeight, long ttl) {
+            this.ttl = ttl;
+            this.generation = new AtomicLong();
+            this.entries = new ConcurrentLinkedHashMap.Builder<String, Entry>()
+                    .maximumWeightedCapacity(maxWeight)
+                    .weigher(entry -> Math.max(1, entry.results.size()))
+                    .listener((key, entry) -> evicted())
+                    .build();
+            this.stats = new QueryCacheGroupStats(name, maxWeight, ttl, entries);
+        }
+
+        void evicted() {
+            stats.evicted();
+        }
+
+        void clear() {
+            generation.incrementAndGet();
+            entries.clear();
+        }
+    }
+
+    private static final class Entry {
+
+        final List<?> results;
+        final long expiresAt;
+
+        Entry(List<?> results, long ttl) {
+            this.results = results;
+            this.expiresAt = ttl > 0 ? System.currentTimeMillis() + ttl : Long.MAX_VALUE;
+        }
+
+        boolean isExpired() {
+            return expiresAt != Long.MAX_VALUE && expiresAt <= System.currentTimeMillis();
+        }
+    }
+
+    private static final class LoadKey {
+
+        private final String group;
+        private final String key;
+
+        LoadKey(String group, String key) {
+            this.group = group;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (this == object) {
+                return true;
+            }
+
+            if (!(object instanceof LoadKey)) {
+                return false;
+            }
+
+            LoadKey loadKey = (LoadKey) object;
+            return key.equals(loadKey.key) && group.equals(loadKey.group);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * group.hashCode() + key.hashCode();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.cayenne.util.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+
+/**
+ * Statistics and settings of a single cache group of a
+ * {@link ConcurrentQueryCache}. Weighted size of a group is the total number of
+ * rows in the cached results, with each entry weighing at least 1.
+ *
+ * @since 4.1
+ */
+public class QueryCacheGroupStats {
+
+    private final String name;
+    private final int maxWeight;
+    private final long ttl;
+    private final ConcurrentLinkedHashMap<String, ?> entries;
+
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+    private final LongAdder expirations;
+    private final LongAdder sharedLoads;
+
+    QueryCacheGroupStats(String name, int maxWeight, long ttl, ConcurrentLinkedHashMap<String, ?> entries) {
+        this.name = name;
+        this.maxWeight = maxWeight;
+        this.ttl = ttl;
+        this.entries = entries;
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+        this.expirations = new LongAdder();
+        this.sharedLoads = new LongAdder();
+    }
+
+    void hit() {
+        hits.increment();
+    }
+
+    void miss() {
+        misses.increment();
+    }
+
+    void evicted() {
+        evictions.increment();
+    }
+
+    void expired() {
+        expirations.increment();
+    }
+
+    void sharedLoad() {
+        sharedLoads.increment();
+    }
+
+    /**
+     * Returns cache group name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns maximum weighted size of the group.
+     */
+    public int getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Returns time in milliseconds after which cached results expire, or zero
+     * if they never expire.
+     */
+    public long getTtl() {
+        return ttl;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of entries evicted due to the group capacity. Explicit
+     * removals and expired entries are not counted.
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the number of entries removed from the group after their TTL
+     * elapsed.
+     */
+    public long getExpirations() {
+        return expirations.sum();
+    }
+
+    /**
+     * Returns the number of misses that did not run a query, as they received
+     * a result loaded by a concurrent caller.
+     */
+    public long getSharedLoads() {
+        return sharedLoads.sum();
+    }
+
+    /**
+     * Returns the number of cached entries.
+     */
+    public int getSize() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the total number of rows in cached results.
+     */
+    public int getWeightedSize() {
+        return entries.weightedSize();
+    }
+
+    @Override
+    public String toString() {
+        return "QueryCacheGroupStats{" + name
+                + ", size=" + getSize()
+                + ", hits=" + getHits()
+                + ", misses=" + getMisses()
+                + ", evictions=" + getEvictions()
+                + ", expirations=" + getExpirations()
+                + "}";
+    }
+}
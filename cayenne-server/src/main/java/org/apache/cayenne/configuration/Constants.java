@@ -89,6 +89,15 @@ public interface Constants {
      */
     String SERVER_TYPE_FACTORIES_LIST = "cayenne.server.type_factories";
 
+    /**
+     * A DI container key for the List&lt;PoolingDataSourceListener&gt; storing
+     * listeners of the connection pools created by Cayenne.
+     *
+     * @see org.apache.cayenne.configuration.server.ServerModule#contributePoolingDataSourceListeners(Binder).
+     * @since 4.1
+     */
+    String SERVER_POOLING_DATA_SOURCE_LISTENERS_LIST = "cayenne.server.pooling_data_source_listeners";
+
     /**
      * A server-side DI container key for binding {@link org.apache.cayenne.resource.ResourceLocator}
      */
@@ -130,6 +139,45 @@ public interface Constants {
      */
     String JDBC_VALIDATION_QUERY_PROPERTY = "cayenne.jdbc.validation_query";
 
+    /**
+     * A boolean property that switches the connection pool to a lock-free
+     * implementation that caches connections per thread. Default is "false".
+     *
+     * @see org.apache.cayenne.datasource.PoolingDataSourceBuilder#threadAffinity(boolean)
+     * @since 4.1
+     */
+    String JDBC_THREAD_AFFINITY_PROPERTY = "cayenne.jdbc.thread_affinity";
+
+    /**
+     * An integer property defining a time in milliseconds after which a
+     * connection that was not returned to the pool is reported as a possible
+     * leak. A value of zero (the default) disables leak detection.
+     *
+     * @see org.apache.cayenne.datasource.PoolingDataSourceBuilder#leakDetectionThreshold(long)
+     * @since 4.1
+     */
+    String JDBC_LEAK_DETECTION_THRESHOLD_PROPERTY = "cayenne.jdbc.leak_detection_threshold";
+
+    /**
+     * An integer property defining the maximum number of prepared statements
+     * cached per pooled connection. A value of zero (the default) disables
+     * statement caching.
+     *
+     * @see org.apache.cayenne.datasource.PoolingDataSourceBuilder#statementCacheSize(int)
+     * @since 4.1
+     */
+    String JDBC_STATEMENT_CACHE_SIZE_PROPERTY = "cayenne.jdbc.statement_cache_size";
+
+    /**
+     * An integer property defining the maximum number of rows sent to the
+     * database in a single JDBC batch. Larger batch queries are split into
+     * several batches executed over the same statement. A value of zero (the
+     * default) means no limit.
+     *
+     * @since 4.1
+     */
+    String JDBC_MAX_BATCH_SIZE_PROPERTY = "cayenne.jdbc.max_batch_size";
+
     /**
      * An integer property defining the maximum number of entries in the query
      * cache. Note that not all QueryCache providers may respect this property.
@@ -138,6 +186,26 @@ public interface Constants {
      */
     String QUERY_CACHE_SIZE_PROPERTY = "cayenne.querycache.size";
 
+    /**
+     * An integer property defining the maximum number of result rows cached per
+     * cache group by {@link org.apache.cayenne.cache.ConcurrentQueryCache}. Can be
+     * set for a specific group by appending "." and the group name to the property
+     * name. Default is 100000.
+     *
+     * @since 4.1
+     */
+    String QUERY_CACHE_MAX_WEIGHT_PROPERTY = "cayenne.querycache.max_weight";
+
+    /**
+     * A long property defining the time in milliseconds after which results cached
+     * by {@link org.apache.cayenne.cache.ConcurrentQueryCache} expire. Can be set
+     * for a specific group by appending "." and the group name to the property name.
+     * A value of zero (the default) means no expiration.
+     *
+     * @since 4.1
+     */
+    String QUERY_CACHE_TTL_PROPERTY = "cayenne.querycache.ttl";
+
     /**
      * An optional name of the runtime DataDomain. If not specified (which is
      * normally the case), the name is inferred from the configuration name.
@@ -158,6 +226,17 @@ public interface Constants {
      */
     String SERVER_OBJECT_RETAIN_STRATEGY_PROPERTY = "cayenne.server.object_retain_strategy";
 
+    /**
+     * An integer property that defines the number of lock stripes of ObjectStores
+     * created for DataContexts. If greater than zero, a
+     * {@link org.apache.cayenne.access.StripedObjectStore} is used, allowing
+     * concurrent access to a DataContext shared by many threads. Default is zero,
+     * meaning a regular, fully synchronized ObjectStore.
+     *
+     * @since 4.1
+     */
+    String SERVER_OBJECT_STORE_STRIPES_PROPERTY = "cayenne.server.object_store_stripes";
+
     /**
      * A boolean property that defines whether runtime should use external
      * transactions. Possible values are "true" or "false".
@@ -182,6 +261,26 @@ public interface Constants {
      */
     String SERVER_MAX_ID_QUALIFIER_SIZE_PROPERTY = "cayenne.server.max_id_qualifier_size";
 
+    /**
+     * A number of threads used to run DISJOINT_BY_ID prefetch queries
+     * concurrently. Sibling prefetches and ID qualifier chunks of a single
+     * prefetch are fetched in parallel, each on its own connection. Default is
+     * zero, meaning prefetch queries are run one by one in the calling thread.
+     *
+     * @since 4.1
+     */
+    String SERVER_PREFETCH_THREADS_PROPERTY = "cayenne.server.prefetch_threads";
+
+    /**
+     * A boolean property that defers the mapping initialization work that is
+     * normally done on DataDomain startup, such as creation of the reverse
+     * DbRelationships, until the mapping is first accessed. Default is
+     * "false".
+     *
+     * @since 4.1
+     */
+    String SERVER_LAZY_MAPPING_INIT_PROPERTY = "cayenne.server.lazy_mapping_init";
+
     /**
      * Defines a maximum time in milliseconds that a connection request could
      * wait in the connection queue. After this period expires, an exception
@@ -198,6 +297,47 @@ public interface Constants {
      */
     String CI_PROPERTY = "cayenne.runtime.db.collation.assume.ci";
 
+    /**
+     * An integer property that enables adaptive fetch-ahead of primary keys in
+     * {@link org.apache.cayenne.dba.JdbcPkGenerator} and its subclasses. Defines
+     * the maximum number of key blocks that can be fetched ahead per entity. A
+     * value of zero (the default) disables fetch-ahead.
+     *
+     * @see org.apache.cayenne.dba.JdbcPkGenerator#setPkMaxPrefetchBlocks(int)
+     * @since 4.1
+     */
+    String PK_MAX_PREFETCH_BLOCKS_PROPERTY = "cayenne.server.pk_max_prefetch_blocks";
+
+    /**
+     * An integer property defining the number of threads dispatching
+     * non-blocking events in {@link org.apache.cayenne.event.DefaultEventManager}.
+     * Zero or less creates a single-threaded EventManager. Default is 5.
+     *
+     * @since 4.1
+     */
+    String EVENT_DISPATCH_THREADS_PROPERTY = "cayenne.event.dispatch_threads";
+
+    /**
+     * An integer property defining the capacity of the non-blocking event queue
+     * of each dispatch thread of {@link org.apache.cayenne.event.DefaultEventManager}.
+     * Only used with bounded overflow policies, i.e. other than "GROW". Default is
+     * 8192.
+     *
+     * @since 4.1
+     */
+    String EVENT_QUEUE_CAPACITY_PROPERTY = "cayenne.event.queue_capacity";
+
+    /**
+     * A property defining what happens to a non-blocking event posted when the
+     * dispatch queue is full. One of the names of
+     * {@link org.apache.cayenne.event.EventQueueOverflowPolicy} constants.
+     * Default is "GROW", i.e. unbounded queues. See the policy docs for the
+     * deadlock hazards of "BLOCK" and "CALLER_RUNS".
+     *
+     * @since 4.1
+     */
+    String EVENT_OVERFLOW_POLICY_PROPERTY = "cayenne.event.overflow_policy";
+
     /**
      * A integer property that enables logging for just long running queries
      * (rather than all queries). The value is the minimum number of
@@ -215,4 +355,62 @@ public interface Constants {
      */
     String SNAPSHOT_CACHE_SIZE_PROPERTY = "cayenne.DataRowStore.snapshot.size";
 
+    /**
+     * Snapshot cache memory budget in bytes. If set to a positive number, the snapshot
+     * cache is bounded by the estimated size of snapshots instead of their count, and
+     * {@link #SNAPSHOT_CACHE_SIZE_PROPERTY} is ignored.
+     *
+     * @see org.apache.cayenne.configuration.server.ServerModule#setSnapshotCacheMaxBytes(Binder, long)
+     * @since 4.1
+     */
+    String SNAPSHOT_CACHE_MAX_BYTES_PROPERTY = "cayenne.DataRowStore.snapshot.max_bytes";
+
+    /**
+     * A prefix of per-DbEntity properties that define a multiplier applied to the
+     * estimated size of entity snapshots in the memory-bounded snapshot cache. E.g.
+     * "cayenne.DataRowStore.snapshot.weight.ARTIST=2.0". Default weight is 1.0.
+     *
+     * @since 4.1
+     */
+    String SNAPSHOT_CACHE_ENTITY_WEIGHT_PROPERTY_PREFIX = "cayenne.DataRowStore.snapshot.weight.";
+
+    /**
+     * A prefix of per-DbEntity properties that define the maximum weighted size of entity
+     * snapshots in the cache: bytes if the cache is bounded by memory, or the number of
+     * snapshots otherwise. E.g. "cayenne.DataRowStore.snapshot.capacity.ARTIST=1000000".
+     * Oldest snapshots of the entity are evicted once the capacity is exceeded.
+     *
+     * @since 4.1
+     */
+    String SNAPSHOT_CACHE_ENTITY_CAPACITY_PROPERTY_PREFIX = "cayenne.DataRowStore.snapshot.capacity.";
+
+    /**
+     * A long property defining a time window in milliseconds during which snapshot
+     * events of a DataRowStore are merged into a single event before being sent to
+     * local listeners and to the EventBridge. A value of zero (the default)
+     * disables coalescing.
+     *
+     * @since 4.1
+     */
+    String SNAPSHOT_EVENTS_COALESCE_WINDOW_PROPERTY = "cayenne.DataRowStore.events.coalesce_window";
+
+    /**
+     * An integer property defining the maximum number of snapshot events merged
+     * into a single event. Once reached, the merged event is sent without waiting
+     * for the coalescing window to elapse. Default is 100.
+     *
+     * @since 4.1
+     */
+    String SNAPSHOT_EVENTS_COALESCE_MAX_BATCH_PROPERTY = "cayenne.DataRowStore.events.coalesce_max_batch";
+
+    /**
+     * An integer property defining the maximum number of distinct SelectQuery
+     * structures whose SQL translation is cached and reused by queries that only
+     * differ in parameter values. A value of zero (the default) disables the cache.
+     *
+     * @see org.apache.cayenne.configuration.server.ServerModule#setSelectTranslationCacheSize(Binder, int)
+     * @since 4.1
+     */
+    String SELECT_TRANSLATION_CACHE_SIZE_PROPERTY = "cayenne.server.select_translation_cache_size";
+
 }
@@ -20,14 +20,17 @@ package org.apache.cayenne.configuration;
 
 import org.apache.cayenne.access.DataRowStore;
 import org.apache.cayenne.access.NoSyncObjectStore;
+import org.apache.cayenne.access.NoSyncStripedObjectStore;
 import org.apache.cayenne.access.ObjectMapRetainStrategy;
 import org.apache.cayenne.access.ObjectStore;
+import org.apache.cayenne.access.StripedObjectStore;
 import org.apache.cayenne.di.Inject;
 
 /**
  * A default implementation of {@link ObjectStoreFactory} which makes decision to
  * turn {@link ObjectStore}'s syncing with parent {@link DataRowStore} on or off 
- * basing on {@link RuntimeProperties}.
+ * basing on {@link RuntimeProperties}. If {@link Constants#SERVER_OBJECT_STORE_STRIPES_PROPERTY}
+ * is set to a positive number, a concurrent {@link StripedObjectStore} is created.
  * 
  * @since 3.1
  */
@@ -41,7 +44,13 @@ public class DefaultObjectStoreFactory implements ObjectStoreFactory {
     
     public ObjectStore createObjectStore(DataRowStore dataRowCache) {
         boolean sync = runtimeProperties.getBoolean(Constants.SERVER_CONTEXTS_SYNC_PROPERTY, true);
-        
+        int stripes = runtimeProperties.getInt(Constants.SERVER_OBJECT_STORE_STRIPES_PROPERTY, 0);
+
+        if (stripes > 0) {
+            return sync ? new StripedObjectStore(dataRowCache, retainStrategy, stripes)
+                    : new NoSyncStripedObjectStore(dataRowCache, retainStrategy, stripes);
+        }
+
         return sync ? new ObjectStore(dataRowCache, retainStrategy.createObjectMap()) 
                 : new NoSyncObjectStore(dataRowCache, retainStrategy.createObjectMap());
     }
@@ -117,6 +117,7 @@ public class DataDomainProvider implements Provider<DataDomain> {
 		DataDomain dataDomain = createDataDomain(descriptor.getName());
 
 		dataDomain.setMaxIdQualifierSize(runtimeProperties.getInt(Constants.SERVER_MAX_ID_QUALIFIER_SIZE_PROPERTY, -1));
+		dataDomain.setPrefetchThreads(runtimeProperties.getInt(Constants.SERVER_PREFETCH_THREADS_PROPERTY, 0));
 
 		dataDomain.setQueryCache(new NestedQueryCache(queryCache));
 		dataDomain.setEntitySorter(injector.getInstance(EntitySorter.class));
@@ -129,7 +130,11 @@ public class DataDomainProvider implements Provider<DataDomain> {
 			dataDomain.addDataMap(dataMap);
 		}
 
-		dataDomain.getEntityResolver().applyDBLayerDefaults();
+		if (runtimeProperties.getBoolean(Constants.SERVER_LAZY_MAPPING_INIT_PROPERTY, false)) {
+			dataDomain.getEntityResolver().applyDBLayerDefaultsOnFirstAccess();
+		} else {
+			dataDomain.getEntityResolver().applyDBLayerDefaults();
+		}
 		dataDomain.getEntityResolver().setValueObjectTypeRegistry(valueObjectTypeRegistry);
 
 		for (DataNodeDescriptor nodeDescriptor : descriptor.getNodeDescriptors()) {
@@ -19,6 +19,7 @@
 package org.apache.cayenne.configuration.server;
 
 import java.sql.Driver;
+import java.util.List;
 
 import javax.sql.DataSource;
 
@@ -27,6 +28,7 @@ import org.apache.cayenne.configuration.Constants;
 import org.apache.cayenne.configuration.DataNodeDescriptor;
 import org.apache.cayenne.configuration.RuntimeProperties;
 import org.apache.cayenne.datasource.DataSourceBuilder;
+import org.apache.cayenne.datasource.PoolingDataSourceListener;
 import org.apache.cayenne.datasource.UnmanagedPoolingDataSource;
 import org.apache.cayenne.di.AdhocObjectFactory;
 import org.apache.cayenne.di.Inject;
@@ -56,6 +58,9 @@ public class PropertyDataSourceFactory implements DataSourceFactory {
 	@Inject
 	private AdhocObjectFactory objectFactory;
 
+	@Inject(Constants.SERVER_POOLING_DATA_SOURCE_LISTENERS_LIST)
+	private List<PoolingDataSourceListener> listeners;
+
 	@Override
 	public DataSource getDataSource(DataNodeDescriptor nodeDescriptor) throws Exception {
 
@@ -70,11 +75,16 @@ public class PropertyDataSourceFactory implements DataSourceFactory {
 		long maxQueueWaitTime = properties.getLong(Constants.JDBC_MAX_QUEUE_WAIT_TIME,
 				UnmanagedPoolingDataSource.MAX_QUEUE_WAIT_DEFAULT);
 		String validationQuery = properties.get(Constants.JDBC_VALIDATION_QUERY_PROPERTY);
+		boolean threadAffinity = properties.getBoolean(Constants.JDBC_THREAD_AFFINITY_PROPERTY, false);
+		long leakDetectionThreshold = properties.getLong(Constants.JDBC_LEAK_DETECTION_THRESHOLD_PROPERTY, 0);
+		int statementCacheSize = properties.getInt(Constants.JDBC_STATEMENT_CACHE_SIZE_PROPERTY, 0);
 
 		Driver driver = objectFactory.newInstance(Driver.class, driverClass);
 		return DataSourceBuilder.url(url).driver(driver).userName(username).password(password)
 				.pool(minConnections, maxConnections).maxQueueWaitTime(maxQueueWaitTime)
-				.validationQuery(validationQuery).build();
+				.validationQuery(validationQuery).threadAffinity(threadAffinity)
+				.leakDetectionThreshold(leakDetectionThreshold).statementCacheSize(statementCacheSize)
+				.listeners(listeners).build();
 	}
 
 	protected int getIntProperty(String propertyName, String suffix, int defaultValue) {
@@ -75,13 +75,14 @@ import org.apache.cayenne.configuration.DefaultRuntimeProperties;
 import org.apache.cayenne.configuration.ObjectContextFactory;
 import org.apache.cayenne.configuration.ObjectStoreFactory;
 import org.apache.cayenne.configuration.RuntimeProperties;
+import org.apache.cayenne.configuration.snapshot.SnapshotDataChannelDescriptorLoader;
 import org.apache.cayenne.configuration.xml.DataChannelMetaData;
 import org.apache.cayenne.configuration.xml.DefaultHandlerFactory;
 import org.apache.cayenne.configuration.xml.HandlerFactory;
 import org.apache.cayenne.configuration.xml.NoopDataChannelMetaData;
-import org.apache.cayenne.configuration.xml.XMLDataChannelDescriptorLoader;
 import org.apache.cayenne.configuration.xml.XMLDataMapLoader;
 import org.apache.cayenne.configuration.xml.XMLReaderProvider;
+import org.apache.cayenne.datasource.PoolingDataSourceListener;
 import org.apache.cayenne.dba.db2.DB2Sniffer;
 import org.apache.cayenne.dba.derby.DerbySniffer;
 import org.apache.cayenne.dba.firebird.FirebirdSniffer;
@@ -159,6 +160,86 @@ public class ServerModule implements Module {
         contributeProperties(binder).put(Constants.SNAPSHOT_CACHE_SIZE_PROPERTY, Integer.toString(size));
     }
 
+    /**
+     * Sets the memory budget of the snapshot cache in bytes. Once set, the cache is bounded
+     * by the estimated size of snapshots instead of their count.
+     *
+     * @param binder DI binder passed to the module during injector startup.
+     * @param maxBytes max estimated size of snapshots in bytes
+     * @since 4.1
+     */
+    public static void setSnapshotCacheMaxBytes(Binder binder, long maxBytes) {
+        contributeProperties(binder).put(Constants.SNAPSHOT_CACHE_MAX_BYTES_PROPERTY, Long.toString(maxBytes));
+    }
+
+    /**
+     * Sets the maximum number of rows sent to the database in a single JDBC batch.
+     *
+     * @param binder DI binder passed to the module during injector startup.
+     * @param maxBatchSize max number of rows per batch; zero means no limit
+     * @since 4.1
+     */
+    public static void setMaxBatchSize(Binder binder, int maxBatchSize) {
+        contributeProperties(binder).put(Constants.JDBC_MAX_BATCH_SIZE_PROPERTY, Integer.toString(maxBatchSize));
+    }
+
+    /**
+     * Enables adaptive fetch-ahead of primary keys generated by the DbAdapter PK generator.
+     *
+     * @param binder DI binder passed to the module during injector startup.
+     * @param maxBlocks max number of key blocks fetched ahead per entity; zero disables fetch-ahead
+     * @since 4.1
+     */
+    public static void setPkMaxPrefetchBlocks(Binder binder, int maxBlocks) {
+        contributeProperties(binder).put(Constants.PK_MAX_PREFETCH_BLOCKS_PROPERTY, Integer.toString(maxBlocks));
+    }
+
+    /**
+     * Enables coalescing of snapshot events posted by the DataRowStore within a time window.
+     *
+     * @param binder DI binder passed to the module during injector startup.
+     * @param windowMs coalescing window in milliseconds; zero disables coalescing
+     * @since 4.1
+     */
+    public static void setSnapshotEventsCoalesceWindow(Binder binder, long windowMs) {
+        contributeProperties(binder).put(Constants.SNAPSHOT_EVENTS_COALESCE_WINDOW_PROPERTY, Long.toString(windowMs));
+    }
+
+    /**
+     * Enables caching of SelectQuery translations, so that queries differing only in parameter values
+     * reuse the generated SQL.
+     *
+     * @param binder DI binder passed to the module during injector startup.
+     * @param size max number of cached query structures; zero disables the cache
+     * @since 4.1
+     */
+    public static void setSelectTranslationCacheSize(Binder binder, int size) {
+        contributeProperties(binder).put(Constants.SELECT_TRANSLATION_CACHE_SIZE_PROPERTY, Integer.toString(size));
+    }
+
+    /**
+     * Enables concurrent execution of DISJOINT_BY_ID prefetch queries.
+     *
+     * @param binder DI binder passed to the module during injector startup.
+     * @param threads max number of prefetch queries run at once; zero runs them sequentially
+     * @since 4.1
+     */
+    public static void setPrefetchThreads(Binder binder, int threads) {
+        contributeProperties(binder).put(Constants.SERVER_PREFETCH_THREADS_PROPERTY, Integer.toString(threads));
+    }
+
+    /**
+     * Defers mapping initialization, such as creation of the reverse DbRelationships, until the mapping is
+     * first accessed, shortening startup of the runtimes with large models.
+     *
+     * @param binder DI binder passed to the module during injector startup.
+     * @param lazy whether mapping initialization should be deferred
+     * @since 4.1
+     */
+    public static void setLazyMappingInit(Binder binder, boolean lazy) {
+        contributeProperties(binder).put(Constants.SERVER_LAZY_MAPPING_INIT_PROPERTY, Boolean.toString(lazy));
+    }
+
     /**
      * Provides access to a DI collection builder for String locations that allows downstream modules to
      * "contribute" their own Cayenne project locations.
@@ -206,6 +287,19 @@ public class ServerModule implements Module {
         return binder.bindList(DbAdapterDetector.class, Constants.SERVER_ADAPTER_DETECTORS_LIST);
     }
 
+    /**
+     * Provides access to a DI collection builder for {@link PoolingDataSourceListener}'s that allows downstream modules
+     * to receive events from the connection pools created by Cayenne, e.g. to bridge pool metrics to a monitoring
+     * system.
+     *
+     * @param binder DI binder passed to the module during injector startup.
+     * @return ListBuilder for PoolingDataSourceListeners.
+     * @since 4.1
+     */
+    public static ListBuilder<PoolingDataSourceListener> contributePoolingDataSourceListeners(Binder binder) {
+        return binder.bindList(PoolingDataSourceListener.class, Constants.SERVER_POOLING_DATA_SOURCE_LISTENERS_LIST);
+    }
+
     /**
      * Provides access to a DI map builder for runtime properties that allows downstream modules to
      * "contribute" their own properties.
@@ -299,6 +393,9 @@ public class ServerModule implements Module {
         // init listener list
         contributeDomainListeners(binder);
 
+        // init connection pool listener list
+        contributePoolingDataSourceListeners(binder);
+
         // configure extended types
         contributeDefaultTypes(binder)
                 .add(new VoidType())
@@ -348,8 +445,8 @@ public class ServerModule implements Module {
 
         binder.bind(TransactionFactory.class).to(DefaultTransactionFactory.class);
 
-        // a service to load project XML descriptors
-        binder.bind(DataChannelDescriptorLoader.class).to(XMLDataChannelDescriptorLoader.class);
+        // a service to load project descriptors from binary snapshots or XML
+        binder.bind(DataChannelDescriptorLoader.class).to(SnapshotDataChannelDescriptorLoader.class);
         binder.bind(DataChannelDescriptorMerger.class).to(DefaultDataChannelDescriptorMerger.class);
 
         // a service to load DataMap XML descriptors
@@ -19,6 +19,7 @@
 package org.apache.cayenne.configuration.server;
 
 import java.sql.Driver;
+import java.util.List;
 
 import javax.sql.DataSource;
 
@@ -28,6 +29,7 @@ import org.apache.cayenne.configuration.DataNodeDescriptor;
 import org.apache.cayenne.configuration.RuntimeProperties;
 import org.apache.cayenne.conn.DataSourceInfo;
 import org.apache.cayenne.datasource.DataSourceBuilder;
+import org.apache.cayenne.datasource.PoolingDataSourceListener;
 import org.apache.cayenne.datasource.UnmanagedPoolingDataSource;
 import org.apache.cayenne.di.AdhocObjectFactory;
 import org.apache.cayenne.di.Inject;
@@ -53,6 +55,9 @@ public class XMLPoolingDataSourceFactory implements DataSourceFactory {
 	@Inject
 	private AdhocObjectFactory objectFactory;
 
+	@Inject(Constants.SERVER_POOLING_DATA_SOURCE_LISTENERS_LIST)
+	private List<PoolingDataSourceListener> listeners;
+
 	@Override
 	public DataSource getDataSource(DataNodeDescriptor nodeDescriptor) throws Exception {
 
@@ -66,13 +71,18 @@ public class XMLPoolingDataSourceFactory implements DataSourceFactory {
 
 		long maxQueueWaitTime = properties.getLong(Constants.JDBC_MAX_QUEUE_WAIT_TIME,
 				UnmanagedPoolingDataSource.MAX_QUEUE_WAIT_DEFAULT);
+		boolean threadAffinity = properties.getBoolean(Constants.JDBC_THREAD_AFFINITY_PROPERTY, false);
+		long leakDetectionThreshold = properties.getLong(Constants.JDBC_LEAK_DETECTION_THRESHOLD_PROPERTY, 0);
+		int statementCacheSize = properties.getInt(Constants.JDBC_STATEMENT_CACHE_SIZE_PROPERTY, 0);
 
 		Driver driver = objectFactory.newInstance(Driver.class, descriptor.getJdbcDriver());
 
 		return DataSourceBuilder.url(descriptor.getDataSourceUrl()).driver(driver).userName(descriptor.getUserName())
 				.password(descriptor.getPassword())
 				.pool(descriptor.getMinConnections(), descriptor.getMaxConnections())
-				.maxQueueWaitTime(maxQueueWaitTime).build();
+				.maxQueueWaitTime(maxQueueWaitTime).threadAffinity(threadAffinity)
+				.leakDetectionThreshold(leakDetectionThreshold).statementCacheSize(statementCacheSize)
+				.listeners(listeners).build();
 	}
 
 }
@@ -0,0 +1,263 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.configuration.snapshot;
+
+import org.apache.cayenne.configuration.DataChannelDescriptor;
+import org.apache.cayenne.configuration.DataNodeDescriptor;
+import org.apache.cayenne.map.DataMap;
+import org.apache.cayenne.resource.Resource;
+import org.apache.cayenne.util.LocalizedStringsHandler;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Reads and writes a binary snapshot of a fully loaded project, i.e. of a {@link DataChannelDescriptor} with all its
+ * DataMaps and DataNode descriptors. A snapshot is produced at build time next to the project XML, and is loaded at
+ * runtime instead of parsing XML for as long as it matches the XML files it was built from.
+ * <p>
+ * Snapshot starts with a header containing format version, Cayenne version, and length and CRC32 checksum of the
+ * project XML and of each DataMap XML. The header is followed by the serialized descriptor.
+ *
+ * @since 4.1
+ */
+public final class ProjectSnapshot {
+
+    /**
+     * Extension of a snapshot file. Snapshot of "cayenne-project.xml" is stored in "cayenne-project.bin" in the same
+     * directory.
+     */
+    public static final String SNAPSHOT_EXTENSION = ".bin";
+
+    static final int MAGIC = 0x43415953;
+    static final int FORMAT_VERSION = 1;
+
+    private static final String XML_EXTENSION = ".xml";
+
+    private ProjectSnapshot() {
+    }
+
+    /**
+     * Returns the location of a snapshot for a given project location.
+     */
+    public static String snapshotLocation(String projectLocation) {
+        String base = projectLocation.endsWith(XML_EXTENSION)
+                ? projectLocation.substring(0, projectLocation.length() - XML_EXTENSION.length())
+                : projectLocation;
+        return base + SNAPSHOT_EXTENSION;
+    }
+
+    /**
+     * Writes a snapshot of a descriptor loaded from XML. The descriptor and its DataMaps must have their
+     * configuration sources set, as those are used to checksum the XML.
+     */
+    public static void write(DataChannelDescriptor descriptor, OutputStream out) throws IOException {
+
+        Resource projectSource = descriptor.getConfigurationSource();
+        if (projectSource == null) {
+            throw new IllegalArgumentException("Descriptor has no configuration source");
+        }
+
+        DataOutputStream dataOut = new DataOutputStream(out);
+        dataOut.writeInt(MAGIC);
+        dataOut.writeInt(FORMAT_VERSION);
+        dataOut.writeUTF(cayenneVersion());
+
+        Map<String, Resource> sources = new LinkedHashMap<>();
+        for (DataMap map : descriptor.getDataMaps()) {
+            Resource mapSource = map.getConfigurationSource();
+            if (map.getLocation() == null || mapSource == null) {
+                throw new IllegalArgumentException("DataMap '" + map.getName() + "' has no configuration source");
+            }
+
+            sources.put(map.getLocation(), mapSource);
+        }
+
+        // project XML goes first and has no location, as it is always the resource the snapshot is loaded for
+        writeChecksum(dataOut, projectSource);
+        dataOut.writeInt(sources.size());
+        for (Map.Entry<String, Resource> source : sources.entrySet()) {
+            dataOut.writeUTF(source.getKey());
+            writeChecksum(dataOut, source.getValue());
+        }
+
+        ObjectOutputStream objectOut = new ObjectOutputStream(dataOut);
+        objectOut.writeObject(descriptor);
+        objectOut.flush();
+    }
+
+    /**
+     * Reads a descriptor from the snapshot. Returns null if the snapshot was made by another version of Cayenne or
+     * from XML files different from the current ones, so that the caller can load the project from XML instead.
+     */
+    public static DataChannelDescriptor read(Resource projectResource, ByteBuffer snapshot)
+            throws IOException, ClassNotFoundException {
+
+        DataInputStream in = new DataInputStream(new ByteBufferInputStream(snapshot));
+
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a Cayenne project snapshot");
+        }
+
+        if (in.readInt() != FORMAT_VERSION || !cayenneVersion().equals(in.readUTF())) {
+            return null;
+        }
+
+        if (!checksumMatches(in, projectResource)) {
+            return null;
+        }
+
+        int sources = in.readInt();
+        for (int i = 0; i < sources; i++) {
+            if (!checksumMatches(in, projectResource.getRelativeResource(in.readUTF()))) {
+                return null;
+            }
+        }
+
+        DataChannelDescriptor descriptor = (DataChannelDescriptor) new SnapshotInputStream(in).readObject();
+
+        // configuration sources are transient, restore them the same way as XML loaders set them
+        descriptor.setConfigurationSource(projectResource);
+        for (DataMap map : descriptor.getDataMaps()) {
+            map.setConfigurationSource(projectResource.getRelativeResource(map.getLocation()));
+        }
+
+        for (DataNodeDescriptor node : descriptor.getNodeDescriptors()) {
+            node.setConfigurationSource(projectResource);
+        }
+
+        return descriptor;
+    }
+
+    private static String cayenneVersion() {
+        return LocalizedStringsHandler.getString("cayenne.version");
+    }
+
+    private static void writeChecksum(DataOutputStream out, Resource source) throws IOException {
+        CRC32 crc = new CRC32();
+        out.writeLong(checksum(source, crc));
+        out.writeLong(crc.getValue());
+    }
+
+    private static boolean checksumMatches(DataInputStream in, Resource source) throws IOException {
+        long length = in.readLong();
+        long value = in.readLong();
+
+        CRC32 crc = new CRC32();
+        try {
+            return checksum(source, crc) == length && crc.getValue() == value;
+        } catch (IOException e) {
+            // XML file is gone
+            return false;
+        }
+    }
+
+    private static long checksum(Resource source, CRC32 crc) throws IOException {
+        long length = 0;
+        byte[] buffer = new byte[8192];
+
+        try (InputStream in = source.getURL().openStream()) {
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                crc.update(buffer, 0, read);
+                length += read;
+            }
+        }
+
+        return length;
+    }
+
+    /**
+     * Only allows Cayenne and JDK classes to be deserialized, as nothing else is expected in the mapping.
+     */
+    private static class SnapshotInputStream extends ObjectInputStream {
+
+        SnapshotInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            String name = desc.getName();
+
+            // strip array dimensions and the type code of object arrays
+            int dims = 0;
+            while (dims < name.length() && name.charAt(dims) == '[') {
+                dims++;
+            }
+
+            String componentName = dims > 0 && name.charAt(dims) == 'L'
+                    ? name.substring(dims + 1)
+                    : name.substring(dims);
+
+            if (dims > 0 && componentName.length() == 1
+                    || componentName.startsWith("java.")
+                    || componentName.startsWith("org.apache.cayenne.")) {
+                return super.resolveClass(desc);
+            }
+
+            throw new InvalidClassException(name, "Unexpected class in a project snapshot");
+        }
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+
+            int read = Math.min(len, buffer.remaining());
+            buffer.get(b, off, read);
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
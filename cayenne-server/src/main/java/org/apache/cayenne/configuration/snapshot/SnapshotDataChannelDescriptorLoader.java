@@ -0,0 +1,116 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.configuration.snapshot;
+
+import org.apache.cayenne.ConfigurationException;
+import org.apache.cayenne.configuration.ConfigurationTree;
+import org.apache.cayenne.configuration.DataChannelDescriptor;
+import org.apache.cayenne.configuration.xml.XMLDataChannelDescriptorLoader;
+import org.apache.cayenne.resource.Resource;
+import org.apache.cayenne.util.Util;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A descriptor loader that reads a project from a binary {@link ProjectSnapshot} found next to the project XML,
+ * falling back to XML parsing if there's no snapshot or if it is stale.
+ *
+ * @since 4.1
+ */
+public class SnapshotDataChannelDescriptorLoader extends XMLDataChannelDescriptorLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotDataChannelDescriptorLoader.class);
+
+    @Override
+    public ConfigurationTree<DataChannelDescriptor> load(Resource configurationResource) throws ConfigurationException {
+
+        if (configurationResource == null) {
+            throw new NullPointerException("Null configurationResource");
+        }
+
+        URL configurationURL = configurationResource.getURL();
+        String path = configurationURL.getPath();
+        Resource snapshotResource = configurationResource
+                .getRelativeResource(ProjectSnapshot.snapshotLocation(path.substring(path.lastIndexOf('/') + 1)));
+
+        DataChannelDescriptor descriptor = null;
+        try {
+            ByteBuffer snapshot = readSnapshot(snapshotResource);
+            if (snapshot != null) {
+                descriptor = ProjectSnapshot.read(configurationResource, snapshot);
+                if (descriptor == null) {
+                    logger.info("Ignoring stale project snapshot " + snapshotResource.getURL());
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Error loading project snapshot " + snapshotResource.getURL() + ", will load XML instead", e);
+        }
+
+        if (descriptor == null) {
+            return super.load(configurationResource);
+        }
+
+        logger.info("Loaded project snapshot " + snapshotResource.getURL());
+        descriptor.setName(nameMapper.configurationNodeName(DataChannelDescriptor.class, configurationResource));
+        return new ConfigurationTree<>(descriptor, null);
+    }
+
+    /**
+     * Returns snapshot contents or null if there's no snapshot. Snapshot files are memory-mapped, snapshots from other
+     * sources, such as jars, are read into memory.
+     */
+    protected ByteBuffer readSnapshot(Resource snapshotResource) throws IOException {
+
+        URL url = snapshotResource.getURL();
+
+        if ("file".equals(url.getProtocol())) {
+            File file = Util.toFile(url);
+            if (!file.isFile()) {
+                return null;
+            }
+
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        }
+
+        try (InputStream in = url.openStream()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, read);
+            }
+
+            return ByteBuffer.wrap(out.toByteArray());
+        } catch (FileNotFoundException e) {
+            return null;
+        }
+    }
+}
@@ -19,6 +19,7 @@
 
 package org.apache.cayenne.configuration.xml;
 
+import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.ConfigurationException;
 import org.apache.cayenne.configuration.DataChannelDescriptor;
 import org.apache.cayenne.configuration.DataNodeDescriptor;
@@ -29,6 +30,11 @@ import org.slf4j.LoggerFactory;
 import org.xml.sax.Attributes;
 import org.xml.sax.ContentHandler;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 /**
  * @since 4.1
  */
@@ -46,12 +52,16 @@ final class DataChannelChildrenHandler extends NamespaceAwareNestedTagHandler {
     private XMLDataChannelDescriptorLoader xmlDataChannelDescriptorLoader;
     private DataChannelDescriptor descriptor;
 
+    // DataMaps referenced from the descriptor, some of them may still be loading
+    private List<CompletableFuture<DataMap>> dataMaps;
+
     private DataNodeDescriptor nodeDescriptor;
 
     DataChannelChildrenHandler(XMLDataChannelDescriptorLoader xmlDataChannelDescriptorLoader, DataChannelHandler parentHandler) {
         super(parentHandler);
         this.xmlDataChannelDescriptorLoader = xmlDataChannelDescriptorLoader;
         this.descriptor = parentHandler.descriptor;
+        this.dataMaps = new ArrayList<>();
     }
 
     @Override
@@ -109,13 +119,30 @@ final class DataChannelChildrenHandler extends NamespaceAwareNestedTagHandler {
 
         logger.info("Loading XML DataMap resource from " + dataMapResource.getURL());
 
-        DataMap dataMap = xmlDataChannelDescriptorLoader.dataMapLoader.load(dataMapResource);
-        dataMap.setName(dataMapName);
-        dataMap.setLocation(dataMapLocation);
-        dataMap.setConfigurationSource(dataMapResource);
-        dataMap.setDataChannelDescriptor(descriptor);
+        dataMaps.add(xmlDataChannelDescriptorLoader
+                .loadDataMap(descriptor, dataMapName, dataMapLocation, dataMapResource));
+    }
+
+    @Override
+    protected void beforeScopeEnd() {
+
+        // DataMaps may be parsed in parallel, but are added in the order of declaration
+        for (CompletableFuture<DataMap> dataMap : dataMaps) {
+            descriptor.getDataMaps().add(join(dataMap));
+        }
+    }
 
-        descriptor.getDataMaps().add(dataMap);
+    private static DataMap join(CompletableFuture<DataMap> dataMap) {
+        try {
+            return dataMap.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+
+            throw new CayenneRuntimeException("Error loading DataMap", cause);
+        }
     }
 
     private void addNode(Attributes attributes) {
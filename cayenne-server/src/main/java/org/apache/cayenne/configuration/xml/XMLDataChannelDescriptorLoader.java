@@ -40,6 +40,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URL;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * @since 3.1
@@ -149,4 +151,49 @@ public class XMLDataChannelDescriptorLoader implements DataChannelDescriptorLoad
 		return new ConfigurationTree<>(descriptor, null);
 	}
 
+	/**
+	 * Starts loading of a DataMap referenced from the project descriptor. When
+	 * the bound {@link DataMapLoader} is the stock {@link XMLDataMapLoader},
+	 * this implementation parses the DataMap on the common fork-join pool, so
+	 * that multiple DataMaps of a project are parsed in parallel. Any other
+	 * loader is not required to be thread-safe and is called synchronously.
+	 *
+	 * @since 4.1
+	 */
+	protected CompletableFuture<DataMap> loadDataMap(DataChannelDescriptor descriptor, String dataMapName,
+			String dataMapLocation, Resource dataMapResource) {
+
+		if (dataMapLoader.getClass() != XMLDataMapLoader.class) {
+			return CompletableFuture
+					.completedFuture(doLoadDataMap(descriptor, dataMapName, dataMapLocation, dataMapResource));
+		}
+
+		// parser factories may be looked up via context ClassLoader, so pass the caller's one to the pool threads
+		ClassLoader contextLoader = Thread.currentThread().getContextClassLoader();
+
+		return CompletableFuture.supplyAsync(() -> {
+
+			Thread thread = Thread.currentThread();
+			ClassLoader poolLoader = thread.getContextClassLoader();
+			thread.setContextClassLoader(contextLoader);
+
+			try {
+				return doLoadDataMap(descriptor, dataMapName, dataMapLocation, dataMapResource);
+			} finally {
+				thread.setContextClassLoader(poolLoader);
+			}
+		}, ForkJoinPool.commonPool());
+	}
+
+	private DataMap doLoadDataMap(DataChannelDescriptor descriptor, String dataMapName, String dataMapLocation,
+			Resource dataMapResource) {
+
+		DataMap dataMap = dataMapLoader.load(dataMapResource);
+		dataMap.setName(dataMapName);
+		dataMap.setLocation(dataMapLocation);
+		dataMap.setConfigurationSource(dataMapResource);
+		dataMap.setDataChannelDescriptor(descriptor);
+		return dataMap;
+	}
+
 }
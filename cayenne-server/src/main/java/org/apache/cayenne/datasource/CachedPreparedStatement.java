@@ -0,0 +1,710 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.datasource;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+/**
+ * A PreparedStatement returned by {@link PoolAwareConnection} when statement
+ * caching is enabled. Closing it returns the underlying statement to the
+ * connection statement cache instead of closing it in the driver.
+ * 
+ * @since 4.1
+ */
+class CachedPreparedStatement implements PreparedStatement {
+
+	private static final int UNKNOWN = -1;
+
+	final PreparedStatementCache.Key key;
+	final PreparedStatement statement;
+	final int generation;
+
+	private final PreparedStatementCache cache;
+	private List<ResultSet> resultSets;
+
+	// statement settings that need to be restored when the statement is returned
+	private int defaultFetchSize = UNKNOWN;
+	private int defaultFetchDirection = UNKNOWN;
+	private int defaultMaxRows = UNKNOWN;
+	private int defaultMaxFieldSize = UNKNOWN;
+	private int defaultQueryTimeout = UNKNOWN;
+
+	private boolean settingsChanged;
+	private boolean batched;
+	private boolean reusable;
+	private volatile boolean closed;
+
+	CachedPreparedStatement(PreparedStatementCache cache, PreparedStatementCache.Key key,
+			PreparedStatement statement, int generation) {
+		this.cache = cache;
+		this.key = key;
+		this.statement = statement;
+		this.generation = generation;
+		this.reusable = true;
+	}
+
+	void checkout() {
+		this.closed = false;
+	}
+
+	/**
+	 * Closes result sets opened via this statement and restores parameters
+	 * and settings of the statement, so that it can be reused. Returns false
+	 * if the statement can't be reused.
+	 */
+	boolean reset() {
+
+		if (!reusable) {
+			return false;
+		}
+
+		try {
+			if (resultSets != null) {
+				for (ResultSet rs : resultSets) {
+					rs.close();
+				}
+				resultSets.clear();
+			}
+
+			statement.clearParameters();
+			statement.clearWarnings();
+
+			if (batched) {
+				statement.clearBatch();
+				batched = false;
+			}
+
+			if (settingsChanged) {
+				if (defaultFetchSize != UNKNOWN) {
+					statement.setFetchSize(defaultFetchSize);
+				}
+
+				if (defaultFetchDirection != UNKNOWN) {
+					statement.setFetchDirection(defaultFetchDirection);
+				}
+
+				if (defaultMaxRows != UNKNOWN) {
+					statement.setMaxRows(defaultMaxRows);
+				}
+
+				if (defaultMaxFieldSize != UNKNOWN) {
+					statement.setMaxFieldSize(defaultMaxFieldSize);
+				}
+
+				if (defaultQueryTimeout != UNKNOWN) {
+					statement.setQueryTimeout(defaultQueryTimeout);
+				}
+
+				settingsChanged = false;
+			}
+		} catch (SQLException e) {
+			return false;
+		}
+
+		return true;
+	}
+
+	void closeUnderlying() {
+		try {
+			statement.close();
+		} catch (SQLException e) {
+			// ignore, the statement is discarded anyways
+		}
+	}
+
+	private ResultSet track(ResultSet rs) {
+		if (rs != null) {
+			if (resultSets == null) {
+				resultSets = new ArrayList<>(2);
+			}
+
+			resultSets.add(rs);
+		}
+
+		return rs;
+	}
+
+	@Override
+	public void addBatch() throws SQLException {
+		batched = true;
+		statement.addBatch();
+	}
+
+	@Override
+	public void clearParameters() throws SQLException {
+		statement.clearParameters();
+	}
+
+	@Override
+	public boolean execute() throws SQLException {
+		try {
+			return statement.execute();
+		} catch (SQLException e) {
+			reusable = false;
+			throw e;
+		}
+	}
+
+	@Override
+	public ResultSet executeQuery() throws SQLException {
+		try {
+			return track(statement.executeQuery());
+		} catch (SQLException e) {
+			reusable = false;
+			throw e;
+		}
+	}
+
+	@Override
+	public int executeUpdate() throws SQLException {
+		try {
+			return statement.executeUpdate();
+		} catch (SQLException e) {
+			reusable = false;
+			throw e;
+		}
+	}
+
+	@Override
+	public ResultSetMetaData getMetaData() throws SQLException {
+		return statement.getMetaData();
+	}
+
+	@Override
+	public ParameterMetaData getParameterMetaData() throws SQLException {
+		return statement.getParameterMetaData();
+	}
+
+	@Override
+	public void setArray(int parameterIndex, Array x) throws SQLException {
+		statement.setArray(parameterIndex, x);
+	}
+
+	@Override
+	public void setAsciiStream(int parameterIndex, InputStream x, int length) throws SQLException {
+		statement.setAsciiStream(parameterIndex, x, length);
+	}
+
+	@Override
+	public void setAsciiStream(int parameterIndex, InputStream x, long length) throws SQLException {
+		statement.setAsciiStream(parameterIndex, x, length);
+	}
+
+	@Override
+	public void setAsciiStream(int parameterIndex, InputStream x) throws SQLException {
+		statement.setAsciiStream(parameterIndex, x);
+	}
+
+	@Override
+	public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException {
+		statement.setBigDecimal(parameterIndex, x);
+	}
+
+	@Override
+	public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException {
+		statement.setBinaryStream(parameterIndex, x, length);
+	}
+
+	@Override
+	public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException {
+		statement.setBinaryStream(parameterIndex, x, length);
+	}
+
+	@Override
+	public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException {
+		statement.setBinaryStream(parameterIndex, x);
+	}
+
+	@Override
+	public void setBlob(int parameterIndex, InputStream x, long length) throws SQLException {
+		statement.setBlob(parameterIndex, x, length);
+	}
+
+	@Override
+	public void setBlob(int parameterIndex, InputStream x) throws SQLException {
+		statement.setBlob(parameterIndex, x);
+	}
+
+	@Override
+	public void setBlob(int parameterIndex, Blob x) throws SQLException {
+		statement.setBlob(parameterIndex, x);
+	}
+
+	@Override
+	public void setBoolean(int parameterIndex, boolean x) throws SQLException {
+		statement.setBoolean(parameterIndex, x);
+	}
+
+	@Override
+	public void setByte(int parameterIndex, byte x) throws SQLException {
+		statement.setByte(parameterIndex, x);
+	}
+
+	@Override
+	public void setBytes(int parameterIndex, byte[] x) throws SQLException {
+		statement.setBytes(parameterIndex, x);
+	}
+
+	@Override
+	public void setCharacterStream(int parameterIndex, Reader x, int length) throws SQLException {
+		statement.setCharacterStream(parameterIndex, x, length);
+	}
+
+	@Override
+	public void setCharacterStream(int parameterIndex, Reader x, long length) throws SQLException {
+		statement.setCharacterStream(parameterIndex, x, length);
+	}
+
+	@Override
+	public void setCharacterStream(int parameterIndex, Reader x) throws SQLException {
+		statement.setCharacterStream(parameterIndex, x);
+	}
+
+	@Override
+	public void setClob(int parameterIndex, Reader x, long length) throws SQLException {
+		statement.setClob(parameterIndex, x, length);
+	}
+
+	@Override
+	public void setClob(int parameterIndex, Reader x) throws SQLException {
+		statement.setClob(parameterIndex, x);
+	}
+
+	@Override
+	public void setClob(int parameterIndex, Clob x) throws SQLException {
+		statement.setClob(parameterIndex, x);
+	}
+
+	@Override
+	public void setDate(int parameterIndex, Date x, Calendar cal) throws SQLException {
+		statement.setDate(parameterIndex, x, cal);
+	}
+
+	@Override
+	public void setDate(int parameterIndex, Date x) throws SQLException {
+		statement.setDate(parameterIndex, x);
+	}
+
+	@Override
+	public void setDouble(int parameterIndex, double x) throws SQLException {
+		statement.setDouble(parameterIndex, x);
+	}
+
+	@Override
+	public void setFloat(int parameterIndex, float x) throws SQLException {
+		statement.setFloat(parameterIndex, x);
+	}
+
+	@Override
+	public void setInt(int parameterIndex, int x) throws SQLException {
+		statement.setInt(parameterIndex, x);
+	}
+
+	@Override
+	public void setLong(int parameterIndex, long x) throws SQLException {
+		statement.setLong(parameterIndex, x);
+	}
+
+	@Override
+	public void setNCharacterStream(int parameterIndex, Reader x, long length) throws SQLException {
+		statement.setNCharacterStream(parameterIndex, x, length);
+	}
+
+	@Override
+	public void setNCharacterStream(int parameterIndex, Reader x) throws SQLException {
+		statement.setNCharacterStream(parameterIndex, x);
+	}
+
+	@Override
+	public void setNClob(int parameterIndex, Reader x, long length) throws SQLException {
+		statement.setNClob(parameterIndex, x, length);
+	}
+
+	@Override
+	public void setNClob(int parameterIndex, Reader x) throws SQLException {
+		statement.setNClob(parameterIndex, x);
+	}
+
+	@Override
+	public void setNClob(int parameterIndex, NClob x) throws SQLException {
+		statement.setNClob(parameterIndex, x);
+	}
+
+	@Override
+	public void setNString(int parameterIndex, String x) throws SQLException {
+		statement.setNString(parameterIndex, x);
+	}
+
+	@Override
+	public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException {
+		statement.setNull(parameterIndex, sqlType, typeName);
+	}
+
+	@Override
+	public void setNull(int parameterIndex, int sqlType) throws SQLException {
+		statement.setNull(parameterIndex, sqlType);
+	}
+
+	@Override
+	public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
+		statement.setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+	}
+
+	@Override
+	public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException {
+		statement.setObject(parameterIndex, x, targetSqlType);
+	}
+
+	@Override
+	public void setObject(int parameterIndex, Object x) throws SQLException {
+		statement.setObject(parameterIndex, x);
+	}
+
+	@Override
+	public void setRef(int parameterIndex, Ref x) throws SQLException {
+		statement.setRef(parameterIndex, x);
+	}
+
+	@Override
+	public void setRowId(int parameterIndex, RowId x) throws SQLException {
+		statement.setRowId(parameterIndex, x);
+	}
+
+	@Override
+	public void setSQLXML(int parameterIndex, SQLXML x) throws SQLException {
+		statement.setSQLXML(parameterIndex, x);
+	}
+
+	@Override
+	public void setShort(int parameterIndex, short x) throws SQLException {
+		statement.setShort(parameterIndex, x);
+	}
+
+	@Override
+	public void setString(int parameterIndex, String x) throws SQLException {
+		statement.setString(parameterIndex, x);
+	}
+
+	@Override
+	public void setTime(int parameterIndex, Time x, Calendar cal) throws SQLException {
+		statement.setTime(parameterIndex, x, cal);
+	}
+
+	@Override
+	public void setTime(int parameterIndex, Time x) throws SQLException {
+		statement.setTime(parameterIndex, x);
+	}
+
+	@Override
+	public void setTimestamp(int parameterIndex, Timestamp x, Calendar cal) throws SQLException {
+		statement.setTimestamp(parameterIndex, x, cal);
+	}
+
+	@Override
+	public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException {
+		statement.setTimestamp(parameterIndex, x);
+	}
+
+	@Override
+	public void setURL(int parameterIndex, URL x) throws SQLException {
+		statement.setURL(parameterIndex, x);
+	}
+
+	@Deprecated
+	@Override
+	public void setUnicodeStream(int parameterIndex, InputStream x, int length) throws SQLException {
+		statement.setUnicodeStream(parameterIndex, x, length);
+	}
+
+	@Override
+	public void addBatch(String sql) throws SQLException {
+		batched = true;
+		statement.addBatch(sql);
+	}
+
+	@Override
+	public void cancel() throws SQLException {
+		statement.cancel();
+	}
+
+	@Override
+	public void clearBatch() throws SQLException {
+		statement.clearBatch();
+	}
+
+	@Override
+	public void clearWarnings() throws SQLException {
+		statement.clearWarnings();
+	}
+
+	@Override
+	public void close() throws SQLException {
+		if (!closed) {
+			closed = true;
+			cache.release(this);
+		}
+	}
+
+	@Override
+	public void closeOnCompletion() throws SQLException {
+		reusable = false;
+		statement.closeOnCompletion();
+	}
+
+	@Override
+	public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+		return statement.execute(sql, columnIndexes);
+	}
+
+	@Override
+	public boolean execute(String sql, String[] columnNames) throws SQLException {
+		return statement.execute(sql, columnNames);
+	}
+
+	@Override
+	public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+		return statement.execute(sql, autoGeneratedKeys);
+	}
+
+	@Override
+	public boolean execute(String sql) throws SQLException {
+		return statement.execute(sql);
+	}
+
+	@Override
+	public int[] executeBatch() throws SQLException {
+		try {
+			return statement.executeBatch();
+		} catch (SQLException e) {
+			reusable = false;
+			throw e;
+		}
+	}
+
+	@Override
+	public ResultSet executeQuery(String sql) throws SQLException {
+		return track(statement.executeQuery(sql));
+	}
+
+	@Override
+	public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+		return statement.executeUpdate(sql, columnIndexes);
+	}
+
+	@Override
+	public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+		return statement.executeUpdate(sql, columnNames);
+	}
+
+	@Override
+	public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+		return statement.executeUpdate(sql, autoGeneratedKeys);
+	}
+
+	@Override
+	public int executeUpdate(String sql) throws SQLException {
+		return statement.executeUpdate(sql);
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return cache.getConnection();
+	}
+
+	@Override
+	public int getFetchDirection() throws SQLException {
+		return statement.getFetchDirection();
+	}
+
+	@Override
+	public int getFetchSize() throws SQLException {
+		return statement.getFetchSize();
+	}
+
+	@Override
+	public ResultSet getGeneratedKeys() throws SQLException {
+		return track(statement.getGeneratedKeys());
+	}
+
+	@Override
+	public int getMaxFieldSize() throws SQLException {
+		return statement.getMaxFieldSize();
+	}
+
+	@Override
+	public int getMaxRows() throws SQLException {
+		return statement.getMaxRows();
+	}
+
+	@Override
+	public boolean getMoreResults() throws SQLException {
+		return statement.getMoreResults();
+	}
+
+	@Override
+	public boolean getMoreResults(int current) throws SQLException {
+		return statement.getMoreResults(current);
+	}
+
+	@Override
+	public int getQueryTimeout() throws SQLException {
+		return statement.getQueryTimeout();
+	}
+
+	@Override
+	public ResultSet getResultSet() throws SQLException {
+		return track(statement.getResultSet());
+	}
+
+	@Override
+	public int getResultSetConcurrency() throws SQLException {
+		return statement.getResultSetConcurrency();
+	}
+
+	@Override
+	public int getResultSetHoldability() throws SQLException {
+		return statement.getResultSetHoldability();
+	}
+
+	@Override
+	public int getResultSetType() throws SQLException {
+		return statement.getResultSetType();
+	}
+
+	@Override
+	public int getUpdateCount() throws SQLException {
+		return statement.getUpdateCount();
+	}
+
+	@Override
+	public SQLWarning getWarnings() throws SQLException {
+		return statement.getWarnings();
+	}
+
+	@Override
+	public boolean isCloseOnCompletion() throws SQLException {
+		return statement.isCloseOnCompletion();
+	}
+
+	@Override
+	public boolean isClosed() throws SQLException {
+		return closed || statement.isClosed();
+	}
+
+	@Override
+	public boolean isPoolable() throws SQLException {
+		return statement.isPoolable();
+	}
+
+	@Override
+	public boolean isWrapperFor(Class<?> iface) throws SQLException {
+		return statement.isWrapperFor(iface);
+	}
+
+	@Override
+	public void setCursorName(String name) throws SQLException {
+		reusable = false;
+		statement.setCursorName(name);
+	}
+
+	@Override
+	public void setEscapeProcessing(boolean enable) throws SQLException {
+		reusable = false;
+		statement.setEscapeProcessing(enable);
+	}
+
+	@Override
+	public void setFetchDirection(int direction) throws SQLException {
+		settingsChanged = true;
+		if (defaultFetchDirection == UNKNOWN) {
+			defaultFetchDirection = statement.getFetchDirection();
+		}
+		statement.setFetchDirection(direction);
+	}
+
+	@Override
+	public void setFetchSize(int rows) throws SQLException {
+		settingsChanged = true;
+		if (defaultFetchSize == UNKNOWN) {
+			defaultFetchSize = statement.getFetchSize();
+		}
+		statement.setFetchSize(rows);
+	}
+
+	@Override
+	public void setMaxFieldSize(int max) throws SQLException {
+		settingsChanged = true;
+		if (defaultMaxFieldSize == UNKNOWN) {
+			defaultMaxFieldSize = statement.getMaxFieldSize();
+		}
+		statement.setMaxFieldSize(max);
+	}
+
+	@Override
+	public void setMaxRows(int max) throws SQLException {
+		settingsChanged = true;
+		if (defaultMaxRows == UNKNOWN) {
+			defaultMaxRows = statement.getMaxRows();
+		}
+		statement.setMaxRows(max);
+	}
+
+	@Override
+	public void setPoolable(boolean enable) throws SQLException {
+		reusable = false;
+		statement.setPoolable(enable);
+	}
+
+	@Override
+	public void setQueryTimeout(int seconds) throws SQLException {
+		settingsChanged = true;
+		if (defaultQueryTimeout == UNKNOWN) {
+			defaultQueryTimeout = statement.getQueryTimeout();
+		}
+		statement.setQueryTimeout(seconds);
+	}
+
+	@Override
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		return statement.unwrap(iface);
+	}
+}
@@ -0,0 +1,135 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.datasource;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of the time spent by the callers waiting for a pooled
+ * connection. Values are grouped in power-of-two buckets of microseconds:
+ * bucket 0 holds waits under 1 microsecond, bucket N holds waits between
+ * 2^(N-1) (inclusive) and 2^N (exclusive) microseconds. The last bucket holds
+ * everything above that.
+ * 
+ * @since 4.1
+ */
+public class CheckoutWaitHistogram {
+
+	public static final int BUCKETS = 32;
+
+	private LongAdder[] buckets;
+	private LongAdder totalNanos;
+	private LongAccumulator maxNanos;
+
+	public CheckoutWaitHistogram() {
+		this.buckets = new LongAdder[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets[i] = new LongAdder();
+		}
+
+		this.totalNanos = new LongAdder();
+		this.maxNanos = new LongAccumulator(Math::max, 0);
+	}
+
+	static int bucket(long nanos) {
+		long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+		int bucket = 64 - Long.numberOfLeadingZeros(micros);
+		return bucket < BUCKETS ? bucket : BUCKETS - 1;
+	}
+
+	/**
+	 * Returns the upper bound of the bucket in microseconds (exclusive).
+	 */
+	public static long getBucketUpperBoundMicros(int bucket) {
+		return bucket < BUCKETS - 1 ? 1L << bucket : Long.MAX_VALUE;
+	}
+
+	void record(long nanos) {
+		buckets[bucket(nanos)].increment();
+		totalNanos.add(nanos);
+		maxNanos.accumulate(nanos);
+	}
+
+	/**
+	 * Returns a snapshot of the counts in each bucket.
+	 */
+	public long[] getBucketCounts() {
+		long[] counts = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = buckets[i].sum();
+		}
+
+		return counts;
+	}
+
+	/**
+	 * Returns the total number of recorded checkouts.
+	 */
+	public long getCount() {
+		long count = 0;
+		for (LongAdder bucket : buckets) {
+			count += bucket.sum();
+		}
+
+		return count;
+	}
+
+	public long getTotalTime(TimeUnit unit) {
+		return unit.convert(totalNanos.sum(), TimeUnit.NANOSECONDS);
+	}
+
+	public long getMaxTime(TimeUnit unit) {
+		return unit.convert(maxNanos.get(), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Returns an approximate wait time in microseconds at a given percentile
+	 * (between 0 and 100), which is the upper bound of the bucket containing
+	 * the percentile.
+	 */
+	public long getPercentileMicros(double percentile) {
+
+		if (percentile < 0 || percentile > 100) {
+			throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+		}
+
+		long[] counts = getBucketCounts();
+		long total = 0;
+		for (long count : counts) {
+			total += count;
+		}
+
+		if (total == 0) {
+			return 0;
+		}
+
+		long threshold = (long) Math.ceil(total * percentile / 100d);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= threshold && counts[i] > 0) {
+				return i < BUCKETS - 1 ? getBucketUpperBoundMicros(i) : getMaxTime(TimeUnit.MICROSECONDS);
+			}
+		}
+
+		return getMaxTime(TimeUnit.MICROSECONDS);
+	}
+}
@@ -0,0 +1,59 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.datasource;
+
+/**
+ * Storage of idle pooled connections used by {@link UnmanagedPoolingDataSource}.
+ * Implementations must be thread-safe.
+ * 
+ * @since 4.1
+ */
+interface ConnectionBag {
+
+	/**
+	 * Returns an unchecked connection to the bag. Returns false if the bag
+	 * can't take the connection, in which case the caller must retire it.
+	 */
+	boolean offer(PoolAwareConnection connection);
+
+	/**
+	 * Takes an idle connection from the bag without waiting. Returns null if
+	 * there are no idle connections.
+	 */
+	PoolAwareConnection poll();
+
+	/**
+	 * Takes an idle connection from the bag, waiting up to the specified number
+	 * of milliseconds for one to become available. Returns null on timeout.
+	 */
+	PoolAwareConnection poll(long timeoutMs) throws InterruptedException;
+
+	/**
+	 * Notifies the bag that the connection is being closed and will never be
+	 * returned.
+	 */
+	void remove(PoolAwareConnection connection);
+
+	/**
+	 * Returns the number of idle connections in the bag.
+	 */
+	int size();
+
+	void clear();
+}
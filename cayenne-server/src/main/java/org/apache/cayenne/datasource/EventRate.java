@@ -0,0 +1,70 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.datasource;
+
+/**
+ * Counts events and calculates their average rate over the last minute. Not
+ * meant for very frequent events, as it is synchronized.
+ * 
+ * @since 4.1
+ */
+class EventRate {
+
+	static final int WINDOW_SECONDS = 60;
+
+	private long total;
+	private long[] counts;
+	private long[] seconds;
+
+	EventRate() {
+		this.counts = new long[WINDOW_SECONDS];
+		this.seconds = new long[WINDOW_SECONDS];
+	}
+
+	synchronized void mark(long timeMillis) {
+		long second = timeMillis / 1000;
+		int slot = (int) (second % WINDOW_SECONDS);
+
+		if (seconds[slot] != second) {
+			seconds[slot] = second;
+			counts[slot] = 0;
+		}
+
+		counts[slot]++;
+		total++;
+	}
+
+	synchronized long getTotal() {
+		return total;
+	}
+
+	synchronized double getPerSecond(long timeMillis) {
+		long second = timeMillis / 1000;
+
+		long sum = 0;
+		for (int i = 0; i < WINDOW_SECONDS; i++) {
+			long age = second - seconds[i];
+			if (age >= 0 && age < WINDOW_SECONDS) {
+				sum += counts[i];
+			}
+		}
+
+		return sum / (double) WINDOW_SECONDS;
+	}
+}
@@ -67,6 +67,25 @@ public class ManagedPoolingDataSource implements PoolingDataSource, ScopeEventLi
 		return dataSourceManager.getDataSource().canExpandSize();
 	}
 
+	/**
+	 * Returns a histogram of time spent by the callers waiting for a pooled
+	 * connection.
+	 * 
+	 * @since 4.1
+	 */
+	public CheckoutWaitHistogram getCheckoutWaitHistogram() {
+		return dataSourceManager.getDataSource().getCheckoutWaitHistogram();
+	}
+
+	/**
+	 * Returns metrics of the underlying pool.
+	 * 
+	 * @since 4.1
+	 */
+	public PoolingDataSourceMetrics getMetrics() {
+		return dataSourceManager.getDataSource().getMetrics();
+	}
+
 	/**
 	 * Calls {@link #shutdown()} to drain the underlying pool, close open
 	 * connections and block the DataSource from creating any new connections.
@@ -50,11 +50,34 @@ public class PoolAwareConnection implements Connection {
 	private UnmanagedPoolingDataSource parent;
 	private Connection connection;
 	private String validationQuery;
+	private PreparedStatementCache statementCache;
+
+	// state of this connection in ThreadAffineConnectionBag
+	volatile int bagState;
+
+	// checkout tracking maintained by UnmanagedPoolingDataSource
+	volatile boolean checkedOut;
+	volatile long checkoutTime;
+	volatile String checkoutThread;
+	volatile StackTraceElement[] checkoutStack;
+	volatile boolean leakReported;
 
 	public PoolAwareConnection(UnmanagedPoolingDataSource parent, Connection connection, String validationQuery) {
+		this(parent, connection, validationQuery, 0);
+	}
+
+	/**
+	 * @since 4.1
+	 */
+	public PoolAwareConnection(UnmanagedPoolingDataSource parent, Connection connection, String validationQuery,
+			int statementCacheSize) {
 		this.parent = parent;
 		this.connection = connection;
 		this.validationQuery = validationQuery;
+
+		if (statementCacheSize > 0) {
+			this.statementCache = new PreparedStatementCache(this, parent.getMetrics(), statementCacheSize);
+		}
 	}
 
 	Connection getConnection() {
@@ -85,8 +108,56 @@ public class PoolAwareConnection implements Connection {
 		return true;
 	}
 
+	/**
+	 * Closes statements cached for this connection.
+	 * 
+	 * @since 4.1
+	 */
+	void clearStatementCache() {
+		if (statementCache != null) {
+			statementCache.clear();
+		}
+	}
+
+	/**
+	 * Returns the number of statements cached for this connection.
+	 * 
+	 * @since 4.1
+	 */
+	int getStatementCacheSize() {
+		return statementCache != null ? statementCache.size() : 0;
+	}
+
+	private PreparedStatement prepareCached(String sql, int autoGeneratedKeys) throws SQLException {
+		PreparedStatementCache.Key key = new PreparedStatementCache.Key(sql, autoGeneratedKeys);
+
+		CachedPreparedStatement cached = statementCache.checkout(key);
+		if (cached != null) {
+			return cached;
+		}
+
+		PreparedStatement statement;
+		try {
+			statement = prepareUncached(sql, autoGeneratedKeys);
+		} catch (SQLException e) {
+			recover(e);
+			statement = prepareUncached(sql, autoGeneratedKeys);
+		}
+
+		return statementCache.wrap(key, statement);
+	}
+
+	private PreparedStatement prepareUncached(String sql, int autoGeneratedKeys) throws SQLException {
+		return autoGeneratedKeys == Statement.NO_GENERATED_KEYS
+				? connection.prepareStatement(sql)
+				: connection.prepareStatement(sql, autoGeneratedKeys);
+	}
+
 	void recover(SQLException reconnectCause) throws SQLException {
 
+		// cached statements belong to the old connection
+		clearStatementCache();
+
 		try {
 			connection.close();
 		} catch (SQLException e) {
@@ -253,6 +324,10 @@ public class PoolAwareConnection implements Connection {
 
 	@Override
 	public PreparedStatement prepareStatement(String sql) throws SQLException {
+		if (statementCache != null) {
+			return prepareCached(sql, Statement.NO_GENERATED_KEYS);
+		}
+
 		try {
 			return connection.prepareStatement(sql);
 		} catch (SQLException sqlEx) {
@@ -405,6 +480,10 @@ public class PoolAwareConnection implements Connection {
 	@Override
 	public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
 
+		if (statementCache != null) {
+			return prepareCached(sql, autoGeneratedKeys);
+		}
+
 		try {
 			return connection.prepareStatement(sql, autoGeneratedKeys);
 		} catch (SQLException e) {
@@ -18,6 +18,8 @@
  ****************************************************************/
 package org.apache.cayenne.datasource;
 
+import java.util.Collection;
+
 import javax.sql.DataSource;
 
 import org.apache.cayenne.CayenneRuntimeException;
@@ -63,6 +65,66 @@ public class PoolingDataSourceBuilder {
 		return this;
 	}
 
+	/**
+	 * Switches the pool to a lock-free implementation that caches connections
+	 * per thread, so that a thread returning a connection would normally get
+	 * the same connection back on the next checkout without touching the
+	 * shared pool state. Useful with a large number of concurrent threads.
+	 * 
+	 * @since 4.1
+	 */
+	public PoolingDataSourceBuilder threadAffinity(boolean threadAffinity) {
+		poolParameters.setThreadAffinity(threadAffinity);
+		return this;
+	}
+
+	/**
+	 * Enables connection leak detection. If a connection is checked out for
+	 * longer than the threshold, the pool logs a warning with the stack trace
+	 * of the checkout and notifies the listeners. Capturing the stack trace on
+	 * every checkout has a cost, so leak detection is disabled by default
+	 * (threshold of zero).
+	 * 
+	 * @since 4.1
+	 */
+	public PoolingDataSourceBuilder leakDetectionThreshold(long leakDetectionThresholdMs) {
+		poolParameters.setLeakDetectionThreshold(leakDetectionThresholdMs);
+		return this;
+	}
+
+	/**
+	 * Enables caching of prepared statements. Each pooled connection keeps up
+	 * to the specified number of most recently used statements open, and
+	 * returns them to the callers preparing the same SQL again. Disabled by
+	 * default (size of zero).
+	 * 
+	 * @since 4.1
+	 */
+	public PoolingDataSourceBuilder statementCacheSize(int statementCacheSize) {
+		poolParameters.setStatementCacheSize(statementCacheSize);
+		return this;
+	}
+
+	/**
+	 * Adds a listener that will be notified of the pool events.
+	 * 
+	 * @since 4.1
+	 */
+	public PoolingDataSourceBuilder listener(PoolingDataSourceListener listener) {
+		poolParameters.getListeners().add(listener);
+		return this;
+	}
+
+	/**
+	 * Adds listeners that will be notified of the pool events.
+	 * 
+	 * @since 4.1
+	 */
+	public PoolingDataSourceBuilder listeners(Collection<? extends PoolingDataSourceListener> listeners) {
+		poolParameters.getListeners().addAll(listeners);
+		return this;
+	}
+
 	/**
 	 * Builds a pooling DataSource that needs to be explicitly closed by the
 	 * caller when no longer in use.
@@ -84,6 +146,16 @@ public class PoolingDataSourceBuilder {
 			throw new CayenneRuntimeException("Minimum number of connections can not be bigger then maximum.");
 		}
 
+		if (poolParameters.getLeakDetectionThreshold() < 0) {
+			throw new CayenneRuntimeException("Leak detection threshold can not be negative (%d)."
+					, poolParameters.getLeakDetectionThreshold());
+		}
+
+		if (poolParameters.getStatementCacheSize() < 0) {
+			throw new CayenneRuntimeException("Statement cache size can not be negative (%d)."
+					, poolParameters.getStatementCacheSize());
+		}
+
 		DataSource nonPooling = nonPoolingBuilder.build();
 		return buildManaged(buildPooling(nonPooling));
 	}
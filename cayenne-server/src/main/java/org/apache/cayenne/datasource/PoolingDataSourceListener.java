@@ -0,0 +1,93 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.datasource;
+
+/**
+ * A listener of connection pool events that allows to bridge
+ * {@link UnmanagedPoolingDataSource} state to an external monitoring system.
+ * All methods have empty default implementations. Listener methods are called
+ * synchronously from the threads that interact with the pool, so they must be
+ * thread-safe and fast.
+ * 
+ * @see org.apache.cayenne.configuration.server.ServerModule#contributePoolingDataSourceListeners(org.apache.cayenne.di.Binder)
+ * @since 4.1
+ */
+public interface PoolingDataSourceListener {
+
+	/**
+	 * Called when a new physical connection is opened by the pool.
+	 */
+	default void connectionCreated() {
+	}
+
+	/**
+	 * Called when a physical connection is closed by the pool.
+	 */
+	default void connectionClosed() {
+	}
+
+	/**
+	 * Called when a connection is successfully checked out of the pool.
+	 * 
+	 * @param waitNanos
+	 *            time in nanoseconds the caller spent waiting for the
+	 *            connection.
+	 */
+	default void connectionCheckedOut(long waitNanos) {
+	}
+
+	/**
+	 * Called when the caller failed to obtain a connection from the pool.
+	 * 
+	 * @param waitNanos
+	 *            time in nanoseconds the caller spent waiting for the
+	 *            connection.
+	 */
+	default void connectionCheckoutFailed(long waitNanos) {
+	}
+
+	/**
+	 * Called when a connection is returned to the pool.
+	 * 
+	 * @param heldNanos
+	 *            time in nanoseconds the connection was checked out.
+	 */
+	default void connectionReturned(long heldNanos) {
+	}
+
+	/**
+	 * Called after a connection was validated with the pool validation query.
+	 */
+	default void connectionValidated(long validationNanos, boolean valid) {
+	}
+
+	/**
+	 * Called when a connection is checked out for longer than the leak
+	 * detection threshold. Called at most once per checkout.
+	 * 
+	 * @param heldMillis
+	 *            time in milliseconds the connection was checked out so far.
+	 * @param borrowingThread
+	 *            the name of the thread that checked out the connection.
+	 * @param borrowStack
+	 *            stack trace of the checkout.
+	 */
+	default void connectionLeakSuspected(long heldMillis, String borrowingThread, StackTraceElement[] borrowStack) {
+	}
+}
@@ -18,6 +18,8 @@
  ****************************************************************/
 package org.apache.cayenne.datasource;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * A thread that manages the state of a {@link UnmanagedPoolingDataSource} instance,
  * performing periodic expansion/contraction of pooled connections, and
@@ -56,10 +58,18 @@ class PoolingDataSourceManager extends Thread {
 
 	@Override
 	public void run() {
+
+		// with leak detection on, wake up often enough to check for leaks,
+		// but still manage the pool at the regular intervals
+		long leakDetectionThreshold = dataSource.getLeakDetectionThreshold();
+		long sleepTime = leakDetectionThreshold > 0 ? Math.min(managerWakeTime, leakDetectionThreshold)
+				: managerWakeTime;
+		long nextManageTime = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(managerWakeTime);
+
 		while (true) {
 
 			try {
-				Thread.sleep(managerWakeTime);
+				Thread.sleep(sleepTime);
 			} catch (InterruptedException iex) {
 				// ignore...
 			}
@@ -68,7 +78,18 @@ class PoolingDataSourceManager extends Thread {
 				break;
 			}
 
-			dataSource.managePool();
+			if (leakDetectionThreshold <= 0) {
+				dataSource.managePool();
+				continue;
+			}
+
+			dataSource.detectLeaks();
+
+			long now = System.nanoTime();
+			if (now - nextManageTime >= 0) {
+				dataSource.managePool();
+				nextManageTime = now + TimeUnit.MILLISECONDS.toNanos(managerWakeTime);
+			}
 		}
 	}
 }
\ No newline at end of file
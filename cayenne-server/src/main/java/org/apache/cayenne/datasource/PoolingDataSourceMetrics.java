@@ -0,0 +1,191 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.datasource;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A live view of the state and statistics of a connection pool. Metrics
+ * objects are obtained from {@link UnmanagedPoolingDataSource#getMetrics()}
+ * or {@link ManagedPoolingDataSource#getMetrics()}. Counters are cumulative
+ * since the pool startup, rates are averaged over the last minute.
+ * 
+ * @since 4.1
+ */
+public class PoolingDataSourceMetrics {
+
+	private UnmanagedPoolingDataSource pool;
+	private CheckoutWaitHistogram checkoutWaitHistogram;
+	private AtomicInteger waitingThreads;
+	private LongAdder validations;
+	private LongAdder failedValidations;
+	private LongAdder validationNanos;
+	private LongAdder failedCheckouts;
+	private LongAdder statementCacheHits;
+	private LongAdder statementCacheMisses;
+	private EventRate created;
+	private EventRate closed;
+
+	PoolingDataSourceMetrics(UnmanagedPoolingDataSource pool) {
+		this.pool = pool;
+		this.checkoutWaitHistogram = new CheckoutWaitHistogram();
+		this.waitingThreads = new AtomicInteger();
+		this.validations = new LongAdder();
+		this.failedValidations = new LongAdder();
+		this.validationNanos = new LongAdder();
+		this.failedCheckouts = new LongAdder();
+		this.statementCacheHits = new LongAdder();
+		this.statementCacheMisses = new LongAdder();
+		this.created = new EventRate();
+		this.closed = new EventRate();
+	}
+
+	void checkedOut(long waitNanos) {
+		checkoutWaitHistogram.record(waitNanos);
+	}
+
+	void checkoutFailed(long waitNanos) {
+		checkoutWaitHistogram.record(waitNanos);
+		failedCheckouts.increment();
+	}
+
+	void validated(long nanos, boolean valid) {
+		validations.increment();
+		validationNanos.add(nanos);
+		if (!valid) {
+			failedValidations.increment();
+		}
+	}
+
+	void connectionCreated() {
+		created.mark(System.currentTimeMillis());
+	}
+
+	void connectionClosed() {
+		closed.mark(System.currentTimeMillis());
+	}
+
+	void statementCacheHit() {
+		statementCacheHits.increment();
+	}
+
+	void statementCacheMiss() {
+		statementCacheMisses.increment();
+	}
+
+	AtomicInteger getWaitingThreadsCounter() {
+		return waitingThreads;
+	}
+
+	/**
+	 * Returns the number of connections currently checked out of the pool.
+	 */
+	public int getActiveConnections() {
+		return Math.max(0, pool.poolSize() - pool.availableSize());
+	}
+
+	/**
+	 * Returns the number of open connections currently sitting in the pool.
+	 */
+	public int getIdleConnections() {
+		return pool.availableSize();
+	}
+
+	/**
+	 * Returns the number of threads currently blocked waiting for a
+	 * connection.
+	 */
+	public int getWaitingThreads() {
+		return waitingThreads.get();
+	}
+
+	public int getMaxConnections() {
+		return pool.getMaxConnections();
+	}
+
+	public CheckoutWaitHistogram getCheckoutWaitHistogram() {
+		return checkoutWaitHistogram;
+	}
+
+	/**
+	 * Returns the number of checkouts that failed with a timeout or an error.
+	 */
+	public long getFailedCheckouts() {
+		return failedCheckouts.sum();
+	}
+
+	public long getValidations() {
+		return validations.sum();
+	}
+
+	public long getFailedValidations() {
+		return failedValidations.sum();
+	}
+
+	/**
+	 * Returns total time spent running the validation query.
+	 */
+	public long getValidationTime(TimeUnit unit) {
+		return unit.convert(validationNanos.sum(), TimeUnit.NANOSECONDS);
+	}
+
+	public long getCreatedConnections() {
+		return created.getTotal();
+	}
+
+	public long getClosedConnections() {
+		return closed.getTotal();
+	}
+
+	public double getCreatedConnectionsPerSecond() {
+		return created.getPerSecond(System.currentTimeMillis());
+	}
+
+	public double getClosedConnectionsPerSecond() {
+		return closed.getPerSecond(System.currentTimeMillis());
+	}
+
+	/**
+	 * Returns the number of prepared statements reused from the statement
+	 * cache.
+	 */
+	public long getStatementCacheHits() {
+		return statementCacheHits.sum();
+	}
+
+	/**
+	 * Returns the number of statements prepared in the driver while the
+	 * statement cache was enabled.
+	 */
+	public long getStatementCacheMisses() {
+		return statementCacheMisses.sum();
+	}
+
+	/**
+	 * Returns a share of prepared statements reused from the statement cache
+	 * among all statements prepared via the cache.
+	 */
+	public double getStatementCacheHitRatio() {
+		long hits = getStatementCacheHits();
+		long total = hits + getStatementCacheMisses();
+		return total > 0 ? (double) hits / total : 0d;
+	}
+}
@@ -18,6 +18,9 @@
  ****************************************************************/
 package org.apache.cayenne.datasource;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * A collection of pooling parameters used by {@link UnmanagedPoolingDataSource}.
  * 
@@ -29,6 +32,10 @@ public class PoolingDataSourceParameters {
 	private int minConnections;
 	private int maxConnections;
 	private long maxQueueWaitTime;
+	private boolean threadAffinity;
+	private long leakDetectionThreshold;
+	private int statementCacheSize;
+	private List<PoolingDataSourceListener> listeners = new ArrayList<>();
 
 	public int getMinConnections() {
 		return minConnections;
@@ -61,4 +68,60 @@ public class PoolingDataSourceParameters {
 	public void setValidationQuery(String validationQuery) {
 		this.validationQuery = validationQuery;
 	}
+
+	/**
+	 * @since 4.1
+	 */
+	public boolean isThreadAffinity() {
+		return threadAffinity;
+	}
+
+	/**
+	 * @since 4.1
+	 */
+	public void setThreadAffinity(boolean threadAffinity) {
+		this.threadAffinity = threadAffinity;
+	}
+
+	/**
+	 * @since 4.1
+	 */
+	public long getLeakDetectionThreshold() {
+		return leakDetectionThreshold;
+	}
+
+	/**
+	 * @since 4.1
+	 */
+	public void setLeakDetectionThreshold(long leakDetectionThreshold) {
+		this.leakDetectionThreshold = leakDetectionThreshold;
+	}
+
+	/**
+	 * @since 4.1
+	 */
+	/**
+	 * @since 4.1
+	 */
+	public int getStatementCacheSize() {
+		return statementCacheSize;
+	}
+
+	/**
+	 * @since 4.1
+	 */
+	public void setStatementCacheSize(int statementCacheSize) {
+		this.statementCacheSize = statementCacheSize;
+	}
+
+	public List<PoolingDataSourceListener> getListeners() {
+		return listeners;
+	}
+
+	/**
+	 * @since 4.1
+	 */
+	public void setListeners(List<PoolingDataSourceListener> listeners) {
+		this.listeners = listeners;
+	}
 }
@@ -0,0 +1,178 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.datasource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * An LRU cache of prepared statements of a single pooled connection. A cached
+ * statement is removed from the cache while it is in use and is put back when
+ * closed by the caller, so the same statement is never shared between two
+ * callers.
+ * 
+ * @since 4.1
+ */
+class PreparedStatementCache {
+
+	private final Connection connection;
+	private final PoolingDataSourceMetrics metrics;
+	private final int maxSize;
+	private final LinkedHashMap<Key, CachedPreparedStatement> statements;
+
+	// incremented when the cache is invalidated, so that the statements in use
+	// at that moment are closed instead of being returned
+	private int generation;
+
+	PreparedStatementCache(Connection connection, PoolingDataSourceMetrics metrics, int maxSize) {
+		this.connection = connection;
+		this.metrics = metrics;
+		this.maxSize = maxSize;
+		this.statements = new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+	Connection getConnection() {
+		return connection;
+	}
+
+	/**
+	 * Returns a cached statement for the key, removing it from the cache, or
+	 * null if there's no such statement.
+	 */
+	CachedPreparedStatement checkout(Key key) {
+		CachedPreparedStatement statement;
+		synchronized (this) {
+			statement = statements.remove(key);
+		}
+
+		if (statement != null) {
+			statement.checkout();
+			metrics.statementCacheHit();
+		} else {
+			metrics.statementCacheMiss();
+		}
+
+		return statement;
+	}
+
+	/**
+	 * Wraps a freshly prepared statement, so that it is returned to the cache
+	 * when closed.
+	 */
+	synchronized CachedPreparedStatement wrap(Key key, PreparedStatement statement) {
+		return new CachedPreparedStatement(this, key, statement, generation);
+	}
+
+	/**
+	 * Puts a closed statement back to the cache, evicting the least recently
+	 * used statement if the cache is full.
+	 */
+	void release(CachedPreparedStatement statement) {
+
+		if (!statement.reset()) {
+			statement.closeUnderlying();
+			return;
+		}
+
+		CachedPreparedStatement evicted = null;
+		synchronized (this) {
+			if (statement.generation != generation || statements.containsKey(statement.key)) {
+				evicted = statement;
+			} else {
+				statements.put(statement.key, statement);
+
+				if (statements.size() > maxSize) {
+					Iterator<CachedPreparedStatement> it = statements.values().iterator();
+					evicted = it.next();
+					it.remove();
+				}
+			}
+		}
+
+		if (evicted != null) {
+			evicted.closeUnderlying();
+		}
+	}
+
+	/**
+	 * Closes and removes all cached statements. Statements currently in use are
+	 * closed when returned.
+	 */
+	void clear() {
+		List<CachedPreparedStatement> removed;
+		synchronized (this) {
+			generation++;
+			removed = new ArrayList<>(statements.values());
+			statements.clear();
+		}
+
+		for (CachedPreparedStatement statement : removed) {
+			statement.closeUnderlying();
+		}
+	}
+
+	synchronized int size() {
+		return statements.size();
+	}
+
+	/**
+	 * A key of a cached statement.
+	 */
+	static final class Key {
+
+		private final String sql;
+		private final int autoGeneratedKeys;
+
+		Key(String sql, int autoGeneratedKeys) {
+			this.sql = sql;
+			this.autoGeneratedKeys = autoGeneratedKeys;
+		}
+
+		String getSql() {
+			return sql;
+		}
+
+		int getAutoGeneratedKeys() {
+			return autoGeneratedKeys;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (this == object) {
+				return true;
+			}
+
+			if (!(object instanceof Key)) {
+				return false;
+			}
+
+			Key key = (Key) object;
+			return autoGeneratedKeys == key.autoGeneratedKeys && sql.equals(key.sql);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * sql.hashCode() + autoGeneratedKeys;
+		}
+	}
+}
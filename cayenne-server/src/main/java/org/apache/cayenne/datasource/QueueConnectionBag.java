@@ -0,0 +1,69 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.datasource;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Default {@link ConnectionBag} that keeps idle connections in a bounded FIFO
+ * queue shared by all threads.
+ * 
+ * @since 4.1
+ */
+class QueueConnectionBag implements ConnectionBag {
+
+	private BlockingQueue<PoolAwareConnection> available;
+
+	QueueConnectionBag(int capacity) {
+		this.available = new ArrayBlockingQueue<>(capacity);
+	}
+
+	@Override
+	public boolean offer(PoolAwareConnection connection) {
+		return available.offer(connection);
+	}
+
+	@Override
+	public PoolAwareConnection poll() {
+		return available.poll();
+	}
+
+	@Override
+	public PoolAwareConnection poll(long timeoutMs) throws InterruptedException {
+		return available.poll(timeoutMs, TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public void remove(PoolAwareConnection connection) {
+		// connections are removed from the queue when they are polled, so
+		// nothing to do here
+	}
+
+	@Override
+	public int size() {
+		return available.size();
+	}
+
+	@Override
+	public void clear() {
+		available.clear();
+	}
+}
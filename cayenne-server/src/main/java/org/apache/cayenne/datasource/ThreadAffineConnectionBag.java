@@ -0,0 +1,234 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.datasource;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * A lock-free {@link ConnectionBag} that remembers which connections were
+ * returned by each thread and tries to give the same connections back to that
+ * thread. All pooled connections are also kept in a shared copy-on-write list,
+ * so any thread (including the pool manager) can take an idle connection
+ * cached by another thread. Ownership of a connection is claimed with a CAS on
+ * its state, so neither the thread-local nor the shared path takes a lock.
+ * Threads that have to wait for a connection receive it via a direct handoff,
+ * rescanning the shared list between short waits.
+ * 
+ * @since 4.1
+ */
+class ThreadAffineConnectionBag implements ConnectionBag {
+
+	static final int STATE_NEW = 0;
+	static final int STATE_IN_USE = 1;
+	static final int STATE_IDLE = 2;
+	static final int STATE_REMOVED = 3;
+
+	/**
+	 * Max number of connections remembered by a single thread.
+	 */
+	static final int THREAD_CACHE_SIZE = 4;
+
+	/**
+	 * Max time a waiting thread is parked on the handoff before it rescans the
+	 * shared list. Returning threads never wait for a waiter to park.
+	 */
+	static final long WAIT_SLICE_MS = 10;
+
+	private static final AtomicIntegerFieldUpdater<PoolAwareConnection> STATE = AtomicIntegerFieldUpdater
+			.newUpdater(PoolAwareConnection.class, "bagState");
+
+	private List<PoolAwareConnection> connections;
+	// weak references, so that connections retired by other threads are not
+	// kept reachable by the caches of idle threads
+	private ThreadLocal<List<WeakReference<PoolAwareConnection>>> threadCache;
+	private SynchronousQueue<PoolAwareConnection> handoff;
+	private AtomicInteger waiters;
+
+	ThreadAffineConnectionBag() {
+		this.connections = new CopyOnWriteArrayList<>();
+		this.threadCache = new ThreadLocal<List<WeakReference<PoolAwareConnection>>>() {
+			@Override
+			protected List<WeakReference<PoolAwareConnection>> initialValue() {
+				return new ArrayList<>(THREAD_CACHE_SIZE);
+			}
+		};
+		this.handoff = new SynchronousQueue<>(true);
+		this.waiters = new AtomicInteger();
+	}
+
+	@Override
+	public boolean offer(PoolAwareConnection connection) {
+
+		switch (connection.bagState) {
+		case STATE_REMOVED:
+			// the connection was retired while checked out, so it is
+			// already closed and unaccounted for; silently drop it
+			return true;
+		case STATE_IDLE:
+			// double close
+			return true;
+		case STATE_NEW:
+			connections.add(connection);
+			break;
+		default:
+			break;
+		}
+
+		connection.bagState = STATE_IDLE;
+
+		List<WeakReference<PoolAwareConnection>> cache = threadCache.get();
+		pruneRemoved(cache);
+		if (cache.size() >= THREAD_CACHE_SIZE) {
+			cache.remove(0);
+		}
+		cache.add(new WeakReference<>(connection));
+
+		// if someone is parked waiting, give them this connection directly.
+		// Otherwise it stays idle in the shared list, where waiters between
+		// their handoff waits will find it on a rescan
+		if (waiters.get() > 0) {
+			handoff.offer(connection);
+		}
+
+		return true;
+	}
+
+	@Override
+	public PoolAwareConnection poll() {
+
+		// 1. check connections previously returned by this thread, most recent
+		// first. Entries are dropped from the cache either way, as they are
+		// either taken by us, or taken (or retired) by someone else
+		List<WeakReference<PoolAwareConnection>> cache = threadCache.get();
+		for (int i = cache.size() - 1; i >= 0; i--) {
+			PoolAwareConnection c = cache.remove(i).get();
+			if (c != null && tryClaim(c)) {
+				return c;
+			}
+		}
+
+		// 2. scan the shared list
+		for (PoolAwareConnection c : connections) {
+			if (tryClaim(c)) {
+				return c;
+			}
+		}
+
+		return null;
+	}
+
+	@Override
+	public PoolAwareConnection poll(long timeoutMs) throws InterruptedException {
+
+		PoolAwareConnection c = poll();
+		if (c != null || timeoutMs <= 0) {
+			return c;
+		}
+
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+
+		waiters.incrementAndGet();
+		try {
+
+			long remaining = deadline - System.nanoTime();
+			while (remaining > 0) {
+
+				// rescan in case a connection was returned before we started
+				// waiting
+				c = poll();
+				if (c != null) {
+					return c;
+				}
+
+				long slice = Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(WAIT_SLICE_MS));
+				c = handoff.poll(slice, TimeUnit.NANOSECONDS);
+				if (c != null && tryClaim(c)) {
+					return c;
+				}
+
+				remaining = deadline - System.nanoTime();
+			}
+
+			return null;
+		} finally {
+			waiters.decrementAndGet();
+		}
+	}
+
+	@Override
+	public void remove(PoolAwareConnection connection) {
+		// stale references in thread caches are harmless, as the connection
+		// can no longer be claimed. They are weak and are pruned on the next
+		// offer by the owning thread
+		connection.bagState = STATE_REMOVED;
+		connections.remove(connection);
+	}
+
+	@Override
+	public int size() {
+		int size = 0;
+		for (PoolAwareConnection c : connections) {
+			if (c.bagState == STATE_IDLE) {
+				size++;
+			}
+		}
+
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		for (PoolAwareConnection c : connections) {
+			c.bagState = STATE_REMOVED;
+		}
+
+		connections.clear();
+	}
+
+	/**
+	 * Returns the number of live entries in the calling thread cache.
+	 */
+	int threadCacheSize() {
+		List<WeakReference<PoolAwareConnection>> cache = threadCache.get();
+		pruneRemoved(cache);
+		return cache.size();
+	}
+
+	private void pruneRemoved(List<WeakReference<PoolAwareConnection>> cache) {
+		Iterator<WeakReference<PoolAwareConnection>> it = cache.iterator();
+		while (it.hasNext()) {
+			PoolAwareConnection c = it.next().get();
+			if (c == null || c.bagState == STATE_REMOVED) {
+				it.remove();
+			}
+		}
+	}
+
+	private boolean tryClaim(PoolAwareConnection connection) {
+		return STATE.compareAndSet(connection, STATE_IDLE, STATE_IN_USE);
+	}
+}
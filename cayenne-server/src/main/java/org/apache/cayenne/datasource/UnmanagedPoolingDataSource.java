@@ -24,11 +24,10 @@ import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.util.Collections;
 import java.util.Map;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.sql.DataSource;
 
@@ -95,12 +94,16 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 
 	private Map<PoolAwareConnection, Object> pool;
 	private Semaphore poolCap;
-	private BlockingQueue<PoolAwareConnection> available;
+	private ConnectionBag available;
+	private PoolingDataSourceMetrics metrics;
+	private PoolingDataSourceListener[] listeners;
+	private long leakDetectionThreshold;
 
 	private int maxIdleConnections;
 	private int minConnections;
 	private int maxConnections;
 	private String validationQuery;
+	private int statementCacheSize;
 
 	static int maxIdleConnections(int min, int max) {
 		return min == max ? min : min + (int) Math.ceil((max - min) / 2d);
@@ -128,10 +131,14 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 		this.nonPoolingDataSource = nonPoolingDataSource;
 		this.maxQueueWaitTime = parameters.getMaxQueueWaitTime();
 		this.validationQuery = parameters.getValidationQuery();
+		this.statementCacheSize = parameters.getStatementCacheSize();
 		this.minConnections = minConnections;
 		this.maxConnections = maxConnections;
 		this.pool = new ConcurrentHashMap<PoolAwareConnection, Object>((int) (maxConnections / 0.75));
-		this.available = new ArrayBlockingQueue<PoolAwareConnection>(maxConnections);
+		this.available = createConnectionBag(parameters);
+		this.metrics = new PoolingDataSourceMetrics(this);
+		this.listeners = parameters.getListeners().toArray(new PoolingDataSourceListener[0]);
+		this.leakDetectionThreshold = parameters.getLeakDetectionThreshold();
 		this.poolCap = new Semaphore(maxConnections);
 		this.maxIdleConnections = maxIdleConnections(minConnections, maxConnections);
 
@@ -148,6 +155,11 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 		}
 	}
 
+	static ConnectionBag createConnectionBag(PoolingDataSourceParameters parameters) {
+		return parameters.isThreadAffinity() ? new ThreadAffineConnectionBag() : new QueueConnectionBag(
+				parameters.getMaxConnections());
+	}
+
 	int poolSize() {
 		return pool.size();
 	}
@@ -207,15 +219,23 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 	 * be an unchecked connection.
 	 */
 	void retire(PoolAwareConnection connection) {
+		available.remove(connection);
 		pool.remove(connection);
 
 		poolCap.release();
 
+		connection.clearStatementCache();
+
 		try {
 			connection.getConnection().close();
 		} catch (SQLException e) {
 			// ignore?
 		}
+
+		metrics.connectionClosed();
+		for (PoolingDataSourceListener listener : listeners) {
+			listener.connectionClosed();
+		}
 	}
 
 	/**
@@ -224,6 +244,18 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 	 */
 	void reclaim(PoolAwareConnection connection) {
 
+		if (connection.checkedOut) {
+			connection.checkedOut = false;
+			connection.checkoutStack = null;
+
+			if (listeners.length > 0) {
+				long heldNanos = System.nanoTime() - connection.checkoutTime;
+				for (PoolingDataSourceListener listener : listeners) {
+					listener.connectionReturned(heldNanos);
+				}
+			}
+		}
+
 		// TODO: rollback any in-process tx?
 
 		// the queue may overflow potentially and we won't be able to add the
@@ -240,10 +272,14 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 
 	PoolAwareConnection uncheckBlocking(boolean validate) {
 		PoolAwareConnection c;
+		AtomicInteger waiting = metrics.getWaitingThreadsCounter();
+		waiting.incrementAndGet();
 		try {
-			c = available.poll(maxQueueWaitTime, TimeUnit.MILLISECONDS);
+			c = available.poll(maxQueueWaitTime);
 		} catch (InterruptedException e) {
 			return null;
+		} finally {
+			waiting.decrementAndGet();
 		}
 
 		return validate ? validateUnchecked(c) : c;
@@ -251,7 +287,7 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 
 	PoolAwareConnection validateUnchecked(PoolAwareConnection c) {
 
-		if (c == null || c.validate()) {
+		if (c == null || validate(c)) {
 			return c;
 		}
 
@@ -277,10 +313,15 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 
 		pool.put(c, 1);
 
+		metrics.connectionCreated();
+		for (PoolingDataSourceListener listener : listeners) {
+			listener.connectionCreated();
+		}
+
 		// even though we got a fresh connection, let's still validate it...
 		// This will provide consistent behavior between cached and uncached
 		// connections in respect to invalid validation queries
-		if (!c.validate()) {
+		if (!validate(c)) {
 			throw new BadValidationQueryException(
 					"Can't validate a fresh connection. Likely validation query is wrong: " + validationQuery);
 		}
@@ -288,8 +329,26 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 		return c;
 	}
 
+	boolean validate(PoolAwareConnection c) {
+
+		if (validationQuery == null) {
+			return c.validate();
+		}
+
+		long start = System.nanoTime();
+		boolean valid = c.validate();
+		long time = System.nanoTime() - start;
+
+		metrics.validated(time, valid);
+		for (PoolingDataSourceListener listener : listeners) {
+			listener.connectionValidated(time, valid);
+		}
+
+		return valid;
+	}
+
 	PoolAwareConnection createWrapped() throws SQLException {
-		return new PoolAwareConnection(this, createUnwrapped(), validationQuery);
+		return new PoolAwareConnection(this, createUnwrapped(), validationQuery, statementCacheSize);
 	}
 
 	/**
@@ -321,6 +380,41 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 
 	@Override
 	public Connection getConnection() throws SQLException {
+		long start = System.nanoTime();
+
+		PoolAwareConnection c;
+		try {
+			c = uncheckConnection();
+		} catch (SQLException | RuntimeException e) {
+			long waitNanos = System.nanoTime() - start;
+			metrics.checkoutFailed(waitNanos);
+			for (PoolingDataSourceListener listener : listeners) {
+				listener.connectionCheckoutFailed(waitNanos);
+			}
+
+			throw e;
+		}
+
+		long checkoutTime = System.nanoTime();
+		long waitNanos = checkoutTime - start;
+		metrics.checkedOut(waitNanos);
+		for (PoolingDataSourceListener listener : listeners) {
+			listener.connectionCheckedOut(waitNanos);
+		}
+
+		c.checkoutTime = checkoutTime;
+		if (leakDetectionThreshold > 0) {
+			Thread thread = Thread.currentThread();
+			c.checkoutThread = thread.getName();
+			c.checkoutStack = thread.getStackTrace();
+			c.leakReported = false;
+		}
+		c.checkedOut = true;
+
+		return c;
+	}
+
+	private PoolAwareConnection uncheckConnection() throws SQLException {
 
 		// strategy for getting a connection -
 		// 1. quick peek for available connections
@@ -331,17 +425,20 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 
 		c = uncheckNonBlocking(true);
 		if (c != null) {
-			return resetState(c);
+			resetState(c);
+			return c;
 		}
 
 		c = createUnchecked();
 		if (c != null) {
-			return resetState(c);
+			resetState(c);
+			return c;
 		}
 
 		c = uncheckBlocking(true);
 		if (c != null) {
-			return resetState(c);
+			resetState(c);
+			return c;
 		}
 
 		int poolSize = poolSize();
@@ -393,6 +490,77 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 		return nonPoolingDataSource.getParentLogger();
 	}
 
+	/**
+	 * Returns a histogram of time spent by the callers of
+	 * {@link #getConnection()} waiting for a connection, including failed
+	 * attempts.
+	 * 
+	 * @since 4.1
+	 */
+	public CheckoutWaitHistogram getCheckoutWaitHistogram() {
+		return metrics.getCheckoutWaitHistogram();
+	}
+
+	/**
+	 * Returns pool metrics.
+	 * 
+	 * @since 4.1
+	 */
+	public PoolingDataSourceMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Reports connections that are checked out for longer than the leak
+	 * detection threshold. Each checkout is reported only once.
+	 */
+	void detectLeaks() {
+
+		if (leakDetectionThreshold <= 0) {
+			return;
+		}
+
+		long now = System.nanoTime();
+
+		for (PoolAwareConnection c : pool.keySet()) {
+
+			if (!c.checkedOut || c.leakReported) {
+				continue;
+			}
+
+			long heldMillis = TimeUnit.NANOSECONDS.toMillis(now - c.checkoutTime);
+			StackTraceElement[] stack = c.checkoutStack;
+			if (heldMillis <= leakDetectionThreshold || stack == null) {
+				continue;
+			}
+
+			c.leakReported = true;
+
+			String thread = c.checkoutThread;
+			LOGGER.warn(leakMessage(heldMillis, thread, stack));
+			for (PoolingDataSourceListener listener : listeners) {
+				listener.connectionLeakSuspected(heldMillis, thread, stack);
+			}
+		}
+	}
+
+	private static String leakMessage(long heldMillis, String thread, StackTraceElement[] stack) {
+		StringBuilder message = new StringBuilder();
+		message.append("Connection was checked out by thread '").append(thread).append("' ").append(heldMillis)
+				.append(" ms ago and was not returned to the pool, possible leak. Checked out at:");
+
+		// skip Thread.getStackTrace() and getConnection() frames
+		for (int i = 2; i < stack.length; i++) {
+			message.append("\n\tat ").append(stack[i]);
+		}
+
+		return message.toString();
+	}
+
+	long getLeakDetectionThreshold() {
+		return leakDetectionThreshold;
+	}
+
 	String getValidationQuery() {
 		return validationQuery;
 	}
@@ -135,6 +135,22 @@ public class AutoAdapter implements DbAdapter {
 		return getAdapter().supportsGeneratedKeys();
 	}
 
+	/**
+	 * @since 4.1
+	 */
+	@Override
+	public boolean supportsGeneratedKeysForBatchInserts() {
+		return getAdapter().supportsGeneratedKeysForBatchInserts();
+	}
+
+	/**
+	 * @since 4.1
+	 */
+	@Override
+	public int getMaxIdQualifierSize() {
+		return getAdapter().getMaxIdQualifierSize();
+	}
+
 	@Override
 	public boolean supportsBatchUpdates() {
 		return getAdapter().supportsBatchUpdates();
@@ -92,6 +92,30 @@ public interface DbAdapter {
 	 */
 	boolean supportsGeneratedKeys();
 
+	/**
+	 * Returns <code>true</code> if the target database and its driver return
+	 * generated keys for every row of a batch insert, in the order rows were
+	 * added to the batch. When supported, inserts with generated keys are
+	 * executed as JDBC batches instead of one statement per row.
+	 *
+	 * @since 4.1
+	 */
+	default boolean supportsGeneratedKeysForBatchInserts() {
+		return false;
+	}
+
+	/**
+	 * Returns a maximum number of values that the target database accepts in a
+	 * single ID qualifier, such as the ones generated for DISJOINT_BY_ID
+	 * prefetches, or -1 if there's no specific limit. Cayenne splits larger
+	 * qualifiers into several queries.
+	 *
+	 * @since 4.1
+	 */
+	default int getMaxIdQualifierSize() {
+		return -1;
+	}
+
 	/**
 	 * Returns <code>true</code> if the target database supports batch updates.
 	 */
@@ -73,6 +73,16 @@ public class JdbcAdapter implements DbAdapter {
 	protected boolean supportsBatchUpdates;
 	protected boolean supportsUniqueConstraints;
 	protected boolean supportsGeneratedKeys;
+
+	/**
+	 * @since 4.1
+	 */
+	protected boolean supportsGeneratedKeysForBatchInserts;
+
+	/**
+	 * @since 4.1
+	 */
+	protected int maxIdQualifierSize = -1;
 	protected EJBQLTranslatorFactory ejbqlTranslatorFactory;
 
 	protected ResourceLocator resourceLocator;
@@ -105,6 +115,10 @@ public class JdbcAdapter implements DbAdapter {
 		this.resourceLocator = resourceLocator;
 
 		this.pkGenerator = createPkGenerator();
+		if (pkGenerator instanceof JdbcPkGenerator) {
+			((JdbcPkGenerator) pkGenerator).setPkMaxPrefetchBlocks(
+					runtimeProperties.getInt(Constants.PK_MAX_PREFETCH_BLOCKS_PROPERTY, 0));
+		}
 		this.quotingStrategy = createQuotingStrategy();
 
 		this.ejbqlTranslatorFactory = createEJBQLTranslatorFactory();
@@ -577,6 +591,36 @@ public class JdbcAdapter implements DbAdapter {
 		this.supportsGeneratedKeys = flag;
 	}
 
+	/**
+	 * @since 4.1
+	 */
+	@Override
+	public boolean supportsGeneratedKeysForBatchInserts() {
+		return supportsGeneratedKeysForBatchInserts;
+	}
+
+	/**
+	 * @since 4.1
+	 */
+	public void setSupportsGeneratedKeysForBatchInserts(boolean flag) {
+		this.supportsGeneratedKeysForBatchInserts = flag;
+	}
+
+	/**
+	 * @since 4.1
+	 */
+	@Override
+	public int getMaxIdQualifierSize() {
+		return maxIdQualifierSize;
+	}
+
+	/**
+	 * @since 4.1
+	 */
+	public void setMaxIdQualifierSize(int maxIdQualifierSize) {
+		this.maxIdQualifierSize = maxIdQualifierSize;
+	}
+
 	/**
 	 * Returns a translator factory for EJBQL to SQL translation. The factory is
 	 * normally initialized in constructor by calling
@@ -44,6 +44,10 @@ import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Default primary key generator implementation. Uses a lookup table named
@@ -59,6 +63,23 @@ public class JdbcPkGenerator implements PkGenerator {
 	protected int pkCacheSize = DEFAULT_PK_CACHE_SIZE;
 	protected long pkStartValue = DEFAULT_PK_START_VALUE;
 
+	/**
+	 * @since 4.1
+	 */
+	protected int pkMaxPrefetchBlocks;
+
+	/**
+	 * @since 4.1
+	 */
+	protected ConcurrentMap<String, PkBlockPool> pkPools = new ConcurrentHashMap<>();
+
+	private final ExecutorService prefetchExecutor = new ThreadPoolExecutor(0, 1, 30, TimeUnit.SECONDS,
+			new LinkedBlockingQueue<>(), r -> {
+				Thread thread = new Thread(r, "cayenne-pk-prefetch");
+				thread.setDaemon(true);
+				return thread;
+			});
+
 	public JdbcPkGenerator(JdbcAdapter adapter) {
 		this.adapter = adapter;
 	}
@@ -213,6 +234,8 @@ public class JdbcPkGenerator implements PkGenerator {
 		// if no caching, always generate fresh
 		if (cacheSize <= 1) {
 			value = longPkFromDatabase(node, entity);
+		} else if (pkMaxPrefetchBlocks > 0) {
+			value = pooledPk(node, entity, cacheSize);
 		} else {
 			Queue<Long> pks = pkCache.get(entity.getName());
 
@@ -242,6 +265,47 @@ public class JdbcPkGenerator implements PkGenerator {
 		}
 	}
 
+	/**
+	 * Takes a key from the entity key pool, refilling it from the database if
+	 * it is empty. Once the pool runs low, more blocks are fetched in the
+	 * background.
+	 */
+	private long pooledPk(DataNode node, DbEntity entity, long cacheSize) throws Exception {
+
+		PkBlockPool pool = pkPools.computeIfAbsent(entity.getName(),
+				name -> new PkBlockPool(cacheSize, pkMaxPrefetchBlocks));
+
+		long value = pool.poll();
+		if (value == PkBlockPool.NO_KEY) {
+			value = longPkFromDatabase(node, entity);
+			pool.add(value + 1, value + cacheSize);
+			pool.refilled();
+		}
+
+		if (pool.startPrefetch()) {
+			prefetchExecutor.execute(() -> prefetchPks(node, entity, pool));
+		}
+
+		return value;
+	}
+
+	private void prefetchPks(DataNode node, DbEntity entity, PkBlockPool pool) {
+		try {
+			int blocks = pool.getBlocks();
+			for (int i = 0; i < blocks; i++) {
+				pool.addBlock(longPkFromDatabase(node, entity));
+			}
+
+			pool.refilled();
+		} catch (Exception e) {
+			// the next caller that finds the pool empty will fetch keys
+			// synchronously and get a chance to see the error
+			adapter.getJdbcEventLogger().log("Error prefetching PKs for entity " + entity.getName() + ": " + e);
+		} finally {
+			pool.prefetchDone();
+		}
+	}
+
 	/**
 	 * Performs primary key generation ignoring cache. Generates a range of
 	 * primary keys as specified by "pkCacheSize" bean property.
@@ -293,6 +357,32 @@ public class JdbcPkGenerator implements PkGenerator {
 		this.pkCacheSize = (pkCacheSize < 1) ? 1 : pkCacheSize;
 	}
 
+	/**
+	 * Returns the maximum number of key blocks of "pkCacheSize" keys that can
+	 * be fetched ahead per entity. Zero (the default) means that adaptive
+	 * fetch-ahead is disabled, and a single block is fetched synchronously
+	 * once the cached keys are exhausted.
+	 *
+	 * @since 4.1
+	 */
+	public int getPkMaxPrefetchBlocks() {
+		return pkMaxPrefetchBlocks;
+	}
+
+	/**
+	 * Enables adaptive fetch-ahead of primary keys. When enabled, keys are
+	 * taken from a lock-free per-entity pool that is refilled in the
+	 * background before it runs out. The number of blocks fetched at once
+	 * grows with the rate of key allocation, up to "pkMaxPrefetchBlocks".
+	 * Note that keys fetched ahead are lost on application shutdown, leaving
+	 * gaps in the key sequence.
+	 *
+	 * @since 4.1
+	 */
+	public void setPkMaxPrefetchBlocks(int pkMaxPrefetchBlocks) {
+		this.pkMaxPrefetchBlocks = Math.max(0, pkMaxPrefetchBlocks);
+	}
+
 	long getPkStartValue() {
 		return pkStartValue;
 	}
@@ -303,6 +393,7 @@ public class JdbcPkGenerator implements PkGenerator {
 
 	public void reset() {
 		pkCache.clear();
+		pkPools.clear();
 	}
 
 	/**
@@ -0,0 +1,149 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.dba;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free pool of primary keys of a single entity, made of blocks of
+ * consecutive keys fetched from the database. Tracks how often the pool is
+ * refilled and adjusts the number of blocks fetched at once: the number doubles
+ * when blocks are used up faster than once a second and halves when a refill
+ * happens less often than every 30 seconds.
+ *
+ * @since 4.1
+ */
+class PkBlockPool {
+
+	static final long NO_KEY = Long.MIN_VALUE;
+
+	static final long GROW_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+	static final long SHRINK_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+	private final long blockSize;
+	private final int maxBlocks;
+	private final Queue<Range> ranges;
+	private final AtomicLong available;
+	private final AtomicBoolean prefetching;
+
+	private volatile int blocks;
+	private volatile long lastRefill;
+
+	PkBlockPool(long blockSize, int maxBlocks) {
+		this.blockSize = blockSize;
+		this.maxBlocks = Math.max(1, maxBlocks);
+		this.ranges = new ConcurrentLinkedQueue<>();
+		this.available = new AtomicLong();
+		this.prefetching = new AtomicBoolean();
+		this.blocks = 1;
+		this.lastRefill = System.nanoTime() - SHRINK_INTERVAL_NANOS;
+	}
+
+	/**
+	 * Returns the next available key or {@link #NO_KEY} if the pool is empty.
+	 */
+	long poll() {
+		Range range;
+		while ((range = ranges.peek()) != null) {
+			long value = range.next.getAndIncrement();
+			if (value < range.end) {
+				available.decrementAndGet();
+				return value;
+			}
+
+			// range is exhausted, unlink it unless another thread already did
+			ranges.remove(range);
+		}
+
+		return NO_KEY;
+	}
+
+	/**
+	 * Adds a range of keys from "start" (inclusive) to "end" (exclusive) to the
+	 * pool.
+	 */
+	void add(long start, long end) {
+		if (start < end) {
+			ranges.add(new Range(start, end));
+			available.addAndGet(end - start);
+		}
+	}
+
+	/**
+	 * Adds a whole block of keys starting at "start" to the pool.
+	 */
+	void addBlock(long start) {
+		add(start, start + blockSize);
+	}
+
+	/**
+	 * Records a refill and returns the number of blocks that should be fetched
+	 * from the database ahead of demand.
+	 */
+	int refilled() {
+		long now = System.nanoTime();
+		long elapsed = now - lastRefill;
+		lastRefill = now;
+
+		int current = blocks;
+		if (elapsed < GROW_INTERVAL_NANOS) {
+			blocks = Math.min(maxBlocks, current * 2);
+		} else if (elapsed > SHRINK_INTERVAL_NANOS) {
+			blocks = Math.max(1, current / 2);
+		}
+
+		return blocks;
+	}
+
+	/**
+	 * Returns true if the pool is running low on keys and no prefetch is
+	 * running. A successful call marks the pool as prefetching, the caller is
+	 * expected to call {@link #prefetchDone()} once the keys are added.
+	 */
+	boolean startPrefetch() {
+		return available.get() < (blockSize * blocks) / 2 && prefetching.compareAndSet(false, true);
+	}
+
+	void prefetchDone() {
+		prefetching.set(false);
+	}
+
+	long getAvailable() {
+		return available.get();
+	}
+
+	int getBlocks() {
+		return blocks;
+	}
+
+	static final class Range {
+
+		final AtomicLong next;
+		final long end;
+
+		Range(long start, long end) {
+			this.next = new AtomicLong(start);
+			this.end = end;
+		}
+	}
+}
@@ -69,6 +69,9 @@ public class FirebirdAdapter extends JdbcAdapter {
                 resourceLocator,
                 valueObjectTypeRegistry);
 	    setSupportsBatchUpdates(true);
+
+        // Firebird limits IN predicates to 1500 values
+        setMaxIdQualifierSize(1500);
     }
     
     protected void configureExtendedTypes(ExtendedTypeMap map) {
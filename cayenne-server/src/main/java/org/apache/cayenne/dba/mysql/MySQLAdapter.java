@@ -102,6 +102,7 @@ public class MySQLAdapter extends JdbcAdapter {
 		setSupportsBatchUpdates(true);
 		setSupportsUniqueConstraints(true);
 		setSupportsGeneratedKeys(true);
+		setSupportsGeneratedKeysForBatchInserts(true);
 	}
 
 	@Override
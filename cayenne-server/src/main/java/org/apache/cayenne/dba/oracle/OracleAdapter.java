@@ -168,6 +168,9 @@ public class OracleAdapter extends JdbcAdapter {
 
 		// enable batch updates by default
 		setSupportsBatchUpdates(true);
+
+		// ORA-01795: maximum number of expressions in a list is 1000
+		setMaxIdQualifierSize(1000);
 	}
 
 	/**
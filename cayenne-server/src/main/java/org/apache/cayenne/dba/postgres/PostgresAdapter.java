@@ -78,6 +78,10 @@ public class PostgresAdapter extends JdbcAdapter {
 		super(runtimeProperties, defaultExtendedTypes, userExtendedTypes, extendedTypeFactories, resourceLocator, valueObjectTypeRegistry);
 		setSupportsBatchUpdates(true);
 		setSupportsGeneratedKeys(true);
+		setSupportsGeneratedKeysForBatchInserts(true);
+
+		// the wire protocol limits bind parameters to 32767 per statement
+		setMaxIdQualifierSize(32767);
 	}
 
 	/**
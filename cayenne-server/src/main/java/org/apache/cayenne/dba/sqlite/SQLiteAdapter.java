@@ -73,6 +73,9 @@ public class SQLiteAdapter extends JdbcAdapter {
                 valueObjectTypeRegistry);
         this.setSupportsUniqueConstraints(false);
         this.setSupportsGeneratedKeys(true);
+
+        // default SQLITE_MAX_VARIABLE_NUMBER
+        this.setMaxIdQualifierSize(999);
     }
 
     @Override
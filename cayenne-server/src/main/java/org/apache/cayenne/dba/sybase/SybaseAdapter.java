@@ -64,6 +64,9 @@ public class SybaseAdapter extends JdbcAdapter {
         super(runtimeProperties, defaultExtendedTypes, userExtendedTypes, extendedTypeFactories, resourceLocator, valueObjectTypeRegistry);
         
 		this.setSupportsGeneratedKeys(true);
+
+		// both Sybase and SQLServer cap the number of parameters per statement at about 2000
+		this.setMaxIdQualifierSize(2000);
     }
 
     @Override
@@ -0,0 +1,115 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.event;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded lock-free queue for many producer threads and a single consumer
+ * thread. Producers claim a slot with a CAS on the tail counter and then publish
+ * the element into the slot; the consumer waits for a claimed slot to be
+ * published before taking it.
+ * 
+ * @since 4.1
+ */
+class BoundedMpscQueue<E> extends MpscQueue<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> buffer;
+    private final AtomicLong tail;
+    private final AtomicLong head;
+
+    BoundedMpscQueue(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+
+        // round up to a power of two, so that slot index is a simple mask
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+
+        this.capacity = capacity;
+        this.mask = size - 1;
+        this.buffer = new AtomicReferenceArray<>(size);
+        this.tail = new AtomicLong();
+        this.head = new AtomicLong();
+    }
+
+    @Override
+    boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException("Null element");
+        }
+
+        long t;
+        do {
+            t = tail.get();
+            if (t - head.get() >= capacity) {
+                return false;
+            }
+        } while (!tail.compareAndSet(t, t + 1));
+
+        buffer.lazySet((int) (t & mask), element);
+        return true;
+    }
+
+    @Override
+    E poll() {
+        long h = head.get();
+        int index = (int) (h & mask);
+
+        E element = buffer.get(index);
+        if (element == null) {
+            if (h == tail.get()) {
+                return null;
+            }
+
+            // the slot is claimed by a producer, but not published yet
+            do {
+                Thread.yield();
+                element = buffer.get(index);
+            } while (element == null);
+        }
+
+        buffer.lazySet(index, null);
+        head.lazySet(h + 1);
+        return element;
+    }
+
+    @Override
+    boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+
+    @Override
+    int size() {
+        // read head first, so that the difference is never negative
+        long h = head.get();
+        return (int) Math.max(0, Math.min(capacity, tail.get() - h));
+    }
+
+    @Override
+    int capacity() {
+        return capacity;
+    }
+}
@@ -19,32 +19,53 @@
 package org.apache.cayenne.event;
 
 import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.configuration.RuntimeProperties;
 import org.apache.cayenne.di.BeforeScopeEnd;
+import org.apache.cayenne.di.Inject;
 import org.apache.cayenne.util.Invocation;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EventObject;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * A default implementation of {@link EventManager}.
+ * <p>
+ * Non-blocking events are dispatched by a pool of threads, each owning a
+ * lock-free queue. Events are assigned to a thread by their subject, and
+ * single-listener dispatches are assigned by their listener, so events of a given
+ * subject reach each listener in the order they were posted. Dispatch threads take events from
+ * their queues in batches, looking up subject listeners once per batch. By default the
+ * queues are unbounded. With a bounded {@link EventQueueOverflowPolicy}, when a queue
+ * is full, the policy decides whether the posting thread waits, the event is dropped
+ * or dispatched by the posting thread.
+ * </p>
  * 
  * @since 3.1
  */
 public class DefaultEventManager implements EventManager {
 
     static final int DEFAULT_DISPATCH_THREAD_COUNT = 5;
+    static final int DEFAULT_QUEUE_CAPACITY = 8192;
+    static final int DISPATCH_BATCH_SIZE = 64;
+
+    private static final long OVERFLOW_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long IDLE_WAIT_NANOS = TimeUnit.SECONDS.toNanos(1);
 
     // keeps weak references to subjects
     protected Map<EventSubject, DispatchQueue> subjects;
-    protected List<Dispatch> eventQueue;
     protected boolean singleThread;
     protected volatile boolean stopped;
-    List<DispatchThread> dispatchThreads;
+    DispatchThread[] dispatchThreads;
+    EventQueueOverflowPolicy overflowPolicy;
+    EventManagerMetrics metrics;
 
     /**
      * Creates a multithreaded EventManager using default thread count.
@@ -53,34 +74,111 @@ public class DefaultEventManager implements EventManager {
         this(DEFAULT_DISPATCH_THREAD_COUNT);
     }
 
+    /**
+     * Creates an EventManager configured from runtime properties.
+     * 
+     * @see Constants#EVENT_DISPATCH_THREADS_PROPERTY
+     * @see Constants#EVENT_QUEUE_CAPACITY_PROPERTY
+     * @see Constants#EVENT_OVERFLOW_POLICY_PROPERTY
+     * @since 4.1
+     */
+    public DefaultEventManager(@Inject RuntimeProperties runtimeProperties) {
+        this(runtimeProperties.getInt(Constants.EVENT_DISPATCH_THREADS_PROPERTY, DEFAULT_DISPATCH_THREAD_COUNT),
+                runtimeProperties.getInt(Constants.EVENT_QUEUE_CAPACITY_PROPERTY, DEFAULT_QUEUE_CAPACITY),
+                overflowPolicy(runtimeProperties.get(Constants.EVENT_OVERFLOW_POLICY_PROPERTY)));
+    }
+
     /**
      * Creates an EventManager starting the specified number of threads for multithreaded
      * dispatching. To create a single-threaded EventManager, use thread count of zero or
      * less.
      */
     public DefaultEventManager(int dispatchThreadCount) {
+        this(dispatchThreadCount, DEFAULT_QUEUE_CAPACITY, EventQueueOverflowPolicy.GROW);
+    }
+
+    /**
+     * Creates an EventManager starting the specified number of threads for multithreaded
+     * dispatching, each with a queue of the specified capacity. The capacity is ignored
+     * with {@link EventQueueOverflowPolicy#GROW} policy, that makes the queues unbounded.
+     * To create a single-threaded EventManager, use thread count of zero or less.
+     * 
+     * @since 4.1
+     */
+    public DefaultEventManager(int dispatchThreadCount, int queueCapacity, EventQueueOverflowPolicy overflowPolicy) {
         this.subjects = Collections
                 .synchronizedMap(new WeakHashMap<EventSubject, DispatchQueue>());
-        this.eventQueue = Collections.synchronizedList(new LinkedList<Dispatch>());
         this.singleThread = dispatchThreadCount <= 0;
+        this.overflowPolicy = overflowPolicy != null ? overflowPolicy : EventQueueOverflowPolicy.GROW;
+        this.metrics = new EventManagerMetrics(this);
 
         if (!singleThread) {
-            dispatchThreads = new ArrayList<>(dispatchThreadCount);
+
+            if (this.overflowPolicy != EventQueueOverflowPolicy.GROW && queueCapacity <= 0) {
+                throw new IllegalArgumentException("Event queue capacity must be positive: " + queueCapacity);
+            }
+
+            dispatchThreads = new DispatchThread[dispatchThreadCount];
 
             String prefix = "cayenne-event-";
 
             // start dispatch threads
             for (int i = 0; i < dispatchThreadCount; i++) {
-                DispatchThread thread = new DispatchThread(prefix + i);
-                dispatchThreads.add(thread);
+                MpscQueue<Dispatch> queue = this.overflowPolicy == EventQueueOverflowPolicy.GROW
+                        ? new UnboundedMpscQueue<Dispatch>()
+                        : new BoundedMpscQueue<Dispatch>(queueCapacity);
+                DispatchThread thread = new DispatchThread(prefix + i, queue);
+                dispatchThreads[i] = thread;
                 thread.start();
             }
         }
         else {
-            dispatchThreads = Collections.emptyList();
+            dispatchThreads = new DispatchThread[0];
         }
     }
 
+    private static EventQueueOverflowPolicy overflowPolicy(String name) {
+        return name != null
+                ? EventQueueOverflowPolicy.valueOf(name.trim().toUpperCase())
+                : EventQueueOverflowPolicy.GROW;
+    }
+
+    /**
+     * Returns non-blocking event dispatch statistics of this EventManager.
+     * 
+     * @since 4.1
+     */
+    public EventManagerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @since 4.1
+     */
+    public EventQueueOverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    int queueDepth() {
+        int depth = 0;
+        for (DispatchThread thread : dispatchThreads) {
+            depth += thread.queue.size();
+        }
+        return depth;
+    }
+
+    int queueCapacity() {
+        int capacity = 0;
+        for (DispatchThread thread : dispatchThreads) {
+            if (thread.queue.capacity() < 0) {
+                return -1;
+            }
+
+            capacity += thread.queue.capacity();
+        }
+        return capacity;
+    }
+
     /**
      * Returns true if the EventManager was stopped via {@link #shutdown()} method.
      * 
@@ -115,10 +213,8 @@ public class DefaultEventManager implements EventManager {
             this.stopped = true;
 
             for (DispatchThread thread : dispatchThreads) {
-                thread.interrupt();
+                LockSupport.unpark(thread);
             }
-
-            dispatchThreads.clear();
         }
     }
 
@@ -327,9 +423,62 @@ public class DefaultEventManager implements EventManager {
         }
 
         // add dispatch to the queue and return
-        synchronized (eventQueue) {
-            eventQueue.add(new Dispatch(event, subject));
-            eventQueue.notifyAll();
+        enqueue(new Dispatch(event, subject), subject);
+    }
+
+    /**
+     * Places a dispatch in the queue of the dispatch thread selected by the routing
+     * key, applying the overflow policy if the queue is full.
+     */
+    void enqueue(Dispatch dispatch, Object routingKey) {
+        if (stopped) {
+            return;
+        }
+
+        int hash = routingKey.hashCode();
+        hash ^= (hash >>> 16);
+        DispatchThread thread = dispatchThreads[(hash & Integer.MAX_VALUE) % dispatchThreads.length];
+
+        dispatch.postedAt = System.nanoTime();
+        if (thread.offer(dispatch)) {
+            metrics.eventQueued();
+            return;
+        }
+
+        // the queue is full... a dispatch thread posting an event must never wait for
+        // the queues, as it may end up waiting for itself
+        if (overflowPolicy == EventQueueOverflowPolicy.CALLER_RUNS
+                || (overflowPolicy == EventQueueOverflowPolicy.BLOCK
+                        && Thread.currentThread() instanceof DispatchThread)) {
+            metrics.eventRunByCaller();
+            fireQuietly(dispatch);
+            return;
+        }
+
+        if (overflowPolicy == EventQueueOverflowPolicy.DROP) {
+            metrics.eventDropped();
+            return;
+        }
+
+        while (!thread.offer(dispatch)) {
+            if (stopped) {
+                return;
+            }
+
+            LockSupport.parkNanos(this, OVERFLOW_WAIT_NANOS);
+        }
+
+        metrics.eventQueued();
+    }
+
+    void fireQuietly(Dispatch dispatch) {
+        // this try/catch is needed to prevent DispatchThread
+        // from dying on dispatch errors
+        try {
+            dispatch.fire();
+        }
+        catch (Throwable th) {
+            // ignoring exception
         }
     }
 
@@ -357,6 +506,7 @@ public class DefaultEventManager implements EventManager {
 
         EventObject[] eventArgument;
         EventSubject subject;
+        long postedAt;
 
         Dispatch(EventObject event, EventSubject subject) {
             this(new EventObject[] {
@@ -377,6 +527,13 @@ public class DefaultEventManager implements EventManager {
             DefaultEventManager.this.dispatchEvent(Dispatch.this);
         }
 
+        // fires the event with subject listeners that were already looked up
+        void fire(DispatchQueue dispatchQueue) {
+            if (dispatchQueue != null) {
+                dispatchQueue.dispatchEvent(this);
+            }
+        }
+
         boolean fire(Invocation invocation) {
             if (invocation instanceof NonBlockingInvocation) {
 
@@ -385,14 +542,10 @@ public class DefaultEventManager implements EventManager {
                     return false;
                 }
 
-                // inject single invocation dispatch into the queue
-                synchronized (eventQueue) {
-                    eventQueue.add(new InvocationDispatch(
-                            eventArgument,
-                            subject,
-                            invocation));
-                    eventQueue.notifyAll();
-                }
+                // inject single invocation dispatch into the queue of the thread
+                // that handles this listener
+                enqueue(new InvocationDispatch(eventArgument, subject, invocation),
+                        System.identityHashCode(invocation));
 
                 return true;
             }
@@ -419,6 +572,11 @@ public class DefaultEventManager implements EventManager {
             // so don't check for status
             target.fire(eventArgument);
         }
+
+        @Override
+        void fire(DispatchQueue dispatchQueue) {
+            fire();
+        }
     }
 
     // subclass exists only to tag invocations that should be
@@ -433,45 +591,93 @@ public class DefaultEventManager implements EventManager {
 
     final class DispatchThread extends Thread {
 
-        DispatchThread(String name) {
+        final MpscQueue<Dispatch> queue;
+        volatile boolean waiting;
+
+        DispatchThread(String name, MpscQueue<Dispatch> queue) {
             super(name);
             setDaemon(true);
+            this.queue = queue;
+        }
+
+        boolean offer(Dispatch dispatch) {
+            if (!queue.offer(dispatch)) {
+                return false;
+            }
+
+            if (waiting) {
+                LockSupport.unpark(this);
+            }
+
+            return true;
         }
 
         @Override
         public void run() {
+
+            List<Dispatch> batch = new ArrayList<>(DISPATCH_BATCH_SIZE);
+            Map<EventSubject, List<Dispatch>> bySubject = new LinkedHashMap<>();
+
             while (!stopped) {
 
-                // get event from the queue, if the queue
-                // is empty, just wait
-                Dispatch dispatch = null;
+                if (queue.drainTo(batch, DISPATCH_BATCH_SIZE) == 0) {
 
-                synchronized (DefaultEventManager.this.eventQueue) {
-                    if (DefaultEventManager.this.eventQueue.size() > 0) {
-                        dispatch = DefaultEventManager.this.eventQueue.remove(0);
+                    // the queue is empty, wait... the flag must be set before the
+                    // last check of the queue, so that producers never miss it
+                    waiting = true;
+                    if (queue.isEmpty() && !stopped) {
+                        LockSupport.parkNanos(this, IDLE_WAIT_NANOS);
                     }
-                    else {
+                    waiting = false;
+                    continue;
+                }
+
+                metrics.batchDispatched();
+
+                // group the batch by subject, preserving the order of events within
+                // each subject
+                for (Dispatch dispatch : batch) {
+                    List<Dispatch> dispatches = bySubject.get(dispatch.subject);
+                    if (dispatches == null) {
+                        dispatches = new ArrayList<>(4);
+                        bySubject.put(dispatch.subject, dispatches);
+                    }
+                    dispatches.add(dispatch);
+                }
+
+                batch.clear();
+
+                for (Map.Entry<EventSubject, List<Dispatch>> entry : bySubject.entrySet()) {
+
+                    // subject listeners are looked up once per batch and only if
+                    // needed, single-listener dispatches do not use them
+                    DispatchQueue dispatchQueue = null;
+                    boolean resolved = false;
+
+                    for (Dispatch dispatch : entry.getValue()) {
+                        if (stopped) {
+                            break;
+                        }
+
+                        if (!resolved && !(dispatch instanceof InvocationDispatch)) {
+                            dispatchQueue = dispatchQueueForSubject(entry.getKey(), false);
+                            resolved = true;
+                        }
+
+                        metrics.eventDispatched(System.nanoTime() - dispatch.postedAt);
+
+                        // this try/catch is needed to prevent DispatchThread
+                        // from dying on dispatch errors
                         try {
-                            // wake up occasionally to check whether EM has been stopped
-                            DefaultEventManager.this.eventQueue.wait(3 * 60 * 1000);
+                            dispatch.fire(dispatchQueue);
                         }
-                        catch (InterruptedException e) {
-                            // ignore interrupts...
+                        catch (Throwable th) {
+                            // ignoring exception
                         }
                     }
                 }
 
-                // dispatch outside of synchronized block
-                if (!stopped && dispatch != null) {
-                    // this try/catch is needed to prevent DispatchThread
-                    // from dying on dispatch errors
-                    try {
-                        dispatch.fire();
-                    }
-                    catch (Throwable th) {
-                        // ignoring exception
-                    }
-                }
+                bySubject.clear();
             }
         }
     }
@@ -0,0 +1,138 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.event;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A live view of the non-blocking event dispatch statistics of a
+ * {@link DefaultEventManager}, obtained from
+ * {@link DefaultEventManager#getMetrics()}. Counters are cumulative since the
+ * EventManager startup. Dispatch latency is the time between posting an event
+ * and the start of its dispatch.
+ * 
+ * @since 4.1
+ */
+public class EventManagerMetrics {
+
+    private DefaultEventManager eventManager;
+    private LongAdder queued;
+    private LongAdder dispatched;
+    private LongAdder dropped;
+    private LongAdder callerRuns;
+    private LongAdder batches;
+    private LongAdder latencyNanos;
+    private AtomicLong maxLatencyNanos;
+
+    EventManagerMetrics(DefaultEventManager eventManager) {
+        this.eventManager = eventManager;
+        this.queued = new LongAdder();
+        this.dispatched = new LongAdder();
+        this.dropped = new LongAdder();
+        this.callerRuns = new LongAdder();
+        this.batches = new LongAdder();
+        this.latencyNanos = new LongAdder();
+        this.maxLatencyNanos = new AtomicLong();
+    }
+
+    void eventQueued() {
+        queued.increment();
+    }
+
+    void eventDispatched(long latency) {
+        dispatched.increment();
+        latencyNanos.add(latency);
+
+        long max;
+        while (latency > (max = maxLatencyNanos.get())) {
+            if (maxLatencyNanos.compareAndSet(max, latency)) {
+                break;
+            }
+        }
+    }
+
+    void eventDropped() {
+        dropped.increment();
+    }
+
+    void eventRunByCaller() {
+        callerRuns.increment();
+    }
+
+    void batchDispatched() {
+        batches.increment();
+    }
+
+    /**
+     * Returns the number of events currently waiting in the dispatch queues.
+     */
+    public int getQueueDepth() {
+        return eventManager.queueDepth();
+    }
+
+    /**
+     * Returns the total capacity of the dispatch queues, or -1 if the queues are
+     * unbounded.
+     */
+    public int getQueueCapacity() {
+        return eventManager.queueCapacity();
+    }
+
+    public long getQueuedEvents() {
+        return queued.sum();
+    }
+
+    public long getDispatchedEvents() {
+        return dispatched.sum();
+    }
+
+    /**
+     * Returns the number of events discarded because the queue was full.
+     */
+    public long getDroppedEvents() {
+        return dropped.sum();
+    }
+
+    /**
+     * Returns the number of events dispatched in the posting thread because
+     * the queue was full.
+     */
+    public long getCallerRunsEvents() {
+        return callerRuns.sum();
+    }
+
+    /**
+     * Returns the number of batches taken from the queues by the dispatch
+     * threads.
+     */
+    public long getDispatchedBatches() {
+        return batches.sum();
+    }
+
+    public long getAverageDispatchLatency(TimeUnit unit) {
+        long count = dispatched.sum();
+        return count > 0 ? unit.convert(latencyNanos.sum() / count, TimeUnit.NANOSECONDS) : 0;
+    }
+
+    public long getMaxDispatchLatency(TimeUnit unit) {
+        return unit.convert(maxLatencyNanos.get(), TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,63 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.event;
+
+/**
+ * Defines what {@link DefaultEventManager} does with a non-blocking event when
+ * the dispatch queue is full. All policies except {@link #GROW} make the
+ * dispatch queues bounded.
+ * 
+ * @since 4.1
+ */
+public enum EventQueueOverflowPolicy {
+
+    /**
+     * Dispatch queues are unbounded, so posting never waits and no events are
+     * lost. This is the default, matching the behavior of earlier versions.
+     */
+    GROW,
+
+    /**
+     * Posting thread waits until there is room in the queue.
+     * <p>
+     * <b>Warning:</b> Cayenne posts events while holding locks, e.g. an
+     * ObjectStore posts snapshot changes from within its synchronized methods,
+     * and the ObjectStores listening to those events lock themselves in the
+     * dispatch thread. If a posting thread holds a lock that a listener blocked
+     * in a full queue's dispatch thread is waiting for, the two threads
+     * deadlock. Only use this policy if no listener can take locks held by
+     * posting threads.
+     */
+    BLOCK,
+
+    /**
+     * Event is discarded. Discarded events are counted in
+     * {@link EventManagerMetrics#getDroppedEvents()}.
+     */
+    DROP,
+
+    /**
+     * Event is dispatched synchronously in the posting thread.
+     * <p>
+     * <b>Warning:</b> listeners run with whatever locks the posting thread
+     * holds, which may lead to deadlocks caused by inconsistent lock order
+     * between contexts.
+     */
+    CALLER_RUNS
+}
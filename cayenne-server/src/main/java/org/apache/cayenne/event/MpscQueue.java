@@ -0,0 +1,67 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.event;
+
+import java.util.List;
+
+/**
+ * A queue for many producer threads and a single consumer thread, used by
+ * {@link DefaultEventManager} dispatch threads.
+ * 
+ * @since 4.1
+ */
+abstract class MpscQueue<E> {
+
+    /**
+     * Adds an element to the queue, returning false if the queue is full. Can
+     * be called from any thread.
+     */
+    abstract boolean offer(E element);
+
+    /**
+     * Takes the next element from the queue or returns null if the queue is
+     * empty. Must only be called from the consumer thread.
+     */
+    abstract E poll();
+
+    abstract boolean isEmpty();
+
+    abstract int size();
+
+    /**
+     * Returns the max number of elements in the queue, or -1 if the queue is
+     * unbounded.
+     */
+    abstract int capacity();
+
+    /**
+     * Moves up to "max" elements into the provided list, returning the number
+     * of elements moved. Must only be called from the consumer thread.
+     */
+    int drainTo(List<? super E> list, int max) {
+        int i = 0;
+        E element;
+        while (i < max && (element = poll()) != null) {
+            list.add(element);
+            i++;
+        }
+
+        return i;
+    }
+}
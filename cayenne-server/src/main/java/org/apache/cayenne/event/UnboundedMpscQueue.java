@@ -0,0 +1,78 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.event;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An unbounded lock-free queue for many producer threads and a single consumer
+ * thread. Offering an element never fails.
+ * 
+ * @since 4.1
+ */
+class UnboundedMpscQueue<E> extends MpscQueue<E> {
+
+    private final Queue<E> queue;
+
+    // ConcurrentLinkedQueue.size() is not a constant time operation
+    private final AtomicInteger size;
+
+    UnboundedMpscQueue() {
+        this.queue = new ConcurrentLinkedQueue<>();
+        this.size = new AtomicInteger();
+    }
+
+    @Override
+    boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException("Null element");
+        }
+
+        queue.offer(element);
+        size.incrementAndGet();
+        return true;
+    }
+
+    @Override
+    E poll() {
+        E element = queue.poll();
+        if (element != null) {
+            size.decrementAndGet();
+        }
+
+        return element;
+    }
+
+    @Override
+    boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    @Override
+    int size() {
+        return Math.max(0, size.get());
+    }
+
+    @Override
+    int capacity() {
+        return -1;
+    }
+}
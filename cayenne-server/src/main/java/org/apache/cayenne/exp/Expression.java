@@ -34,6 +34,7 @@ import java.util.function.Function;
 import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.configuration.ConfigurationNodeVisitor;
 import org.apache.cayenne.exp.parser.ASTScalar;
+import org.apache.cayenne.exp.parser.CompiledExpression;
 import org.apache.cayenne.util.ConversionUtil;
 import org.apache.cayenne.util.HashCodeBuilder;
 import org.apache.cayenne.util.Util;
@@ -440,6 +441,17 @@ public abstract class Expression implements Serializable, XMLSerializable {
 		return ConversionUtil.toBoolean(evaluate(o));
 	}
 
+	/**
+	 * Compiles this expression into an evaluator that can be reused for fast
+	 * in-memory matching of many objects. The returned object is thread-safe
+	 * and doesn't reflect changes made to this expression after compilation.
+	 * 
+	 * @since 4.1
+	 */
+	public CompiledExpression compile() {
+		return CompiledExpression.compile(this);
+	}
+
 	/**
 	 * Returns the first object in the list that matches the expression.
 	 * 
@@ -474,6 +486,10 @@ public abstract class Expression implements Serializable, XMLSerializable {
 	 * @since 1.1
 	 */
 	public <T> Collection<?> filter(Collection<T> source, Collection<T> target) {
+		if (source.size() > 1) {
+			return compile().filter(source, target);
+		}
+
 		for (T o : source) {
 			if (match(o)) {
 				target.add(o);
@@ -56,6 +56,7 @@ import org.apache.cayenne.exp.parser.ASTPath;
 import org.apache.cayenne.exp.parser.ASTScalar;
 import org.apache.cayenne.exp.parser.ASTSubtract;
 import org.apache.cayenne.exp.parser.ASTTrue;
+import org.apache.cayenne.exp.parser.ExpressionParseCache;
 import org.apache.cayenne.exp.parser.ExpressionParser;
 import org.apache.cayenne.exp.parser.ExpressionParserTokenManager;
 import org.apache.cayenne.exp.parser.JavaCharStream;
@@ -89,6 +90,16 @@ public class ExpressionFactory {
 
 	private static final int PARSE_BUFFER_MAX_SIZE = 4096;
 
+	/**
+	 * Default maximum number of parsed expression strings cached by
+	 * {@link #exp(String, Object...)}.
+	 * 
+	 * @since 4.1
+	 */
+	public static final int DEFAULT_PARSE_CACHE_SIZE = 1000;
+
+	private static final ExpressionParseCache PARSE_CACHE = new ExpressionParseCache(DEFAULT_PARSE_CACHE_SIZE);
+
 	static {
 
 		// make sure all types are small integers, then we can use
@@ -1307,6 +1318,17 @@ public class ExpressionFactory {
 		return e;
 	}
 
+	/**
+	 * Returns a shared cache of parsed expressions used by
+	 * {@link #exp(String, Object...)}. Can be used to check the cache
+	 * statistics or to change its size (0 disables caching).
+	 * 
+	 * @since 4.1
+	 */
+	public static ExpressionParseCache getParseCache() {
+		return PARSE_CACHE;
+	}
+
 	/**
 	 * Wrap value into ASTScalar
 	 * @since 4.0
@@ -1327,6 +1349,11 @@ public class ExpressionFactory {
 			throw new NullPointerException("Null expression string.");
 		}
 
+		return PARSE_CACHE.parse(expressionString, ExpressionFactory::parse);
+	}
+
+	private static Expression parse(String expressionString) {
+
 		// optimizing parser buffers per CAY-1667...
 		// adding 1 extra char to the buffer size above the String length, as
 		// otherwise resizing still occurs at the end of the stream
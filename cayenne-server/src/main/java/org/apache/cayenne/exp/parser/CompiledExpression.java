@@ -0,0 +1,139 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.exp.parser;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.exp.ExpressionException;
+import org.apache.cayenne.util.ConversionUtil;
+import org.apache.cayenne.util.Util;
+
+/**
+ * An immutable in-memory evaluator of an {@link Expression}, produced by
+ * {@link Expression#compile()}. Produces the same results as
+ * {@link Expression#evaluate(Object)}, but does path resolution and pattern
+ * preprocessing once, so it is a better choice when the same expression is
+ * matched against many objects. Compiled expressions are thread-safe and can
+ * be cached and reused. Changes made to the expression after it was
+ * compiled are not reflected in the compiled form.
+ * 
+ * @since 4.1
+ */
+public class CompiledExpression implements Predicate<Object> {
+
+	private final Expression expression;
+	private final ExpressionCompiler.Operand operand;
+
+	/**
+	 * Compiles the expression into an evaluator.
+	 */
+	public static CompiledExpression compile(Expression expression) {
+		if (expression == null) {
+			throw new NullPointerException("Null expression");
+		}
+
+		return new CompiledExpression(expression, ExpressionCompiler.compile(expression));
+	}
+
+	CompiledExpression(Expression expression, ExpressionCompiler.Operand operand) {
+		this.expression = expression;
+		this.operand = operand;
+	}
+
+	/**
+	 * Returns the expression this evaluator was compiled from.
+	 */
+	public Expression getExpression() {
+		return expression;
+	}
+
+	/**
+	 * Calculates expression value with object as a context for path
+	 * expressions.
+	 */
+	public Object evaluate(Object o) {
+		try {
+			return operand.evaluate(o);
+		} catch (Throwable th) {
+			String string = expression.toString();
+			throw new ExpressionException("Error evaluating expression '%s'", string, Util.unwindException(th),
+					string);
+		}
+	}
+
+	/**
+	 * Calculates expression boolean value with object as a context for path
+	 * expressions.
+	 */
+	public boolean match(Object o) {
+		return ConversionUtil.toBoolean(evaluate(o));
+	}
+
+	@Override
+	public boolean test(Object o) {
+		return match(o);
+	}
+
+	/**
+	 * Returns the first object in the list that matches the expression.
+	 */
+	public <T> T first(List<T> objects) {
+		for (T o : objects) {
+			if (match(o)) {
+				return o;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns a list of objects that match the expression.
+	 */
+	public <T> List<T> filterObjects(Collection<T> objects) {
+		List<T> result = new ArrayList<>();
+		if (objects != null) {
+			filter(objects, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Adds objects matching this expression from the source collection to the
+	 * target collection.
+	 */
+	public <T> Collection<T> filter(Collection<T> source, Collection<T> target) {
+		for (T o : source) {
+			if (match(o)) {
+				target.add(o);
+			}
+		}
+
+		return target;
+	}
+
+	@Override
+	public String toString() {
+		return expression.toString();
+	}
+}
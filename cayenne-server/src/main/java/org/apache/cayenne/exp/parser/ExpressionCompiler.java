@@ -0,0 +1,398 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.exp.parser;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+
+import org.apache.cayenne.BaseDataObject;
+import org.apache.cayenne.Cayenne;
+import org.apache.cayenne.DataObject;
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.map.Entity;
+import org.apache.cayenne.reflect.Accessor;
+import org.apache.cayenne.reflect.PropertyUtils;
+import org.apache.cayenne.util.ConversionUtil;
+
+/**
+ * Converts an expression tree into a tree of evaluators that perform the same
+ * calculation as {@link SimpleNode#evaluate(Object)} without repeated
+ * per-node work. Object paths are split into segments and resolved to cached
+ * accessors, simple LIKE patterns are matched without regular expressions,
+ * and per-node exception wrapping is replaced by a single wrapper in
+ * {@link CompiledExpression}. Nodes that have no compiled form are evaluated
+ * by the interpreter.
+ * 
+ * @since 4.1
+ */
+final class ExpressionCompiler {
+
+	/**
+	 * A compiled expression node.
+	 */
+	interface Operand {
+
+		Object evaluate(Object o) throws Exception;
+	}
+
+	/**
+	 * A compiled form of {@link ConditionNode#evaluateSubNode(Object, Object[])}.
+	 */
+	interface Condition {
+
+		Boolean evaluate(Object o, Object[] evaluatedChildren) throws Exception;
+	}
+
+	private static final String REGEX_SPECIAL_CHARS = "?*\\|+()[]{}";
+
+	private static final ClassValue<Boolean> IS_DATA_OBJECT = new ClassValue<Boolean>() {
+
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			return DataObject.class.isAssignableFrom(type);
+		}
+	};
+
+	private ExpressionCompiler() {
+	}
+
+	static Operand compile(Expression expression) {
+		if (expression == null) {
+			return o -> null;
+		}
+
+		if (!(expression instanceof SimpleNode) || !isCayenneNode(expression)) {
+			return expression::evaluate;
+		}
+
+		SimpleNode node = (SimpleNode) expression;
+
+		if (node.getClass() == ASTScalar.class) {
+			Object value = ((ASTScalar) node).getValue();
+			return o -> value;
+		} else if (node.getClass() == ASTList.class) {
+			Object values = ((ASTList) node).values;
+			return o -> values;
+		} else if (node.getClass() == ASTObjPath.class) {
+			return compileObjPath((ASTObjPath) node);
+		} else if (node.getClass() == ASTAnd.class) {
+			return compileAnd(node);
+		} else if (node.getClass() == ASTOr.class) {
+			return compileOr(node);
+		} else if (node.getClass() == ASTNot.class) {
+			return compileNot(node);
+		} else if (node instanceof ConditionNode) {
+			return compileCondition((ConditionNode) node);
+		}
+
+		return node::evaluateNode;
+	}
+
+	// nodes from other packages may override evaluation in ways we can't
+	// reproduce
+	private static boolean isCayenneNode(Expression expression) {
+		return expression.getClass().getPackage() == ExpressionCompiler.class.getPackage();
+	}
+
+	private static Operand[] compileChildren(SimpleNode node) {
+		int len = node.jjtGetNumChildren();
+		Operand[] children = new Operand[len];
+		for (int i = 0; i < len; i++) {
+			children[i] = compile((Expression) node.jjtGetChild(i));
+		}
+		return children;
+	}
+
+	private static Operand compileAnd(SimpleNode node) {
+		Operand[] children = compileChildren(node);
+		if (children.length == 0) {
+			return o -> Boolean.FALSE;
+		}
+
+		return o -> {
+			boolean unknown = false;
+			for (Operand child : children) {
+				Object value = child.evaluate(o);
+				if (value == null) {
+					unknown = true;
+				} else if (!ConversionUtil.toBoolean(value)) {
+					return Boolean.FALSE;
+				}
+			}
+
+			return unknown ? null : Boolean.TRUE;
+		};
+	}
+
+	private static Operand compileOr(SimpleNode node) {
+		Operand[] children = compileChildren(node);
+		if (children.length == 0) {
+			return o -> Boolean.FALSE;
+		}
+
+		return o -> {
+			boolean unknown = false;
+			for (Operand child : children) {
+				Object value = child.evaluate(o);
+				if (value == null) {
+					unknown = true;
+				} else if (ConversionUtil.toBoolean(value)) {
+					return Boolean.TRUE;
+				}
+			}
+
+			return unknown ? null : Boolean.FALSE;
+		};
+	}
+
+	private static Operand compileNot(SimpleNode node) {
+		Operand[] children = compileChildren(node);
+		if (children.length == 0) {
+			return o -> Boolean.FALSE;
+		}
+
+		Operand child = children[0];
+		return o -> {
+			Object value = child.evaluate(o);
+			if (value == null) {
+				return null;
+			}
+
+			return ConversionUtil.toBoolean(value) ? Boolean.FALSE : Boolean.TRUE;
+		};
+	}
+
+	/**
+	 * Reproduces {@link ConditionNode#evaluateNode(Object)} on top of compiled
+	 * children.
+	 */
+	private static Operand compileCondition(ConditionNode node) {
+		int requiredLen = node.getRequiredChildrenCount();
+		if (node.jjtGetNumChildren() != requiredLen) {
+			return o -> Boolean.FALSE;
+		}
+
+		Condition condition = compileSubNode(node);
+		if (requiredLen == 0) {
+			return o -> condition.evaluate(null, null);
+		}
+
+		Operand[] children = compileChildren(node);
+		return o -> {
+			Object[] evaluatedChildren = new Object[requiredLen];
+			for (int i = 0; i < requiredLen; i++) {
+				evaluatedChildren[i] = children[i].evaluate(o);
+			}
+
+			Object firstChild = evaluatedChildren[0];
+			if (isScalar(firstChild)) {
+				return condition.evaluate(firstChild, evaluatedChildren);
+			}
+
+			// don't care here for keys
+			if (firstChild instanceof Map) {
+				firstChild = ((Map<?, ?>) firstChild).values();
+			}
+
+			if (firstChild instanceof Collection) {
+				for (Object c : (Collection<?>) firstChild) {
+					if (condition.evaluate(c, evaluatedChildren) == Boolean.TRUE) {
+						return Boolean.TRUE;
+					}
+				}
+				return Boolean.FALSE;
+			}
+
+			return condition.evaluate(firstChild, evaluatedChildren);
+		};
+	}
+
+	// a failed instanceof check against an interface is relatively expensive,
+	// so common value types are recognized by class before checking for
+	// collections
+	private static boolean isScalar(Object value) {
+		return value == null || value instanceof String || value instanceof Number || value instanceof Date
+				|| value instanceof Boolean || value instanceof Enum;
+	}
+
+	private static Condition compileSubNode(ConditionNode node) {
+		Class<?> type = node.getClass();
+		if (type == ASTLike.class || type == ASTLikeIgnoreCase.class) {
+			Condition condition = compilePatternMatch((PatternMatchNode) node, false);
+			if (condition != null) {
+				return condition;
+			}
+		} else if (type == ASTNotLike.class || type == ASTNotLikeIgnoreCase.class) {
+			Condition condition = compilePatternMatch((PatternMatchNode) node, true);
+			if (condition != null) {
+				return condition;
+			}
+		}
+
+		return node::evaluateSubNode;
+	}
+
+	/**
+	 * Returns a matcher for patterns that only have wildcards at the start
+	 * and/or at the end, or null if the pattern must be matched as a regular
+	 * expression. The result is the same as the one of the regex produced by
+	 * {@link org.apache.cayenne.util.Util#sqlPatternToPattern(String, boolean)}.
+	 */
+	private static Condition compilePatternMatch(PatternMatchNode node, boolean negated) {
+		Object child = node.jjtGetChild(1);
+		if (!(child instanceof ASTScalar) || !(((ASTScalar) child).getValue() instanceof String)) {
+			return null;
+		}
+
+		String pattern = (String) ((ASTScalar) child).getValue();
+		if (pattern.isEmpty()) {
+			return null;
+		}
+
+		int start = 0;
+		int end = pattern.length();
+		while (start < end && pattern.charAt(start) == '%') {
+			start++;
+		}
+		while (end > start && pattern.charAt(end - 1) == '%') {
+			end--;
+		}
+
+		String literal = pattern.substring(start, end);
+		for (int i = 0; i < literal.length(); i++) {
+			char c = literal.charAt(i);
+			if (c == '%' || REGEX_SPECIAL_CHARS.indexOf(c) >= 0) {
+				return null;
+			}
+		}
+
+		boolean anyPrefix = start > 0;
+		boolean anySuffix = end < pattern.length();
+		boolean ignoreCase = node.ignoringCase;
+
+		return (o, evaluatedChildren) -> {
+			String string = ConversionUtil.toString(o);
+			if (string == null) {
+				return Boolean.FALSE;
+			}
+
+			boolean matches = hasLineTerminators(string)
+					? node.matchPattern(string)
+					: matchLiteral(string, literal, anyPrefix, anySuffix, ignoreCase);
+			return matches != negated ? Boolean.TRUE : Boolean.FALSE;
+		};
+	}
+
+	// '.' and '$' in the regex treat line terminators specially, leave such
+	// strings to the regex
+	private static boolean hasLineTerminators(String string) {
+		for (int i = 0; i < string.length(); i++) {
+			char c = string.charAt(i);
+			if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean matchLiteral(String string, String literal, boolean anyPrefix, boolean anySuffix,
+			boolean ignoreCase) {
+
+		int len = literal.length();
+		if (anyPrefix && anySuffix) {
+			if (!ignoreCase) {
+				return string.contains(literal);
+			}
+
+			for (int i = 0, max = string.length() - len; i <= max; i++) {
+				if (string.regionMatches(true, i, literal, 0, len)) {
+					return true;
+				}
+			}
+			return false;
+		} else if (anySuffix) {
+			return string.regionMatches(ignoreCase, 0, literal, 0, len);
+		} else if (anyPrefix) {
+			return string.regionMatches(ignoreCase, string.length() - len, literal, 0, len);
+		} else {
+			return string.length() == len && string.regionMatches(ignoreCase, 0, literal, 0, len);
+		}
+	}
+
+	/**
+	 * Reproduces {@link ASTObjPath#evaluateNode(Object)} with the path split
+	 * into segments upfront.
+	 */
+	private static Operand compileObjPath(ASTObjPath node) {
+		String path = node.getPath();
+		if (path == null || path.isEmpty()) {
+			return node::evaluateNode;
+		}
+
+		String[] segments = path.split("\\.", -1);
+		String[] remainders = new String[segments.length];
+		for (int i = 0, offset = 0; i < segments.length; i++) {
+			remainders[i] = path.substring(offset);
+			offset += segments[i].length() + 1;
+
+			// same as BaseDataObject.readNestedProperty(..), strip the outer
+			// join marker from all but the last segment
+			String segment = segments[i];
+			if (i < segments.length - 1 && segment.endsWith("+")) {
+				segments[i] = segment = segment.substring(0, segment.length() - 1);
+			}
+
+			// let the interpreter throw the right exception
+			if (segment.isEmpty()) {
+				return node::evaluateNode;
+			}
+		}
+
+		Accessor beanAccessor = PropertyUtils.accessor(path);
+		return o -> {
+			if (o != null && IS_DATA_OBJECT.get(o.getClass())) {
+				return readDataObjectPath((DataObject) o, segments, remainders);
+			} else if (o instanceof Entity) {
+				return node.evaluateEntityNode((Entity) o);
+			} else {
+				return beanAccessor.getValue(o);
+			}
+		};
+	}
+
+	private static Object readDataObjectPath(DataObject object, String[] segments, String[] remainders) {
+		Object value = object;
+		int last = segments.length - 1;
+		for (int i = 0; i <= last; i++) {
+			if (!(value instanceof BaseDataObject)) {
+				return value instanceof DataObject
+						? ((DataObject) value).readNestedProperty(remainders[i])
+						: Cayenne.readNestedProperty(value, remainders[i]);
+			}
+
+			value = ((DataObject) value).readNestedProperty(segments[i]);
+			if (value == null) {
+				return null;
+			}
+		}
+
+		return value;
+	}
+}
@@ -0,0 +1,163 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.exp.parser;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.util.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+
+/**
+ * A bounded thread-safe LRU cache of parsed expression trees keyed by the
+ * expression string. Cached trees are used as templates and are never exposed
+ * to the callers, each call returns a fresh copy that can be modified (e.g. by
+ * binding parameters) without affecting the cache. Copying is much cheaper
+ * than running the parser.
+ * 
+ * @since 4.1
+ */
+public class ExpressionParseCache {
+
+	/**
+	 * Expression strings longer than that are parsed without caching. Those
+	 * are usually generated and rarely repeat.
+	 */
+	static final int MAX_CACHEABLE_LENGTH = 4096;
+
+	private final ConcurrentLinkedHashMap<String, Expression> templates;
+	private volatile boolean enabled;
+
+	private final LongAdder hits;
+	private final LongAdder misses;
+
+	public ExpressionParseCache(int maxSize) {
+		this.templates = new ConcurrentLinkedHashMap.Builder<String, Expression>()
+				.maximumWeightedCapacity(Math.max(maxSize, 0)).build();
+		this.enabled = maxSize > 0;
+		this.hits = new LongAdder();
+		this.misses = new LongAdder();
+	}
+
+	/**
+	 * Returns a copy of the cached expression for the string, parsing and
+	 * caching the expression first if needed.
+	 */
+	public Expression parse(String expressionString, Function<String, Expression> parser) {
+		if (!enabled || expressionString.length() > MAX_CACHEABLE_LENGTH) {
+			return parser.apply(expressionString);
+		}
+
+		Expression template = templates.get(expressionString);
+		if (template != null) {
+			hits.increment();
+			return copy(template);
+		}
+
+		misses.increment();
+
+		// parsers may produce nodes of other types, only cache what we know how to copy
+		Expression parsed = parser.apply(expressionString);
+		if (!isCopyable(parsed)) {
+			return parsed;
+		}
+
+		templates.put(expressionString, parsed);
+		return copy(parsed);
+	}
+
+	/**
+	 * Changes the maximum number of cached expressions. Zero disables the
+	 * cache.
+	 */
+	public void setMaxSize(int maxSize) {
+		templates.setCapacity(Math.max(maxSize, 0));
+		enabled = maxSize > 0;
+	}
+
+	public int getMaxSize() {
+		return enabled ? templates.capacity() : 0;
+	}
+
+	public int size() {
+		return templates.size();
+	}
+
+	public void clear() {
+		templates.clear();
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	private static boolean isCopyable(Object node) {
+		if (node == null) {
+			return true;
+		}
+
+		if (!(node instanceof SimpleNode) || node.getClass().getPackage() != SimpleNode.class.getPackage()) {
+			return false;
+		}
+
+		SimpleNode simpleNode = (SimpleNode) node;
+		for (int i = 0, len = simpleNode.jjtGetNumChildren(); i < len; i++) {
+			if (!isCopyable(simpleNode.jjtGetChild(i))) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Copies the tree node by node. Unlike {@link Expression#deepCopy()}, it
+	 * doesn't unwrap the operands, so enums stay unresolved and the result is
+	 * identical to what the parser returns.
+	 */
+	static Expression copy(Expression template) {
+		return copyNode((SimpleNode) template);
+	}
+
+	private static SimpleNode copyNode(SimpleNode source) {
+		if (source == null) {
+			return null;
+		}
+
+		SimpleNode copy = (SimpleNode) source.shallowCopy();
+
+		if (source instanceof ASTList) {
+			((ASTList) copy).setValues(((ASTList) source).values);
+		}
+
+		for (int i = 0, len = source.jjtGetNumChildren(); i < len; i++) {
+			Node child = copyNode((SimpleNode) source.jjtGetChild(i));
+			copy.jjtAddChild(child, i);
+			if (child != null) {
+				child.jjtSetParent(copy);
+			}
+		}
+
+		return copy;
+	}
+}
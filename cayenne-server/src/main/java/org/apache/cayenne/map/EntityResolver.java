@@ -41,13 +41,16 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  * Represents a virtual shared namespace for zero or more DataMaps. Unlike
  * DataMap, EntityResolver is intended to work as a runtime container of
  * mapping. DataMaps can be added or removed dynamically at runtime.
  * <p>
- * EntityResolver is thread-safe.
+ * EntityResolver is thread-safe. Lookups are served from an immutable index
+ * of the current DataMaps that is replaced as a whole when the DataMaps
+ * change, so reading threads never block.
  * </p>
  *
  * @since 1.1
@@ -57,19 +60,27 @@ public class EntityResolver implements MappingNamespace, Serializable {
     protected static final Logger logger = LoggerFactory.getLogger(EntityResolver.class);
     protected static AtomicLong incrementer = new AtomicLong();
 
-    protected Collection<DataMap> maps;
-    protected transient MappingNamespace mappingCache;
-    protected EntityResolver clientEntityResolver;
+    private static final AtomicReferenceFieldUpdater<EntityResolver, MappingNamespace> MAPPING_CACHE_UPDATER = AtomicReferenceFieldUpdater
+            .newUpdater(EntityResolver.class, MappingNamespace.class, "mappingCache");
+
+    // copy-on-write, the list is replaced and never modified in place
+    protected volatile Collection<DataMap> maps;
+    protected transient volatile MappingNamespace mappingCache;
+    protected volatile EntityResolver clientEntityResolver;
 
     // must be transient, as resolver may get deserialized in another VM, and
     // descriptor recompilation will be desired.
     protected transient volatile ClassDescriptorMap classDescriptorMap;
 
     // callbacks are not serializable
-    protected transient LifecycleCallbackRegistry callbackRegistry;
+    protected transient volatile LifecycleCallbackRegistry callbackRegistry;
 
     protected transient ValueObjectTypeRegistry valueObjectTypeRegistry;
 
+    // DB layer defaults scheduled to be applied on first mapping lookup
+    private volatile boolean dbLayerDefaultsPending;
+    private transient boolean applyingDBLayerDefaults;
+
     /**
      * Creates new empty EntityResolver.
      */
@@ -122,6 +133,37 @@ public class EntityResolver implements MappingNamespace, Serializable {
 
     }
 
+    /**
+     * Schedules {@link #applyDBLayerDefaults()} to run on the first mapping
+     * lookup instead of running it right away. This shortens startup of the
+     * runtimes with large models, as reverse relationships are only created
+     * when the mapping is actually used.
+     *
+     * @since 4.1
+     */
+    public void applyDBLayerDefaultsOnFirstAccess() {
+        this.dbLayerDefaultsPending = true;
+    }
+
+    private void applyPendingDBLayerDefaults() {
+        if (dbLayerDefaultsPending) {
+            synchronized (this) {
+
+                // relationship lookups made while applying the defaults get
+                // back here in the same thread
+                if (dbLayerDefaultsPending && !applyingDBLayerDefaults) {
+                    applyingDBLayerDefaults = true;
+                    try {
+                        applyDBLayerDefaults();
+                        dbLayerDefaultsPending = false;
+                    } finally {
+                        applyingDBLayerDefaults = false;
+                    }
+                }
+            }
+        }
+    }
+
     private String getUniqueRelationshipName(Entity entity) {
         String name;
 
@@ -217,12 +259,10 @@ public class EntityResolver implements MappingNamespace, Serializable {
      * Returns all DbEntities.
      */
     public Collection<DbEntity> getDbEntities() {
-        checkMappingCache();
         return mappingCache.getDbEntities();
     }
 
     public Collection<ObjEntity> getObjEntities() {
-        checkMappingCache();
         return mappingCache.getObjEntities();
     }
 
@@ -230,7 +270,6 @@ public class EntityResolver implements MappingNamespace, Serializable {
      * @since 3.0
      */
     public Collection<Embeddable> getEmbeddables() {
-        checkMappingCache();
         return mappingCache.getEmbeddables();
     }
 
@@ -238,57 +277,60 @@ public class EntityResolver implements MappingNamespace, Serializable {
      * @since 4.0
      */
     public Collection<SQLResult> getResults() {
-        checkMappingCache();
         return mappingCache.getResults();
     }
 
     public Collection<Procedure> getProcedures() {
-        checkMappingCache();
         return mappingCache.getProcedures();
     }
 
     public Collection<QueryDescriptor> getQueryDescriptors() {
-        checkMappingCache();
         return mappingCache.getQueryDescriptors();
     }
 
     public DbEntity getDbEntity(String name) {
-        checkMappingCache();
-
-        DbEntity result = mappingCache.getDbEntity(name);
+        MappingNamespace cache = mappingCache;
+        DbEntity result = cache.getDbEntity(name);
         if (result == null) {
             // reconstruct cache just in case some of the datamaps
             // have changed and now contain the required information
-            refreshMappingCache();
-            result = mappingCache.getDbEntity(name);
+            MappingNamespace refreshed = createMappingCache();
+            result = refreshed.getDbEntity(name);
+            if (result != null) {
+                swapMappingCache(cache, refreshed);
+            }
         }
 
         return result;
     }
 
     public ObjEntity getObjEntity(String name) {
-        checkMappingCache();
-
-        ObjEntity result = mappingCache.getObjEntity(name);
+        MappingNamespace cache = mappingCache;
+        ObjEntity result = cache.getObjEntity(name);
         if (result == null) {
             // reconstruct cache just in case some of the datamaps
             // have changed and now contain the required information
-            refreshMappingCache();
-            result = mappingCache.getObjEntity(name);
+            MappingNamespace refreshed = createMappingCache();
+            result = refreshed.getObjEntity(name);
+            if (result != null) {
+                swapMappingCache(cache, refreshed);
+            }
         }
 
         return result;
     }
 
     public Procedure getProcedure(String procedureName) {
-        checkMappingCache();
-
-        Procedure result = mappingCache.getProcedure(procedureName);
+        MappingNamespace cache = mappingCache;
+        Procedure result = cache.getProcedure(procedureName);
         if (result == null) {
             // reconstruct cache just in case some of the datamaps
             // have changed and now contain the required information
-            refreshMappingCache();
-            result = mappingCache.getProcedure(procedureName);
+            MappingNamespace refreshed = createMappingCache();
+            result = refreshed.getProcedure(procedureName);
+            if (result != null) {
+                swapMappingCache(cache, refreshed);
+            }
         }
 
         return result;
@@ -298,14 +340,16 @@ public class EntityResolver implements MappingNamespace, Serializable {
      * Returns a named query or null if no query exists for a given name.
      */
     public QueryDescriptor getQueryDescriptor(String name) {
-        checkMappingCache();
-
-        QueryDescriptor result = mappingCache.getQueryDescriptor(name);
+        MappingNamespace cache = mappingCache;
+        QueryDescriptor result = cache.getQueryDescriptor(name);
         if (result == null) {
             // reconstruct cache just in case some of the datamaps
             // have changed and now contain the required information
-            refreshMappingCache();
-            result = mappingCache.getQueryDescriptor(name);
+            MappingNamespace refreshed = createMappingCache();
+            result = refreshed.getQueryDescriptor(name);
+            if (result != null) {
+                swapMappingCache(cache, refreshed);
+            }
         }
         return result;
     }
@@ -314,14 +358,16 @@ public class EntityResolver implements MappingNamespace, Serializable {
      * @since 3.0
      */
     public Embeddable getEmbeddable(String className) {
-        checkMappingCache();
-
-        Embeddable result = mappingCache.getEmbeddable(className);
+        MappingNamespace cache = mappingCache;
+        Embeddable result = cache.getEmbeddable(className);
         if (result == null) {
             // reconstruct cache just in case some of the datamaps
             // have changed and now contain the required information
-            refreshMappingCache();
-            result = mappingCache.getEmbeddable(className);
+            MappingNamespace refreshed = createMappingCache();
+            result = refreshed.getEmbeddable(className);
+            if (result != null) {
+                swapMappingCache(cache, refreshed);
+            }
         }
 
         return result;
@@ -331,14 +377,16 @@ public class EntityResolver implements MappingNamespace, Serializable {
      * @since 3.0
      */
     public SQLResult getResult(String name) {
-        checkMappingCache();
-
-        SQLResult result = mappingCache.getResult(name);
+        MappingNamespace cache = mappingCache;
+        SQLResult result = cache.getResult(name);
         if (result == null) {
             // reconstruct cache just in case some of the datamaps
             // have changed and now contain the required information
-            refreshMappingCache();
-            result = mappingCache.getResult(name);
+            MappingNamespace refreshed = createMappingCache();
+            result = refreshed.getResult(name);
+            if (result != null) {
+                swapMappingCache(cache, refreshed);
+            }
         }
 
         return result;
@@ -360,14 +408,12 @@ public class EntityResolver implements MappingNamespace, Serializable {
 
     public synchronized void addDataMap(DataMap map) {
         if (!maps.contains(map)) {
-            maps.add(map);
-            map.setNamespace(this);
-            refreshMappingCache();
-        }
-    }
+            List<DataMap> newMaps = new ArrayList<>(maps.size() + 1);
+            newMaps.addAll(maps);
+            newMaps.add(map);
 
-    private void checkMappingCache() {
-        if (mappingCache == null) {
+            this.maps = newMaps;
+            map.setNamespace(this);
             refreshMappingCache();
         }
     }
@@ -379,8 +425,17 @@ public class EntityResolver implements MappingNamespace, Serializable {
      * @since 4.0
      */
     public void refreshMappingCache() {
+
+        // index the current list of maps lazily on first lookup
+        final Collection<DataMap> maps = this.maps;
         mappingCache = new ProxiedMappingNamespace() {
 
+            @Override
+            MappingNamespace getDelegate() {
+                applyPendingDBLayerDefaults();
+                return super.getDelegate();
+            }
+
             @Override
             protected MappingCache createDelegate() {
                 return new MappingCache(maps);
@@ -390,6 +445,20 @@ public class EntityResolver implements MappingNamespace, Serializable {
         clientEntityResolver = null;
     }
 
+    private MappingNamespace createMappingCache() {
+        return new MappingCache(maps);
+    }
+
+    /**
+     * Replaces the mapping cache with a refreshed copy, unless it was already
+     * replaced by another thread.
+     */
+    private void swapMappingCache(MappingNamespace expected, MappingNamespace refreshed) {
+        if (MAPPING_CACHE_UPDATER.compareAndSet(this, expected, refreshed)) {
+            clientEntityResolver = null;
+        }
+    }
+
     /**
      * Returns a DataMap matching the name.
      */
@@ -408,8 +477,7 @@ public class EntityResolver implements MappingNamespace, Serializable {
     }
 
     public synchronized void setDataMaps(Collection<DataMap> maps) {
-        this.maps.clear();
-        this.maps.addAll(maps);
+        this.maps = new ArrayList<>(maps);
         refreshMappingCache();
     }
 
@@ -424,17 +492,19 @@ public class EntityResolver implements MappingNamespace, Serializable {
      * @since 4.0
      */
     public EntityInheritanceTree getInheritanceTree(String entityName) {
-        checkMappingCache();
-
-        EntityInheritanceTree tree = mappingCache.getInheritanceTree(entityName);
+        MappingNamespace cache = mappingCache;
+        EntityInheritanceTree tree = cache.getInheritanceTree(entityName);
         if (tree == null) {
             // since we keep inheritance trees for all entities, null means
             // unknown entity...
 
             // rebuild cache just in case some of the datamaps
             // have changed and now contain the required information
-            refreshMappingCache();
-            tree = mappingCache.getInheritanceTree(entityName);
+            MappingNamespace refreshed = createMappingCache();
+            tree = refreshed.getInheritanceTree(entityName);
+            if (tree != null) {
+                swapMappingCache(cache, refreshed);
+            }
         }
 
         return tree;
@@ -451,14 +521,16 @@ public class EntityResolver implements MappingNamespace, Serializable {
      * @since 4.0
      */
     public ObjEntity getObjEntity(Class<?> entityClass) {
-        checkMappingCache();
-
-        ObjEntity result = mappingCache.getObjEntity(entityClass);
+        MappingNamespace cache = mappingCache;
+        ObjEntity result = cache.getObjEntity(entityClass);
         if (result == null) {
             // reconstruct cache just in case some of the datamaps
             // have changed and now contain the required information
-            refreshMappingCache();
-            result = mappingCache.getObjEntity(entityClass);
+            MappingNamespace refreshed = createMappingCache();
+            result = refreshed.getObjEntity(entityClass);
+            if (result != null) {
+                swapMappingCache(cache, refreshed);
+            }
         }
 
         return result;
@@ -496,12 +568,15 @@ public class EntityResolver implements MappingNamespace, Serializable {
     }
 
     public ObjEntity getObjEntity(Persistent object) {
-        checkMappingCache();
         return mappingCache.getObjEntity(object);
     }
 
     public synchronized void removeDataMap(DataMap map) {
-        if (maps.remove(map)) {
+        if (maps.contains(map)) {
+            List<DataMap> newMaps = new ArrayList<>(maps);
+            newMaps.remove(map);
+
+            this.maps = newMaps;
             refreshMappingCache();
         }
     }
@@ -526,15 +601,8 @@ public class EntityResolver implements MappingNamespace, Serializable {
                     classDescriptorMap.addFactory(new ValueHolderDescriptorFactory(classDescriptorMap));
                     classDescriptorMap.addFactory(new DataObjectDescriptorFactory(classDescriptorMap, faultFactory));
 
-                    // since ClassDescriptorMap is not synchronized, we need to
-                    // prefill
-                    // it with entity proxies here.
-                    for (DataMap map : maps) {
-                        for (String entityName : map.getObjEntityMap().keySet()) {
-                            classDescriptorMap.getDescriptor(entityName);
-                        }
-                    }
-
+                    // descriptors are compiled on demand, so there's no need to
+                    // prefill the thread-safe ClassDescriptorMap with entity proxies
                     this.classDescriptorMap = classDescriptorMap;
                 }
             }
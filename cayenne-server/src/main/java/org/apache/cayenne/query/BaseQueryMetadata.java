@@ -50,6 +50,7 @@ class BaseQueryMetadata implements QueryMetadata, Serializable {
 	int fetchOffset = QueryMetadata.FETCH_OFFSET_DEFAULT;
 
 	int statementFetchSize = QueryMetadata.FETCH_OFFSET_DEFAULT;
+	int parallelMaterializationThreshold = QueryMetadata.PARALLEL_MATERIALIZATION_THRESHOLD_DEFAULT;
 
 	int pageSize = QueryMetadata.PAGE_SIZE_DEFAULT;
 	boolean fetchingDataRows = QueryMetadata.FETCHING_DATA_ROWS_DEFAULT;
@@ -155,6 +156,8 @@ class BaseQueryMetadata implements QueryMetadata, Serializable {
 		Object fetchLimit = properties.get(QueryMetadata.FETCH_LIMIT_PROPERTY);
 		Object pageSize = properties.get(QueryMetadata.PAGE_SIZE_PROPERTY);
 		Object statementFetchSize = properties.get(QueryMetadata.STATEMENT_FETCH_SIZE_PROPERTY);
+		Object parallelMaterializationThreshold = properties
+				.get(QueryMetadata.PARALLEL_MATERIALIZATION_THRESHOLD_PROPERTY);
 		Object fetchingDataRows = properties.get(QueryMetadata.FETCHING_DATA_ROWS_PROPERTY);
 
 		Object cacheStrategy = properties.get(QueryMetadata.CACHE_STRATEGY_PROPERTY);
@@ -173,6 +176,10 @@ class BaseQueryMetadata implements QueryMetadata, Serializable {
 		this.statementFetchSize = (statementFetchSize != null) ? Integer.parseInt(statementFetchSize.toString())
 				: QueryMetadata.STATEMENT_FETCH_SIZE_DEFAULT;
 
+		this.parallelMaterializationThreshold = (parallelMaterializationThreshold != null) ? Integer
+				.parseInt(parallelMaterializationThreshold.toString())
+				: QueryMetadata.PARALLEL_MATERIALIZATION_THRESHOLD_DEFAULT;
+
 		this.fetchingDataRows = (fetchingDataRows != null) ? "true".equalsIgnoreCase(fetchingDataRows.toString())
 				: QueryMetadata.FETCHING_DATA_ROWS_DEFAULT;
 
@@ -376,6 +383,24 @@ class BaseQueryMetadata implements QueryMetadata, Serializable {
 		return statementFetchSize;
 	}
 
+	/**
+	 * Sets the minimal number of rows materialized in parallel (0 to always
+	 * materialize sequentially).
+	 * 
+	 * @since 4.1
+	 */
+	void setParallelMaterializationThreshold(int threshold) {
+		this.parallelMaterializationThreshold = threshold;
+	}
+
+	/**
+	 * @since 4.1
+	 */
+	@Override
+	public int getParallelMaterializationThreshold() {
+		return parallelMaterializationThreshold;
+	}
+
 	/**
 	 * Adds a joint prefetch.
 	 * 
@@ -49,6 +49,7 @@ public abstract class FluentSelect<T> extends IndirectQuery implements Select<T>
     protected int offset;
     protected int pageSize;
     protected int statementFetchSize;
+    protected int parallelMaterializationThreshold;
     protected QueryCacheStrategy cacheStrategy;
     protected String cacheGroup;
 
@@ -96,6 +97,7 @@ public abstract class FluentSelect<T> extends IndirectQuery implements Select<T>
         replacement.setFetchOffset(offset);
         replacement.setPageSize(pageSize);
         replacement.setStatementFetchSize(statementFetchSize);
+        replacement.setParallelMaterializationThreshold(parallelMaterializationThreshold);
 
         return replacement;
     }
@@ -112,6 +114,13 @@ public abstract class FluentSelect<T> extends IndirectQuery implements Select<T>
         return statementFetchSize;
     }
 
+    /**
+     * @since 4.1
+     */
+    public int getParallelMaterializationThreshold() {
+        return parallelMaterializationThreshold;
+    }
+
     public int getPageSize() {
         return pageSize;
     }
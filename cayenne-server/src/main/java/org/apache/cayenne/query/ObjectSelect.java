@@ -33,6 +33,8 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A selecting query providing chainable API. This is an alternative to
@@ -53,6 +55,13 @@ public class ObjectSelect<T> extends FluentSelect<T> {
 
     private static final long serialVersionUID = -156124021150949227L;
 
+    /**
+     * Default number of objects resolved at once by {@link #stream(ObjectContext)}.
+     *
+     * @since 4.1
+     */
+    public static final int DEFAULT_STREAM_BATCH_SIZE = 100;
+
     protected boolean fetchingDataRows;
 
     /**
@@ -453,6 +462,25 @@ public class ObjectSelect<T> extends FluentSelect<T> {
         return this;
     }
 
+    /**
+     * Enables parallel building of result objects when the query fetches at
+     * least the given number of rows. Objects are still registered in the
+     * context one by one, so the result order and object identity are the
+     * same as with the default sequential processing. Zero disables parallel
+     * processing.
+     *
+     * @see QueryMetadata#getParallelMaterializationThreshold()
+     * @since 4.1
+     */
+    public ObjectSelect<T> parallelMaterializationThreshold(int rows) {
+        if (this.parallelMaterializationThreshold != rows) {
+            this.parallelMaterializationThreshold = rows;
+            this.replacementQuery = null;
+        }
+
+        return this;
+    }
+
     public ObjectSelect<T> cacheStrategy(QueryCacheStrategy strategy) {
         if (this.cacheStrategy != strategy) {
             this.cacheStrategy = strategy;
@@ -651,6 +679,47 @@ public class ObjectSelect<T> extends FluentSelect<T> {
         return context.selectFirst(limit(1));
     }
 
+    /**
+     * Returns a sequential Stream over the query result that reads rows from
+     * an open cursor in batches of {@link #DEFAULT_STREAM_BATCH_SIZE}.
+     *
+     * @see #stream(ObjectContext, int)
+     * @since 4.1
+     */
+    public Stream<T> stream(ObjectContext context) {
+        return stream(context, DEFAULT_STREAM_BATCH_SIZE);
+    }
+
+    /**
+     * Returns a sequential Stream over the query result that reads rows from
+     * an open cursor and resolves them into objects one batch at a time. Unless
+     * set explicitly, statement fetch size is the same as the batch size.
+     * Prefetches are resolved for each batch separately, by selecting batch
+     * objects by id while the cursor is still open. Once the stream moves on to the next batch, unmodified
+     * objects that the previous batch brought into the context are
+     * unregistered from it, so memory use does not depend on the result size.
+     * Objects that need to outlive the stream pipeline should be modified or
+     * copied into another context with {@link ObjectContext#localObject}.
+     * <p>
+     * Like a {@link org.apache.cayenne.ResultIterator}, the stream holds a
+     * database connection until it is exhausted or closed, so it must be
+     * closed explicitly, e.g. in a "try-with-resources" block:
+     *
+     * <pre>
+     * {@code
+     * try (Stream<Artist> artists = ObjectSelect.query(Artist.class).stream(context, 500)) {
+     *     artists.forEach(a -> export(a));
+     * }
+     * }
+     * </pre>
+     *
+     * @since 4.1
+     */
+    public Stream<T> stream(ObjectContext context, int batchSize) {
+        ObjectSelectSpliterator<T> spliterator = new ObjectSelectSpliterator<>(this, context, batchSize);
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+    }
+
     public boolean isFetchingDataRows() {
         return fetchingDataRows;
     }
@@ -0,0 +1,310 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.PersistenceState;
+import org.apache.cayenne.Persistent;
+import org.apache.cayenne.ResultIterator;
+import org.apache.cayenne.access.DataContext;
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.exp.ExpressionFactory;
+import org.apache.cayenne.graph.GraphManager;
+import org.apache.cayenne.map.DbAttribute;
+import org.apache.cayenne.map.EntityInheritanceTree;
+import org.apache.cayenne.map.ObjEntity;
+import org.apache.cayenne.reflect.ClassDescriptor;
+
+/**
+ * A Spliterator over the result of an {@link ObjectSelect} that reads DataRows
+ * from an open cursor and resolves them into objects one batch at a time. When
+ * moving to the next batch, unmodified objects that the previous batch brought
+ * into the context are unregistered from it, so the context does not grow with
+ * the size of the result.
+ *
+ * @since 4.1
+ */
+class ObjectSelectSpliterator<T> extends Spliterators.AbstractSpliterator<T> implements AutoCloseable {
+
+    private final ObjectContext context;
+    private final int batchSize;
+    private final ClassDescriptor descriptor;
+    private final PrefetchTreeNode prefetches;
+
+    private ResultIterator<?> rows;
+    private List<T> batch;
+    private int position;
+    private Collection<Persistent> processed;
+
+    ObjectSelectSpliterator(ObjectSelect<T> query, ObjectContext context, int batchSize) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+
+        this.context = context;
+        this.batchSize = batchSize;
+
+        SelectQuery<?> rowQuery = (SelectQuery<?>) query.createReplacementQuery(context.getEntityResolver());
+
+        if (rowQuery.isFetchingDataRows()) {
+            this.descriptor = null;
+            this.prefetches = null;
+        } else {
+            if (!(context instanceof DataContext)) {
+                throw new CayenneRuntimeException("Streaming objects requires a DataContext, got %s",
+                        context.getClass().getName());
+            }
+
+            this.descriptor = rowQuery.getMetaData(context.getEntityResolver()).getClassDescriptor();
+            this.prefetches = rowQuery.getPrefetchTree();
+        }
+
+        // objects and prefetches are resolved per batch, the cursor only reads raw rows
+        rowQuery.setFetchingDataRows(true);
+        rowQuery.setPrefetchTree(null);
+        rowQuery.setPageSize(0);
+        rowQuery.setCacheStrategy(QueryCacheStrategy.NO_CACHE);
+        if (rowQuery.getStatementFetchSize() <= 0) {
+            rowQuery.setStatementFetchSize(batchSize);
+        }
+
+        this.rows = context.iterator(rowQuery);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (batch == null || position >= batch.size()) {
+            if (!nextBatch()) {
+                return false;
+            }
+        }
+
+        action.accept(batch.get(position++));
+        return true;
+    }
+
+    /**
+     * Returns null, as objects must be consumed in the order their batches
+     * are fetched for unregistering to be safe.
+     */
+    @Override
+    public Spliterator<T> trySplit() {
+        return null;
+    }
+
+    @Override
+    public void close() {
+        batch = null;
+        releaseProcessed();
+        closeCursor();
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean nextBatch() {
+
+        do {
+            releaseProcessed();
+
+            if (rows == null || !rows.hasNextRow()) {
+                close();
+                return false;
+            }
+
+            List<DataRow> rowBatch = new ArrayList<>(batchSize);
+            while (rowBatch.size() < batchSize && rows.hasNextRow()) {
+                rowBatch.add((DataRow) rows.nextRow());
+            }
+
+            // release the connection as soon as all rows are read
+            if (!rows.hasNextRow()) {
+                closeCursor();
+            }
+
+            if (descriptor == null) {
+                batch = (List<T>) rowBatch;
+            } else if (prefetches == null) {
+                batch = resolve(rowBatch);
+            } else {
+                batch = resolveWithPrefetches(rowBatch);
+            }
+
+            position = 0;
+        } while (batch.isEmpty());
+
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<T> resolve(List<DataRow> rowBatch) {
+        GraphManager graphManager = context.getGraphManager();
+
+        boolean[] registered = new boolean[rowBatch.size()];
+        for (int i = 0; i < registered.length; i++) {
+            registered[i] = graphManager.getNode(objectId(rowBatch.get(i))) != null;
+        }
+
+        List<T> objects = ((DataContext) context).objectsFromDataRows(descriptor, rowBatch);
+
+        processed = new ArrayList<>(objects.size());
+        for (int i = 0; i < registered.length; i++) {
+            if (!registered[i]) {
+                processed.add((Persistent) objects.get(i));
+            }
+        }
+
+        return objects;
+    }
+
+    /**
+     * Re-selects batch objects by id with the query prefetch tree, so that
+     * prefetches are resolved per batch just like disjoint-by-id prefetches.
+     */
+    @SuppressWarnings("unchecked")
+    private List<T> resolveWithPrefetches(List<DataRow> rowBatch) {
+        List<ObjectId> ids = new ArrayList<>(rowBatch.size());
+        for (DataRow row : rowBatch) {
+            ids.add(objectId(row));
+        }
+
+        Set<Object> registered = identitySet(context.getGraphManager().registeredNodes());
+
+        SelectQuery<T> query = new SelectQuery<>(descriptor.getEntity(), idQualifier(ids));
+        query.setPrefetchTree(prefetches);
+
+        Map<ObjectId, T> byId = new HashMap<>();
+        for (T object : context.select(query)) {
+            byId.put(((Persistent) object).getObjectId(), object);
+        }
+
+        // preserve cursor ordering, skipping objects deleted since the cursor was opened
+        List<T> objects = new ArrayList<>(ids.size());
+        for (ObjectId id : ids) {
+            T object = byId.get(id);
+            if (object != null) {
+                objects.add(object);
+            }
+        }
+
+        processed = new ArrayList<>();
+        for (Object node : context.getGraphManager().registeredNodes()) {
+            if (!registered.contains(node)) {
+                processed.add((Persistent) node);
+            }
+        }
+
+        return objects;
+    }
+
+    private void releaseProcessed() {
+        if (processed == null) {
+            return;
+        }
+
+        List<Persistent> unregister = new ArrayList<>(processed.size());
+        for (Persistent object : processed) {
+            int state = object.getPersistenceState();
+            if (state == PersistenceState.COMMITTED || state == PersistenceState.HOLLOW) {
+                unregister.add(object);
+            }
+        }
+
+        processed = null;
+
+        if (!unregister.isEmpty()) {
+            ((DataContext) context).unregisterObjects(unregister);
+        }
+    }
+
+    private void closeCursor() {
+        if (rows != null) {
+            ResultIterator<?> cursor = rows;
+            rows = null;
+            cursor.close();
+        }
+    }
+
+    private ObjectId objectId(DataRow row) {
+        ObjEntity entity = descriptor.getEntity();
+
+        EntityInheritanceTree inheritanceTree = descriptor.getEntityInheritanceTree();
+        if (inheritanceTree != null) {
+            ObjEntity rowEntity = inheritanceTree.entityMatchingRow(row);
+            if (rowEntity != null) {
+                entity = rowEntity;
+            }
+        }
+
+        Collection<DbAttribute> pk = entity.getDbEntity().getPrimaryKeys();
+        if (pk.size() == 1) {
+            String name = pk.iterator().next().getName();
+            return new ObjectId(entity.getName(), name, row.get(name));
+        }
+
+        Map<String, Object> idMap = new HashMap<>(pk.size() * 2);
+        for (DbAttribute attribute : pk) {
+            idMap.put(attribute.getName(), row.get(attribute.getName()));
+        }
+
+        return new ObjectId(entity.getName(), idMap);
+    }
+
+    private Expression idQualifier(List<ObjectId> ids) {
+        Collection<DbAttribute> pk = descriptor.getEntity().getDbEntity().getPrimaryKeys();
+
+        if (pk.size() == 1) {
+            String name = pk.iterator().next().getName();
+            List<Object> values = new ArrayList<>(ids.size());
+            for (ObjectId id : ids) {
+                values.add(id.getIdSnapshot().get(name));
+            }
+
+            return ExpressionFactory.inDbExp(name, values);
+        }
+
+        List<Expression> pairs = new ArrayList<>(ids.size());
+        for (ObjectId id : ids) {
+            pairs.add(ExpressionFactory.matchAllDbExp(id.getIdSnapshot(), Expression.EQUAL_TO));
+        }
+
+        return ExpressionFactory.joinExp(Expression.OR, pairs);
+    }
+
+    private static Set<Object> identitySet(Collection<Object> objects) {
+        Set<Object> set = Collections.newSetFromMap(new IdentityHashMap<>(objects.size() * 2));
+        set.addAll(objects);
+        return set;
+    }
+}
@@ -103,6 +103,22 @@ public interface QueryMetadata {
      */
     int STATEMENT_FETCH_SIZE_DEFAULT = 0;
 
+    /**
+     * Defines the name of the property for the query
+     * {@link #getParallelMaterializationThreshold() parallel materialization threshold}.
+     * 
+     * @since 4.1
+     */
+    String PARALLEL_MATERIALIZATION_THRESHOLD_PROPERTY = "cayenne.GenericSelectQuery.parallelMaterializationThreshold";
+
+    /**
+     * Defines default parallel materialization threshold, which is zero, meaning that
+     * objects are always built from the fetched rows on the caller thread.
+     * 
+     * @since 4.1
+     */
+    int PARALLEL_MATERIALIZATION_THRESHOLD_DEFAULT = 0;
+
     /**
      * @since 3.0
      */
@@ -238,6 +254,19 @@ public interface QueryMetadata {
      */
     int getStatementFetchSize();
 
+    /**
+     * Returns the minimal number of fetched rows that makes Cayenne build the result
+     * objects in parallel on the common fork-join pool. Registration of the objects in
+     * the ObjectStore stays serialized, so the order of results and the identity of
+     * objects are the same as with sequential processing. Zero (the default) disables
+     * parallel processing.
+     * 
+     * @since 4.1
+     */
+    default int getParallelMaterializationThreshold() {
+        return PARALLEL_MATERIALIZATION_THRESHOLD_DEFAULT;
+    }
+
     /**
      * @since 4.0
      */
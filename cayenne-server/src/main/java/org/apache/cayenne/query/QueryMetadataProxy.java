@@ -132,6 +132,14 @@ public class QueryMetadataProxy implements QueryMetadata {
         return mdDelegate.getStatementFetchSize();
     }
 
+    /**
+     * @since 4.1
+     */
+    @Override
+    public int getParallelMaterializationThreshold() {
+        return mdDelegate.getParallelMaterializationThreshold();
+    }
+
     @Override
     public boolean isSuppressingDistinct() {
         return mdDelegate.isSuppressingDistinct();
@@ -727,6 +727,24 @@ public class SelectQuery<T> extends AbstractQuery implements ParameterizedQuery,
 		return metaData.getStatementFetchSize();
 	}
 
+	/**
+	 * Sets the minimal number of fetched rows that are turned into objects in
+	 * parallel (0 to always build objects on the calling thread).
+	 * 
+	 * @see QueryMetadata#getParallelMaterializationThreshold()
+	 * @since 4.1
+	 */
+	public void setParallelMaterializationThreshold(int threshold) {
+		metaData.setParallelMaterializationThreshold(threshold);
+	}
+
+	/**
+	 * @since 4.1
+	 */
+	public int getParallelMaterializationThreshold() {
+		return metaData.getParallelMaterializationThreshold();
+	}
+
 	/**
 	 * Sets new query qualifier.
 	 */
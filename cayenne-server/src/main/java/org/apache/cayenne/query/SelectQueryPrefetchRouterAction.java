@@ -98,6 +98,7 @@ class SelectQueryPrefetchRouterAction implements PrefetchProcessor {
                 prefetchPath,
                 relationship);
         prefetchQuery.setStatementFetchSize(query.getStatementFetchSize());
+        prefetchQuery.setParallelMaterializationThreshold(query.getParallelMaterializationThreshold());
 
         prefetchQuery.setQualifier(classDescriptor.getEntity().translateToRelatedEntity(
                 queryQualifier,
@@ -19,20 +19,21 @@
 package org.apache.cayenne.reflect;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.map.EntityResolver;
 
 /**
  * An object that holds class descriptors for mapped entities, compiling new
- * descriptors on demand using an internal chain of descriptor factories. Note
- * that the object is not synchronized internally, so it has to be prefilled
- * with descriptors by the caller on initialization via calling 'getDescriptor'
- * for all mapped entities.
+ * descriptors on demand using an internal chain of descriptor factories.
+ * Descriptors are kept in a concurrent map, so lookups never block and the map
+ * doesn't need to be prefilled. A missing descriptor proxy is registered via
+ * 'putIfAbsent', so that concurrent callers of 'getDescriptor' for the same
+ * entity get the same descriptor instance.
  * 
  * @since 3.0
  */
@@ -43,7 +44,7 @@ public class ClassDescriptorMap {
     protected List<ClassDescriptorFactory> factories;
 
     public ClassDescriptorMap(EntityResolver resolver) {
-        this.descriptors = new HashMap<>();
+        this.descriptors = new ConcurrentHashMap<>();
         this.resolver = resolver;
         this.factories = new ArrayList<>();
     }
@@ -109,8 +110,8 @@ public class ClassDescriptorMap {
      */
     protected ClassDescriptor createProxyDescriptor(String entityName) {
         ClassDescriptor descriptor = new LazyClassDescriptorDecorator(this, entityName);
-        addDescriptor(entityName, descriptor);
-        return descriptor;
+        ClassDescriptor existing = descriptors.putIfAbsent(entityName, descriptor);
+        return existing != null ? existing : descriptor;
     }
 
     /**
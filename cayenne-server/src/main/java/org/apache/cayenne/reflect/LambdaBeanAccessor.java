@@ -0,0 +1,197 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.reflect;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * A {@link BeanAccessor} that calls property get/set methods via classes
+ * generated at runtime with {@link LambdaMetafactory}, which the JIT can inline
+ * just like a direct call. If the classes can't be generated for the property
+ * (e.g. the bean class is not visible to Cayenne), the accessor falls back to
+ * reflection.
+ *
+ * @since 4.1
+ */
+public class LambdaBeanAccessor extends BeanAccessor {
+
+    private static final long serialVersionUID = 5360288601893336010L;
+
+    private static final MethodType GETTER_SAM = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_SAM = MethodType.methodType(void.class, Object.class, Object.class);
+
+    // Java 9+ MethodHandles.privateLookupIn(Class, Lookup), allows to define generated classes next to the bean class
+    private static final Method PRIVATE_LOOKUP_IN = privateLookupInMethod();
+
+    protected transient Function<Object, Object> reader;
+    protected transient BiConsumer<Object, Object> writer;
+
+    public LambdaBeanAccessor(Class<?> objectClass, String propertyName, Class<?> propertyType) {
+        super(objectClass, propertyName, propertyType);
+
+        this.reader = createReader(readMethod);
+        this.writer = writeMethod != null ? createWriter(writeMethod) : null;
+    }
+
+    /**
+     * Returns true if the property getter and setter (if any) are called via
+     * generated classes, false if any of them fall back to reflection.
+     */
+    public boolean isUsingGeneratedClasses() {
+        return reader != null && (writeMethod == null || writer != null);
+    }
+
+    @Override
+    public Object getValue(Object object) throws PropertyException {
+        if (reader == null) {
+            return super.getValue(object);
+        }
+
+        try {
+            return reader.apply(object);
+        } catch (Throwable th) {
+            throw new PropertyException("Error reading property: " + propertyName, this, object, th);
+        }
+    }
+
+    @Override
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public void setValue(Object object, Object newValue) throws PropertyException {
+        if (writer == null) {
+            super.setValue(object, newValue);
+            return;
+        }
+
+        Class type = writeMethod.getParameterTypes()[0];
+        Converter<?> converter = ConverterFactory.factory.getConverter(type);
+        try {
+            newValue = (converter != null) ? converter.convert(newValue, type) : newValue;
+
+            // this will take care of primitives.
+            if (newValue == null) {
+                newValue = this.nullValue;
+            }
+
+            writer.accept(object, newValue);
+        } catch (Throwable th) {
+            throw new PropertyException("Error writing property: " + propertyName, this, object, th);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> createReader(Method method) {
+        MethodType instantiatedType = MethodType.methodType(
+                PropertyUtils.normalizeType(method.getReturnType()),
+                method.getDeclaringClass());
+
+        for (MethodHandles.Lookup lookup : lookups(method)) {
+            try {
+                CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+                        MethodType.methodType(Function.class), GETTER_SAM, lookup.unreflect(method),
+                        instantiatedType);
+                return (Function<Object, Object>) site.getTarget().invoke();
+            } catch (Throwable th) {
+                // try next lookup or fall back to reflection
+            }
+        }
+
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> createWriter(Method method) {
+        MethodType instantiatedType = MethodType.methodType(
+                void.class,
+                method.getDeclaringClass(),
+                PropertyUtils.normalizeType(method.getParameterTypes()[0]));
+
+        for (MethodHandles.Lookup lookup : lookups(method)) {
+            try {
+                CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+                        MethodType.methodType(BiConsumer.class), SETTER_SAM, lookup.unreflect(method),
+                        instantiatedType);
+                return (BiConsumer<Object, Object>) site.getTarget().invoke();
+            } catch (Throwable th) {
+                // try next lookup or fall back to reflection
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns lookups that may be used to generate classes calling a given
+     * method, in the order of preference.
+     */
+    private static MethodHandles.Lookup[] lookups(Method method) {
+        Class<?> type = method.getDeclaringClass();
+        MethodHandles.Lookup own = MethodHandles.lookup();
+
+        // generated classes are defined next to the lookup class, so the
+        // method must be accessible and visible from there
+        boolean ownUsable = isAccessible(method) && isVisible(type, LambdaBeanAccessor.class.getClassLoader());
+
+        MethodHandles.Lookup target = null;
+        if (PRIVATE_LOOKUP_IN != null) {
+            try {
+                target = (MethodHandles.Lookup) PRIVATE_LOOKUP_IN.invoke(null, type, own);
+            } catch (Exception e) {
+                target = null;
+            }
+        }
+
+        if (target != null && ownUsable) {
+            return new MethodHandles.Lookup[] { target, own };
+        } else if (target != null) {
+            return new MethodHandles.Lookup[] { target };
+        } else if (ownUsable) {
+            return new MethodHandles.Lookup[] { own };
+        } else {
+            return new MethodHandles.Lookup[0];
+        }
+    }
+
+    private static boolean isAccessible(Method method) {
+        return Modifier.isPublic(method.getModifiers()) && Modifier.isPublic(method.getDeclaringClass().getModifiers());
+    }
+
+    private static boolean isVisible(Class<?> type, ClassLoader loader) {
+        try {
+            return Class.forName(type.getName(), false, loader) == type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private static Method privateLookupInMethod() {
+        try {
+            return MethodHandles.class.getMethod("privateLookupIn", Class.class, MethodHandles.Lookup.class);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
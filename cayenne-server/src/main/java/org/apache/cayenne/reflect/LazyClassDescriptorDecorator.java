@@ -29,12 +29,13 @@ import org.apache.cayenne.util.ToStringBuilder;
 
 /**
  * A ClassDescriptor wrapper that compiles decorated descriptor lazily on first access.
+ * Compilation is thread-safe, so the decorator can be shared by concurrent threads.
  * 
  * @since 3.0
  */
 public class LazyClassDescriptorDecorator implements ClassDescriptor {
 
-    protected ClassDescriptor descriptor;
+    protected volatile ClassDescriptor descriptor;
     protected ClassDescriptorMap descriptorMap;
     protected String entityName;
 
@@ -51,11 +52,17 @@ public class LazyClassDescriptorDecorator implements ClassDescriptor {
 
     /**
      * Checks whether decorated descriptor is initialized, and if not, creates it using
-     * parent {@link ClassDescriptorMap}.
+     * parent {@link ClassDescriptorMap}. Descriptors are compiled under the parent map
+     * lock, as compiling one descriptor may require compiling others (e.g. a superclass
+     * descriptor).
      */
     protected void checkDescriptorInitialized() {
         if (descriptor == null) {
-            descriptor = descriptorMap.createDescriptor(entityName);
+            synchronized (descriptorMap) {
+                if (descriptor == null) {
+                    descriptor = descriptorMap.createDescriptor(entityName);
+                }
+            }
         }
     }
 
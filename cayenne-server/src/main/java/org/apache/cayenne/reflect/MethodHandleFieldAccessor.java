@@ -0,0 +1,98 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.reflect;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * A {@link FieldAccessor} that reads and writes the field via MethodHandles
+ * instead of reflective {@link java.lang.reflect.Field} calls. If handles can't
+ * be created for the field, the accessor falls back to reflection.
+ *
+ * @since 4.1
+ */
+public class MethodHandleFieldAccessor extends FieldAccessor {
+
+    private static final long serialVersionUID = 6865558836483402549L;
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    protected transient MethodHandle getter;
+    protected transient MethodHandle setter;
+
+    public MethodHandleFieldAccessor(Class<?> objectClass, String propertyName, Class<?> propertyType) {
+        super(objectClass, propertyName, propertyType);
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            this.getter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+        } catch (IllegalAccessException | RuntimeException e) {
+            this.getter = null;
+        }
+
+        try {
+            this.setter = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+        } catch (IllegalAccessException | RuntimeException e) {
+            this.setter = null;
+        }
+    }
+
+    /**
+     * Returns true if both reading and writing the field are done via
+     * MethodHandles, false if any of them fall back to reflection.
+     */
+    public boolean isUsingMethodHandles() {
+        return getter != null && setter != null;
+    }
+
+    @Override
+    public Object getValue(Object object) throws PropertyException {
+        if (getter == null) {
+            return super.getValue(object);
+        }
+
+        try {
+            return getter.invokeExact(object);
+        } catch (Throwable th) {
+            throw new PropertyException("Error reading field: " + field.getName(), this, object, th);
+        }
+    }
+
+    @Override
+    public void setValue(Object object, Object newValue) throws PropertyException {
+        if (setter == null) {
+            super.setValue(object, newValue);
+            return;
+        }
+
+        // this will take care of primitives.
+        if (newValue == null) {
+            newValue = this.nullValue;
+        }
+
+        try {
+            setter.invokeExact(object, newValue);
+        } catch (Throwable th) {
+            throw new PropertyException("Error writing field: " + field.getName(), this, object, th);
+        }
+    }
+}
@@ -36,6 +36,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A default ClassDescriptor implementation for persistent objects.
@@ -56,6 +57,9 @@ public class PersistentDescriptor implements ClassDescriptor {
 	protected Map<String, PropertyDescriptor> properties;
 
 	protected Map<String, ClassDescriptor> subclassDescriptors;
+
+	// subclass descriptors resolved via the class hierarchy, by class
+	protected Map<Class<?>, ClassDescriptor> subclassDescriptorsByClass;
 	protected Accessor persistenceStateAccessor;
 
 	protected ObjEntity entity;
@@ -79,6 +83,7 @@ public class PersistentDescriptor implements ClassDescriptor {
 		this.declaredProperties = new HashMap<>();
 		this.properties = new HashMap<>();
 		this.subclassDescriptors = new HashMap<>();
+		this.subclassDescriptorsByClass = new ConcurrentHashMap<>();
 
 		// must be a set as duplicate addition attempts are expected...
 		this.rootDbEntities = new HashSet<DbEntity>(1);
@@ -203,6 +208,7 @@ public class PersistentDescriptor implements ClassDescriptor {
 		// trigger
 		// subclassDescriptor resolution just yet to prevent stack overflow.
 		subclassDescriptors.put(className, subclassDescriptor);
+		subclassDescriptorsByClass.clear();
 	}
 
 	public ObjEntity getEntity() {
@@ -242,6 +248,17 @@ public class PersistentDescriptor implements ClassDescriptor {
 			return this;
 		}
 
+		ClassDescriptor resolved = subclassDescriptorsByClass.get(objectClass);
+		if (resolved != null) {
+			return resolved;
+		}
+
+		resolved = resolveSubclassDescriptor(objectClass);
+		subclassDescriptorsByClass.putIfAbsent(objectClass, resolved);
+		return resolved;
+	}
+
+	private ClassDescriptor resolveSubclassDescriptor(Class<?> objectClass) {
 		ClassDescriptor subclassDescriptor = subclassDescriptors.get(objectClass.getName());
 
 		// ascend via the class hierarchy (only doing it if there are multiple
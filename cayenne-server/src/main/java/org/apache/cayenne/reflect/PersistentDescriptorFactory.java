@@ -67,7 +67,7 @@ public abstract class PersistentDescriptorFactory implements ClassDescriptorFact
         descriptor.setEntity(entity);
         descriptor.setSuperclassDescriptor(superDescriptor);
         descriptor.setObjectClass(entityClass);
-        descriptor.setPersistenceStateAccessor(new BeanAccessor(entityClass, "persistenceState", Integer.TYPE));
+        descriptor.setPersistenceStateAccessor(new LambdaBeanAccessor(entityClass, "persistenceState", Integer.TYPE));
 
         // only include this entity attributes and skip superclasses...
         for (ObjAttribute attribute : descriptor.getEntity().getDeclaredAttributes()) {
@@ -295,7 +295,7 @@ public abstract class PersistentDescriptorFactory implements ClassDescriptorFact
      */
     protected Accessor createAccessor(PersistentDescriptor descriptor, String propertyName, Class<?> propertyType)
             throws PropertyException {
-        return new FieldAccessor(descriptor.getObjectClass(), propertyName, propertyType);
+        return new MethodHandleFieldAccessor(descriptor.getObjectClass(), propertyName, propertyType);
     }
 
     /**
@@ -316,7 +316,7 @@ public abstract class PersistentDescriptorFactory implements ClassDescriptorFact
      */
     protected Accessor createEmbeddableAccessor(EmbeddableDescriptor descriptor, String propertyName,
             Class<?> propertyType) {
-        return new FieldAccessor(descriptor.getObjectClass(), propertyName, propertyType);
+        return new MethodHandleFieldAccessor(descriptor.getObjectClass(), propertyName, propertyType);
     }
 
     /**
@@ -0,0 +1,196 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CompactDataRowTest {
+
+    private static final DataRowKeys KEYS = new DataRowKeys("A", "B", "C");
+
+    @Test
+    public void testPutGet() {
+        CompactDataRow row = new CompactDataRow(KEYS);
+        assertTrue(row.isEmpty());
+
+        assertNull(row.put("A", 1));
+        assertNull(row.put("B", null));
+        assertEquals(1, row.put("A", 2));
+
+        assertEquals(2, row.size());
+        assertEquals(2, row.get("A"));
+        assertTrue(row.containsKey("B"));
+        assertNull(row.get("B"));
+        assertFalse(row.containsKey("C"));
+        assertEquals("x", row.getOrDefault("C", "x"));
+    }
+
+    @Test
+    public void testOverflowKeys() {
+        CompactDataRow row = new CompactDataRow(KEYS);
+        row.put("A", 1);
+        row.put("X", 2);
+
+        assertEquals(2, row.size());
+        assertEquals(2, row.get("X"));
+        assertTrue(row.containsValue(2));
+
+        assertEquals(2, row.remove("X"));
+        assertEquals(1, row.size());
+        assertFalse(row.containsKey("X"));
+    }
+
+    @Test
+    public void testRemove() {
+        CompactDataRow row = new CompactDataRow(KEYS);
+        row.put("A", 1);
+        row.put("C", 3);
+
+        assertEquals(1, row.remove("A"));
+        assertNull(row.remove("A"));
+        assertEquals(1, row.size());
+        assertFalse(row.containsKey("A"));
+    }
+
+    @Test
+    public void testEqualsHashMap() {
+        CompactDataRow row = new CompactDataRow(KEYS);
+        row.put("A", 1);
+        row.put("B", "b");
+        row.put("X", null);
+
+        Map<String, Object> map = new HashMap<>();
+        map.put("A", 1);
+        map.put("B", "b");
+        map.put("X", null);
+
+        assertEquals(map, row);
+        assertEquals(row, map);
+        assertEquals(map.hashCode(), row.hashCode());
+        assertEquals(new DataRow(map), row);
+    }
+
+    @Test
+    public void testEntryIteratorRemove() {
+        CompactDataRow row = new CompactDataRow(KEYS);
+        row.put("A", 1);
+        row.put("C", 3);
+        row.put("X", 4);
+
+        Iterator<Map.Entry<String, Object>> it = row.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Object> e = it.next();
+            if (!"C".equals(e.getKey())) {
+                it.remove();
+            }
+        }
+
+        assertEquals(1, row.size());
+        assertEquals(3, row.get("C"));
+    }
+
+    @Test
+    public void testEntrySetValue() {
+        CompactDataRow row = new CompactDataRow(KEYS);
+        row.put("B", 1);
+
+        Map.Entry<String, Object> e = row.entrySet().iterator().next();
+        assertEquals(1, e.setValue(2));
+        assertEquals(2, row.get("B"));
+    }
+
+    @Test
+    public void testApplyDiff() {
+        CompactDataRow row = new CompactDataRow(KEYS);
+        row.put("A", 1);
+        row.put("B", 2);
+
+        DataRow diff = new DataRow(2);
+        diff.put("B", 3);
+        diff.put("X", 4);
+
+        DataRow merged = row.applyDiff(diff);
+        assertTrue(merged instanceof CompactDataRow);
+        assertEquals(3, merged.size());
+        assertEquals(1, merged.get("A"));
+        assertEquals(3, merged.get("B"));
+        assertEquals(4, merged.get("X"));
+        assertEquals(2, row.get("B"));
+    }
+
+    @Test
+    public void testCopyOf() {
+        DataRow original = new DataRow(5);
+        original.put("A", 1);
+        original.setEntityName("E1");
+        original.setReplacesVersion(5);
+
+        CompactDataRow copy = CompactDataRow.copyOf(original, KEYS);
+        assertEquals(original, copy);
+        assertEquals(original.getVersion(), copy.getVersion());
+        assertEquals(5, copy.getReplacesVersion());
+        assertEquals("E1", copy.getEntityName());
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        CompactDataRow row = new CompactDataRow(KEYS);
+        row.put("A", 1);
+        row.put("C", null);
+        row.put("X", "x");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(row);
+        }
+
+        Object deserialized;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            deserialized = in.readObject();
+        }
+
+        assertNotSame(row, deserialized);
+        assertTrue(deserialized instanceof CompactDataRow);
+        assertEquals(row, deserialized);
+        assertEquals(row.getVersion(), ((DataRow) deserialized).getVersion());
+        assertFalse(((Map<?, ?>) deserialized).containsKey("B"));
+    }
+
+    @Test
+    public void testSharedKeys() {
+        CompactDataRow r1 = new CompactDataRow(KEYS);
+        CompactDataRow r2 = new CompactDataRow(KEYS);
+        assertSame(r1.getKeys(), r2.getKeys());
+    }
+}
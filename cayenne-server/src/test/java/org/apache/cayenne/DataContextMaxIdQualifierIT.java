@@ -139,6 +139,34 @@ public class DataContextMaxIdQualifierIT extends ServerCase {
         assertEquals(2, queriesCount);
     }
 
+    @Test
+    public void testDisjointByIdPrefetch_Parallel() throws Exception {
+        insertData();
+        runtime.getDataDomain().setMaxIdQualifierSize(10);
+        runtime.getDataDomain().setPrefetchThreads(4);
+
+        try {
+            SelectQuery<Artist> query = new SelectQuery<>(Artist.class);
+            query.addPrefetch(Artist.PAINTING_ARRAY.disjointById());
+
+            final List<Artist> artists = context.select(query);
+            assertEquals(100, artists.size());
+
+            queryInterceptor.runWithQueriesBlocked(new UnitTestClosure() {
+
+                public void execute() {
+                    for (Artist a : artists) {
+                        List<Painting> paintings = a.getPaintingArray();
+                        assertEquals(1, paintings.size());
+                        assertEquals("P" + a.getArtistName().substring(2), paintings.get(0).getPaintingTitle());
+                    }
+                }
+            });
+        } finally {
+            runtime.getDataDomain().setPrefetchThreads(0);
+        }
+    }
+
     @Test
     public void testIncrementalFaultList_Lower() throws Exception {
         insertData_OneBag_100Boxes();
@@ -25,6 +25,7 @@ import org.apache.cayenne.Persistent;
 import org.apache.cayenne.annotation.PostAdd;
 import org.apache.cayenne.configuration.DefaultRuntimeProperties;
 import org.apache.cayenne.configuration.server.ServerRuntime;
+import org.apache.cayenne.dba.DbAdapter;
 import org.apache.cayenne.di.Inject;
 import org.apache.cayenne.event.DefaultEventManager;
 import org.apache.cayenne.log.JdbcEventLogger;
@@ -51,6 +52,8 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 @UseServerRuntime(CayenneProjects.TESTMAP_PROJECT)
 public class DataDomainIT extends ServerCase {
@@ -118,6 +121,33 @@ public class DataDomainIT extends ServerCase {
         assertSame(n1, domain.lookupDataNode(new DataMap("m3")));
     }
 
+    @Test
+    public void testGetMaxIdQualifierSize_Adapter() {
+
+        DataDomain domain = new DataDomain("test");
+
+        DbAdapter adapter = mock(DbAdapter.class);
+        when(adapter.getMaxIdQualifierSize()).thenReturn(1000);
+
+        DataMap m1 = new DataMap("m1");
+        DataNode n1 = new DataNode("n1");
+        n1.setAdapter(adapter);
+        n1.addDataMap(m1);
+        domain.addNode(n1);
+
+        domain.setMaxIdQualifierSize(10000);
+        assertEquals(1000, domain.getMaxIdQualifierSize(m1));
+
+        domain.setMaxIdQualifierSize(100);
+        assertEquals(100, domain.getMaxIdQualifierSize(m1));
+
+        domain.setMaxIdQualifierSize(-1);
+        assertEquals(1000, domain.getMaxIdQualifierSize(m1));
+
+        when(adapter.getMaxIdQualifierSize()).thenReturn(-1);
+        assertEquals(-1, domain.getMaxIdQualifierSize(m1));
+    }
+
     @Test
     public void testNodes() throws Exception {
         DataDomain domain = new DataDomain("dom1");
@@ -0,0 +1,223 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.access.event.CoalescedSnapshotEvent;
+import org.apache.cayenne.access.event.SnapshotEvent;
+import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.configuration.DefaultRuntimeProperties;
+import org.apache.cayenne.event.DefaultEventManager;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DataRowStoreTest {
+
+    private DataRowStore cache;
+
+    @After
+    public void cleanDataStore() {
+        if (cache != null) {
+            cache.shutdown();
+            cache = null;
+        }
+    }
+
+    private DataRowStore createCache(Map<String, String> properties) {
+        return new DataRowStore("cacheXYZ", new DefaultRuntimeProperties(properties), null);
+    }
+
+    private void addSnapshot(ObjectId id, DataRow snapshot) {
+        cache.processSnapshotChanges(
+                this,
+                Collections.singletonMap(id, snapshot),
+                Collections.<ObjectId>emptyList(),
+                Collections.<ObjectId>emptyList(),
+                Collections.<ObjectId>emptyList());
+    }
+
+    private DataRow snapshot(String entityName, int valueLength) {
+        DataRow row = new DataRow(2);
+        row.setEntityName(entityName);
+
+        StringBuilder value = new StringBuilder(valueLength);
+        for (int i = 0; i < valueLength; i++) {
+            value.append('x');
+        }
+
+        row.put("VALUE", value.toString());
+        return row;
+    }
+
+    @Test
+    public void testEntityStats() {
+        cache = createCache(Collections.<String, String>emptyMap());
+
+        ObjectId id1 = new ObjectId("E1", "ID", 1);
+        ObjectId id2 = new ObjectId("E1", "ID", 2);
+        addSnapshot(id1, snapshot("E1", 1));
+
+        assertNotNull(cache.getCachedSnapshot(id1));
+        assertNull(cache.getCachedSnapshot(id2));
+        assertNull(cache.getCachedSnapshot(id2));
+
+        DataRowStoreEntityStats stats = cache.getEntityStats().get("E1");
+        assertNotNull(stats);
+        assertEquals(1, stats.getHits());
+        assertEquals(2, stats.getMisses());
+        assertEquals(1, stats.getSize());
+
+        cache.forgetSnapshot(id1);
+        assertEquals(0, stats.getSize());
+        assertEquals(0, stats.getEvictions());
+    }
+
+    @Test
+    public void testMaxBytes() {
+        Map<String, String> props = new HashMap<>();
+        props.put(Constants.SNAPSHOT_CACHE_MAX_BYTES_PROPERTY, "100000");
+        cache = createCache(props);
+        assertEquals(100000, cache.maximumBytes());
+
+        // each snapshot takes over 20K
+        for (int i = 0; i < 20; i++) {
+            addSnapshot(new ObjectId("E1", "ID", i), snapshot("E1", 10000));
+        }
+
+        assertTrue(cache.size() < 5);
+
+        DataRowStoreEntityStats stats = cache.getEntityStats().get("E1");
+        assertEquals(cache.size(), stats.getSize());
+        assertEquals(20 - cache.size(), stats.getEvictions());
+        assertTrue(stats.getWeightedSize() <= 100000);
+    }
+
+    @Test
+    public void testEntityWeight() {
+        Map<String, String> props = new HashMap<>();
+        props.put(Constants.SNAPSHOT_CACHE_MAX_BYTES_PROPERTY, "1000000");
+        props.put(Constants.SNAPSHOT_CACHE_ENTITY_WEIGHT_PROPERTY_PREFIX + "E2", "2.0");
+        cache = createCache(props);
+
+        addSnapshot(new ObjectId("E1", "ID", 1), snapshot("E1", 1000));
+        addSnapshot(new ObjectId("E2", "ID", 1), snapshot("E2", 1000));
+
+        long w1 = cache.getEntityStats().get("E1").getWeightedSize();
+        long w2 = cache.getEntityStats().get("E2").getWeightedSize();
+        assertTrue(w1 > 2000);
+        assertEquals(2 * w1, w2);
+    }
+
+    @Test
+    public void testEntityCapacity() {
+        Map<String, String> props = new HashMap<>();
+        props.put(Constants.SNAPSHOT_CACHE_ENTITY_CAPACITY_PROPERTY_PREFIX + "E1", "3");
+        cache = createCache(props);
+
+        for (int i = 0; i < 10; i++) {
+            addSnapshot(new ObjectId("E1", "ID", i), snapshot("E1", 1));
+            addSnapshot(new ObjectId("E2", "ID", i), snapshot("E2", 1));
+        }
+
+        assertEquals(13, cache.size());
+
+        DataRowStoreEntityStats e1 = cache.getEntityStats().get("E1");
+        assertEquals(3, e1.getSize());
+        assertEquals(7, e1.getEvictions());
+
+        // oldest snapshots are evicted first
+        assertNull(cache.getCachedSnapshot(new ObjectId("E1", "ID", 0)));
+        assertNotNull(cache.getCachedSnapshot(new ObjectId("E1", "ID", 9)));
+
+        assertEquals(10, cache.getEntityStats().get("E2").getSize());
+    }
+
+    @Test
+    public void testEstimateBytes() {
+        DataRow small = snapshot("E1", 1);
+        DataRow large = snapshot("E1", 1000);
+        assertTrue(SnapshotCacheAccounting.estimateBytes(large) - SnapshotCacheAccounting.estimateBytes(small) >= 1900);
+    }
+
+    @Test
+    public void testCoalescedEvents() {
+        Map<String, String> properties = new HashMap<>();
+        properties.put(Constants.SNAPSHOT_EVENTS_COALESCE_WINDOW_PROPERTY, "60000");
+        properties.put(Constants.SNAPSHOT_EVENTS_COALESCE_MAX_BATCH_PROPERTY, "3");
+
+        DefaultEventManager eventManager = new DefaultEventManager(0);
+        cache = new DataRowStore("cacheXYZ", new DefaultRuntimeProperties(properties), eventManager);
+
+        SnapshotListener listener = new SnapshotListener();
+        eventManager.addListener(listener, "snapshotsChanged", SnapshotEvent.class, cache.getSnapshotEventSubject());
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, listener.events.size());
+            cache.processSnapshotChanges(
+                    "poster" + i,
+                    Collections.<ObjectId, DataRow>emptyMap(),
+                    Collections.singletonList(new ObjectId("E1", "ID", i)),
+                    Collections.<ObjectId>emptyList(),
+                    Collections.<ObjectId>emptyList());
+        }
+
+        // batch is full
+        assertEquals(1, listener.events.size());
+        assertTrue(listener.events.get(0) instanceof CoalescedSnapshotEvent);
+        assertSame(cache, listener.events.get(0).getPostedBy());
+        assertEquals(3, listener.events.get(0).getDeletedIds().size());
+
+        cache.processSnapshotChanges(
+                "poster3",
+                Collections.<ObjectId, DataRow>emptyMap(),
+                Collections.singletonList(new ObjectId("E1", "ID", 3)),
+                Collections.<ObjectId>emptyList(),
+                Collections.<ObjectId>emptyList());
+        assertEquals(1, listener.events.size());
+
+        // a single buffered event is posted as is
+        cache.flushSnapshotEvents();
+        assertEquals(2, listener.events.size());
+        assertEquals("poster3", listener.events.get(1).getPostedBy());
+
+        eventManager.shutdown();
+    }
+
+    public static class SnapshotListener {
+
+        final List<SnapshotEvent> events = new ArrayList<>();
+
+        public void snapshotsChanged(SnapshotEvent event) {
+            events.add(event);
+        }
+    }
+}
@@ -21,6 +21,8 @@ package org.apache.cayenne.access;
 
 import org.apache.cayenne.Cayenne;
 import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.map.EntityResolver;
+import org.apache.cayenne.query.ObjectSelect;
 import org.apache.cayenne.query.SQLTemplate;
 import org.apache.cayenne.query.SelectQuery;
 import org.apache.cayenne.query.SortOrder;
@@ -445,6 +447,44 @@ public class SingleTableInheritanceIT extends PeopleProjectCase {
         assertEquals(2, countObjectOfClass(abstractPpl, Manager.class));
     }
 
+    @Test
+    public void testSelectInheritanceResolving_Parallel() throws Exception {
+        tClientCompany.insert(1, "Citibank");
+        for (int i = 1; i <= 300; i++) {
+            switch (i % 3) {
+                case 0:
+                    tPerson.insert(i, "p" + i, "EE", 20000, null, null);
+                    break;
+                case 1:
+                    tPerson.insert(i, "p" + i, "EM", 30000, null, null);
+                    break;
+                default:
+                    tPerson.insert(i, "p" + i, "C", null, 1, null);
+                    break;
+            }
+        }
+
+        // a fresh resolver, so that subclass descriptors are not compiled yet when the rows are materialized
+        context.setEntityResolver(new EntityResolver(context.getEntityResolver().getDataMaps()));
+
+        List<AbstractPerson> people = ObjectSelect.query(AbstractPerson.class)
+                .orderBy("db:" + AbstractPerson.PERSON_ID_PK_COLUMN)
+                .parallelMaterializationThreshold(2)
+                .select(context);
+
+        assertEquals(300, people.size());
+        assertEquals(100, countObjectOfClass(people, CustomerRepresentative.class));
+        assertEquals(200, countObjectOfClass(people, Employee.class));
+        assertEquals(100, countObjectOfClass(people, Manager.class));
+
+        for (int i = 1; i <= 300; i++) {
+            AbstractPerson person = people.get(i - 1);
+            assertEquals("p" + i, person.getName());
+            assertEquals(i % 3 == 1, person instanceof Manager);
+            assertEquals(i % 3 == 2, person instanceof CustomerRepresentative);
+        }
+    }
+
     /**
      * Returns a number of objects of a particular class and subclasses in the list.
      */
@@ -0,0 +1,284 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cayenne.CayenneDataObject;
+import org.apache.cayenne.DataChannel;
+import org.apache.cayenne.DataObject;
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.PersistenceState;
+import org.apache.cayenne.Persistent;
+import org.apache.cayenne.QueryResponse;
+import org.apache.cayenne.graph.NodePropertyChangeOperation;
+import org.apache.cayenne.map.EntityResolver;
+import org.apache.cayenne.map.ObjEntity;
+import org.apache.cayenne.query.Query;
+import org.apache.cayenne.reflect.ClassDescriptor;
+import org.apache.cayenne.util.WeakValueMap;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class StripedObjectStoreTest {
+
+    private StripedObjectStore objectStore;
+
+    @Before
+    public void before() {
+        ObjectMapRetainStrategy retainStrategy = new ObjectMapRetainStrategy() {
+            @Override
+            public Map<Object, Persistent> createObjectMap() {
+                return new HashMap<>();
+            }
+        };
+
+        DataRowStore sharedCache = mock(DataRowStore.class);
+        this.objectStore = new StripedObjectStore(sharedCache, retainStrategy, 6);
+    }
+
+    @Test
+    public void testStripesCount() {
+        assertEquals(8, objectStore.getStripesCount());
+    }
+
+    @Test
+    public void testRegisterNode() {
+
+        ObjectId id = new ObjectId("E1", "ID", 500);
+        Persistent object = mock(Persistent.class);
+
+        objectStore.registerNode(id, object);
+        assertSame(object, objectStore.getNode(id));
+        assertEquals(1, objectStore.registeredObjectsCount());
+        assertEquals(1, objectStore.registeredNodes().size());
+    }
+
+    @Test
+    public void testUnregisterNode() {
+
+        ObjectId id = new ObjectId("E1", "ID", 500);
+        Persistent object = mock(Persistent.class);
+        when(object.getObjectId()).thenReturn(id);
+
+        objectStore.registerNode(id, object);
+        Object unregistered = objectStore.unregisterNode(id);
+        assertSame(object, unregistered);
+        assertNull(objectStore.getNode(id));
+
+        verify(object, times(0)).setObjectId(null);
+        verify(object).setObjectContext(null);
+        verify(object).setPersistenceState(PersistenceState.TRANSIENT);
+    }
+
+    @Test
+    public void testObjectsInState() {
+
+        Persistent o1 = mock(Persistent.class);
+        when(o1.getPersistenceState()).thenReturn(PersistenceState.COMMITTED);
+        Persistent o2 = mock(Persistent.class);
+        when(o2.getPersistenceState()).thenReturn(PersistenceState.HOLLOW);
+
+        objectStore.registerNode(new ObjectId("E1", "ID", 1), o1);
+        objectStore.registerNode(new ObjectId("E1", "ID", 2), o2);
+
+        List<Persistent> committed = objectStore.objectsInState(PersistenceState.COMMITTED);
+        assertEquals(1, committed.size());
+        assertSame(o1, committed.get(0));
+    }
+
+    @Test
+    public void testObjectsRolledBack_New() {
+
+        ObjectId id = new ObjectId("E1", "ID", 1);
+        Persistent object = mock(Persistent.class);
+        when(object.getPersistenceState()).thenReturn(PersistenceState.NEW);
+
+        objectStore.registerNode(id, object);
+        objectStore.objectsRolledBack();
+
+        assertNull(objectStore.getNode(id));
+        assertFalse(objectStore.hasChanges());
+        verify(object).setPersistenceState(PersistenceState.TRANSIENT);
+    }
+
+    @Test
+    public void testChangesMapSharesStripes() {
+        Map<Object, ObjectDiff> changes = objectStore.getChangesByObjectId();
+        assertTrue(changes instanceof StripedObjectMap);
+        assertEquals(objectStore.getStripesCount(), ((StripedObjectMap<?>) changes).stripesCount());
+    }
+
+    @Test
+    public void testConcurrentRegistration() throws Exception {
+
+        final int threads = 8;
+        final int perThread = 500;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Collection<Callable<Void>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final int offset = t * perThread;
+                tasks.add(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        for (int i = 0; i < perThread; i++) {
+                            ObjectId id = new ObjectId("E1", "ID", offset + i);
+                            Persistent object = mock(Persistent.class);
+                            objectStore.registerNode(id, object);
+                            assertSame(object, objectStore.getNode(id));
+                        }
+                        return null;
+                    }
+                });
+            }
+
+            for (Future<Void> f : executor.invokeAll(tasks)) {
+                f.get();
+            }
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(threads * perThread, objectStore.registeredObjectsCount());
+    }
+
+    @Test
+    public void testConcurrentRegisterDiff_StaleSnapshot() throws Exception {
+
+        final DataRow snapshot = new DataRow(2);
+
+        DataContext context = mock(DataContext.class);
+        EntityResolver resolver = mock(EntityResolver.class);
+        when(resolver.getClassDescriptor("E1")).thenReturn(mock(ClassDescriptor.class));
+        when(resolver.getObjEntity("E1")).thenReturn(mock(ObjEntity.class));
+        when(context.getEntityResolver()).thenReturn(resolver);
+        when(context.getObjectStore()).thenReturn(objectStore);
+
+        QueryResponse response = mock(QueryResponse.class);
+        when(response.firstList()).thenReturn(Collections.<Object> singletonList(snapshot));
+        DataChannel channel = mock(DataChannel.class);
+        when(channel.onQuery(any(ObjectContext.class), any(Query.class))).thenReturn(response);
+        when(context.getChannel()).thenReturn(channel);
+
+        final ObjectId id1 = new ObjectId("E1", "ID", 1);
+        final CayenneDataObject o1 = registerCommitted(context, id1);
+
+        // the second object is up to date and is not merged
+        final ObjectId id2 = new ObjectId("E1", "ID", 2);
+        registerCommitted(context, id2).setSnapshotVersion(snapshot.getVersion());
+
+        final CountDownLatch merging = new CountDownLatch(1);
+        when(context.nonNullDelegate()).thenReturn(new MockDataContextDelegate() {
+
+            @Override
+            public boolean shouldMergeChanges(DataObject object, DataRow snapshotInStore) {
+                merging.countDown();
+
+                // give the other thread a chance to block on the whole store, then
+                // resolve another object the way faulting does
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+
+                synchronized (objectStore) {
+                    objectStore.registerDiff(id2, new NodePropertyChangeOperation(id2, "name", null, "y"));
+                }
+                return true;
+            }
+        });
+        objectStore.setContext(context);
+
+        Thread modifier = new Thread(() ->
+                objectStore.registerDiff(id1, new NodePropertyChangeOperation(id1, "name", null, "x")));
+        Thread rollback = new Thread(() -> {
+            try {
+                merging.await();
+            } catch (InterruptedException e) {
+                return;
+            }
+            objectStore.objectsRolledBack();
+        });
+
+        modifier.setDaemon(true);
+        rollback.setDaemon(true);
+        modifier.start();
+        rollback.start();
+
+        modifier.join(5000);
+        rollback.join(5000);
+
+        assertFalse("registerDiff deadlocked", modifier.isAlive());
+        assertFalse("objectsRolledBack deadlocked", rollback.isAlive());
+        assertEquals(snapshot.getVersion(), o1.getSnapshotVersion());
+    }
+
+    private CayenneDataObject registerCommitted(DataContext context, ObjectId id) {
+        CayenneDataObject object = new CayenneDataObject();
+        object.setObjectId(id);
+        object.setObjectContext(context);
+        object.setPersistenceState(PersistenceState.COMMITTED);
+        objectStore.registerNode(id, object);
+        return object;
+    }
+
+    @Test
+    public void testStripedObjectMap_ReferenceSegments() {
+        StripedObjectMap<Persistent> map = new StripedObjectMap<>(4, WeakValueMap::new);
+
+        ObjectId id = new ObjectId("E1", "ID", 1);
+        Persistent object = mock(Persistent.class);
+
+        map.put(id, object);
+        assertSame(object, map.get(id));
+        assertEquals(1, map.size());
+
+        map.values().iterator().next();
+        map.keySet().remove(id);
+        assertTrue(map.isEmpty());
+    }
+}
@@ -0,0 +1,95 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.event;
+
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectId;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CoalescedSnapshotEventTest {
+
+    private static SnapshotEvent event(Object postedBy, Map<ObjectId, DataRow> modified, ObjectId... deleted) {
+        return new SnapshotEvent(
+                "source",
+                postedBy,
+                modified,
+                Arrays.asList(deleted),
+                Collections.<ObjectId>emptyList(),
+                Collections.<ObjectId>emptyList());
+    }
+
+    private static DataRow diff(String key, Object value) {
+        DataRow diff = new DataRow(2);
+        diff.put(key, value);
+        return diff;
+    }
+
+    @Test
+    public void testMerge() {
+        ObjectId id1 = new ObjectId("E", "ID", 1);
+        ObjectId id2 = new ObjectId("E", "ID", 2);
+
+        SnapshotEvent e1 = event("p1", Collections.singletonMap(id1, diff("A", "a1")));
+        SnapshotEvent e2 = event("p2", Collections.singletonMap(id1, diff("B", "b2")));
+        SnapshotEvent e3 = event("p1", Collections.singletonMap(id1, diff("A", "a3")));
+        SnapshotEvent e4 = event("p2", Collections.singletonMap(id2, diff("A", "x")), id2);
+
+        CoalescedSnapshotEvent event = new CoalescedSnapshotEvent("source", "store", Arrays.asList(e1, e2, e3, e4));
+
+        assertEquals(4, event.getEvents().size());
+        assertEquals(1, event.getModifiedDiffs().size());
+
+        DataRow merged = event.getModifiedDiffs().get(id1);
+        assertEquals(2, merged.size());
+        assertEquals("a3", merged.get("A"));
+        assertEquals("b2", merged.get("B"));
+
+        // deleted ids are excluded from modified
+        assertEquals(Collections.singleton(id2), event.getDeletedIds());
+        assertTrue(event.getInvalidatedIds().isEmpty());
+        assertTrue(event.getIndirectlyModifiedIds().isEmpty());
+    }
+
+    @Test
+    public void testWithout() {
+        ObjectId id1 = new ObjectId("E", "ID", 1);
+        ObjectId id2 = new ObjectId("E", "ID", 2);
+
+        SnapshotEvent e1 = event("p1", null, id1);
+        SnapshotEvent e2 = event("p2", null, id2);
+        CoalescedSnapshotEvent event = new CoalescedSnapshotEvent("source", "store", Arrays.asList(e1, e2));
+
+        assertSame(event, event.without("p3"));
+
+        SnapshotEvent withoutP1 = event.without("p1");
+        assertEquals(Collections.singleton(id2), withoutP1.getDeletedIds());
+        assertSame("store", withoutP1.getPostedBy());
+
+        assertNull(new CoalescedSnapshotEvent("source", "store", Collections.singletonList(e1)).without("p1"));
+    }
+}
@@ -0,0 +1,202 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.jdbc;
+
+import com.mockrunner.mock.jdbc.MockResultSet;
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.ResultIterator;
+import org.apache.cayenne.access.DataNode;
+import org.apache.cayenne.access.OperationObserver;
+import org.apache.cayenne.access.jdbc.reader.RowReader;
+import org.apache.cayenne.access.jdbc.reader.RowReaderFactory;
+import org.apache.cayenne.access.translator.DbAttributeBinding;
+import org.apache.cayenne.access.translator.batch.BatchTranslator;
+import org.apache.cayenne.access.translator.batch.BatchTranslatorFactory;
+import org.apache.cayenne.access.types.ExtendedTypeMap;
+import org.apache.cayenne.access.util.DoNothingOperationObserver;
+import org.apache.cayenne.dba.DbAdapter;
+import org.apache.cayenne.map.DbAttribute;
+import org.apache.cayenne.map.DbEntity;
+import org.apache.cayenne.query.InsertBatchQuery;
+import org.apache.cayenne.query.Query;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BatchActionTest {
+
+    private DbEntity entity;
+    private DbAdapter adapter;
+    private DataNode node;
+    private Connection connection;
+    private PreparedStatement statement;
+
+    @Before
+    public void before() throws Exception {
+        entity = new DbEntity("A");
+        DbAttribute id = new DbAttribute("ID", Types.INTEGER, entity);
+        id.setPrimaryKey(true);
+        id.setGenerated(true);
+        entity.addAttribute(id);
+        entity.addAttribute(new DbAttribute("NAME", Types.VARCHAR, entity));
+
+        BatchTranslator translator = mock(BatchTranslator.class);
+        when(translator.getSql()).thenReturn("INSERT INTO A (NAME) VALUES (?)");
+        when(translator.updateBindings(any())).thenReturn(new DbAttributeBinding[0]);
+
+        BatchTranslatorFactory translatorFactory = mock(BatchTranslatorFactory.class);
+        when(translatorFactory.translator(any(), any(), any())).thenReturn(translator);
+
+        adapter = mock(DbAdapter.class);
+        when(adapter.supportsGeneratedKeys()).thenReturn(true);
+        when(adapter.getExtendedTypes()).thenReturn(new ExtendedTypeMap());
+
+        node = new DataNode();
+        node.setAdapter(adapter);
+        node.setBatchTranslatorFactory(translatorFactory);
+
+        statement = mock(PreparedStatement.class);
+        connection = mock(Connection.class);
+        when(connection.prepareStatement(any(String.class))).thenReturn(statement);
+        when(connection.prepareStatement(any(String.class), any(Integer.class))).thenReturn(statement);
+    }
+
+    private InsertBatchQuery query(int rows) {
+        InsertBatchQuery query = new InsertBatchQuery(entity, rows);
+        for (int i = 0; i < rows; i++) {
+            query.add(Collections.<String, Object>singletonMap("NAME", "n" + i), new ObjectId("A"));
+        }
+        return query;
+    }
+
+    @Test
+    public void testRunAsBatch_MaxBatchSize() throws Exception {
+        node.setMaxBatchSize(2);
+        when(statement.executeBatch()).thenReturn(new int[]{1, 1}, new int[]{1, 1}, new int[]{1});
+
+        InsertBatchQuery query = query(5);
+        OperationObserver observer = mock(OperationObserver.class);
+
+        new BatchAction(query, node, true).performAction(connection, observer);
+
+        verify(statement, times(5)).addBatch();
+        verify(statement, times(3)).executeBatch();
+        verify(observer).nextBatchCount(query, new int[]{1, 1, 1, 1, 1});
+    }
+
+    @Test
+    public void testRunAsBatch_NoMaxBatchSize() throws Exception {
+        when(statement.executeBatch()).thenReturn(new int[]{1, 1, 1, 1, 1});
+
+        InsertBatchQuery query = query(5);
+        OperationObserver observer = mock(OperationObserver.class);
+
+        new BatchAction(query, node, true).performAction(connection, observer);
+
+        verify(statement, times(1)).executeBatch();
+        verify(observer).nextBatchCount(query, new int[]{1, 1, 1, 1, 1});
+    }
+
+    @Test
+    public void testRunAsBatch_GeneratedKeys() throws Exception {
+        when(adapter.supportsGeneratedKeysForBatchInserts()).thenReturn(true);
+        node.setMaxBatchSize(2);
+
+        List<DataRow> keys = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            DataRow key = new DataRow(1);
+            key.put("ID", i);
+            keys.add(key);
+        }
+
+        RowReader<?> rowReader = mock(RowReader.class);
+        doReturn(keys.get(0), keys.get(1), keys.get(2)).when(rowReader).readRow(any());
+        RowReaderFactory rowReaderFactory = mock(RowReaderFactory.class);
+        doReturn(rowReader).when(rowReaderFactory).rowReader(any(), any(), any(), any());
+        node.setRowReaderFactory(rowReaderFactory);
+
+        when(statement.executeBatch()).thenReturn(new int[]{1, 1}, new int[]{1});
+        when(statement.getGeneratedKeys()).thenReturn(keysResultSet(2), keysResultSet(1));
+
+        InsertBatchQuery query = query(3);
+        List<ObjectId> ids = new ArrayList<>();
+        List<Object> generated = new ArrayList<>();
+        OperationObserver observer = new DoNothingOperationObserver() {
+            @Override
+            public void nextGeneratedRows(Query q, ResultIterator<?> keysIterator, ObjectId idToUpdate) {
+                ids.add(idToUpdate);
+                generated.addAll(keysIterator.allRows());
+            }
+        };
+
+        new BatchAction(query, node, true).performAction(connection, observer);
+
+        verify(connection).prepareStatement(any(String.class), any(Integer.class));
+        verify(statement, times(2)).executeBatch();
+        verify(statement, times(0)).executeUpdate();
+
+        assertEquals(3, ids.size());
+        for (int i = 0; i < 3; i++) {
+            assertSame(query.getRows().get(i).getObjectId(), ids.get(i));
+            assertSame(keys.get(i), generated.get(i));
+        }
+    }
+
+    @Test
+    public void testRunAsIndividualQueries_GeneratedKeysNotSupportedInBatch() throws Exception {
+        when(statement.executeUpdate()).thenReturn(1);
+        when(statement.getGeneratedKeys()).thenReturn(keysResultSet(0));
+
+        RowReaderFactory rowReaderFactory = mock(RowReaderFactory.class);
+        doReturn(mock(RowReader.class)).when(rowReaderFactory).rowReader(any(), any(), any(), any());
+        node.setRowReaderFactory(rowReaderFactory);
+
+        InsertBatchQuery query = query(2);
+        new BatchAction(query, node, true).performAction(connection, new DoNothingOperationObserver());
+
+        verify(statement, times(0)).executeBatch();
+        verify(statement, times(2)).executeUpdate();
+    }
+
+    private MockResultSet keysResultSet(int rows) {
+        MockResultSet rs = new MockResultSet("keys");
+        Object[] values = new Object[rows];
+        for (int i = 0; i < rows; i++) {
+            values[i] = i;
+        }
+        rs.addColumn("ID", values);
+        return rs;
+    }
+}
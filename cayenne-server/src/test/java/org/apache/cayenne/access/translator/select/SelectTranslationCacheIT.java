@@ -0,0 +1,167 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.translator.select;
+
+import org.apache.cayenne.access.DataNode;
+import org.apache.cayenne.access.translator.DbAttributeBinding;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.exp.ExpressionFactory;
+import org.apache.cayenne.query.SelectQuery;
+import org.apache.cayenne.query.SortOrder;
+import org.apache.cayenne.testdo.testmap.Artist;
+import org.apache.cayenne.testdo.testmap.Painting;
+import org.apache.cayenne.unit.di.server.CayenneProjects;
+import org.apache.cayenne.unit.di.server.ServerCase;
+import org.apache.cayenne.unit.di.server.UseServerRuntime;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+@UseServerRuntime(CayenneProjects.TESTMAP_PROJECT)
+public class SelectTranslationCacheIT extends ServerCase {
+
+	@Inject
+	private DataNode dataNode;
+
+	private SelectTranslationCache cache;
+
+	@Before
+	public void createCache() {
+		cache = new SelectTranslationCache(10);
+	}
+
+	private SelectTranslator translator(SelectQuery<?> query) {
+		return cache.translator(query, dataNode.getAdapter(), dataNode.getEntityResolver());
+	}
+
+	@Test
+	public void testSameStructure() throws Exception {
+		SelectQuery<Artist> q1 = new SelectQuery<>(Artist.class, ExpressionFactory.matchExp("artistName", "a1")
+				.andExp(ExpressionFactory.greaterExp("dateOfBirth", new Date(0))));
+		q1.addOrdering("artistName", SortOrder.ASCENDING);
+
+		SelectTranslator t1 = translator(q1);
+		String sql = t1.getSql();
+		assertEquals(0, cache.getHits());
+		assertEquals(1, cache.getMisses());
+		assertEquals(1, cache.size());
+
+		Date date = new Date(1000);
+		SelectQuery<Artist> q2 = new SelectQuery<>(Artist.class, ExpressionFactory.matchExp("artistName", "a2")
+				.andExp(ExpressionFactory.greaterExp("dateOfBirth", date)));
+		q2.addOrdering("artistName", SortOrder.ASCENDING);
+
+		SelectTranslator t2 = translator(q2);
+		assertEquals(1, cache.getHits());
+		assertEquals(sql, t2.getSql());
+
+		DefaultSelectTranslator translator = new DefaultSelectTranslator(q2, dataNode.getAdapter(),
+				dataNode.getEntityResolver());
+		assertEquals(sql, translator.getSql());
+
+		DbAttributeBinding[] expected = translator.getBindings();
+		DbAttributeBinding[] bindings = t2.getBindings();
+		assertEquals(2, bindings.length);
+		assertEquals(expected.length, bindings.length);
+
+		for (int i = 0; i < bindings.length; i++) {
+			assertEquals(expected[i].getAttribute(), bindings[i].getAttribute());
+			assertEquals(expected[i].getStatementPosition(), bindings[i].getStatementPosition());
+			assertEquals(expected[i].getValue(), bindings[i].getValue());
+			assertEquals(expected[i].getExtendedType(), bindings[i].getExtendedType());
+		}
+
+		assertEquals("a2", bindings[0].getValue());
+		assertEquals(date, bindings[1].getValue());
+	}
+
+	@Test
+	public void testDifferentStructure() throws Exception {
+		translator(new SelectQuery<>(Artist.class, ExpressionFactory.matchExp("artistName", "a1"))).getSql();
+		translator(new SelectQuery<>(Artist.class, ExpressionFactory.likeExp("artistName", "a1"))).getSql();
+
+		// null changes the SQL
+		String nullSql = translator(new SelectQuery<>(Artist.class, ExpressionFactory.matchExp("artistName", null)))
+				.getSql();
+
+		// so does fetch limit
+		SelectQuery<Artist> limited = new SelectQuery<>(Artist.class, ExpressionFactory.matchExp("artistName", "a1"));
+		limited.setFetchLimit(5);
+		translator(limited).getSql();
+
+		assertEquals(0, cache.getHits());
+		assertEquals(4, cache.getMisses());
+		assertEquals(4, cache.size());
+
+		String sql = translator(new SelectQuery<>(Artist.class, ExpressionFactory.matchExp("artistName", "a2")))
+				.getSql();
+		assertEquals(1, cache.getHits());
+		assertNotEquals(nullSql, sql);
+	}
+
+	@Test
+	public void testRepeatedLiterals() throws Exception {
+		String name = "a1";
+		SelectQuery<Artist> q1 = new SelectQuery<>(Artist.class, ExpressionFactory.matchExp("artistName", name)
+				.orExp(ExpressionFactory.matchExp("artistName", name)));
+
+		// the same instance used twice is still two parameters
+		translator(q1).getSql();
+		assertEquals(1, cache.getMisses());
+		assertEquals(1, cache.size());
+
+		SelectQuery<Artist> q2 = new SelectQuery<>(Artist.class, ExpressionFactory.matchExp("artistName", "a2")
+				.orExp(ExpressionFactory.matchExp("artistName", "a3")));
+		DbAttributeBinding[] bindings = translator(q2).getBindings();
+		assertEquals(1, cache.getHits());
+		assertEquals(2, bindings.length);
+		assertEquals("a2", bindings[0].getValue());
+		assertEquals("a3", bindings[1].getValue());
+
+		SelectQuery<Artist> q3 = new SelectQuery<>(Artist.class, ExpressionFactory.matchExp("artistName", name)
+				.orExp(ExpressionFactory.matchExp("artistName", name)));
+		bindings = translator(q3).getBindings();
+		assertEquals(2, cache.getHits());
+		assertEquals(2, bindings.length);
+		assertTrue(name == bindings[0].getValue());
+		assertTrue(name == bindings[1].getValue());
+	}
+
+	@Test
+	public void testRepeatedLiterals_Boxed() throws Exception {
+		SelectQuery<Painting> q1 = new SelectQuery<>(Painting.class, ExpressionFactory.greaterExp("estimatedPrice", 1)
+				.andExp(ExpressionFactory.lessExp("estimatedPrice", 1)));
+		translator(q1).getSql();
+		assertEquals(1, cache.size());
+
+		SelectQuery<Painting> q2 = new SelectQuery<>(Painting.class, ExpressionFactory.greaterExp("estimatedPrice", 1)
+				.andExp(ExpressionFactory.lessExp("estimatedPrice", 2)));
+		DbAttributeBinding[] bindings = translator(q2).getBindings();
+		assertEquals(1, cache.getHits());
+		assertEquals(0, cache.getUncacheable());
+		assertEquals(2, bindings.length);
+		assertEquals(1, bindings[0].getValue());
+		assertEquals(2, bindings[1].getValue());
+	}
+}
@@ -0,0 +1,258 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.configuration.DefaultRuntimeProperties;
+import org.apache.cayenne.query.MockQueryMetadata;
+import org.apache.cayenne.query.QueryMetadata;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ConcurrentQueryCacheTest {
+
+    private static QueryMetadata metadata(final String group, final String key) {
+        return new MockQueryMetadata() {
+
+            @Override
+            public String getCacheKey() {
+                return key;
+            }
+
+            @Override
+            public String getCacheGroup() {
+                return group;
+            }
+        };
+    }
+
+    private static List<Object> rows(int size) {
+        List<Object> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            rows.add(i);
+        }
+        return rows;
+    }
+
+    @Test
+    public void testGetPut() {
+        ConcurrentQueryCache cache = new ConcurrentQueryCache();
+
+        assertNull(cache.get(metadata(null, "a")));
+
+        List<Object> rows = rows(3);
+        cache.put(metadata(null, "a"), rows);
+        assertSame(rows, cache.get(metadata(null, "a")));
+        assertNull(cache.get(metadata("g1", "a")));
+
+        QueryCacheGroupStats stats = cache.getGroupStats().get(MapQueryCache.DEFAULT_CACHE_NAME);
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getSize());
+        assertEquals(3, stats.getWeightedSize());
+
+        // no key - no caching
+        cache.put(metadata(null, null), rows);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testRemove() {
+        ConcurrentQueryCache cache = new ConcurrentQueryCache();
+
+        cache.put(metadata("g1", "a"), rows(1));
+        cache.put(metadata("g2", "a"), rows(1));
+        cache.put(metadata("g2", "b"), rows(1));
+        assertEquals(3, cache.size());
+
+        cache.remove("a");
+        assertEquals(1, cache.size());
+
+        assertEquals(1, cache.get(metadata("g2", "b")).size());
+        cache.removeGroup("g2");
+        assertEquals(0, cache.size());
+
+        // stats survive group removal
+        assertEquals(1, cache.getGroupStats().get("g2").getHits());
+    }
+
+    @Test
+    public void testWeightedEviction() {
+        Map<String, String> properties = new HashMap<>();
+        properties.put(Constants.QUERY_CACHE_MAX_WEIGHT_PROPERTY, "10");
+        properties.put(Constants.QUERY_CACHE_MAX_WEIGHT_PROPERTY + ".big", "1000");
+        ConcurrentQueryCache cache = new ConcurrentQueryCache(new DefaultRuntimeProperties(properties));
+
+        cache.put(metadata("small", "a"), rows(6));
+        cache.put(metadata("small", "b"), rows(6));
+        cache.put(metadata("big", "a"), rows(6));
+        cache.put(metadata("big", "b"), rows(6));
+
+        QueryCacheGroupStats small = cache.getGroupStats().get("small");
+        assertEquals(10, small.getMaxWeight());
+        assertEquals(1, small.getSize());
+        assertEquals(1, small.getEvictions());
+        assertNull(cache.get(metadata("small", "a")));
+
+        QueryCacheGroupStats big = cache.getGroupStats().get("big");
+        assertEquals(1000, big.getMaxWeight());
+        assertEquals(2, big.getSize());
+        assertEquals(0, big.getEvictions());
+
+        // empty lists weigh 1
+        cache.put(metadata("big", "c"), Collections.emptyList());
+        assertEquals(13, big.getWeightedSize());
+    }
+
+    @Test
+    public void testTtl() throws InterruptedException {
+        Map<String, String> properties = new HashMap<>();
+        properties.put(Constants.QUERY_CACHE_TTL_PROPERTY + ".short", "1");
+        ConcurrentQueryCache cache = new ConcurrentQueryCache(new DefaultRuntimeProperties(properties));
+
+        cache.put(metadata("short", "a"), rows(1));
+        cache.put(metadata("long", "a"), rows(1));
+
+        Thread.sleep(10);
+
+        assertNull(cache.get(metadata("short", "a")));
+        assertEquals(1, cache.get(metadata("long", "a")).size());
+
+        QueryCacheGroupStats stats = cache.getGroupStats().get("short");
+        assertEquals(1, stats.getTtl());
+        assertEquals(1, stats.getExpirations());
+        assertEquals(0, stats.getSize());
+        assertEquals(0, cache.getGroupStats().get("long").getTtl());
+    }
+
+    @Test
+    public void testGetWithFactory_SingleFlight() throws Exception {
+        final ConcurrentQueryCache cache = new ConcurrentQueryCache();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+        final List<Object> rows = rows(2);
+
+        final QueryCacheEntryFactory factory = new QueryCacheEntryFactory() {
+            @Override
+            public List createObject() {
+                calls.incrementAndGet();
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                return rows;
+            }
+        };
+
+        int threads = 5;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<?>>> results = new ArrayList<>();
+            results.add(executor.submit(() -> cache.get(metadata("g", "a"), factory)));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            for (int i = 1; i < threads; i++) {
+                results.add(executor.submit(() -> cache.get(metadata("g", "a"), factory)));
+            }
+
+            // let the waiting threads join the load
+            long deadline = System.currentTimeMillis() + 5000;
+            while (cache.getGroupStats().get("g").getSharedLoads() < threads - 1
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+
+            release.countDown();
+
+            for (Future<List<?>> result : results) {
+                assertSame(rows, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, calls.get());
+        assertEquals(threads - 1, cache.getGroupStats().get("g").getSharedLoads());
+        assertSame(rows, cache.get(metadata("g", "a")));
+    }
+
+    @Test
+    public void testGetWithFactory_Failure() {
+        ConcurrentQueryCache cache = new ConcurrentQueryCache();
+
+        try {
+            cache.get(metadata("g", "a"), new QueryCacheEntryFactory() {
+                @Override
+                public List createObject() {
+                    throw new IllegalStateException("boom");
+                }
+            });
+            fail("Exception expected");
+        } catch (IllegalStateException e) {
+            assertEquals("boom", e.getMessage());
+        }
+
+        // failed load is not remembered
+        List<?> result = cache.get(metadata("g", "a"), new QueryCacheEntryFactory() {
+            @Override
+            public List createObject() {
+                return Arrays.asList(1, 2);
+            }
+        });
+        assertEquals(2, result.size());
+    }
+
+    @Test
+    public void testGetWithFactory_InvalidatedDuringLoad() {
+        final ConcurrentQueryCache cache = new ConcurrentQueryCache();
+
+        List<?> result = cache.get(metadata("g", "a"), new QueryCacheEntryFactory() {
+            @Override
+            public List createObject() {
+                cache.removeGroup("g");
+                return rows(1);
+            }
+        });
+
+        // the result is returned, but not cached as it may be stale
+        assertEquals(1, result.size());
+        assertNull(cache.get(metadata("g", "a")));
+    }
+}
@@ -59,6 +59,7 @@ public class DefaultDataSourceFactoryLoaderTest {
             binder.bind(Key.get(ResourceLocator.class, Constants.SERVER_RESOURCE_LOCATOR)).to(MockResourceLocator.class);
             binder.bind(RuntimeProperties.class).toInstance(mock(RuntimeProperties.class));
             binder.bind(JdbcEventLogger.class).to(Slf4jJdbcEventLogger.class);
+            ServerModule.contributePoolingDataSourceListeners(binder);
         };
 
         this.injector = DIBootstrap.createInjector(testModule);
@@ -118,6 +119,7 @@ public class DefaultDataSourceFactoryLoaderTest {
             binder.bind(Key.get(ResourceLocator.class, Constants.SERVER_RESOURCE_LOCATOR)).to(MockResourceLocator.class);
             binder.bind(RuntimeProperties.class).toInstance(properties);
             binder.bind(JdbcEventLogger.class).to(Slf4jJdbcEventLogger.class);
+            ServerModule.contributePoolingDataSourceListeners(binder);
         };
 
         Injector injector = DIBootstrap.createInjector(testModule);
@@ -163,6 +165,7 @@ public class DefaultDataSourceFactoryLoaderTest {
             binder.bind(Key.get(ResourceLocator.class, Constants.SERVER_RESOURCE_LOCATOR)).to(MockResourceLocator.class);
             binder.bind(RuntimeProperties.class).toInstance(properties);
             binder.bind(JdbcEventLogger.class).to(Slf4jJdbcEventLogger.class);
+            ServerModule.contributePoolingDataSourceListeners(binder);
         };
 
         Injector injector = DIBootstrap.createInjector(testModule);
@@ -0,0 +1,172 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.configuration.snapshot;
+
+import org.apache.cayenne.configuration.ConfigurationNameMapper;
+import org.apache.cayenne.configuration.DataChannelDescriptor;
+import org.apache.cayenne.configuration.DataMapLoader;
+import org.apache.cayenne.configuration.DataNodeDescriptor;
+import org.apache.cayenne.configuration.DefaultConfigurationNameMapper;
+import org.apache.cayenne.configuration.xml.DataChannelMetaData;
+import org.apache.cayenne.configuration.xml.DefaultHandlerFactory;
+import org.apache.cayenne.configuration.xml.HandlerFactory;
+import org.apache.cayenne.configuration.xml.NoopDataChannelMetaData;
+import org.apache.cayenne.configuration.xml.XMLDataChannelDescriptorLoader;
+import org.apache.cayenne.configuration.xml.XMLDataMapLoader;
+import org.apache.cayenne.configuration.xml.XMLReaderProvider;
+import org.apache.cayenne.di.AdhocObjectFactory;
+import org.apache.cayenne.di.ClassLoaderManager;
+import org.apache.cayenne.di.DIBootstrap;
+import org.apache.cayenne.di.Injector;
+import org.apache.cayenne.di.Module;
+import org.apache.cayenne.di.spi.DefaultAdhocObjectFactory;
+import org.apache.cayenne.di.spi.DefaultClassLoaderManager;
+import org.apache.cayenne.map.DataMap;
+import org.apache.cayenne.resource.Resource;
+import org.apache.cayenne.resource.URLResource;
+import org.junit.Before;
+import org.junit.Test;
+import org.xml.sax.XMLReader;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class SnapshotDataChannelDescriptorLoaderTest {
+
+    private DataMapLoader dataMapLoader;
+    private Injector injector;
+
+    @Before
+    public void setUp() {
+        dataMapLoader = mock(DataMapLoader.class);
+
+        Module testModule = binder -> {
+            binder.bind(ClassLoaderManager.class).to(DefaultClassLoaderManager.class);
+            binder.bind(AdhocObjectFactory.class).to(DefaultAdhocObjectFactory.class);
+            binder.bind(DataMapLoader.class).toInstance(dataMapLoader);
+            binder.bind(ConfigurationNameMapper.class).to(DefaultConfigurationNameMapper.class);
+            binder.bind(HandlerFactory.class).to(DefaultHandlerFactory.class);
+            binder.bind(DataChannelMetaData.class).to(NoopDataChannelMetaData.class);
+            binder.bind(XMLReader.class).toProviderInstance(new XMLReaderProvider(false)).withoutScope();
+        };
+
+        this.injector = DIBootstrap.createInjector(testModule);
+    }
+
+    @Test
+    public void testSnapshotLocation() {
+        assertEquals("cayenne-project.bin", ProjectSnapshot.snapshotLocation("cayenne-project.xml"));
+        assertEquals("cayenne-project.bin", ProjectSnapshot.snapshotLocation("cayenne-project"));
+    }
+
+    @Test
+    public void testWriteRead() throws Exception {
+        Resource project = resource("cayenne-testConfig3.xml");
+
+        DataChannelDescriptor descriptor = ProjectSnapshot.read(project, snapshot(project));
+        assertNotNull(descriptor);
+        assertSame(project, descriptor.getConfigurationSource());
+
+        Iterator<DataMap> maps = descriptor.getDataMaps().iterator();
+        DataMap map1 = maps.next();
+        DataMap map2 = maps.next();
+
+        assertEquals("testConfigMap3_1", map1.getName());
+        assertEquals("testConfigMap3_2", map2.getName());
+        assertEquals(resource("testConfigMap3_2.map.xml").getURL(), map2.getConfigurationSource().getURL());
+        assertSame(descriptor, map2.getDataChannelDescriptor());
+
+        DataNodeDescriptor node = descriptor.getNodeDescriptors().iterator().next();
+        assertEquals("testConfigNode3", node.getName());
+        assertSame(project, node.getConfigurationSource());
+        assertEquals("testConfigMap3_2", node.getDataMapNames().iterator().next());
+    }
+
+    @Test
+    public void testRead_Stale() throws Exception {
+        Resource project = resource("cayenne-testConfig3.xml");
+
+        // snapshot doesn't match XML of another project
+        assertNull(ProjectSnapshot.read(resource("cayenne-testConfig2.xml"), snapshot(project)));
+    }
+
+    @Test
+    public void testLoad() throws Exception {
+        Resource project = resource("cayenne-testConfig3.xml");
+        ByteBuffer snapshot = snapshot(project);
+
+        SnapshotDataChannelDescriptorLoader loader = new SnapshotDataChannelDescriptorLoader() {
+            @Override
+            protected ByteBuffer readSnapshot(Resource snapshotResource) {
+                assertEquals(project.getRelativeResource("cayenne-testConfig3.bin").getURL(), snapshotResource.getURL());
+                return snapshot;
+            }
+        };
+        injector.injectMembers(loader);
+
+        DataChannelDescriptor descriptor = loader.load(project).getRootNode();
+        assertEquals("testConfig3", descriptor.getName());
+        assertEquals(2, descriptor.getDataMaps().size());
+
+        // no XML was parsed
+        verify(dataMapLoader, never()).load(any(Resource.class));
+    }
+
+    @Test
+    public void testLoad_NoSnapshot() throws Exception {
+        SnapshotDataChannelDescriptorLoader loader = new SnapshotDataChannelDescriptorLoader();
+        injector.injectMembers(loader);
+
+        DataChannelDescriptor descriptor = loader.load(resource("cayenne-testConfig1.xml")).getRootNode();
+        assertEquals("testConfig1", descriptor.getName());
+        assertEquals(0, descriptor.getDataMaps().size());
+    }
+
+    private ByteBuffer snapshot(Resource project) throws Exception {
+
+        XMLDataChannelDescriptorLoader xmlLoader = new XMLDataChannelDescriptorLoader();
+        DIBootstrap.createInjector(binder -> {
+            binder.bind(ClassLoaderManager.class).to(DefaultClassLoaderManager.class);
+            binder.bind(AdhocObjectFactory.class).to(DefaultAdhocObjectFactory.class);
+            binder.bind(DataMapLoader.class).to(XMLDataMapLoader.class);
+            binder.bind(ConfigurationNameMapper.class).to(DefaultConfigurationNameMapper.class);
+            binder.bind(HandlerFactory.class).to(DefaultHandlerFactory.class);
+            binder.bind(DataChannelMetaData.class).to(NoopDataChannelMetaData.class);
+            binder.bind(XMLReader.class).toProviderInstance(new XMLReaderProvider(false)).withoutScope();
+        }).injectMembers(xmlLoader);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ProjectSnapshot.write(xmlLoader.load(project).getRootNode(), out);
+        return ByteBuffer.wrap(out.toByteArray());
+    }
+
+    private Resource resource(String name) {
+        return new URLResource(XMLDataChannelDescriptorLoader.class.getResource(name));
+    }
+}
@@ -40,8 +40,11 @@ import org.junit.Test;
 import org.xml.sax.XMLReader;
 
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 
 import static org.junit.Assert.*;
 
@@ -96,6 +99,23 @@ public class XMLDataChannelDescriptorLoaderTest {
         }
     }
 
+    @Test
+    public void testLoad_MissingDataMap() throws Exception {
+
+        // create and initialize loader instance to test
+        XMLDataChannelDescriptorLoader loader = new XMLDataChannelDescriptorLoader();
+        injector.injectMembers(loader);
+
+        URL url = getClass().getResource("cayenne-testConfig6.xml");
+
+        try {
+            loader.load(new URLResource(url));
+            fail("No exception was thrown on a DataMap that failed to load");
+        } catch (ConfigurationException e) {
+            // expected
+        }
+    }
+
     @Test(expected = CayenneRuntimeException.class)
     public void loadInvalidVersion() throws Exception {
         XMLDataChannelDescriptorLoader loader = new XMLDataChannelDescriptorLoader();
@@ -136,6 +156,28 @@ public class XMLDataChannelDescriptorLoaderTest {
         assertEquals("testConfigMap2", maps.iterator().next().getName());
     }
 
+    @Test
+    public void testLoadDataMap_CustomLoaderCalledSynchronously() {
+
+        // create and initialize loader instance to test
+        XMLDataChannelDescriptorLoader loader = new XMLDataChannelDescriptorLoader();
+        injector.injectMembers(loader);
+
+        List<Thread> loadingThreads = new ArrayList<>();
+        loader.dataMapLoader = resource -> {
+            loadingThreads.add(Thread.currentThread());
+            return new DataMap();
+        };
+
+        URL url = getClass().getResource("cayenne-testConfig2.xml");
+        ConfigurationTree<DataChannelDescriptor> tree = loader.load(new URLResource(url));
+
+        Collection<DataMap> maps = tree.getRootNode().getDataMaps();
+        assertEquals(1, maps.size());
+        assertEquals("testConfigMap2", maps.iterator().next().getName());
+        assertEquals(Collections.singletonList(Thread.currentThread()), loadingThreads);
+    }
+
     @Test
     public void testLoadDataEverything() {
 
@@ -0,0 +1,75 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.datasource;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class CheckoutWaitHistogramTest {
+
+	@Test
+	public void testBucket() {
+		assertEquals(0, CheckoutWaitHistogram.bucket(0));
+		assertEquals(0, CheckoutWaitHistogram.bucket(999));
+		assertEquals(1, CheckoutWaitHistogram.bucket(1000));
+		assertEquals(2, CheckoutWaitHistogram.bucket(2000));
+		assertEquals(2, CheckoutWaitHistogram.bucket(3999));
+		assertEquals(3, CheckoutWaitHistogram.bucket(4000));
+		assertEquals(CheckoutWaitHistogram.BUCKETS - 1, CheckoutWaitHistogram.bucket(Long.MAX_VALUE));
+	}
+
+	@Test
+	public void testRecord() {
+		CheckoutWaitHistogram histogram = new CheckoutWaitHistogram();
+
+		histogram.record(500);
+		histogram.record(1500);
+		histogram.record(5000);
+
+		assertEquals(3, histogram.getCount());
+		assertEquals(7000, histogram.getTotalTime(TimeUnit.NANOSECONDS));
+		assertEquals(5000, histogram.getMaxTime(TimeUnit.NANOSECONDS));
+
+		long[] counts = histogram.getBucketCounts();
+		assertEquals(1, counts[0]);
+		assertEquals(1, counts[1]);
+		assertEquals(1, counts[3]);
+	}
+
+	@Test
+	public void testGetPercentileMicros() {
+		CheckoutWaitHistogram histogram = new CheckoutWaitHistogram();
+		assertEquals(0, histogram.getPercentileMicros(50));
+
+		for (int i = 0; i < 90; i++) {
+			histogram.record(100);
+		}
+
+		for (int i = 0; i < 10; i++) {
+			histogram.record(TimeUnit.MILLISECONDS.toNanos(3));
+		}
+
+		assertEquals(1, histogram.getPercentileMicros(50));
+		assertEquals(1, histogram.getPercentileMicros(90));
+		assertEquals(4096, histogram.getPercentileMicros(99));
+	}
+}
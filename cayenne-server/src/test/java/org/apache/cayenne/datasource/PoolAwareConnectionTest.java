@@ -18,7 +18,11 @@
  ****************************************************************/
 package org.apache.cayenne.datasource;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -28,6 +32,7 @@ import static org.mockito.Mockito.when;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -43,6 +48,7 @@ public class PoolAwareConnectionTest {
 
 		parentMock = mock(UnmanagedPoolingDataSource.class);
 		when(parentMock.createUnwrapped()).thenReturn(connectionMock);
+		when(parentMock.getMetrics()).thenReturn(new PoolingDataSourceMetrics(parentMock));
 	}
 
 	@Test
@@ -94,4 +100,142 @@ public class PoolAwareConnectionTest {
 		}
 
 	}
+
+	@Test
+	public void testPrepareStatement_Cached() throws SQLException {
+		PreparedStatement st1 = mock(PreparedStatement.class);
+		PreparedStatement st2 = mock(PreparedStatement.class);
+		when(connectionMock.prepareStatement("SELECT 1")).thenReturn(st1, st2);
+
+		PoolAwareConnection paConnection = new PoolAwareConnection(parentMock, connectionMock, null, 10);
+
+		PreparedStatement s1 = paConnection.prepareStatement("SELECT 1");
+		s1.setInt(1, 5);
+		verify(st1).setInt(1, 5);
+		assertSame(paConnection, s1.getConnection());
+
+		// statement in use is not shared
+		PreparedStatement s2 = paConnection.prepareStatement("SELECT 1");
+		assertNotSame(s1, s2);
+
+		s1.close();
+		assertTrue(s1.isClosed());
+		verify(st1, times(0)).close();
+		verify(st1).clearParameters();
+		assertEquals(1, paConnection.getStatementCacheSize());
+
+		// same SQL is already cached, the second statement is discarded
+		s2.close();
+		verify(st2).close();
+
+		PreparedStatement s3 = paConnection.prepareStatement("SELECT 1");
+		assertSame(s1, s3);
+		assertFalse(s3.isClosed());
+		verify(connectionMock, times(2)).prepareStatement("SELECT 1");
+
+		PoolingDataSourceMetrics metrics = parentMock.getMetrics();
+		assertEquals(1, metrics.getStatementCacheHits());
+		assertEquals(2, metrics.getStatementCacheMisses());
+	}
+
+	@Test
+	public void testPrepareStatement_Cached_GeneratedKeys() throws SQLException {
+		PreparedStatement st1 = mock(PreparedStatement.class);
+		PreparedStatement st2 = mock(PreparedStatement.class);
+		when(connectionMock.prepareStatement("INSERT")).thenReturn(st1);
+		when(connectionMock.prepareStatement("INSERT", Statement.RETURN_GENERATED_KEYS)).thenReturn(st2);
+
+		PoolAwareConnection paConnection = new PoolAwareConnection(parentMock, connectionMock, null, 10);
+
+		paConnection.prepareStatement("INSERT").close();
+		paConnection.prepareStatement("INSERT", Statement.RETURN_GENERATED_KEYS).close();
+		assertEquals(2, paConnection.getStatementCacheSize());
+
+		PreparedStatement s = paConnection.prepareStatement("INSERT", Statement.RETURN_GENERATED_KEYS);
+		s.executeUpdate();
+		verify(st2).executeUpdate();
+		verify(st1, times(0)).executeUpdate();
+	}
+
+	@Test
+	public void testPrepareStatement_CacheEviction() throws SQLException {
+		PreparedStatement st1 = mock(PreparedStatement.class);
+		PreparedStatement st2 = mock(PreparedStatement.class);
+		PreparedStatement st3 = mock(PreparedStatement.class);
+		when(connectionMock.prepareStatement("SELECT 1")).thenReturn(st1);
+		when(connectionMock.prepareStatement("SELECT 2")).thenReturn(st2);
+		when(connectionMock.prepareStatement("SELECT 3")).thenReturn(st3);
+
+		PoolAwareConnection paConnection = new PoolAwareConnection(parentMock, connectionMock, null, 2);
+
+		paConnection.prepareStatement("SELECT 1").close();
+		paConnection.prepareStatement("SELECT 2").close();
+
+		// make "SELECT 2" the least recently used
+		paConnection.prepareStatement("SELECT 1").close();
+		paConnection.prepareStatement("SELECT 3").close();
+
+		assertEquals(2, paConnection.getStatementCacheSize());
+		verify(st1, times(0)).close();
+		verify(st2).close();
+		verify(st3, times(0)).close();
+	}
+
+	@Test
+	public void testPrepareStatement_CacheSettingsRestored() throws SQLException {
+		PreparedStatement st1 = mock(PreparedStatement.class);
+		when(st1.getFetchSize()).thenReturn(0);
+		when(connectionMock.prepareStatement("SELECT 1")).thenReturn(st1);
+
+		PoolAwareConnection paConnection = new PoolAwareConnection(parentMock, connectionMock, null, 10);
+
+		PreparedStatement s1 = paConnection.prepareStatement("SELECT 1");
+		s1.setFetchSize(100);
+		s1.close();
+
+		verify(st1).setFetchSize(100);
+		verify(st1).setFetchSize(0);
+	}
+
+	@Test
+	public void testPrepareStatement_CacheFailedStatement() throws SQLException {
+		PreparedStatement st1 = mock(PreparedStatement.class);
+		when(st1.executeUpdate()).thenThrow(new SQLException("E1"));
+		when(connectionMock.prepareStatement("UPDATE")).thenReturn(st1);
+
+		PoolAwareConnection paConnection = new PoolAwareConnection(parentMock, connectionMock, null, 10);
+
+		PreparedStatement s1 = paConnection.prepareStatement("UPDATE");
+		try {
+			s1.executeUpdate();
+		} catch (SQLException e) {
+			// expected
+		}
+		s1.close();
+
+		verify(st1).close();
+		assertEquals(0, paConnection.getStatementCacheSize());
+	}
+
+	@Test
+	public void testPrepareStatement_CacheRecover() throws SQLException {
+		PreparedStatement st1 = mock(PreparedStatement.class);
+		PreparedStatement st2 = mock(PreparedStatement.class);
+		when(connectionMock.prepareStatement("SELECT 1")).thenReturn(st1);
+		when(connectionMock.prepareStatement("SELECT 2")).thenReturn(st2);
+
+		PoolAwareConnection paConnection = new PoolAwareConnection(parentMock, connectionMock, null, 10);
+
+		paConnection.prepareStatement("SELECT 1").close();
+		PreparedStatement s2 = paConnection.prepareStatement("SELECT 2");
+
+		paConnection.recover(new SQLException("E1"));
+		assertEquals(0, paConnection.getStatementCacheSize());
+		verify(st1).close();
+
+		// statement prepared on the old connection is not returned to the cache
+		s2.close();
+		verify(st2).close();
+		assertEquals(0, paConnection.getStatementCacheSize());
+	}
 }
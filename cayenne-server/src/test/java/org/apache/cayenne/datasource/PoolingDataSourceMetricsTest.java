@@ -0,0 +1,232 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.datasource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class PoolingDataSourceMetricsTest {
+
+	private DataSource nonPooling;
+	private PoolingDataSourceParameters params;
+	private RecordingListener listener;
+
+	@Before
+	public void before() throws SQLException {
+		nonPooling = mock(DataSource.class);
+		when(nonPooling.getConnection()).thenAnswer(new Answer<Connection>() {
+			@Override
+			public Connection answer(InvocationOnMock invocation) throws Throwable {
+				return mock(Connection.class);
+			}
+		});
+
+		listener = new RecordingListener();
+
+		params = new PoolingDataSourceParameters();
+		params.setMinConnections(1);
+		params.setMaxConnections(3);
+		params.getListeners().add(listener);
+	}
+
+	@Test
+	public void testCounts() throws SQLException {
+		UnmanagedPoolingDataSource ds = new UnmanagedPoolingDataSource(nonPooling, params);
+		PoolingDataSourceMetrics metrics = ds.getMetrics();
+
+		assertEquals(0, metrics.getActiveConnections());
+		assertEquals(1, metrics.getIdleConnections());
+		assertEquals(1, metrics.getCreatedConnections());
+		assertEquals(1, listener.created);
+
+		Connection c1 = ds.getConnection();
+		Connection c2 = ds.getConnection();
+
+		assertEquals(2, metrics.getActiveConnections());
+		assertEquals(0, metrics.getIdleConnections());
+		assertEquals(2, metrics.getCreatedConnections());
+		assertEquals(2, metrics.getCheckoutWaitHistogram().getCount());
+		assertEquals(2, listener.checkedOut);
+		assertTrue(metrics.getCreatedConnectionsPerSecond() > 0);
+
+		c1.close();
+		c2.close();
+
+		assertEquals(0, metrics.getActiveConnections());
+		assertEquals(2, metrics.getIdleConnections());
+		assertEquals(2, listener.returned);
+
+		ds.close();
+		assertEquals(2, metrics.getClosedConnections());
+		assertEquals(2, listener.closed);
+	}
+
+	@Test
+	public void testCheckoutFailed() throws SQLException {
+		params.setMaxConnections(1);
+		params.setMaxQueueWaitTime(10);
+		UnmanagedPoolingDataSource ds = new UnmanagedPoolingDataSource(nonPooling, params);
+
+		Connection c1 = ds.getConnection();
+		try {
+			ds.getConnection();
+			fail("Pool overflow not checked");
+		} catch (SQLException e) {
+			// expected
+		}
+
+		assertEquals(1, ds.getMetrics().getFailedCheckouts());
+		assertEquals(1, listener.checkoutFailed);
+		assertEquals(0, ds.getMetrics().getWaitingThreads());
+
+		c1.close();
+	}
+
+	@Test
+	public void testValidation() throws SQLException {
+		params.setValidationQuery("SELECT 1");
+
+		final PoolAwareConnection[] connections = new PoolAwareConnection[3];
+		UnmanagedPoolingDataSource ds = new UnmanagedPoolingDataSource(nonPooling, params) {
+
+			int i;
+
+			@Override
+			PoolAwareConnection createWrapped() throws SQLException {
+				PoolAwareConnection c = mock(PoolAwareConnection.class);
+				when(c.validate()).thenReturn(true);
+				when(c.getConnection()).thenReturn(mock(Connection.class));
+				connections[i++] = c;
+				return c;
+			}
+		};
+
+		// validated on creation
+		assertEquals(1, ds.getMetrics().getValidations());
+
+		when(connections[0].validate()).thenReturn(false);
+		assertNotNull(ds.getConnection());
+
+		// the first connection failed validation on checkout, then a new one
+		// was created and validated
+		assertEquals(3, ds.getMetrics().getValidations());
+		assertEquals(1, ds.getMetrics().getFailedValidations());
+		assertEquals(3, listener.validated);
+	}
+
+	@Test
+	public void testDetectLeaks() throws Exception {
+		params.setLeakDetectionThreshold(50);
+		UnmanagedPoolingDataSource ds = new UnmanagedPoolingDataSource(nonPooling, params);
+
+		Connection c1 = ds.getConnection();
+		Connection c2 = ds.getConnection();
+		c2.close();
+
+		ds.detectLeaks();
+		assertEquals(0, listener.leaks.size());
+
+		Thread.sleep(100);
+
+		ds.detectLeaks();
+		assertEquals(1, listener.leaks.size());
+		assertTrue(listener.leaks.get(0).length > 0);
+
+		// reported only once
+		ds.detectLeaks();
+		assertEquals(1, listener.leaks.size());
+
+		c1.close();
+	}
+
+	@Test
+	public void testDetectLeaks_Disabled() throws Exception {
+		UnmanagedPoolingDataSource ds = new UnmanagedPoolingDataSource(nonPooling, params);
+
+		Connection c1 = ds.getConnection();
+		Thread.sleep(10);
+
+		ds.detectLeaks();
+		assertEquals(0, listener.leaks.size());
+
+		c1.close();
+	}
+
+	static class RecordingListener implements PoolingDataSourceListener {
+
+		int created;
+		int closed;
+		int checkedOut;
+		int checkoutFailed;
+		int returned;
+		int validated;
+		List<StackTraceElement[]> leaks = new ArrayList<>();
+
+		@Override
+		public void connectionCreated() {
+			created++;
+		}
+
+		@Override
+		public void connectionClosed() {
+			closed++;
+		}
+
+		@Override
+		public void connectionCheckedOut(long waitNanos) {
+			checkedOut++;
+		}
+
+		@Override
+		public void connectionCheckoutFailed(long waitNanos) {
+			checkoutFailed++;
+		}
+
+		@Override
+		public void connectionReturned(long heldNanos) {
+			returned++;
+		}
+
+		@Override
+		public void connectionValidated(long validationNanos, boolean valid) {
+			validated++;
+		}
+
+		@Override
+		public void connectionLeakSuspected(long heldMillis, String borrowingThread, StackTraceElement[] borrowStack) {
+			leaks.add(borrowStack);
+		}
+	}
+}
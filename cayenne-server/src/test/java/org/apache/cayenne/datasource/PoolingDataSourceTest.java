@@ -91,6 +91,44 @@ public class PoolingDataSourceTest {
 		assertEquals(max - 2, ds.poolSize());
 	}
 
+	@Test
+	public void testManagePool_High_ThreadAffinity() throws SQLException {
+
+		int max = 5;
+
+		params.setMinConnections(1);
+		params.setMaxConnections(max);
+		params.setThreadAffinity(true);
+		UnmanagedPoolingDataSource ds = new UnmanagedPoolingDataSource(nonPooling, params);
+
+		Connection[] open = new Connection[max];
+		for (int i = 0; i < max; i++) {
+			open[i] = ds.getConnection();
+		}
+
+		for (Connection c : open) {
+			c.close();
+		}
+
+		// shrinking should work the same way as with the default pool
+		assertEquals(max, ds.poolSize());
+		assertEquals(max, ds.availableSize());
+		ds.managePool();
+		assertEquals(max - 1, ds.poolSize());
+		ds.managePool();
+		assertEquals(max - 2, ds.poolSize());
+		ds.managePool();
+		assertEquals(max - 2, ds.poolSize());
+		assertEquals(max - 2, ds.availableSize());
+
+		// the last returned connection is given back to this thread
+		Connection c1 = ds.getConnection();
+		c1.close();
+		assertSame(c1, ds.getConnection());
+
+		assertEquals(max + 2, ds.getCheckoutWaitHistogram().getCount());
+	}
+
 	@Test
 	public void testManagePool_Low() throws SQLException {
 
@@ -0,0 +1,177 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.datasource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.sql.Connection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ThreadAffineConnectionBagTest {
+
+	private ThreadAffineConnectionBag bag;
+	private ExecutorService executor;
+
+	@Before
+	public void before() {
+		bag = new ThreadAffineConnectionBag();
+		executor = Executors.newSingleThreadExecutor();
+	}
+
+	@After
+	public void after() {
+		executor.shutdownNow();
+	}
+
+	private PoolAwareConnection connection() {
+		return new PoolAwareConnection(null, mock(Connection.class), null);
+	}
+
+	@Test
+	public void testPoll_SameThread() {
+		PoolAwareConnection c1 = connection();
+		PoolAwareConnection c2 = connection();
+
+		assertTrue(bag.offer(c1));
+		assertTrue(bag.offer(c2));
+		assertEquals(2, bag.size());
+
+		// most recently returned connection goes first
+		assertSame(c2, bag.poll());
+		assertSame(c1, bag.poll());
+		assertNull(bag.poll());
+		assertEquals(0, bag.size());
+
+		assertTrue(bag.offer(c1));
+		assertSame(c1, bag.poll());
+	}
+
+	@Test
+	public void testPoll_OtherThread() throws Exception {
+		final PoolAwareConnection c1 = connection();
+		assertTrue(bag.offer(c1));
+
+		Future<PoolAwareConnection> polled = executor.submit(new Callable<PoolAwareConnection>() {
+			@Override
+			public PoolAwareConnection call() throws Exception {
+				return bag.poll();
+			}
+		});
+
+		assertSame(c1, polled.get(5, TimeUnit.SECONDS));
+
+		// the connection is still in this thread's cache, but must not be
+		// available
+		assertNull(bag.poll());
+	}
+
+	@Test
+	public void testOffer_Twice() {
+		PoolAwareConnection c1 = connection();
+
+		assertTrue(bag.offer(c1));
+		assertTrue(bag.offer(c1));
+		assertEquals(1, bag.size());
+
+		assertSame(c1, bag.poll());
+		assertNull(bag.poll());
+	}
+
+	@Test
+	public void testRemove() {
+		PoolAwareConnection c1 = connection();
+
+		assertTrue(bag.offer(c1));
+		assertSame(c1, bag.poll());
+		bag.remove(c1);
+
+		// returning a removed connection is ignored
+		assertTrue(bag.offer(c1));
+		assertEquals(0, bag.size());
+		assertNull(bag.poll());
+	}
+
+	@Test
+	public void testRemove_PrunesThreadCache() throws Exception {
+		final PoolAwareConnection c1 = connection();
+		assertTrue(bag.offer(c1));
+		assertEquals(1, bag.threadCacheSize());
+
+		// the connection is retired by another thread, e.g. the pool manager
+		executor.submit(new Callable<Void>() {
+			@Override
+			public Void call() throws Exception {
+				assertSame(c1, bag.poll());
+				bag.remove(c1);
+				return null;
+			}
+		}).get(5, TimeUnit.SECONDS);
+
+		assertEquals(0, bag.threadCacheSize());
+	}
+
+	@Test
+	public void testClear() {
+		bag.offer(connection());
+		bag.offer(connection());
+		assertEquals(2, bag.size());
+
+		bag.clear();
+		assertEquals(0, bag.size());
+		assertNull(bag.poll());
+	}
+
+	@Test
+	public void testPoll_Timeout() throws InterruptedException {
+		long t0 = System.currentTimeMillis();
+		assertNull(bag.poll(100));
+		assertTrue(System.currentTimeMillis() - t0 >= 100);
+	}
+
+	@Test
+	public void testPoll_Handoff() throws Exception {
+		final PoolAwareConnection c1 = connection();
+
+		Future<PoolAwareConnection> polled = executor.submit(new Callable<PoolAwareConnection>() {
+			@Override
+			public PoolAwareConnection call() throws Exception {
+				return bag.poll(10000);
+			}
+		});
+
+		// let the other thread start waiting
+		Thread.sleep(100);
+		assertTrue(bag.offer(c1));
+
+		assertSame(c1, polled.get(5, TimeUnit.SECONDS));
+		assertEquals(0, bag.size());
+	}
+}
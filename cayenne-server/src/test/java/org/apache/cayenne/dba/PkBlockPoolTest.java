@@ -0,0 +1,110 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.dba;
+
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PkBlockPoolTest {
+
+    @Test
+    public void testPoll() {
+        PkBlockPool pool = new PkBlockPool(3, 4);
+        assertEquals(PkBlockPool.NO_KEY, pool.poll());
+
+        pool.addBlock(10);
+        pool.add(20, 22);
+        assertEquals(5, pool.getAvailable());
+
+        assertEquals(10, pool.poll());
+        assertEquals(11, pool.poll());
+        assertEquals(12, pool.poll());
+        assertEquals(20, pool.poll());
+        assertEquals(21, pool.poll());
+        assertEquals(PkBlockPool.NO_KEY, pool.poll());
+        assertEquals(0, pool.getAvailable());
+    }
+
+    @Test
+    public void testRefilled_Grows() {
+        PkBlockPool pool = new PkBlockPool(10, 4);
+        assertEquals(1, pool.getBlocks());
+
+        // first refill follows a long idle period
+        assertEquals(1, pool.refilled());
+
+        // quick refills double the number of blocks up to the max
+        assertEquals(2, pool.refilled());
+        assertEquals(4, pool.refilled());
+        assertEquals(4, pool.refilled());
+    }
+
+    @Test
+    public void testStartPrefetch() {
+        PkBlockPool pool = new PkBlockPool(10, 4);
+        pool.addBlock(0);
+
+        // enough keys available
+        assertFalse(pool.startPrefetch());
+
+        for (int i = 0; i < 6; i++) {
+            pool.poll();
+        }
+
+        assertTrue(pool.startPrefetch());
+
+        // only one prefetch at a time
+        assertFalse(pool.startPrefetch());
+
+        pool.prefetchDone();
+        assertTrue(pool.startPrefetch());
+    }
+
+    @Test
+    public void testPoll_Concurrent() throws Exception {
+        PkBlockPool pool = new PkBlockPool(1000, 1);
+        for (int i = 0; i < 10; i++) {
+            pool.addBlock(i * 1000);
+        }
+
+        Set<Long> keys = ConcurrentHashMap.newKeySet();
+        int threads = 8;
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            new Thread(() -> {
+                long key;
+                while ((key = pool.poll()) != PkBlockPool.NO_KEY) {
+                    assertTrue("Duplicate key: " + key, keys.add(key));
+                }
+                done.countDown();
+            }).start();
+        }
+
+        done.await();
+        assertEquals(10000, keys.size());
+        assertEquals(0, pool.getAvailable());
+    }
+}
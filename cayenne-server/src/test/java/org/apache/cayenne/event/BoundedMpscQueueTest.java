@@ -0,0 +1,116 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.event;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BoundedMpscQueueTest {
+
+    @Test
+    public void testOfferPoll() {
+        BoundedMpscQueue<String> queue = new BoundedMpscQueue<>(3);
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+
+        assertTrue(queue.offer("a"));
+        assertTrue(queue.offer("b"));
+        assertTrue(queue.offer("c"));
+        assertFalse(queue.offer("d"));
+        assertEquals(3, queue.size());
+
+        assertEquals("a", queue.poll());
+        assertTrue(queue.offer("d"));
+
+        assertEquals("b", queue.poll());
+        assertEquals("c", queue.poll());
+        assertEquals("d", queue.poll());
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testDrainTo() {
+        BoundedMpscQueue<Integer> queue = new BoundedMpscQueue<>(10);
+        for (int i = 0; i < 5; i++) {
+            queue.offer(i);
+        }
+
+        List<Integer> list = new ArrayList<>();
+        assertEquals(3, queue.drainTo(list, 3));
+        assertEquals(2, queue.drainTo(list, 3));
+        assertEquals(0, queue.drainTo(list, 3));
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(Integer.valueOf(i), list.get(i));
+        }
+    }
+
+    @Test
+    public void testConcurrentProducers() throws Exception {
+        final BoundedMpscQueue<Integer> queue = new BoundedMpscQueue<>(64);
+        final int producers = 4;
+        final int perProducer = 10000;
+
+        final CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            final int base = p * perProducer;
+            new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!queue.offer(base + i)) {
+                        Thread.yield();
+                    }
+                }
+                done.countDown();
+            }).start();
+        }
+
+        // each producer's elements must be consumed in the order they were added
+        int[] last = new int[producers];
+        for (int p = 0; p < producers; p++) {
+            last[p] = -1;
+        }
+
+        int consumed = 0;
+        while (consumed < producers * perProducer) {
+            Integer next = queue.poll();
+            if (next == null) {
+                Thread.yield();
+                continue;
+            }
+
+            int producer = next / perProducer;
+            int index = next % perProducer;
+            assertTrue(index > last[producer]);
+            last[producer] = index;
+            consumed++;
+        }
+
+        done.await();
+        assertTrue(queue.isEmpty());
+    }
+}
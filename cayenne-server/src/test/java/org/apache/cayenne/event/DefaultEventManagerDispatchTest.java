@@ -0,0 +1,191 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.event;
+
+import org.apache.cayenne.test.parallel.ParallelTestContainer;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.EventObject;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DefaultEventManagerDispatchTest {
+
+    private static final EventSubject SUBJECT = EventSubject.getSubject(DefaultEventManagerDispatchTest.class,
+            "dispatch");
+
+    private DefaultEventManager eventManager;
+
+    @After
+    public void tearDown() {
+        if (eventManager != null) {
+            eventManager.shutdown();
+        }
+    }
+
+    @Test
+    public void testOrderPerSubject() throws Exception {
+        eventManager = new DefaultEventManager(4);
+
+        final RecordingListener listener = new RecordingListener(null);
+        eventManager.addNonBlockingListener(listener, "onEvent", EventObject.class, SUBJECT);
+
+        final EventObject[] events = new EventObject[100];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = new EventObject(this);
+            eventManager.postNonBlockingEvent(events[i], SUBJECT);
+        }
+
+        new ParallelTestContainer() {
+
+            @Override
+            protected void assertResult() throws Exception {
+                assertEquals(events.length, listener.received.size());
+            }
+        }.runTest(5000);
+
+        for (int i = 0; i < events.length; i++) {
+            assertSame(events[i], listener.received.get(i));
+        }
+
+        EventManagerMetrics metrics = eventManager.getMetrics();
+        assertEquals(0, metrics.getQueueDepth());
+        assertEquals(200, metrics.getQueuedEvents());
+        assertEquals(200, metrics.getDispatchedEvents());
+        assertTrue(metrics.getDispatchedBatches() > 0);
+    }
+
+    @Test
+    public void testOverflow_Grow() throws Exception {
+        eventManager = new DefaultEventManager(1);
+        assertSame(EventQueueOverflowPolicy.GROW, eventManager.getOverflowPolicy());
+        assertEquals(-1, eventManager.getMetrics().getQueueCapacity());
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final RecordingListener listener = new RecordingListener(release);
+        eventManager.addListener(listener, "onEvent", EventObject.class, SUBJECT);
+
+        // while the dispatch thread is busy, posting threads are never blocked
+        // and events are neither dropped nor dispatched by the posting thread
+        eventManager.postNonBlockingEvent(new EventObject(this), SUBJECT);
+        assertTrue(listener.started.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < DefaultEventManager.DEFAULT_QUEUE_CAPACITY * 2; i++) {
+            eventManager.postNonBlockingEvent(new EventObject(this), SUBJECT);
+        }
+
+        assertEquals(0, eventManager.getMetrics().getDroppedEvents());
+        assertEquals(0, eventManager.getMetrics().getCallerRunsEvents());
+        assertEquals(DefaultEventManager.DEFAULT_QUEUE_CAPACITY * 2, eventManager.getMetrics().getQueueDepth());
+
+        release.countDown();
+
+        new ParallelTestContainer() {
+
+            @Override
+            protected void assertResult() throws Exception {
+                assertEquals(DefaultEventManager.DEFAULT_QUEUE_CAPACITY * 2 + 1, listener.received.size());
+            }
+        }.runTest(5000);
+    }
+
+    @Test
+    public void testOverflow_Drop() throws Exception {
+        eventManager = new DefaultEventManager(1, 1, EventQueueOverflowPolicy.DROP);
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final RecordingListener listener = new RecordingListener(release);
+        eventManager.addListener(listener, "onEvent", EventObject.class, SUBJECT);
+
+        // the first event occupies the dispatch thread, the second one fills the
+        // queue, the third one is dropped
+        eventManager.postNonBlockingEvent(new EventObject(this), SUBJECT);
+        assertTrue(listener.started.await(5, TimeUnit.SECONDS));
+        eventManager.postNonBlockingEvent(new EventObject(this), SUBJECT);
+        eventManager.postNonBlockingEvent(new EventObject(this), SUBJECT);
+
+        assertEquals(1, eventManager.getMetrics().getDroppedEvents());
+        assertEquals(1, eventManager.getMetrics().getQueueDepth());
+
+        release.countDown();
+
+        new ParallelTestContainer() {
+
+            @Override
+            protected void assertResult() throws Exception {
+                assertEquals(2, listener.received.size());
+            }
+        }.runTest(5000);
+    }
+
+    @Test
+    public void testOverflow_CallerRuns() throws Exception {
+        eventManager = new DefaultEventManager(1, 1, EventQueueOverflowPolicy.CALLER_RUNS);
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final RecordingListener listener = new RecordingListener(release);
+        eventManager.addListener(listener, "onEvent", EventObject.class, SUBJECT);
+
+        // the first event occupies the dispatch thread, the second one fills the
+        // queue, the third one is dispatched by the posting thread
+        eventManager.postNonBlockingEvent(new EventObject(this), SUBJECT);
+        assertTrue(listener.started.await(5, TimeUnit.SECONDS));
+        eventManager.postNonBlockingEvent(new EventObject(this), SUBJECT);
+        eventManager.postNonBlockingEvent(new EventObject(this), SUBJECT);
+
+        assertEquals(1, eventManager.getMetrics().getCallerRunsEvents());
+        assertEquals(1, listener.received.size());
+
+        release.countDown();
+
+        new ParallelTestContainer() {
+
+            @Override
+            protected void assertResult() throws Exception {
+                assertEquals(3, listener.received.size());
+            }
+        }.runTest(5000);
+    }
+
+    public static class RecordingListener {
+
+        final List<EventObject> received = new CopyOnWriteArrayList<>();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release;
+
+        RecordingListener(CountDownLatch release) {
+            this.release = release;
+        }
+
+        // blocks on the first event until released
+        public void onEvent(EventObject event) throws InterruptedException {
+            if (release != null && started.getCount() > 0) {
+                started.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            received.add(event);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.exp.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.exp.ExpressionException;
+import org.apache.cayenne.exp.ExpressionFactory;
+import org.apache.cayenne.testdo.testmap.Artist;
+import org.apache.cayenne.testdo.testmap.Painting;
+import org.apache.cayenne.unit.util.TstBean;
+import org.junit.Test;
+
+public class CompiledExpressionTest {
+
+	private static void assertSameResult(Expression exp, Object... objects) {
+		CompiledExpression compiled = exp.compile();
+		for (Object o : objects) {
+			assertEquals(exp + " on " + o, exp.evaluate(o), compiled.evaluate(o));
+		}
+	}
+
+	private static Artist artist(String name) {
+		Artist artist = new Artist();
+		artist.setArtistName(name);
+		return artist;
+	}
+
+	@Test
+	public void testLike() {
+		Object[] artists = { artist("abc"), artist("ABC"), artist("xabcx"), artist("ab"), artist("abc\n"),
+				artist("x\nabc"), artist(null) };
+
+		String[] patterns = { "abc", "abc%", "%abc", "%abc%", "a%c", "a_c", "ab?", "%", "%%b%%", "a.c" };
+		for (String pattern : patterns) {
+			assertSameResult(ExpressionFactory.likeExp("artistName", pattern), artists);
+			assertSameResult(ExpressionFactory.likeIgnoreCaseExp("artistName", pattern), artists);
+			assertSameResult(ExpressionFactory.notLikeExp("artistName", pattern), artists);
+			assertSameResult(ExpressionFactory.notLikeIgnoreCaseExp("artistName", pattern), artists);
+		}
+	}
+
+	@Test
+	public void testConditions() {
+		Object[] artists = { artist("abc"), artist("b"), artist(null) };
+
+		assertSameResult(ExpressionFactory.exp("artistName = 'b'"), artists);
+		assertSameResult(ExpressionFactory.exp("artistName != 'b'"), artists);
+		assertSameResult(ExpressionFactory.exp("artistName > 'b'"), artists);
+		assertSameResult(ExpressionFactory.exp("artistName in ('a', 'b')"), artists);
+		assertSameResult(ExpressionFactory.exp("artistName between 'a' and 'b'"), artists);
+		assertSameResult(ExpressionFactory.exp("true"), artists);
+	}
+
+	@Test
+	public void testLogicalOperators() {
+		Object[] artists = { artist("abc"), artist("b"), artist(null) };
+
+		assertSameResult(ExpressionFactory.exp("artistName > 'a' and artistName < 'c'"), artists);
+		assertSameResult(ExpressionFactory.exp("artistName > 'a' or artistName = 'x'"), artists);
+		assertSameResult(ExpressionFactory.exp("not (artistName > 'a')"), artists);
+		assertSameResult(ExpressionFactory.exp("not (artistName > 'a' and artistName = 'x')"), artists);
+	}
+
+	@Test
+	public void testRelationshipPath() {
+		Artist a1 = artist("a1");
+		Painting p1 = new Painting();
+		p1.writePropertyDirectly(Painting.TO_ARTIST.getName(), a1);
+		Painting p2 = new Painting();
+
+		Expression exp = ExpressionFactory.exp("toArtist.artistName = 'a1'");
+		assertSameResult(exp, p1, p2);
+		assertTrue(exp.compile().match(p1));
+		assertFalse(exp.compile().match(p2));
+
+		assertSameResult(ExpressionFactory.exp("toArtist+.artistName"), p1, p2);
+	}
+
+	@Test
+	public void testBeanPath() {
+		TstBean b1 = new TstBean("b1", 1);
+		TstBean b2 = new TstBean("b2", 2);
+		b1.setRelatedBean(b2);
+
+		assertSameResult(ExpressionFactory.exp("relatedBean.string"), b1, b2);
+		assertSameResult(ExpressionFactory.exp("integer > 1"), b1, b2);
+		assertSameResult(ExpressionFactory.exp("integer * 2"), b1, b2);
+	}
+
+	@Test
+	public void testFilterObjects() {
+		List<Artist> artists = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			artists.add(artist("artist" + i));
+		}
+
+		Expression exp = ExpressionFactory.exp("artistName like 'artist1%'");
+		List<Artist> filtered = exp.compile().filterObjects(artists);
+		assertEquals(11, filtered.size());
+		assertEquals(filtered, exp.filterObjects(artists));
+		assertSame(artists.get(1), exp.compile().first(artists));
+	}
+
+	@Test
+	public void testEvaluate_Exception() {
+		Expression exp = ExpressionFactory.exp("artistName = $name");
+		try {
+			exp.compile().evaluate(artist("a"));
+			fail("Uninitialized parameter must cause an exception");
+		} catch (ExpressionException e) {
+			assertEquals(exp.toString(), e.getExpressionString());
+		}
+	}
+
+	@Test
+	public void testCompile_NotAffectedByChanges() {
+		Expression exp = ExpressionFactory.exp("artistName = 'a'");
+		CompiledExpression compiled = exp.compile();
+		exp.setOperand(1, "b");
+
+		assertTrue(compiled.match(artist("a")));
+		assertFalse(exp.match(artist("a")));
+	}
+}
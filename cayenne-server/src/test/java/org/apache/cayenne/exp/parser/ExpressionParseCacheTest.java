@@ -0,0 +1,123 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.exp.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.exp.ExpressionFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ExpressionParseCacheTest {
+
+	private AtomicInteger parsed;
+	private Function<String, Expression> parser;
+
+	@Before
+	public void before() {
+		parsed = new AtomicInteger();
+		parser = s -> {
+			parsed.incrementAndGet();
+			return ExpressionFactory.exp(s);
+		};
+	}
+
+	@Test
+	public void testParse() {
+		ExpressionParseCache cache = new ExpressionParseCache(10);
+
+		Expression e1 = cache.parse("a = 1 and b in ('x', 'y')", parser);
+		Expression e2 = cache.parse("a = 1 and b in ('x', 'y')", parser);
+
+		assertEquals(1, parsed.get());
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+
+		assertNotSame(e1, e2);
+		assertEquals(e1, e2);
+		assertEquals("(a = 1) and (b in (\"x\", \"y\"))", e2.toString());
+	}
+
+	@Test
+	public void testParse_CopiesAreIndependent() {
+		ExpressionParseCache cache = new ExpressionParseCache(10);
+
+		Expression e1 = cache.parse("a = $a and b in ($b, $c)", parser);
+		e1.setOperand(0, ExpressionFactory.exp("x = 1"));
+		e1 = e1.paramsArray(1, 2);
+
+		Expression e2 = cache.parse("a = $a and b in ($b, $c)", parser);
+		assertEquals("(a = $a) and (b in ($b, $c))", e2.toString());
+	}
+
+	@Test
+	public void testExp_BindsParameters() {
+		Expression e1 = ExpressionFactory.exp("a = $a and b in ($b, $c)", 1, 2, 3);
+		Expression e2 = ExpressionFactory.exp("a = $a and b in ($b, $c)", 4, 5, 6);
+
+		assertEquals("(a = 1) and (b in (2, 3))", e1.toString());
+		assertEquals("(a = 4) and (b in (5, 6))", e2.toString());
+	}
+
+	@Test
+	public void testParse_EnumNotResolved() {
+		ExpressionParseCache cache = new ExpressionParseCache(10);
+
+		// a class that doesn't exist must not fail until evaluation
+		cache.parse("a = enum:org.example.NoSuchEnum.X", parser);
+		Expression e = cache.parse("a = enum:org.example.NoSuchEnum.X", parser);
+		assertSame(ASTEnum.class, ((SimpleNode) e).jjtGetChild(1).getClass());
+	}
+
+	@Test
+	public void testParse_Disabled() {
+		ExpressionParseCache cache = new ExpressionParseCache(0);
+
+		cache.parse("a = 1", parser);
+		cache.parse("a = 1", parser);
+
+		assertEquals(2, parsed.get());
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getHits());
+	}
+
+	@Test
+	public void testSetMaxSize() {
+		ExpressionParseCache cache = new ExpressionParseCache(10);
+
+		cache.parse("a = 1", parser);
+		cache.parse("a = 2", parser);
+		cache.parse("a = 3", parser);
+		assertEquals(3, cache.size());
+
+		cache.setMaxSize(2);
+		assertEquals(2, cache.getMaxSize());
+		assertEquals(2, cache.size());
+
+		cache.setMaxSize(0);
+		cache.parse("a = 3", parser);
+		assertEquals(0, cache.getHits());
+	}
+}
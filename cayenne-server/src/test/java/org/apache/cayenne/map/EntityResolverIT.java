@@ -36,6 +36,7 @@ import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
@@ -169,6 +170,76 @@ public class EntityResolverIT extends ServerCase {
         assertSame(q2, resolver.getQueryDescriptor("query2"));
     }
 
+    @Test
+    public void testLookupMiss_KeepsMappingCache() {
+        DataMap m1 = new DataMap();
+        ObjEntity oe1 = new ObjEntity("test1");
+        oe1.setClassName(Object.class.getName());
+        m1.addObjEntity(oe1);
+        EntityResolver resolver = new EntityResolver(Collections.singleton(m1));
+
+        assertSame(oe1, resolver.getObjEntity("test1"));
+        MappingNamespace cache = resolver.mappingCache;
+
+        // unknown names must not invalidate the index used by other threads
+        assertNull(resolver.getObjEntity("test2"));
+        assertNull(resolver.getDbEntity("test2"));
+        assertNull(resolver.getObjEntity(String.class));
+        assertSame(cache, resolver.mappingCache);
+
+        ObjEntity oe2 = new ObjEntity("test2");
+        oe2.setClassName(String.class.getName());
+        m1.addObjEntity(oe2);
+
+        // ... while entities added to the DataMap are still found
+        assertSame(oe2, resolver.getObjEntity("test2"));
+        assertNotSame(cache, resolver.mappingCache);
+        assertSame(oe2, resolver.getObjEntity(String.class));
+    }
+
+    @Test
+    public void testGetDataMaps_Snapshot() {
+        DataMap m1 = new DataMap("m1");
+        DataMap m2 = new DataMap("m2");
+        EntityResolver resolver = new EntityResolver(Collections.singleton(m1));
+
+        Collection<DataMap> maps = resolver.getDataMaps();
+        resolver.addDataMap(m2);
+
+        // iterating a previously returned collection is safe while maps are added
+        assertEquals(1, maps.size());
+        assertEquals(2, resolver.getDataMaps().size());
+        assertSame(m2, resolver.getDataMap("m2"));
+
+        resolver.removeDataMap(m1);
+        assertEquals(1, resolver.getDataMaps().size());
+        assertNull(resolver.getDataMap("m1"));
+    }
+
+    @Test
+    public void testApplyDBLayerDefaultsOnFirstAccess() {
+        DataMap m1 = new DataMap("m1");
+        DbEntity e1 = new DbEntity("e1");
+        DbEntity e2 = new DbEntity("e2");
+        m1.addDbEntity(e1);
+        m1.addDbEntity(e2);
+
+        DbRelationship r1 = new DbRelationship("r1");
+        r1.setSourceEntity(e1);
+        r1.setTargetEntityName(e2);
+        e1.addRelationship(r1);
+
+        EntityResolver resolver = new EntityResolver(Collections.singleton(m1));
+        resolver.applyDBLayerDefaultsOnFirstAccess();
+
+        // reverse relationships are not created until mapping is looked up
+        assertTrue(e2.getRelationships().isEmpty());
+
+        assertSame(e2, resolver.getDbEntity("e2"));
+        assertEquals(1, e2.getRelationships().size());
+        assertTrue(e2.getRelationships().iterator().next().isRuntime());
+    }
+
     private void assertIsArtistObjEntity(ObjEntity ae) {
         assertNotNull(ae);
         assertEquals(ae, getObjEntity("Artist"));
@@ -368,6 +368,18 @@ public class ObjectSelectTest {
 		assertEquals(5, q.getStatementFetchSize());
 	}
 
+	@Test
+	public void testParallelMaterializationThreshold() {
+		ObjectSelect<Artist> q = ObjectSelect.query(Artist.class);
+
+		assertEquals(0, q.getParallelMaterializationThreshold());
+		q.parallelMaterializationThreshold(1000);
+		assertEquals(1000, q.getParallelMaterializationThreshold());
+
+		SelectQuery<?> replacement = (SelectQuery<?>) q.createReplacementQuery(null);
+		assertEquals(1000, replacement.getParallelMaterializationThreshold());
+	}
+
 	@Test
 	public void testCacheGroups_Collection() {
 		ObjectSelect<DataRow> q = ObjectSelect.dataRowQuery(Artist.class);
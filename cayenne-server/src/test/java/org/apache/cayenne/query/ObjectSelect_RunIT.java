@@ -22,16 +22,24 @@ import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.DataRow;
+import org.apache.cayenne.PersistenceState;
 import org.apache.cayenne.ResultBatchIterator;
 import org.apache.cayenne.ResultIterator;
 import org.apache.cayenne.ResultIteratorCallback;
 import org.apache.cayenne.access.DataContext;
+import org.apache.cayenne.configuration.server.ServerRuntime;
 import org.apache.cayenne.di.Inject;
 import org.apache.cayenne.exp.Expression;
 import org.apache.cayenne.exp.FunctionExpressionFactory;
@@ -39,6 +47,7 @@ import org.apache.cayenne.exp.Property;
 import org.apache.cayenne.test.jdbc.DBHelper;
 import org.apache.cayenne.test.jdbc.TableHelper;
 import org.apache.cayenne.testdo.testmap.Artist;
+import org.apache.cayenne.testdo.testmap.Painting;
 import org.apache.cayenne.unit.di.server.CayenneProjects;
 import org.apache.cayenne.unit.di.server.ServerCase;
 import org.apache.cayenne.unit.di.server.UseServerRuntime;
@@ -51,6 +60,9 @@ public class ObjectSelect_RunIT extends ServerCase {
 	@Inject
 	private DataContext context;
 
+	@Inject
+	private ServerRuntime runtime;
+
 	@Inject
 	private DBHelper dbHelper;
 
@@ -128,6 +140,119 @@ public class ObjectSelect_RunIT extends ServerCase {
 		}
 	}
 
+	@Test
+	public void test_Stream() throws Exception {
+		final int[] maxRegistered = new int[1];
+
+		try (Stream<Artist> stream = ObjectSelect.query(Artist.class).orderBy(Artist.ARTIST_NAME.asc()).stream(context, 5)) {
+			List<String> names = stream.map(a -> {
+				maxRegistered[0] = Math.max(maxRegistered[0], context.getGraphManager().registeredNodes().size());
+				return a.getArtistName();
+			}).collect(Collectors.toList());
+
+			assertEquals(20, names.size());
+			assertEquals("artist1", names.get(0));
+			assertEquals("artist10", names.get(1));
+		}
+
+		assertEquals(5, maxRegistered[0]);
+		assertEquals(0, context.getGraphManager().registeredNodes().size());
+	}
+
+	@Test
+	public void test_Stream_KeepsModifiedAndRegistered() throws Exception {
+		Artist a1 = ObjectSelect.query(Artist.class).where(Artist.ARTIST_NAME.eq("artist1")).selectOne(context);
+
+		try (Stream<Artist> stream = ObjectSelect.query(Artist.class).stream(context, 3)) {
+			stream.filter(a -> a.getArtistName().equals("artist2")).forEach(a -> a.setArtistName("x"));
+		}
+
+		assertEquals(2, context.getGraphManager().registeredNodes().size());
+		assertEquals(PersistenceState.COMMITTED, a1.getPersistenceState());
+		assertEquals(1, context.modifiedObjects().size());
+	}
+
+	@Test
+	public void test_Stream_Prefetch() throws Exception {
+		final int[] count = new int[1];
+
+		try (Stream<Painting> stream = ObjectSelect.query(Painting.class)
+				.prefetch(Painting.TO_ARTIST.disjointById())
+				.stream(context, 4)) {
+
+			stream.forEach(p -> {
+				Object artist = p.readPropertyDirectly(Painting.TO_ARTIST.getName());
+				assertThat(artist, instanceOf(Artist.class));
+				count[0]++;
+			});
+		}
+
+		assertEquals(20, count[0]);
+		assertEquals(0, context.getGraphManager().registeredNodes().size());
+	}
+
+	@Test
+	public void test_Stream_DataRows() throws Exception {
+		try (Stream<DataRow> stream = ObjectSelect.dataRowQuery(Artist.class).stream(context, 7)) {
+			assertEquals(20, stream.count());
+		}
+	}
+
+	@Test
+	public void test_ParallelMaterialization() throws Exception {
+		List<Artist> sequential = ObjectSelect.query(Artist.class).orderBy(Artist.ARTIST_NAME.asc()).select(context);
+
+		DataContext context2 = (DataContext) runtime.newContext();
+		List<Artist> parallel = ObjectSelect.query(Artist.class)
+				.orderBy(Artist.ARTIST_NAME.asc())
+				.parallelMaterializationThreshold(2)
+				.select(context2);
+
+		assertEquals(20, parallel.size());
+		assertEquals(20, context2.getGraphManager().registeredNodes().size());
+		for (int i = 0; i < sequential.size(); i++) {
+			Artist a = parallel.get(i);
+			assertEquals(sequential.get(i).getObjectId(), a.getObjectId());
+			assertEquals(sequential.get(i).getArtistName(), a.getArtistName());
+			assertEquals(PersistenceState.COMMITTED, a.getPersistenceState());
+			assertSame(context2, a.getObjectContext());
+			assertSame(a, context2.getGraphManager().getNode(a.getObjectId()));
+		}
+
+		// already registered objects must be reused
+		List<Artist> parallel2 = ObjectSelect.query(Artist.class)
+				.orderBy(Artist.ARTIST_NAME.asc())
+				.parallelMaterializationThreshold(2)
+				.select(context2);
+		for (int i = 0; i < parallel.size(); i++) {
+			assertSame(parallel.get(i), parallel2.get(i));
+		}
+	}
+
+	@Test
+	public void test_ParallelMaterialization_Prefetch() throws Exception {
+		List<Painting> paintings = ObjectSelect.query(Painting.class)
+				.orderBy(Painting.PAINTING_TITLE.asc())
+				.prefetch(Painting.TO_ARTIST.disjoint())
+				.parallelMaterializationThreshold(2)
+				.select(context);
+
+		assertEquals(20, paintings.size());
+		assertEquals("painting1", paintings.get(0).getPaintingTitle());
+		assertEquals("painting10", paintings.get(1).getPaintingTitle());
+
+		Set<Object> artists = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (Painting p : paintings) {
+			Object artist = p.readPropertyDirectly(Painting.TO_ARTIST.getName());
+			assertThat(artist, instanceOf(Artist.class));
+			assertSame(artist, context.getGraphManager().getNode(((Artist) artist).getObjectId()));
+			artists.add(artist);
+		}
+
+		// 5 distinct artists shared by 20 paintings
+		assertEquals(5, artists.size());
+	}
+
 	@Test
 	public void test_SelectDataRows() throws Exception {
 		List<DataRow> result = ObjectSelect.dataRowQuery(Artist.class).select(context);
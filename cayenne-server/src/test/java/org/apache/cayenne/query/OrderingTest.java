@@ -240,6 +240,38 @@ public class OrderingTest {
         assertEquals(list.get(0), orderedList.get(5));
     }
 
+    @Test
+    public void testOrderList_Static_NullsAndCaseInsensitive() {
+        List<TstBean> list = new ArrayList<>(6);
+
+        list.add(new TstBean("b", 1));
+        list.add(new TstBean(null, 2));
+        list.add(new TstBean("A", 3));
+        list.add(new TstBean("a", 4));
+        list.add(new TstBean(null, 5));
+        list.add(new TstBean("B", 6));
+
+        Ordering nullsLast = new Ordering("string", SortOrder.DESCENDING_INSENSITIVE);
+        nullsLast.setNullSortedFirst(false);
+
+        // a custom comparator is respected
+        Ordering custom = new Ordering("integer", SortOrder.ASCENDING) {
+            @Override
+            public int compare(Object o1, Object o2) {
+                return -super.compare(o1, o2);
+            }
+        };
+
+        List<TstBean> orderedList = new ArrayList<>(list);
+        Ordering.orderList(orderedList, asList(nullsLast, custom));
+        assertEquals(asList(list.get(5), list.get(0), list.get(3), list.get(2), list.get(4), list.get(1)), orderedList);
+
+        // equal keys keep the original order
+        orderedList = new ArrayList<>(list);
+        Ordering.orderList(orderedList, asList(nullsLast));
+        assertEquals(asList(list.get(0), list.get(5), list.get(2), list.get(3), list.get(1), list.get(4)), orderedList);
+    }
+
     @Test
     public void testOrderedList() {
         Collection<TstBean> set = new HashSet<>(6);
@@ -0,0 +1,80 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.reflect;
+
+import org.apache.cayenne.unit.util.TstBean;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MethodHandleFieldAccessorTest {
+
+    @Test
+    public void testGet() {
+        MethodHandleFieldAccessor accessor = new MethodHandleFieldAccessor(TstBean.class, "string", String.class);
+        assertEquals("string", accessor.getName());
+        assertTrue(accessor.isUsingMethodHandles());
+
+        TstBean object = new TstBean();
+        object.setString("abc");
+        assertEquals("abc", accessor.getValue(object));
+    }
+
+    @Test
+    public void testSetValue() {
+        TstFields object = new TstFields();
+
+        new MethodHandleFieldAccessor(TstFields.class, "stringField", String.class).setValue(object, "aaa");
+        assertEquals("aaa", object.stringField);
+
+        byte[] bytes = new byte[] { 1, 2, 3 };
+        new MethodHandleFieldAccessor(TstFields.class, "byteArrayField", byte[].class).setValue(object, bytes);
+        assertSame(bytes, object.byteArrayField);
+    }
+
+    @Test
+    public void testSetValuePrimitive() {
+        TstFields object = new TstFields();
+        MethodHandleFieldAccessor accessor = new MethodHandleFieldAccessor(TstFields.class, "intField", Integer.TYPE);
+
+        accessor.setValue(object, 6);
+        assertEquals(6, object.intField);
+        assertEquals(6, accessor.getValue(object));
+
+        // null is written as a default value of the primitive
+        accessor.setValue(object, null);
+        assertEquals(0, object.intField);
+    }
+
+    @Test
+    public void testSetValue_WrongType() {
+        TstFields object = new TstFields();
+        MethodHandleFieldAccessor accessor = new MethodHandleFieldAccessor(TstFields.class, "stringField", String.class);
+
+        try {
+            accessor.setValue(object, 5);
+            fail("Exception expected");
+        } catch (PropertyException e) {
+            assertSame(accessor, e.getAccessor());
+        }
+    }
+}
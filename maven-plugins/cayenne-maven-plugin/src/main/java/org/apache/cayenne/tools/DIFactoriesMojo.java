@@ -0,0 +1,191 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.tools;
+
+import org.apache.maven.model.Resource;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+import org.slf4j.Logger;
+
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maven mojo that generates DI injection factories for the classes bound in Cayenne
+ * modules, so that ServerRuntime can create its services without reflection. Generated
+ * sources and the factories index are added to the project compile sources and
+ * resources.
+ * <p>
+ * Modules and the generator are loaded from the project compile classpath in a
+ * ClassLoader isolated from the plugin's own Cayenne classes, so that factories match
+ * the Cayenne version and the classes the project is built with.
+ * </p>
+ *
+ * @since 4.1
+ */
+@Mojo(name = "di-factories", defaultPhase = LifecyclePhase.GENERATE_SOURCES,
+        requiresDependencyResolution = ResolutionScope.COMPILE)
+public class DIFactoriesMojo extends AbstractMojo {
+
+    static final String GENERATOR_CLASS = "org.apache.cayenne.di.spi.InjectionFactoryGenerator";
+    static final String MODULE_CLASS = "org.apache.cayenne.di.Module";
+    static final String MODULE_LOADER_CLASS = "org.apache.cayenne.di.spi.ModuleLoader";
+    static final String SERVER_MODULE_CLASS = "org.apache.cayenne.configuration.server.ServerModule";
+    static final String SERVER_MODULE_PROVIDER_CLASS = "org.apache.cayenne.configuration.server.CayenneServerModuleProvider";
+
+    @Parameter(defaultValue = "${project}", readonly = true, required = true)
+    private MavenProject project;
+
+    @Parameter(defaultValue = "${project.compileClasspathElements}", readonly = true, required = true)
+    private List<String> classpathElements;
+
+    /**
+     * Names of DI module classes to generate factories for. Modules must have a no-arg
+     * constructor and be available on the project dependencies classpath. If not set,
+     * ServerModule is used.
+     */
+    @Parameter
+    private String[] modules;
+
+    /**
+     * Whether to also include the modules auto-loaded by ServerRuntimeBuilder from the
+     * project dependencies. Default is <code>true</code>.
+     */
+    @Parameter(defaultValue = "true")
+    private boolean autoLoadModules;
+
+    /**
+     * Names of additional classes instantiated by the injector, e.g. those created via
+     * AdhocObjectFactory.
+     */
+    @Parameter
+    private String[] types;
+
+    /**
+     * Destination directory for generated factory sources.
+     */
+    @Parameter(defaultValue = "${project.build.directory}/generated-sources/cayenne-di")
+    private File destDir;
+
+    /**
+     * Destination directory for the factories index.
+     */
+    @Parameter(defaultValue = "${project.build.directory}/generated-resources/cayenne-di")
+    private File resourceDir;
+
+    public void execute() throws MojoExecutionException, MojoFailureException {
+
+        Logger logger = new MavenLogger(this);
+
+        Thread thread = Thread.currentThread();
+        ClassLoader oldLoader = thread.getContextClassLoader();
+
+        try (URLClassLoader loader = createClassLoader()) {
+
+            // auto-loaded modules are looked up via context ClassLoader
+            thread.setContextClassLoader(loader);
+
+            Class<?> generatorClass = Class.forName(GENERATOR_CLASS, true, loader);
+            Object generator = generatorClass.getConstructor().newInstance();
+
+            Method addModule = generatorClass.getMethod("addModule", Class.forName(MODULE_CLASS, false, loader));
+            for (Object module : loadModules(loader)) {
+                addModule.invoke(generator, module);
+            }
+
+            if (types != null) {
+                Method addType = generatorClass.getMethod("addType", Class.class);
+                for (String type : types) {
+                    addType.invoke(generator, Class.forName(type, false, loader));
+                }
+            }
+
+            Map<?, ?> index = (Map<?, ?>) generatorClass.getMethod("generate", File.class, File.class)
+                    .invoke(generator, destDir, resourceDir);
+            Map<?, ?> skipped = (Map<?, ?>) generatorClass.getMethod("getSkipped").invoke(generator);
+
+            for (Map.Entry<?, ?> e : skipped.entrySet()) {
+                logger.debug(String.format("skipped %s: %s", ((Class<?>) e.getKey()).getName(), e.getValue()));
+            }
+
+            logger.info(String.format("generated %d injection factories, %d classes skipped", index.size(),
+                    skipped.size()));
+        } catch (InvocationTargetException e) {
+            throw new MojoExecutionException("Error generating injection factories", e.getCause());
+        } catch (Exception e) {
+            throw new MojoExecutionException("Error generating injection factories", e);
+        } finally {
+            thread.setContextClassLoader(oldLoader);
+        }
+
+        project.addCompileSourceRoot(destDir.getAbsolutePath());
+
+        Resource resource = new Resource();
+        resource.setDirectory(resourceDir.getAbsolutePath());
+        project.addResource(resource);
+    }
+
+    /**
+     * Creates a ClassLoader of the project compile classpath. Its parent is the JDK
+     * platform ClassLoader, so no Cayenne classes are shared with the plugin.
+     */
+    private URLClassLoader createClassLoader() throws Exception {
+
+        URL[] urls = new URL[classpathElements.size()];
+        for (int i = 0; i < urls.length; i++) {
+            urls[i] = new File(classpathElements.get(i)).toURI().toURL();
+        }
+
+        return new URLClassLoader(urls, ClassLoader.getSystemClassLoader().getParent());
+    }
+
+    private List<Object> loadModules(ClassLoader loader) throws Exception {
+
+        List<Object> result = new ArrayList<>();
+
+        String[] moduleNames = modules == null || modules.length == 0 ? new String[]{SERVER_MODULE_CLASS} : modules;
+        for (String module : moduleNames) {
+            Class<?> moduleClass = Class.forName(module, true, loader);
+            result.add(moduleClass.getDeclaredConstructor().newInstance());
+        }
+
+        if (autoLoadModules) {
+            Class<?> moduleLoaderClass = Class.forName(MODULE_LOADER_CLASS, true, loader);
+            Object moduleLoader = moduleLoaderClass.getConstructor().newInstance();
+            Collection<?> autoLoaded = (Collection<?>) moduleLoaderClass.getMethod("load", Class.class)
+                    .invoke(moduleLoader, Class.forName(SERVER_MODULE_PROVIDER_CLASS, false, loader));
+            result.addAll(autoLoaded);
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,94 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.tools;
+
+import org.apache.cayenne.configuration.DataChannelDescriptor;
+import org.apache.cayenne.configuration.DataChannelDescriptorLoader;
+import org.apache.cayenne.configuration.snapshot.ProjectSnapshot;
+import org.apache.cayenne.dbsync.DbSyncModule;
+import org.apache.cayenne.dbsync.reverse.configuration.ToolsModule;
+import org.apache.cayenne.di.DIBootstrap;
+import org.apache.cayenne.di.Injector;
+import org.apache.cayenne.resource.URLResource;
+import org.apache.cayenne.util.Util;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.slf4j.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+
+/**
+ * Maven mojo that writes a binary snapshot of a Cayenne project next to the project XML,
+ * so that ServerRuntime can load the project without parsing XML. Runs after the project
+ * resources are copied to the output directory, and snapshots the copied XML.
+ *
+ * @since 4.1
+ */
+@Mojo(name = "snapshot", defaultPhase = LifecyclePhase.PROCESS_CLASSES)
+public class ProjectSnapshotMojo extends AbstractMojo {
+
+    /**
+     * Project XML file to make a snapshot of. The snapshot is written to the same
+     * directory.
+     */
+    @Parameter(defaultValue = "${project.build.outputDirectory}/cayenne-project.xml")
+    private File projectFile;
+
+    public void execute() throws MojoExecutionException, MojoFailureException {
+
+        Logger logger = new MavenLogger(this);
+
+        if (!projectFile.isFile()) {
+            throw new MojoFailureException("Project file not found: " + projectFile);
+        }
+
+        File snapshotFile = new File(projectFile.getParentFile(),
+                ProjectSnapshot.snapshotLocation(projectFile.getName()));
+
+        logger.info("Writing project snapshot " + snapshotFile);
+
+        Injector injector = DIBootstrap.createInjector(new DbSyncModule(), new ToolsModule(logger));
+
+        try {
+            DataChannelDescriptor descriptor = injector.getInstance(DataChannelDescriptorLoader.class)
+                    .load(new URLResource(projectFile.toURI().toURL())).getRootNode();
+
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(snapshotFile))) {
+                ProjectSnapshot.write(descriptor, out);
+            }
+        } catch (Exception ex) {
+            snapshotFile.delete();
+
+            Throwable th = Util.unwindException(ex);
+            String message = "Error writing project snapshot";
+            if (th.getLocalizedMessage() != null) {
+                message += ": " + th.getLocalizedMessage();
+            }
+            logger.error(message);
+            throw new MojoExecutionException(message, th);
+        }
+    }
+}